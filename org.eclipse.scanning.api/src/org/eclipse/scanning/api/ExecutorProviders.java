@@ -0,0 +1,158 @@
+package org.eclipse.scanning.api;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the {@link IExecutorProvider} used by the scanning and event code. 
+ * 
+ * The provider is chosen by setting org.eclipse.scanning.executor to "platform",
+ * the default, or "virtual". It may also be set while the server runs, the threads
+ * created after it is set use the new provider. 
+ * 
+ * Virtual threads need Java 21 or later. The bundles are compiled for earlier
+ * versions of Java so the virtual thread API is found when the provider is created.
+ * If it is not there, the platform provider is used instead.
+ * 
+ * @author Matthew Gerring
+ *
+ */
+public final class ExecutorProviders {
+	
+	public static final String PLATFORM = "platform";
+	public static final String VIRTUAL  = "virtual";
+
+	private static volatile IExecutorProvider provider;
+	
+	private ExecutorProviders() {
+		// Static methods only
+	}
+	
+	/**
+	 * 
+	 * @return the provider which has been set or the one selected by 
+	 * org.eclipse.scanning.executor if none has.
+	 */
+	public static IExecutorProvider getProvider() {
+		IExecutorProvider ret = provider;
+		if (ret==null) {
+			ret = VIRTUAL.equalsIgnoreCase(System.getProperty("org.eclipse.scanning.executor", PLATFORM))
+				? createVirtualProvider()
+				: createPlatformProvider();
+			provider = ret;
+		}
+		return ret;
+	}
+	
+	/**
+	 * Set the provider which is used from now on.
+	 * @param provider or null to choose again from org.eclipse.scanning.executor
+	 */
+	public static void setProvider(IExecutorProvider provider) {
+		ExecutorProviders.provider = provider;
+	}
+	
+	/**
+	 * 
+	 * @return a provider of platform threads.
+	 */
+	public static IExecutorProvider createPlatformProvider() {
+		return new PlatformProvider();
+	}
+
+	/**
+	 * 
+	 * @return a provider of virtual threads or of platform threads if 
+	 * virtual threads are not available in this JVM.
+	 */
+	public static IExecutorProvider createVirtualProvider() {
+		try {
+			return new VirtualProvider();
+		} catch (ReflectiveOperationException ne) {
+			return createPlatformProvider();
+		}
+	}
+
+	/**
+	 * 
+	 * @return true if this JVM has virtual threads.
+	 */
+	public static boolean isVirtualAvailable() {
+		return createVirtualProvider().isVirtual();
+	}
+
+	private static final class PlatformProvider implements IExecutorProvider {
+
+		@Override
+		public Thread newThread(String name, boolean daemon, Runnable runnable) {
+			final Thread thread = new Thread(runnable, name);
+			thread.setDaemon(daemon);
+			return thread;
+		}
+
+		@Override
+		public ExecutorService newExecutor(final String name, int threads) {
+			final AtomicInteger count = new AtomicInteger();
+			return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					return PlatformProvider.this.newThread(name+" "+count.incrementAndGet(), true, r);
+				}
+			});
+		}
+
+		@Override
+		public boolean isVirtual() {
+			return false;
+		}
+	}
+
+	/**
+	 * Uses Thread.ofVirtual() and Executors.newThreadPerTaskExecutor(..)
+	 * which are found by reflection.
+	 */
+	private static final class VirtualProvider implements IExecutorProvider {
+
+		private final Method ofVirtual, name, factory, newThreadPerTaskExecutor;
+
+		VirtualProvider() throws ReflectiveOperationException {
+			final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			this.ofVirtual                = Thread.class.getMethod("ofVirtual");
+			this.name                     = builder.getMethod("name", String.class, long.class);
+			this.factory                  = builder.getMethod("factory");
+			this.newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+		}
+
+		private ThreadFactory createFactory(String prefix) {
+			try {
+				return (ThreadFactory)factory.invoke(name.invoke(ofVirtual.invoke(null), prefix, 1L));
+			} catch (ReflectiveOperationException ne) {
+				throw new IllegalStateException("Cannot create virtual threads", ne);
+			}
+		}
+
+		@Override
+		public Thread newThread(String name, boolean daemon, Runnable runnable) {
+			final Thread thread = createFactory(name).newThread(runnable);
+			thread.setName(name);
+			return thread;
+		}
+
+		@Override
+		public ExecutorService newExecutor(String name, int threads) {
+			try {
+				return (ExecutorService)newThreadPerTaskExecutor.invoke(null, createFactory(name+" "));
+			} catch (ReflectiveOperationException ne) {
+				throw new IllegalStateException("Cannot create virtual threads", ne);
+			}
+		}
+
+		@Override
+		public boolean isVirtual() {
+			return true;
+		}
+	}
+}
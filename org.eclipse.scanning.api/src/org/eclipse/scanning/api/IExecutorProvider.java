@@ -0,0 +1,43 @@
+package org.eclipse.scanning.api;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates the threads which scans and events run in. The threads are
+ * platform threads normally, or virtual threads if they are available
+ * and have been selected, so that devices which block on I/O such as
+ * EPICS moves, JMS and file writing do not each hold a platform thread.
+ * 
+ * Use {@link ExecutorProviders#getProvider()} to get the provider in use.
+ * 
+ * @author Matthew Gerring
+ *
+ */
+public interface IExecutorProvider {
+
+	/**
+	 * Create a thread which is not started.
+	 * 
+	 * @param name of the thread
+	 * @param daemon true for a daemon thread. Virtual threads are always daemon threads.
+	 * @param runnable
+	 * @return the thread
+	 */
+	Thread newThread(String name, boolean daemon, Runnable runnable);
+	
+	/**
+	 * Create an executor which runs tasks in parallel. 
+	 * 
+	 * @param name of the threads of the executor
+	 * @param threads the number of platform threads of the executor. A virtual
+	 *        executor creates a virtual thread for each task.
+	 * @return the executor
+	 */
+	ExecutorService newExecutor(String name, int threads);
+	
+	/**
+	 * 
+	 * @return true if the threads created are virtual threads.
+	 */
+	boolean isVirtual();
+}
@@ -52,4 +52,22 @@ public interface IScannable<T> extends ILevel, INameable, IConfigurable<Scannabl
 		return null;
 	}
 
+	/**
+	 * The lower limit of the position, which the scan checks every position 
+	 * against before it starts. Only numeric limits are checked.
+	 * @return the lower limit or null if there is none.
+	 */
+	default T getMinimum() {
+		return null;
+	}
+
+	/**
+	 * The upper limit of the position, which the scan checks every position 
+	 * against before it starts. Only numeric limits are checked.
+	 * @return the upper limit or null if there is none.
+	 */
+	default T getMaximum() {
+		return null;
+	}
+
 }
@@ -0,0 +1,39 @@
+package org.eclipse.scanning.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service which prepares itself when it starts, for instance by reading
+ * its extensions and loading the classes which it creates, so that the first
+ * scan after the server starts is as fast as the scans after it.
+ *
+ * A service which has not been warmed up prepares itself when it is first
+ * used instead.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public interface IWarmable {
+
+	/**
+	 * Start preparing the service in the background, if it has not been started.
+	 * Returns immediately.
+	 */
+	void warmUp();
+
+	/**
+	 *
+	 * @return true if the service has been prepared.
+	 */
+	boolean isReady();
+
+	/**
+	 * Wait for the service to be prepared.
+	 *
+	 * @param time
+	 * @param unit
+	 * @return true if the service is ready, false if the time ran out.
+	 * @throws InterruptedException
+	 */
+	boolean awaitReady(long time, TimeUnit unit) throws InterruptedException;
+}
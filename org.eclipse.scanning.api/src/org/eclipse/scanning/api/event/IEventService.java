@@ -69,6 +69,18 @@ public interface IEventService {
 	 * The default topic used for terminate events.
 	 */
 	public static final String KILL_TOPIC = "org.eclipse.scanning.terminate.topic";
+	
+	/**
+	 * The default topic used for the timings of running scans, which are
+	 * published periodically as ScanBeans.
+	 */
+	public static final String SCAN_METRICS_TOPIC = "org.eclipse.scanning.scan.metrics.topic";
+
+	/**
+	 * The default topic used for the load on each consumer and its queue,
+	 * which is published periodically as QueueStatsBeans.
+	 */
+	public static final String QUEUE_STATS_TOPIC = "org.eclipse.scanning.queue.stats.topic";
 
 	/**
 	 * The default queue used for holding status events.
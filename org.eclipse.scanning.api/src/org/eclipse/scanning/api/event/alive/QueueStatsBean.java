@@ -0,0 +1,374 @@
+package org.eclipse.scanning.api.event.alive;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * A snapshot of the load on a queue, sent by each consumer every now and then
+ * on the IEventService.QUEUE_STATS_TOPIC. The counts and times are for the
+ * rolling window before the snapshot was taken, so a client can show how busy
+ * the queue is without browsing it.
+ *
+ * The wait and run times are histograms with a bucket for each power of two ms,
+ * bucket 0 counts times under 1ms and bucket i times from 2^(i-1) up to 2^i ms.
+ * Trailing empty buckets are not sent. Snapshots from the consumers of one
+ * queue may be merged to give the statistics of the queue.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class QueueStatsBean {
+
+	/**
+	 * The number of buckets in the wait and run time histograms,
+	 * the last bucket counts everything from about 12 days up.
+	 */
+	public static final int BUCKETS = 32;
+
+	private UUID    consumerId;    // null if the snapshot is merged from several consumers
+	private String  consumerName;
+	private String  hostName;
+	private String  queueName;
+	private long    publishTime;
+	private long    period;        // ms between snapshots
+	private long    window;        // ms which the counts cover
+	private int     consumers = 1;
+	private int     queueDepth;    // -1 if the consumer did not count the queue
+	private long    oldestWaiting; // ms since the oldest bean waiting was submitted, -1 if not known
+	private int     running;
+	private long    started;
+	private long    completed;
+	private long    failed;
+	private long    terminated;
+	private long    total;         // Beans finished since the consumer started
+	private long    busyTime;      // ms spent running beans in the window
+	private long[]  waitTimes;
+	private long[]  runTimes;
+
+	/**
+	 *
+	 * @param ms
+	 * @return the bucket of the histograms which counts a time.
+	 */
+	public static int bucket(long ms) {
+		if (ms<1) return 0;
+		return Math.min(BUCKETS-1, 64-Long.numberOfLeadingZeros(ms));
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 * @return the middle of the times counted in a bucket in ms.
+	 */
+	public static long value(int bucket) {
+		if (bucket<2) return bucket;
+		return 3L<<(bucket-2);
+	}
+
+	/**
+	 * Merges the snapshots from the consumers of one queue.
+	 *
+	 * @param beans
+	 * @return the statistics of the queue or null if there are none.
+	 */
+	public static QueueStatsBean merge(Collection<QueueStatsBean> beans) {
+
+		if (beans==null || beans.isEmpty()) return null;
+		final QueueStatsBean ret = new QueueStatsBean();
+		ret.consumers     = 0;
+		ret.queueDepth    = -1;
+		ret.oldestWaiting = -1;
+		for (QueueStatsBean bean : beans) {
+			if (ret.queueName==null) ret.queueName = bean.queueName;
+			ret.publishTime   = Math.max(ret.publishTime, bean.publishTime);
+			ret.period        = Math.max(ret.period, bean.period);
+			ret.window        = Math.max(ret.window, bean.window);
+			ret.consumers    += bean.consumers;
+			ret.queueDepth    = Math.max(ret.queueDepth, bean.queueDepth); // One of them counts the queue
+			ret.oldestWaiting = Math.max(ret.oldestWaiting, bean.oldestWaiting);
+			ret.running      += bean.running;
+			ret.started      += bean.started;
+			ret.completed    += bean.completed;
+			ret.failed       += bean.failed;
+			ret.terminated   += bean.terminated;
+			ret.total        += bean.total;
+			ret.busyTime     += bean.busyTime;
+			ret.waitTimes     = add(ret.waitTimes, bean.waitTimes);
+			ret.runTimes      = add(ret.runTimes, bean.runTimes);
+		}
+		return ret;
+	}
+
+	private static long[] add(long[] a, long[] b) {
+		if (b==null) return a;
+		if (a==null) return b.clone();
+		final long[] ret = Arrays.copyOf(a, Math.max(a.length, b.length));
+		for (int i = 0; i < b.length; i++) ret[i]+=b[i];
+		return ret;
+	}
+
+	/**
+	 *
+	 * @return the fraction of the time in the window that the consumers were running beans.
+	 * This may be more than one if a consumer runs beans at the same time.
+	 */
+	public double utilisation() {
+		if (window<1 || consumers<1) return 0;
+		return busyTime/((double)window*consumers);
+	}
+
+	/**
+	 *
+	 * @return the number of beans finished per hour over the window.
+	 */
+	public double throughput() {
+		if (window<1) return 0;
+		return (completed+failed+terminated)*(60*60*1000d)/window;
+	}
+
+	/**
+	 *
+	 * @param fraction for instance 0.5 for the median or 0.9 for the 90th percentile
+	 * @return the approximate time the beans started in the window waited in the queue
+	 * in ms or -1 if none started.
+	 */
+	public long waitTime(double fraction) {
+		return percentile(waitTimes, fraction);
+	}
+
+	/**
+	 *
+	 * @param fraction for instance 0.5 for the median or 0.9 for the 90th percentile
+	 * @return the approximate time the beans finished in the window ran for
+	 * in ms or -1 if none finished.
+	 */
+	public long runTime(double fraction) {
+		return percentile(runTimes, fraction);
+	}
+
+	private static long percentile(long[] buckets, double fraction) {
+		if (buckets==null) return -1;
+		long count = 0;
+		for (long c : buckets) count+=c;
+		if (count<1) return -1;
+
+		final long rank = Math.max(1, (long)Math.ceil(count*fraction));
+		long cumulative = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			cumulative+=buckets[i];
+			if (cumulative>=rank) return value(i);
+		}
+		return value(buckets.length-1);
+	}
+
+	public UUID getConsumerId() {
+		return consumerId;
+	}
+	public void setConsumerId(UUID consumerId) {
+		this.consumerId = consumerId;
+	}
+	public String getConsumerName() {
+		return consumerName;
+	}
+	public void setConsumerName(String consumerName) {
+		this.consumerName = consumerName;
+	}
+	public String getHostName() {
+		return hostName;
+	}
+	public void setHostName(String hostName) {
+		this.hostName = hostName;
+	}
+	public String getQueueName() {
+		return queueName;
+	}
+	public void setQueueName(String queueName) {
+		this.queueName = queueName;
+	}
+	public long getPublishTime() {
+		return publishTime;
+	}
+	public void setPublishTime(long publishTime) {
+		this.publishTime = publishTime;
+	}
+	public long getPeriod() {
+		return period;
+	}
+	public void setPeriod(long period) {
+		this.period = period;
+	}
+	public long getWindow() {
+		return window;
+	}
+	public void setWindow(long window) {
+		this.window = window;
+	}
+	public int getConsumers() {
+		return consumers;
+	}
+	public void setConsumers(int consumers) {
+		this.consumers = consumers;
+	}
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+	public void setQueueDepth(int queueDepth) {
+		this.queueDepth = queueDepth;
+	}
+	public long getOldestWaiting() {
+		return oldestWaiting;
+	}
+	public void setOldestWaiting(long oldestWaiting) {
+		this.oldestWaiting = oldestWaiting;
+	}
+	public int getRunning() {
+		return running;
+	}
+	public void setRunning(int running) {
+		this.running = running;
+	}
+	public long getStarted() {
+		return started;
+	}
+	public void setStarted(long started) {
+		this.started = started;
+	}
+	public long getCompleted() {
+		return completed;
+	}
+	public void setCompleted(long completed) {
+		this.completed = completed;
+	}
+	public long getFailed() {
+		return failed;
+	}
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+	public long getTerminated() {
+		return terminated;
+	}
+	public void setTerminated(long terminated) {
+		this.terminated = terminated;
+	}
+	public long getTotal() {
+		return total;
+	}
+	public void setTotal(long total) {
+		this.total = total;
+	}
+	public long getBusyTime() {
+		return busyTime;
+	}
+	public void setBusyTime(long busyTime) {
+		this.busyTime = busyTime;
+	}
+	public long[] getWaitTimes() {
+		return waitTimes;
+	}
+	public void setWaitTimes(long[] waitTimes) {
+		this.waitTimes = waitTimes;
+	}
+	public long[] getRunTimes() {
+		return runTimes;
+	}
+	public void setRunTimes(long[] runTimes) {
+		this.runTimes = runTimes;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (busyTime ^ (busyTime >>> 32));
+		result = prime * result + (int) (completed ^ (completed >>> 32));
+		result = prime * result + ((consumerId == null) ? 0 : consumerId.hashCode());
+		result = prime * result + ((consumerName == null) ? 0 : consumerName.hashCode());
+		result = prime * result + consumers;
+		result = prime * result + (int) (failed ^ (failed >>> 32));
+		result = prime * result + ((hostName == null) ? 0 : hostName.hashCode());
+		result = prime * result + (int) (oldestWaiting ^ (oldestWaiting >>> 32));
+		result = prime * result + (int) (period ^ (period >>> 32));
+		result = prime * result + (int) (publishTime ^ (publishTime >>> 32));
+		result = prime * result + queueDepth;
+		result = prime * result + ((queueName == null) ? 0 : queueName.hashCode());
+		result = prime * result + Arrays.hashCode(runTimes);
+		result = prime * result + running;
+		result = prime * result + (int) (started ^ (started >>> 32));
+		result = prime * result + (int) (terminated ^ (terminated >>> 32));
+		result = prime * result + (int) (total ^ (total >>> 32));
+		result = prime * result + Arrays.hashCode(waitTimes);
+		result = prime * result + (int) (window ^ (window >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		QueueStatsBean other = (QueueStatsBean) obj;
+		if (busyTime != other.busyTime)
+			return false;
+		if (completed != other.completed)
+			return false;
+		if (consumerId == null) {
+			if (other.consumerId != null)
+				return false;
+		} else if (!consumerId.equals(other.consumerId))
+			return false;
+		if (consumerName == null) {
+			if (other.consumerName != null)
+				return false;
+		} else if (!consumerName.equals(other.consumerName))
+			return false;
+		if (consumers != other.consumers)
+			return false;
+		if (failed != other.failed)
+			return false;
+		if (hostName == null) {
+			if (other.hostName != null)
+				return false;
+		} else if (!hostName.equals(other.hostName))
+			return false;
+		if (oldestWaiting != other.oldestWaiting)
+			return false;
+		if (period != other.period)
+			return false;
+		if (publishTime != other.publishTime)
+			return false;
+		if (queueDepth != other.queueDepth)
+			return false;
+		if (queueName == null) {
+			if (other.queueName != null)
+				return false;
+		} else if (!queueName.equals(other.queueName))
+			return false;
+		if (!Arrays.equals(runTimes, other.runTimes))
+			return false;
+		if (running != other.running)
+			return false;
+		if (started != other.started)
+			return false;
+		if (terminated != other.terminated)
+			return false;
+		if (total != other.total)
+			return false;
+		if (!Arrays.equals(waitTimes, other.waitTimes))
+			return false;
+		if (window != other.window)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "QueueStatsBean [consumerName=" + consumerName + ", queueName=" + queueName + ", queueDepth=" + queueDepth
+				+ ", running=" + running + ", started=" + started + ", completed=" + completed + ", failed=" + failed
+				+ ", terminated=" + terminated + ", window=" + window + ", busyTime=" + busyTime + "]";
+	}
+}
@@ -0,0 +1,149 @@
+package org.eclipse.scanning.api.event.bean;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copies the properties of one bean to another.
+ *
+ * The bean class is introspected once and a getter and setter handle
+ * is kept for each read/write property, so copying does not look up
+ * or check access to methods on each call as BeanInfo and Method.invoke
+ * do. Copiers are cached per class and are thread safe.
+ *
+ * Usage:
+ * <code>
+ *   BeanCopier.get(MalcolmEventBean.class).copyIfNull(template, event);
+ * </code>
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class BeanCopier {
+
+	private static final ClassValue<BeanCopier> copiers = new ClassValue<BeanCopier>() {
+		@Override
+		protected BeanCopier computeValue(Class<?> type) {
+			try {
+				return new BeanCopier(type);
+			} catch (IntrospectionException | IllegalAccessException ne) {
+				throw new IllegalArgumentException("Cannot read the properties of "+type, ne);
+			}
+		}
+	};
+
+	/**
+	 * Get the copier for a class, creating it the first time.
+	 *
+	 * @param type
+	 * @return the copier
+	 * @throws IllegalArgumentException if the properties of the class cannot be read
+	 */
+	public static BeanCopier get(Class<?> type) {
+		return copiers.get(type);
+	}
+
+	private final Class<?>       type;
+	private final List<Property> properties;
+
+	private BeanCopier(Class<?> type) throws IntrospectionException, IllegalAccessException {
+
+		this.type = type;
+
+		final MethodHandles.Lookup lookup   = MethodHandles.publicLookup();
+		final MethodType           getType  = MethodType.methodType(Object.class, Object.class);
+		final MethodType           setType  = MethodType.methodType(void.class, Object.class, Object.class);
+
+		final BeanInfo       info  = Introspector.getBeanInfo(type);
+		final List<Property> props = new ArrayList<Property>();
+		for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
+			// Only copy writable attributes
+			if (descriptor.getReadMethod()==null || descriptor.getWriteMethod()==null) continue;
+			final MethodHandle getter = lookup.unreflect(descriptor.getReadMethod()).asType(getType);
+			final MethodHandle setter = lookup.unreflect(descriptor.getWriteMethod()).asType(setType);
+			props.add(new Property(descriptor.getName(), getter, setter));
+		}
+		this.properties = Collections.unmodifiableList(props);
+	}
+
+	/**
+	 * Puts the template values in the bean where the bean's value is null.
+	 * Primitive properties are never null so are not copied.
+	 *
+	 * @param template
+	 * @param destination
+	 * @throws InvocationTargetException if a getter or setter throws an exception
+	 */
+	public void copyIfNull(Object template, Object destination) throws InvocationTargetException {
+		check(template, destination);
+		for (Property property : properties) {
+			try {
+				if (property.getter.invokeExact(destination)==null) {
+					property.setter.invokeExact(destination, property.getter.invokeExact(template));
+				}
+			} catch (Throwable t) {
+				throw wrap(property, t);
+			}
+		}
+	}
+
+	/**
+	 * Copies every read/write property of the source to the destination.
+	 *
+	 * @param source
+	 * @param destination
+	 * @throws InvocationTargetException if a getter or setter throws an exception
+	 */
+	public void copy(Object source, Object destination) throws InvocationTargetException {
+		check(source, destination);
+		for (Property property : properties) {
+			try {
+				property.setter.invokeExact(destination, property.getter.invokeExact(source));
+			} catch (Throwable t) {
+				throw wrap(property, t);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the names of the properties copied
+	 */
+	public List<String> getPropertyNames() {
+		final List<String> names = new ArrayList<String>(properties.size());
+		for (Property property : properties) names.add(property.name);
+		return names;
+	}
+
+	private void check(Object from, Object to) {
+		if (!type.isInstance(from) || !type.isInstance(to)) {
+			throw new ClassCastException("Both beans must be instances of "+type.getName());
+		}
+	}
+
+	private static InvocationTargetException wrap(Property property, Throwable t) {
+		if (t instanceof Error) throw (Error)t;
+		return new InvocationTargetException(t, "Cannot copy property "+property.name);
+	}
+
+	private static final class Property {
+		private final String       name;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		Property(String name, MethodHandle getter, MethodHandle setter) {
+			this.name   = name;
+			this.getter = getter;
+			this.setter = setter;
+		}
+	}
+}
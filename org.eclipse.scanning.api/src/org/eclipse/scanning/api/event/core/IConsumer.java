@@ -88,7 +88,22 @@ public interface IConsumer<T> extends IQueueConnection<T> {
 	 * @return the current active process which will run jobs 
 	 */
 	IProcessCreator<T> getRunner();
-	
+
+	/**
+	 * Set the scheduler which chooses the bean to run next from those
+	 * waiting in the submission queue. If the runner is an IPreparingCreator,
+	 * the bean after the one running is prepared while it runs.
+	 *
+	 * @param scheduler or null to run the beans in the order of the queue.
+	 */
+	void setScheduler(IScheduler<T> scheduler);
+
+	/**
+	 *
+	 * @return the scheduler or null if the beans run in the order of the queue.
+	 */
+	IScheduler<T> getScheduler();
+
 	/**
 	 * The topic used to terminate the running process and get the consumer to stop.
 	 * @return topic name
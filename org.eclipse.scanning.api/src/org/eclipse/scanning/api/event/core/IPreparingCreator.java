@@ -0,0 +1,42 @@
+package org.eclipse.scanning.api.event.core;
+
+import org.eclipse.scanning.api.event.EventException;
+
+/**
+ * A process creator which can prepare the process for a bean before it
+ * is run. A consumer with a scheduler asks its creator to prepare the
+ * bean which it will run next while the current bean runs, so that back
+ * to back jobs do not wait for each other to be set up.
+ *
+ * What is prepared is up to the creator, for instance a scan may create its
+ * point generator and configure its devices. The consumer calls
+ * createProcess(...) as usual when the bean runs and the creator should use
+ * what it prepared for the bean, if anything. The bean may be run before it
+ * has finished being prepared, so createProcess(...) should wait for the
+ * preparation or set the bean up again.
+ *
+ * @author Matthew Gerring
+ *
+ * @param <T>
+ */
+public interface IPreparingCreator<T> extends IProcessCreator<T> {
+
+	/**
+	 * Prepare to run a bean, called on a thread of its own while another bean
+	 * runs. The bean is not running and might never run.
+	 *
+	 * @param bean
+	 * @throws EventException if the bean cannot be prepared, it will be set up
+	 * when it runs instead.
+	 */
+	void prepare(T bean) throws EventException;
+
+	/**
+	 * The bean which was prepared will not run next, for instance because a
+	 * bean with a higher priority was submitted or it was terminated. Free
+	 * what was prepared for it. The bean may be prepared again later.
+	 *
+	 * @param bean
+	 */
+	void release(T bean);
+}
@@ -3,6 +3,7 @@ package org.eclipse.scanning.api.event.core;
 import java.util.List;
 
 import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.status.StatusQuery;
 
 public interface IQueueConnection<T> extends IURIConnection {
 	
@@ -46,6 +47,17 @@ public interface IQueueConnection<T> extends IURIConnection {
 	 *   If field is set, it will be used to order the beans in the list by making a comparitor using it.
 	 */
 	public List<T> getQueue(String queueName, String fieldName) throws EventException;
+
+	/**
+	 * This method will read the beans of a queue or a set from ActiveMQ which match the query.
+	 * Unlike getQueue(...) the whole queue is not returned, the beans are filtered as the
+	 * queue is browsed and browsing stops as soon as an unsorted query has enough beans.
+	 * 
+	 * @param queueName
+	 * @param query
+	 *   The filters, sort field and page to read. If null the whole queue is returned unsorted.
+	 */
+	public List<T> queryQueue(String queueName, StatusQuery query) throws EventException;
 	
 	/**
 	 * This method will purge the queue
@@ -0,0 +1,41 @@
+package org.eclipse.scanning.api.event.core;
+
+import java.util.List;
+
+/**
+ * A scheduler decides which of the beans waiting in the submission queue
+ * a consumer runs next. Without a scheduler the consumer runs the beans
+ * in the order of the JMS queue.
+ *
+ * The consumer asks the scheduler to order the waiting beans each time it
+ * is ready to run one, and tells it when each bean starts and finishes so
+ * that it may share the consumer fairly, for instance between users.
+ *
+ * @author Matthew Gerring
+ *
+ * @param <T> The bean class used for the Queue
+ */
+public interface IScheduler<T> {
+
+	/**
+	 * Order the beans waiting to run, the first is run next and the second
+	 * may be prepared while the first runs.
+	 *
+	 * @param waiting the beans in the order of the JMS queue, not changed.
+	 * @return a new list of the beans to run, in the order to run them. Beans
+	 * which should not run yet may be left out.
+	 */
+	List<T> schedule(List<T> waiting);
+
+	/**
+	 * Called when the consumer starts running a bean.
+	 * @param bean
+	 */
+	void started(T bean);
+
+	/**
+	 * Called when a bean which was started reaches a final status.
+	 * @param bean
+	 */
+	void finished(T bean);
+}
@@ -1,5 +1,7 @@
 package org.eclipse.scanning.api.event.core;
 
+import java.util.Collection;
+
 import org.eclipse.scanning.api.event.EventException;
 
 /**
@@ -23,6 +25,21 @@ public interface ISubmitter<T> extends IQueueConnection<T> {
 	 */
 	void submit(T bean, boolean prepareBean) throws EventException;
 	
+	/**
+	 * Send several submissions on to the queue in one transaction, either all
+	 * of the beans are queued or none of them are. The beans are prepared as
+	 * in submit(bean) and queued in the order of the collection, each with its
+	 * own unique id and submission time.
+	 * 
+	 * This is much faster than submitting the beans one at a time because
+	 * they share one connection and the broker is only waited for once.
+	 * 
+	 * @param beans
+	 * @throws EventException if the beans cannot be submitted, in which case none are
+	 * and the beans are left as they were.
+	 */
+	void submitAll(Collection<T> beans) throws EventException;
+	
 	/**
 	 * Tries to remove the bean from the set
 	 * 
@@ -65,4 +82,14 @@ public interface ISubmitter<T> extends IQueueConnection<T> {
 	 */
 	public long getTimestamp();
 	public void setTimestamp(long timestamp);
+
+	/**
+	 * If true the submitter does not wait for the broker to receive each message,
+	 * if the JMS provider can do this. A bean sent by submit(...) might then be
+	 * lost without an error. submitAll(...) still waits for its transaction
+	 * to commit, so it remains all or nothing.
+	 * @return
+	 */
+	public boolean isAsynchronous();
+	public void setAsynchronous(boolean asynchronous);
 }
@@ -1,6 +1,7 @@
 package org.eclipse.scanning.api.event.scan;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.eclipse.scanning.api.event.status.Status;
 import org.eclipse.scanning.api.event.status.StatusBean;
@@ -50,6 +51,9 @@ public final class ScanBean extends StatusBean {
 	private int     scanNumber;
     private int[]   oldShape;
     private int[]   newShape;
+    
+    // Where the time per point went, set at the end of the scan.
+    private List<ScanTiming> timings;
 		
 	public ScanBean() {
         super();
@@ -63,8 +67,29 @@ public final class ScanBean extends StatusBean {
 	public ScanBean(DeviceState state) {
 		this.deviceState = state;
 	}
-	
-	
+
+	@Override
+	public void merge(StatusBean with) {
+		super.merge(with);
+		if (!(with instanceof ScanBean)) return;
+		final ScanBean scan = (ScanBean)with;
+		this.scanRequest         = scan.scanRequest;
+		this.deviceName          = scan.deviceName;
+		this.beamline            = scan.beamline;
+		this.point               = scan.point;
+		this.size                = scan.size;
+		this.position            = scan.position;
+		this.deviceState         = scan.deviceState;
+		this.previousDeviceState = scan.previousDeviceState;
+		this.filePath            = scan.filePath;
+		this.datasetPath         = scan.datasetPath;
+		this.scanNumber          = scan.scanNumber;
+		this.oldShape            = scan.oldShape;
+		this.newShape            = scan.newShape;
+		this.timings             = scan.timings;
+	}
+
+
 	public String getFilePath() {
 		return filePath;
 	}
@@ -206,6 +231,7 @@ public final class ScanBean extends StatusBean {
 		result = prime * result + scanNumber;
 		result = prime * result + ((scanRequest == null) ? 0 : scanRequest.hashCode());
 		result = prime * result + size;
+		result = prime * result + ((timings == null) ? 0 : timings.hashCode());
 		return result;
 	}
 
@@ -262,6 +288,11 @@ public final class ScanBean extends StatusBean {
 			return false;
 		if (size != other.size)
 			return false;
+		if (timings == null) {
+			if (other.timings != null)
+				return false;
+		} else if (!timings.equals(other.timings))
+			return false;
 		return true;
 	}
 
@@ -281,4 +312,16 @@ public final class ScanBean extends StatusBean {
 		this.deviceName = deviceName;
 	}
 
+	/**
+	 * 
+	 * @return the time per point spent in each phase of the scan and by each device, may be null.
+	 */
+	public List<ScanTiming> getTimings() {
+		return timings;
+	}
+
+	public void setTimings(List<ScanTiming> timings) {
+		this.timings = timings;
+	}
+
 }
@@ -84,6 +84,23 @@ public class ScanRequest<T> {
 	 */
 	private boolean ignorePreprocess;
 
+	/**
+	 * The step of the scan to resume from, for instance the step after the last 
+	 * one written by a scan which failed. The positions before it are not moved 
+	 * to or collected. Set to RESUME_FROM_CHECKPOINT to resume from the checkpoint 
+	 * saved alongside the file at filePath.
+	 * 
+	 * Default is 0, the whole scan is run.
+	 */
+	private int resumeStep;
+	
+	/**
+	 * Resume the scan from the checkpoint saved with its NeXus file.
+	 * A resumed scan writes a file of its own but keeps saving the checkpoint
+	 * of the original file, so the file path is always the original one.
+	 */
+	public static final int RESUME_FROM_CHECKPOINT = -1;
+
 	public ScanRequest() {
 
 	}
@@ -142,6 +159,7 @@ public class ScanRequest<T> {
 		result = prime * result + Arrays.hashCode(models);
 		result = prime * result + Arrays.hashCode(monitorNames);
 		result = prime * result + ((regions == null) ? 0 : regions.hashCode());
+		result = prime * result + resumeStep;
 		result = prime * result + ((start == null) ? 0 : start.hashCode());
 		return result;
 	}
@@ -201,6 +219,8 @@ public class ScanRequest<T> {
 				return false;
 		} else if (!regions.equals(other.regions))
 			return false;
+		if (resumeStep != other.resumeStep)
+			return false;
 		if (start == null) {
 			if (other.start != null)
 				return false;
@@ -270,6 +290,14 @@ public class ScanRequest<T> {
 		this.ignorePreprocess = ignorePreprocess;
 	}
 
+	public int getResumeStep() {
+		return resumeStep;
+	}
+
+	public void setResumeStep(int resumeStep) {
+		this.resumeStep = resumeStep;
+	}
+
 	public ScriptRequest getBefore() {
 		return before;
 	}
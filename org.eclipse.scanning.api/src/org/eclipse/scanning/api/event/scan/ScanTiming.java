@@ -0,0 +1,167 @@
+package org.eclipse.scanning.api.event.scan;
+
+/**
+ * The time spent per point of a scan in one of its phases, for instance
+ * moving the motors, or by one device, for instance running a detector.
+ * The times are in nanoseconds and the percentiles are approximate, they
+ * come from a histogram of the times.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class ScanTiming {
+
+	private String name;
+	private long   count;
+	private long   total;
+	private long   mean;
+	private long   min;
+	private long   max;
+	private long   median;
+	private long   p90;
+	private long   p99;
+
+	public ScanTiming() {
+
+	}
+
+	public ScanTiming(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the number of times that the phase was timed.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	/**
+	 * @return the total time in the phase in ns
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	/**
+	 * @return the mean time in ns
+	 */
+	public long getMean() {
+		return mean;
+	}
+
+	public void setMean(long mean) {
+		this.mean = mean;
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public void setMin(long min) {
+		this.min = min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public void setMax(long max) {
+		this.max = max;
+	}
+
+	public long getMedian() {
+		return median;
+	}
+
+	public void setMedian(long median) {
+		this.median = median;
+	}
+
+	public long getP90() {
+		return p90;
+	}
+
+	public void setP90(long p90) {
+		this.p90 = p90;
+	}
+
+	public long getP99() {
+		return p99;
+	}
+
+	public void setP99(long p99) {
+		this.p99 = p99;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (count ^ (count >>> 32));
+		result = prime * result + (int) (max ^ (max >>> 32));
+		result = prime * result + (int) (mean ^ (mean >>> 32));
+		result = prime * result + (int) (median ^ (median >>> 32));
+		result = prime * result + (int) (min ^ (min >>> 32));
+		result = prime * result + ((name == null) ? 0 : name.hashCode());
+		result = prime * result + (int) (p90 ^ (p90 >>> 32));
+		result = prime * result + (int) (p99 ^ (p99 >>> 32));
+		result = prime * result + (int) (total ^ (total >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ScanTiming other = (ScanTiming) obj;
+		if (count != other.count)
+			return false;
+		if (max != other.max)
+			return false;
+		if (mean != other.mean)
+			return false;
+		if (median != other.median)
+			return false;
+		if (min != other.min)
+			return false;
+		if (name == null) {
+			if (other.name != null)
+				return false;
+		} else if (!name.equals(other.name))
+			return false;
+		if (p90 != other.p90)
+			return false;
+		if (p99 != other.p99)
+			return false;
+		if (total != other.total)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ScanTiming [name=" + name + ", count=" + count + ", mean=" + mean + "ns, min=" + min + "ns, max=" + max
+				+ "ns, median=" + median + "ns, p90=" + p90 + "ns, p99=" + p99 + "ns]";
+	}
+}
@@ -41,6 +41,12 @@ public class StatusBean extends IdBean {
 	 * We intentionally ignore the JMS version of this
 	 */
 	protected long   submissionTime;
+
+	/**
+	 * The priority class of the bean, higher runs first when the consumer
+	 * has a scheduler. 0 is the default, the priority of the submitter.
+	 */
+	protected int    priority;
 	
 	/**
 	 * Additional properties which may be set.
@@ -71,6 +77,7 @@ public class StatusBean extends IdBean {
         this.userName        = with.userName;
         this.hostName        = with.hostName;
         this.submissionTime  = with.submissionTime;
+        this.priority        = with.priority;
         this.message         = with.message;
         this.runDirectory    = with.runDirectory;
         this.properties      = with.properties;
@@ -114,6 +121,7 @@ public class StatusBean extends IdBean {
 		result = prime * result + (int) (temp ^ (temp >>> 32));
 		result = prime * result
 				+ ((previousStatus == null) ? 0 : previousStatus.hashCode());
+		result = prime * result + priority;
 		result = prime * result
 				+ ((properties == null) ? 0 : properties.hashCode());
 		result = prime * result
@@ -154,6 +162,8 @@ public class StatusBean extends IdBean {
 			return false;
 		if (previousStatus != other.previousStatus)
 			return false;
+		if (priority != other.priority)
+			return false;
 		if (properties == null) {
 			if (other.properties != null)
 				return false;
@@ -211,6 +221,14 @@ public class StatusBean extends IdBean {
 		this.submissionTime = submissionTime;
 	}
 
+	public int getPriority() {
+		return priority;
+	}
+
+	public void setPriority(int priority) {
+		this.priority = priority;
+	}
+
 
 	public String getMessage() {
 		return message;
@@ -229,6 +247,7 @@ public class StatusBean extends IdBean {
 				+ ", percentComplete=" + percentComplete + ", userName="
 				+ userName + ", hostName=" + hostName + ", runDirectory="
 				+ runDirectory + ", submissionTime=" + submissionTime
+				+ ", priority=" + priority
 				+ ", properties=" + properties
 		        + ", id=" + getUniqueId() + "]";
 	}
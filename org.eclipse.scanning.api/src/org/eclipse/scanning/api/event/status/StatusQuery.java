@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2012 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.scanning.api.event.status;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A query used to read a filtered page of beans from a status set or submission
+ * queue without returning the whole queue to the client.
+ *
+ * All filters are optional, a query with nothing set matches every bean. If no limit
+ * is set all the matches are returned. A bean without a user name matches any user,
+ * as the queue views have always shown such beans to everyone.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class StatusQuery {
+
+	private Set<Status> statuses;
+	private String      userName;
+	private String      hostName;
+	private long        submittedAfter  = -1;
+	private long        submittedBefore = -1;
+	private int         offset;
+	private int         limit;
+	private String      sortField;
+
+	public StatusQuery() {
+
+	}
+
+	public StatusQuery(String sortField) {
+		this.sortField = sortField;
+	}
+
+	/**
+	 *
+	 * @param bean
+	 * @return true if the bean passes all the filters of this query.
+	 */
+	public boolean isMatch(StatusBean bean) {
+
+		if (bean==null) return false;
+		if (statuses!=null && !statuses.contains(bean.getStatus()))     return false;
+		if (userName!=null && bean.getUserName()!=null && !userName.equals(bean.getUserName())) return false;
+		if (hostName!=null && !hostName.equals(bean.getHostName()))     return false;
+		if (submittedAfter>-1  && bean.getSubmissionTime()<submittedAfter)  return false;
+		if (submittedBefore>-1 && bean.getSubmissionTime()>submittedBefore) return false;
+		return true;
+	}
+
+	/**
+	 *
+	 * @return true if a limit has been set such that the query returns a page of beans.
+	 */
+	public boolean isLimited() {
+		return limit>0;
+	}
+
+	public Set<Status> getStatuses() {
+		return statuses;
+	}
+
+	public void setStatuses(Collection<Status> statuses) {
+		this.statuses = statuses!=null && !statuses.isEmpty() ? EnumSet.copyOf(statuses) : null;
+	}
+
+	public void setStatuses(Status... statuses) {
+		setStatuses(statuses!=null ? Arrays.asList(statuses) : null);
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public void setUserName(String userName) {
+		this.userName = userName;
+	}
+
+	public String getHostName() {
+		return hostName;
+	}
+
+	public void setHostName(String hostName) {
+		this.hostName = hostName;
+	}
+
+	/**
+	 * The submission time in ms from which beans are included, -1 for no lower bound
+	 * @return
+	 */
+	public long getSubmittedAfter() {
+		return submittedAfter;
+	}
+
+	public void setSubmittedAfter(long submittedAfter) {
+		this.submittedAfter = submittedAfter;
+	}
+
+	/**
+	 * The submission time in ms up to which beans are included, -1 for no upper bound
+	 * @return
+	 */
+	public long getSubmittedBefore() {
+		return submittedBefore;
+	}
+
+	public void setSubmittedBefore(long submittedBefore) {
+		this.submittedBefore = submittedBefore;
+	}
+
+	/**
+	 * The number of matching beans to skip before returning beans.
+	 * @return
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = Math.max(0, offset);
+	}
+
+	/**
+	 * The maximum number of beans to return, 0 or less for no limit.
+	 * @return
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	/**
+	 * The bean field to order by, for instance "submissionTime" which
+	 * orders newest first. If null the order of the queue is used.
+	 * @return
+	 */
+	public String getSortField() {
+		return sortField;
+	}
+
+	public void setSortField(String sortField) {
+		this.sortField = sortField;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((hostName == null) ? 0 : hostName.hashCode());
+		result = prime * result + limit;
+		result = prime * result + offset;
+		result = prime * result + ((sortField == null) ? 0 : sortField.hashCode());
+		result = prime * result + ((statuses == null) ? 0 : statuses.hashCode());
+		result = prime * result + (int) (submittedAfter ^ (submittedAfter >>> 32));
+		result = prime * result + (int) (submittedBefore ^ (submittedBefore >>> 32));
+		result = prime * result + ((userName == null) ? 0 : userName.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		StatusQuery other = (StatusQuery) obj;
+		if (hostName == null) {
+			if (other.hostName != null)
+				return false;
+		} else if (!hostName.equals(other.hostName))
+			return false;
+		if (limit != other.limit)
+			return false;
+		if (offset != other.offset)
+			return false;
+		if (sortField == null) {
+			if (other.sortField != null)
+				return false;
+		} else if (!sortField.equals(other.sortField))
+			return false;
+		if (statuses == null) {
+			if (other.statuses != null)
+				return false;
+		} else if (!statuses.equals(other.statuses))
+			return false;
+		if (submittedAfter != other.submittedAfter)
+			return false;
+		if (submittedBefore != other.submittedBefore)
+			return false;
+		if (userName == null) {
+			if (other.userName != null)
+				return false;
+		} else if (!userName.equals(other.userName))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "StatusQuery [statuses=" + statuses + ", userName=" + userName
+				+ ", hostName=" + hostName + ", submittedAfter=" + submittedAfter
+				+ ", submittedBefore=" + submittedBefore + ", offset=" + offset
+				+ ", limit=" + limit + ", sortField=" + sortField + "]";
+	}
+}
@@ -1,6 +1,7 @@
 package org.eclipse.scanning.api.malcolm.connector;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.scanning.api.event.IEventConnectorService;
 import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
@@ -44,6 +45,18 @@ public interface IMalcolmConnectorService<T> extends IEventConnectorService {
 	 */
 	T send(IMalcolmDevice device, T message) throws MalcolmDeviceException;
 
+	/**
+	 * Send the message without waiting for the reply. Many messages may be
+	 * in flight at once, the future completes when the reply with the id of
+	 * the message is received.
+	 *
+	 * @param device
+	 * @param message
+	 * @return future for the reply
+	 * @throws MalcolmDeviceException if the message cannot be sent
+	 */
+	CompletableFuture<T> sendAsync(IMalcolmDevice device, T message) throws MalcolmDeviceException;
+
 
 	/**
 	 * Subscribe to a message, adding the listener to the list of listeners for this message
@@ -2,6 +2,7 @@ package org.eclipse.scanning.api.malcolm.connector;
 
 import org.eclipse.scanning.api.event.scan.DeviceState;
 import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
+import org.eclipse.scanning.api.malcolm.message.MalcolmMethod;
 
 /**
  * Deals with details of:
@@ -20,8 +21,19 @@ public interface MessageGenerator<T> {
 	 * @param stackTrace
 	 * @param running
 	 * @throws MalcolmDeviceException
+	 * @deprecated capturing the stack trace is slow, use {@link #call(MalcolmMethod)}
 	 */
+	@Deprecated
 	T call(StackTraceElement[] stackTrace, DeviceState... states) throws MalcolmDeviceException;
+
+	/**
+	 * Sends the call for the given method and waits for the reply.
+	 * 
+	 * @param method
+	 * @return the reply
+	 * @throws MalcolmDeviceException
+	 */
+	T call(MalcolmMethod method) throws MalcolmDeviceException;
 	
 	/**
 	 * Create a get message
@@ -39,6 +51,23 @@ public interface MessageGenerator<T> {
 	 */
 	T createCallMessage(String methodName, Object params) throws MalcolmDeviceException;
 
+	/**
+	 * Create a call message for a method which takes no arguments.
+	 * @param method
+	 * @return
+	 * @throws MalcolmDeviceException
+	 */
+	T createCallMessage(MalcolmMethod method) throws MalcolmDeviceException;
+
+	/**
+	 * Create a call message for a method with arguments.
+	 * @param method
+	 * @param params
+	 * @return
+	 * @throws MalcolmDeviceException
+	 */
+	T createCallMessage(MalcolmMethod method, Object params) throws MalcolmDeviceException;
+
 	
     /**
      * 
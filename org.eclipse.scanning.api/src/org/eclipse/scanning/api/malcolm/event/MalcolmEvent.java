@@ -18,13 +18,27 @@ public class MalcolmEvent<T> extends EventObject {
 	 */
 	private static final long serialVersionUID = -1945090670224642819L;
 	private final String json;
+	private final long   sequence;
+	private final long   time;
 
 	public MalcolmEvent(T bean) {
 		this(null, bean);
 	}
 	public MalcolmEvent(String json, T bean) {
+		this(json, bean, -1, System.nanoTime());
+	}
+	/**
+	 * 
+	 * @param json
+	 * @param bean
+	 * @param sequence the order in which the message was received by the connection, or -1
+	 * @param time from System.nanoTime() at which the message was received
+	 */
+	public MalcolmEvent(String json, T bean, long sequence, long time) {
 		super(bean);
-		this.json = json;
+		this.json     = json;
+		this.sequence = sequence;
+		this.time     = time;
 	}
 	
 	/**
@@ -39,4 +53,24 @@ public class MalcolmEvent<T> extends EventObject {
 		return json;
 	}
 
+	/**
+	 * The messages read by a connection, events and replies, are numbered in
+	 * the order it reads them. 
+	 * 
+	 * @return the number of the message of this event or -1 if it was not numbered.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Events may be despatched some time after they are received, a
+	 * value from an event was true at this time, not when it is despatched.
+	 * 
+	 * @return the System.nanoTime() at which the message was received.
+	 */
+	public long getTime() {
+		return time;
+	}
+
 }
@@ -0,0 +1,36 @@
+package org.eclipse.scanning.api.malcolm.message;
+
+/**
+ * The methods which may be called on a Malcolm device. 
+ * 
+ * Each constant describes the call so that a message generator
+ * can build the CALL message for it without working out the
+ * method name at run time.
+ * 
+ * @author Matthew Gerring
+ *
+ */
+public enum MalcolmMethod {
+
+	VALIDATE("validate"),
+	CONFIGURE("configure"),
+	RUN("run"),
+	ABORT("abort"),
+	RESET("reset"),
+	PAUSE("pause"),
+	RESUME("resume");
+	
+	private final String name;
+
+	private MalcolmMethod(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 
+	 * @return the name of the method in Malcolm
+	 */
+	public String getName() {
+		return name;
+	}
+}
@@ -52,6 +52,21 @@ public interface IPointGeneratorService {
 	 */
 	IPointGenerator<?,IPosition> createCompoundGenerator(IPointGenerator<?,? extends IPosition>... generators) throws GeneratorException;
 
+	/**
+	 * Wrap a generator so that its points are shared with the generators of equal
+	 * models and regions. The first time the path is iterated to its end its points
+	 * are kept, as primitives, in a cache of bounded size. Later iterators of the same
+	 * path, for instance when a scan is validated and then run, is submitted again or
+	 * is previewed, read the points from the cache instead of making them again.
+	 * 
+	 * Generators whose models or regions cannot be compared are not cached.
+	 * 
+	 * @param generator, which may be a compound generator
+	 * @return a generator with the same model, points and size as the generator.
+	 * @throws GeneratorException
+	 */
+	<T extends IScanPathModel,P extends IPosition> IPointGenerator<T,P> createCachedGenerator(IPointGenerator<T,P> generator) throws GeneratorException;
+
 	/**
 	 * Each IPointGenerator must have a unique id which is used to refer to it in the user interface.
 	 * @return
@@ -13,7 +13,6 @@ package org.eclipse.scanning.api.points.annot;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Locale;
 
 import org.eclipse.scanning.api.points.models.IScanPathModel;
@@ -52,13 +51,7 @@ public class FieldValue {
 	}
 	
 	public String getDisplayName() {
-    	
-    	FieldDescriptor anot = FieldUtils.getAnnotation(model, name);
-    	if (anot!=null) {
-    		String label = anot.label();
-    		if (label!=null && !"".equals(label)) return label;
-    	}
-    	return name;
+		return ModelDescriptor.get(model.getClass()).getProperty(name).getDisplayName();
 	}
 
 
@@ -140,45 +133,15 @@ public class FieldValue {
 	
 	
 	/**
-	 * Tries to find the no-argument getter for this field, ignoring case
-	 * so that camel case may be used in method names. This means that this
-	 * method is not particularly fast, so avoid calling in big loops!
+	 * Gets the value using the no-argument getter for this field, ignoring case
+	 * so that camel case may be used in method names. The getter is looked up
+	 * once per model class by the {@link ModelDescriptor}.
 	 * @throws InvocationTargetException 
 	 * @throws IllegalArgumentException 
 	 * @throws IllegalAccessException 
 	 */
 	public static Object get(Object model, String name) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-		
-		Object val = get(model, model.getClass(), name);
-		if (val==null) val = get(model, model.getClass().getSuperclass(), name);
-		return val;
-	}
-	
-	private static Object get(Object model, Class<?> clazz, String name) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-		
-		if (clazz==null || clazz.equals(Object.class)) return null;
-		
-		final String getter = getGetterName(name).toLowerCase();
-		Method[] methods = clazz.getMethods();
-		for (Method method : methods) {
-			if (method.getName().toLowerCase().equals(getter)) {
-				if (method.getParameterTypes().length<1) {
-					method.setAccessible(true);
-					return method.invoke(model);
-				}
-			}
-		}
-		
-		final String isser  = getIsserName(name).toLowerCase();
-		for (Method method : methods) {
-			if (method.getName().toLowerCase().equals(isser)) {
-				if (method.getParameterTypes().length<1) {
-					method.setAccessible(true);
-					return method.invoke(model);
-				}
-			}
-		}
-		return null;
+		return ModelDescriptor.get(model.getClass()).getProperty(name).get(model);
 	}
 	
 	public boolean isModelField(String name) throws NoSuchFieldException, SecurityException {
@@ -186,37 +149,9 @@ public class FieldValue {
 	}
 
 	public static boolean isModelField(Object model, String name) throws NoSuchFieldException, SecurityException {
-		
-		Field field = null;
-		try {
-		    field = model.getClass().getDeclaredField(name);
-		} catch (Exception ne) {
-			field = model.getClass().getSuperclass().getDeclaredField(name);
-		}
-
-		FieldDescriptor omf = field.getAnnotation(FieldDescriptor.class);
-		if (omf!=null && !omf.visible()) return false;
-		
-		final String getter = getGetterName(name).toLowerCase();
-		Method[] methods = model.getClass().getMethods();
-		for (Method method : methods) {
-			if (method.getName().toLowerCase().equals(getter)) {
-				if (method.getParameterTypes().length<1) {
-					return true;
-				}
-			}
-		}
-		
-		final String isser  = getIsserName(name).toLowerCase();
-		for (Method method : methods) {
-			if (method.getName().toLowerCase().equals(isser)) {
-				if (method.getParameterTypes().length<1) {
-					return true;
-				}
-			}
-		}
-
-	    return false;
+		final ModelDescriptor.Property property = ModelDescriptor.get(model.getClass()).getProperty(name);
+		if (property.getField()==null) throw new NoSuchFieldException(name);
+		return property.isModelField();
 	}
 
 	/**
@@ -226,46 +161,12 @@ public class FieldValue {
 	 */
 	private static Object set(Object model, String name, Object value)throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
 		
-		Object oldValue = get(model, name);
-		
-		final String setter = getSetterName(name).toLowerCase();
-		Method[] methods = model.getClass().getMethods();
-		for (Method method : methods) {
-			if (method.getName().toLowerCase().equals(setter)) {
-				if (method.getParameterTypes().length==1) {
-					method.setAccessible(true);
-					method.invoke(model, value);
-				}
-			}
-		}
+		final ModelDescriptor.Property property = ModelDescriptor.get(model.getClass()).getProperty(name);
+		Object oldValue = property.get(model);
+		property.set(model, value);
 		return oldValue;
 	}
 
-	
-	private static String getSetterName(final String fieldName) {
-		if (fieldName == null) return null;
-		return getName("set", fieldName);
-	}
-	/**
-	 * There must be a smarter way of doing this i.e. a JDK method I cannot find. However it is one line of Java so
-	 * after spending some time looking have coded self.
-	 * 
-	 * @param fieldName
-	 * @return String
-	 */
-	private static String getGetterName(final String fieldName) {
-		if (fieldName == null) return null;
-		return getName("get", fieldName);
-	}
-	
-	private static String getIsserName(final String fieldName) {
-		if (fieldName == null)
-			return null;
-		return getName("is", fieldName);
-	}
-	private static String getName(final String prefix, final String fieldName) {
-		return prefix + getFieldWithUpperCaseFirstLetter(fieldName);
-	}
 	public static String getFieldWithUpperCaseFirstLetter(final String fieldName) {
 		return fieldName.substring(0, 1).toUpperCase(Locale.US) + fieldName.substring(1);
 	}
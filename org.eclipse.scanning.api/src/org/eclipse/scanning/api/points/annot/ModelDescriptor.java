@@ -0,0 +1,334 @@
+/*-
+ *******************************************************************************
+ * Copyright (c) 2011, 2014 Diamond Light Source Ltd.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Matthew Gerring - initial API and implementation and/or initial documentation
+ *******************************************************************************/
+package org.eclipse.scanning.api.points.annot;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the fields of a model class: the getters and setters, the
+ * field and its {@link FieldDescriptor} annotation.
+ *
+ * A descriptor is built once per class, the first time it is asked for,
+ * and then reused. Getters and setters are held as MethodHandles so that
+ * reading and writing a field in a table cell does not search the methods
+ * of the class each time. The lookup rules are those which FieldValue has
+ * always used: getters and setters are matched ignoring case and fields are
+ * declared on the class or its superclass.
+ *
+ * This class is thread safe.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class ModelDescriptor {
+
+	private static final ClassValue<ModelDescriptor> descriptors = new ClassValue<ModelDescriptor>() {
+		@Override
+		protected ModelDescriptor computeValue(Class<?> type) {
+			return new ModelDescriptor(type);
+		}
+	};
+
+	/**
+	 *
+	 * @param clazz
+	 * @return the descriptor for this class, created the first time it is asked for.
+	 */
+	public static ModelDescriptor get(Class<?> clazz) {
+		return descriptors.get(clazz);
+	}
+
+	private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final Class<?>                      clazz;
+	private final Map<String, Property>         properties;
+	private volatile List<String>               modelFields;
+
+	private ModelDescriptor(Class<?> clazz) {
+		this.clazz      = clazz;
+		this.properties = new ConcurrentHashMap<String, Property>(31);
+	}
+
+	/**
+	 *
+	 * @param name
+	 * @return the property with this name, never null. If the class has no such
+	 *         property the one returned has no getter, setter or field.
+	 */
+	public Property getProperty(String name) {
+		Property property = properties.get(name);
+		if (property==null) {
+			property = new Property(clazz, name);
+			properties.put(name, property);
+		}
+		return property;
+	}
+
+	/**
+	 * The names of the fields which should be edited in the user interface in the
+	 * order that they should be shown. These are the fields of the class and its
+	 * superclass which have a getter and are not annotated as invisible.
+	 *
+	 * @return the field names
+	 */
+	public List<String> getModelFieldNames() {
+		if (modelFields==null) modelFields = Collections.unmodifiableList(createModelFieldNames());
+		return modelFields;
+	}
+
+	private List<String> createModelFieldNames() {
+
+		final List<Field> allFields = new ArrayList<Field>(31);
+		allFields.addAll(Arrays.asList(clazz.getDeclaredFields()));
+		if (clazz.getSuperclass()!=null) allFields.addAll(Arrays.asList(clazz.getSuperclass().getDeclaredFields()));
+
+		final List<Property> fields = new ArrayList<Property>(allFields.size());
+		for (Field field : allFields) {
+			final Property property = getProperty(field.getName());
+			if (property.isModelField()) fields.add(property);
+		}
+
+		Collections.sort(fields, new Comparator<Property>() {
+			@Override
+			public int compare(Property o1, Property o2) {
+				FieldDescriptor an1 = o1.getAnnotation();
+				FieldDescriptor an2 = o2.getAnnotation();
+				if (an1!=null && an2 !=null) {
+					if (an1.fieldPosition() != Integer.MAX_VALUE && an2.fieldPosition() != Integer.MAX_VALUE) {
+						return (an1.fieldPosition() - an2.fieldPosition());
+					}
+					else if (an1.fieldPosition() != Integer.MAX_VALUE) {
+						return -1;
+					}
+					else if (an2.fieldPosition() != Integer.MAX_VALUE) {
+						return 1;
+					}
+				}
+				return o1.getDisplayName().toLowerCase().compareTo(o2.getDisplayName().toLowerCase());
+			}
+		});
+
+		final List<String> names = new ArrayList<String>(fields.size());
+		for (Property property : fields) names.add(property.getName());
+		return names;
+	}
+
+	/**
+	 * A named property of a model class.
+	 */
+	public static final class Property {
+
+		private final String             name;
+		private final Field              field;
+		private final FieldDescriptor    annotation;
+		private final MethodHandle       getter;
+		private final List<Setter>       setters;
+
+		private Property(Class<?> clazz, String name) {
+			this.name       = name;
+			this.field      = findField(clazz, name);
+			this.annotation = field!=null ? field.getAnnotation(FieldDescriptor.class) : null;
+
+			final Method[] methods = clazz.getMethods();
+			MethodHandle get = findGetter(methods, "get"+getFieldWithUpperCaseFirstLetter(name));
+			if (get==null) get = findGetter(methods, "is"+getFieldWithUpperCaseFirstLetter(name));
+			this.getter  = get;
+			this.setters = findSetters(methods, "set"+getFieldWithUpperCaseFirstLetter(name));
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 *
+		 * @return the field declared on the class or its superclass, or null.
+		 */
+		public Field getField() {
+			return field;
+		}
+
+		/**
+		 *
+		 * @return the type of the field or null if there is no field.
+		 */
+		public Class<?> getType() {
+			return field!=null ? field.getType() : null;
+		}
+
+		/**
+		 *
+		 * @return the annotation on the field or null
+		 */
+		public FieldDescriptor getAnnotation() {
+			return annotation;
+		}
+
+		/**
+		 *
+		 * @return the label of the annotation or the name if there is no label.
+		 */
+		public String getDisplayName() {
+	    	if (annotation!=null) {
+	    		String label = annotation.label();
+	    		if (label!=null && !"".equals(label)) return label;
+	    	}
+	    	return name;
+		}
+
+		/**
+		 *
+		 * @return true if this is a field with a getter which is not annotated as invisible.
+		 */
+		public boolean isModelField() {
+			if (field==null) return false;
+			if (annotation!=null && !annotation.visible()) return false;
+			return getter!=null;
+		}
+
+		/**
+		 *
+		 * @return true if there is a getter for the property.
+		 */
+		public boolean isReadable() {
+			return getter!=null;
+		}
+
+		/**
+		 * Read the property.
+		 * @param model
+		 * @return the value or null if there is no getter.
+		 * @throws InvocationTargetException if the getter throws an exception.
+		 */
+		public Object get(Object model) throws InvocationTargetException {
+			if (getter==null) return null;
+			try {
+				return getter.invokeExact(model);
+			} catch (ClassCastException ne) {
+				throw new IllegalArgumentException(model+" is not a model with the property "+name, ne);
+			} catch (Throwable t) {
+				if (t instanceof Error) throw (Error)t;
+				throw new InvocationTargetException(t);
+			}
+		}
+
+		/**
+		 * Write the property using the setter which takes the value.
+		 * @param model
+		 * @param value
+		 * @throws InvocationTargetException if the setter throws an exception.
+		 * @throws IllegalArgumentException if no setter can take the value.
+		 */
+		public void set(Object model, Object value) throws InvocationTargetException {
+			if (setters.isEmpty()) return;
+			final Setter setter = getSetter(value);
+			try {
+				setter.handle.invokeExact(model, value);
+			} catch (ClassCastException | NullPointerException ne) {
+				throw new IllegalArgumentException("Cannot set "+name+" to "+value, ne);
+			} catch (Throwable t) {
+				if (t instanceof Error) throw (Error)t;
+				throw new InvocationTargetException(t);
+			}
+		}
+
+		private Setter getSetter(Object value) {
+			if (setters.size()==1 || value==null) return setters.get(0);
+			for (Setter setter : setters) {
+				if (setter.type.isInstance(value)) return setter;
+			}
+			return setters.get(0);
+		}
+
+		private static Field findField(Class<?> clazz, String name) {
+			try {
+				return clazz.getDeclaredField(name);
+			} catch (Exception ne) {
+				if (clazz.getSuperclass()==null) return null;
+				try {
+					return clazz.getSuperclass().getDeclaredField(name);
+				} catch (Exception ne2) {
+					return null;
+				}
+			}
+		}
+
+		private static MethodHandle findGetter(Method[] methods, String methodName) {
+			for (Method method : methods) {
+				if (method.getName().equalsIgnoreCase(methodName) && method.getParameterTypes().length<1) {
+					return unreflect(method, GETTER);
+				}
+			}
+			return null;
+		}
+
+		private static List<Setter> findSetters(Method[] methods, String methodName) {
+			final List<Setter> ret = new ArrayList<Setter>(1);
+			for (Method method : methods) {
+				if (method.getName().equalsIgnoreCase(methodName) && method.getParameterTypes().length==1) {
+					final MethodHandle handle = unreflect(method, SETTER);
+					if (handle!=null) ret.add(new Setter(handle, box(method.getParameterTypes()[0])));
+				}
+			}
+			return ret;
+		}
+
+		private static MethodHandle unreflect(Method method, MethodType type) {
+			try {
+				method.setAccessible(true);
+				return MethodHandles.lookup().unreflect(method).asType(type);
+			} catch (IllegalAccessException | SecurityException ne) {
+				return null;
+			}
+		}
+
+		private static Class<?> box(Class<?> type) {
+			if (!type.isPrimitive()) return type;
+			if (type==int.class)     return Integer.class;
+			if (type==double.class)  return Double.class;
+			if (type==boolean.class) return Boolean.class;
+			if (type==long.class)    return Long.class;
+			if (type==float.class)   return Float.class;
+			if (type==short.class)   return Short.class;
+			if (type==byte.class)    return Byte.class;
+			if (type==char.class)    return Character.class;
+			return type;
+		}
+
+		private static String getFieldWithUpperCaseFirstLetter(final String fieldName) {
+			return fieldName.substring(0, 1).toUpperCase(Locale.US) + fieldName.substring(1);
+		}
+	}
+
+	private static final class Setter {
+		private final MethodHandle handle;
+		private final Class<?>     type;
+		Setter(MethodHandle handle, Class<?> type) {
+			this.handle = handle;
+			this.type   = type;
+		}
+	}
+}
@@ -9,6 +9,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 
+import org.eclipse.scanning.api.ExecutorProviders;
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.scan.DeviceState;
@@ -102,7 +103,7 @@ public abstract class AbstractRunnableDevice<T> implements IRunnableEventDevice<
 	public void start(final IPosition pos) throws ScanningException, InterruptedException {
 		
 		final List<Throwable> exceptions = new ArrayList<>(1);
-		final Thread thread = new Thread(new Runnable() {
+		final Thread thread = ExecutorProviders.getProvider().newThread("Scan Runner Thread "+getName(), false, new Runnable() {
 			public void run() {
 				try {
 					AbstractRunnableDevice.this.run(pos);
@@ -111,7 +112,7 @@ public abstract class AbstractRunnableDevice<T> implements IRunnableEventDevice<
 					exceptions.add(e);
 				}
 			}
-		}, "Scan Runner Thread "+getName());
+		});
 		thread.start();
 		
 		// We delay by 500ms just so that we can 
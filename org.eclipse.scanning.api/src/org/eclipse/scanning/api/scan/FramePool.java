@@ -0,0 +1,155 @@
+package org.eclipse.scanning.api.scan;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of primitive frames for detectors, so that a detector running
+ * at every point of a scan does not allocate a new image each time.
+ *
+ * The detector borrows a frame in run(...), fills it and returns it to
+ * the pool when write(...) has completed. A borrowed frame is not cleared,
+ * the detector must set every element of it. Frames of the same size are
+ * kept together and the pool holds at most its maximum number of bytes of
+ * frames which are not in use, any more are left for the garbage collector.
+ *
+ * The default pool holds 256MB, set org.eclipse.scanning.api.framePoolSize
+ * to the number of bytes required to change this.
+ *
+ * This class is thread safe, writing may be done on a different thread to
+ * running.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class FramePool {
+
+	private static final FramePool DEFAULT = new FramePool(Long.getLong("org.eclipse.scanning.api.framePoolSize", 256L*1024*1024));
+
+	/**
+	 *
+	 * @return the pool shared by detectors in this VM.
+	 */
+	public static FramePool getDefault() {
+		return DEFAULT;
+	}
+
+	private final long                                      maximum;
+	private final ConcurrentMap<Integer, Queue<double[]>>   doubles;
+	private final AtomicLong                                held;
+	private final AtomicLong                                allocated;
+	private final AtomicLong                                reused;
+
+	/**
+	 *
+	 * @param maximum the most bytes of unused frames to keep, zero to keep none.
+	 */
+	public FramePool(long maximum) {
+		this.maximum   = maximum;
+		this.doubles   = new ConcurrentHashMap<Integer, Queue<double[]>>(7);
+		this.held      = new AtomicLong();
+		this.allocated = new AtomicLong();
+		this.reused    = new AtomicLong();
+	}
+
+	/**
+	 * Borrow a frame, the contents of which are undefined.
+	 * @param shape for instance rows and columns
+	 * @return a frame with as many elements as the shape
+	 */
+	public double[] borrowDoubles(int... shape) {
+		final int size = getSize(shape);
+		final Queue<double[]> frames = doubles.get(size);
+		final double[] frame = frames!=null ? frames.poll() : null;
+		if (frame!=null) {
+			held.addAndGet(-bytes(frame));
+			reused.incrementAndGet();
+			return frame;
+		}
+		allocated.incrementAndGet();
+		return new double[size];
+	}
+
+	/**
+	 * Return a frame to the pool. It must not be used after this.
+	 * @param frame may be null, in which case nothing is done.
+	 * @return true if the pool kept the frame, false if it was full.
+	 */
+	public boolean release(double[] frame) {
+		if (frame==null) return false;
+		final long bytes = bytes(frame);
+		long current;
+		do {
+			current = held.get();
+			if (current+bytes>maximum) return false;
+		} while (!held.compareAndSet(current, current+bytes));
+
+		Queue<double[]> frames = doubles.get(frame.length);
+		if (frames==null) {
+			doubles.putIfAbsent(frame.length, new ConcurrentLinkedQueue<double[]>());
+			frames = doubles.get(frame.length);
+		}
+		frames.add(frame);
+		return true;
+	}
+
+	/**
+	 * Discard the frames held, for instance at the end of a scan of large images.
+	 */
+	public void clear() {
+		for (Queue<double[]> frames : doubles.values()) {
+			for (double[] frame = frames.poll(); frame!=null; frame = frames.poll()) {
+				held.addAndGet(-bytes(frame));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the most bytes of unused frames which are kept.
+	 */
+	public long getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 *
+	 * @return the bytes of unused frames in the pool now.
+	 */
+	public long getHeld() {
+		return held.get();
+	}
+
+	/**
+	 *
+	 * @return the number of frames which were allocated because the pool had none of that size.
+	 */
+	public long getAllocated() {
+		return allocated.get();
+	}
+
+	/**
+	 *
+	 * @return the number of frames which were reused from the pool.
+	 */
+	public long getReused() {
+		return reused.get();
+	}
+
+	private static int getSize(int... shape) {
+		long size = 1;
+		for (int i : shape) {
+			if (i<0) throw new IllegalArgumentException("The shape of a frame cannot be negative");
+			size*=i;
+		}
+		if (size>Integer.MAX_VALUE) throw new IllegalArgumentException("A frame cannot have more than "+Integer.MAX_VALUE+" elements");
+		return (int)size;
+	}
+
+	private static long bytes(double[] frame) {
+		return 8L*frame.length;
+	}
+}
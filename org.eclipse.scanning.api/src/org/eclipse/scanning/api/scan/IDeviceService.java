@@ -5,6 +5,7 @@ import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
 import org.eclipse.scanning.api.malcolm.IMalcolmService;
 import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.api.scan.models.ScanModel;
 
 
 /**
@@ -95,6 +96,19 @@ public interface IDeviceService {
 	 */
 	<T> IRunnableDevice<T> createRunnableDevice(T model, IPublisher<ScanBean> publisher) throws ScanningException;
 	
+	/**
+	 * Check every position of a scan against the limits of the scannables and
+	 * the validators of the model, and count them. Call this before anything is 
+	 * moved for the scan. The number of positions is set on the model, so that a
+	 * scan created from it does not check them again.
+	 * 
+	 * @param model
+	 * @return the number of positions
+	 * @throws ScanningException if a position is not valid, the message says which and why.
+	 * @throws InterruptedException
+	 */
+	int validate(ScanModel model) throws ScanningException, InterruptedException;
+	
 
 	/**
 	 * Get a runnable device by name. If the device was created by spring it may need configuring
@@ -1,5 +1,7 @@
 package org.eclipse.scanning.api.scan;
 
+import java.util.List;
+
 /**
  * Naive long winded usage of the parser API below to show how it should perform.<br>
  * However in fact the parser will be embedded as a subsystem of the scan.<br>
@@ -47,4 +49,16 @@ public interface IParserService {
 	 * @return
 	 */
 	<T> IParser<T> createParser(String scan) throws ParsingException;
+
+	/**
+	 * Create a parser for each of many scan commands, for instance those
+	 * generated by a script, in one call. The parsers are returned in the order
+	 * of the commands.
+	 *
+	 * @param scans
+	 * @return
+	 * @throws ParsingException if any command is invalid, the index of the command and
+	 * where it is invalid are set on the exception.
+	 */
+	<T> List<IParser<T>> createParsers(List<String> scans) throws ParsingException;
 }
@@ -0,0 +1,26 @@
+package org.eclipse.scanning.api.scan;
+
+import org.eclipse.scanning.api.points.IPosition;
+
+/**
+ * Checks a position before a scan moves to it, for instance that it is 
+ * outside of an exclusion zone where the hardware would collide.
+ * 
+ * The scan checks every position with its validators before it moves
+ * anything, so that a scan which would fail part way through is rejected 
+ * instead. Validators may be called from several threads at once and 
+ * must be thread safe.
+ * 
+ * @author Matthew Gerring
+ *
+ */
+public interface IPositionValidator {
+
+	/**
+	 * Check a position of the scan.
+	 * 
+	 * @param position
+	 * @throws ScanningException if the scan must not move to the position, with a message saying why.
+	 */
+	void validate(IPosition position) throws ScanningException;
+}
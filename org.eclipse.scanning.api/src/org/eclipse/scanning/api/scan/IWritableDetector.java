@@ -47,4 +47,30 @@ public interface IWritableDetector<T> extends IRunnableEventDevice<T>, INameable
 	 */
 	boolean write(IPosition position) throws ScanningException;
 
+	/**
+	 * Called once the last position of the scan has been written and before
+	 * the file is closed. A detector which keeps the data of several positions
+	 * to write them together must write what it has kept now.
+	 * 
+	 * It is also called when a scan fails or is aborted.
+	 * 
+	 * @throws ScanningException
+	 */
+	default void writeComplete() throws ScanningException {
+		
+	}
+
+	/**
+	 * The step up to which the data of this detector is in the file. The scan
+	 * checkpoint records no later step than this, so a scan which is resumed 
+	 * rewrites the steps the detector had kept to write together.
+	 * 
+	 * @return the index of the last step written, every step before it has also
+	 * been written. A detector which writes each step as it is given it need not
+	 * override this.
+	 */
+	default int getWrittenStep() {
+		return Integer.MAX_VALUE;
+	}
+
 }
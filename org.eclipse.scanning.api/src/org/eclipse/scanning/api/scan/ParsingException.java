@@ -2,6 +2,9 @@ package org.eclipse.scanning.api.scan;
 
 public class ParsingException extends Exception {
 
+	private int offset = -1;
+	private int index  = -1;
+
 	public ParsingException() {
 		super();
 		// TODO Auto-generated constructor stub
@@ -23,9 +26,44 @@ public class ParsingException extends Exception {
 		// TODO Auto-generated constructor stub
 	}
 
+	/**
+	 *
+	 * @param message
+	 * @param offset the character in the command where the error is, from 0.
+	 */
+	public ParsingException(String message, int offset) {
+		super(message);
+		this.offset = offset;
+	}
+
 	public ParsingException(Throwable cause) {
 		super(cause);
 		// TODO Auto-generated constructor stub
 	}
 
+	/**
+	 *
+	 * @return the character in the command where the error is, from 0, or -1 if it is not known.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	/**
+	 *
+	 * @return the command in a batch of commands which has the error, from 0, or -1 if
+	 * only one command was parsed.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
 }
@@ -0,0 +1,156 @@
+package org.eclipse.scanning.api.scan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * The progress of a scan saved alongside its NeXus file, so that
+ * a scan which fails part way through may be resumed from the step
+ * after the last one which was fully written.
+ *
+ * The checkpoint is a small properties file named after the NeXus file
+ * with the extension {@value #EXTENSION}. It is replaced atomically
+ * when it is saved so a crash part way through a save leaves the previous one.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class ScanCheckpoint {
+
+	public static final String EXTENSION = ".checkpoint";
+
+	private static final String STEP      = "step";
+	private static final String SIZE      = "size";
+	private static final String FILE_PATH = "filePath";
+
+	private final String filePath;
+	private final int    size;
+	private volatile int step;
+
+	/**
+	 *
+	 * @param filePath of the NeXus file being written
+	 * @param size the number of steps in the whole scan
+	 */
+	public ScanCheckpoint(String filePath, int size) {
+		this(filePath, size, -1);
+	}
+
+	private ScanCheckpoint(String filePath, int size, int step) {
+		this.filePath = filePath;
+		this.size     = size;
+		this.step     = step;
+	}
+
+	/**
+	 * Read the checkpoint saved with a NeXus file.
+	 * @param filePath of the NeXus file
+	 * @return the checkpoint or null if none was saved.
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	public static ScanCheckpoint read(String filePath) throws IOException {
+
+		final Path path = getCheckpointPath(filePath);
+		if (!Files.exists(path)) return null;
+
+		final Properties props = new Properties();
+		try (InputStream in = Files.newInputStream(path)) {
+			props.load(in);
+		}
+		try {
+			return new ScanCheckpoint(props.getProperty(FILE_PATH, filePath),
+					                  Integer.parseInt(props.getProperty(SIZE)),
+					                  Integer.parseInt(props.getProperty(STEP)));
+		} catch (NumberFormatException | NullPointerException ne) {
+			throw new IOException("The checkpoint "+path+" is not valid", ne);
+		}
+	}
+
+	/**
+	 * Save the checkpoint alongside the NeXus file.
+	 * @throws IOException
+	 */
+	public void save() throws IOException {
+
+		final Properties props = new Properties();
+		props.setProperty(FILE_PATH, filePath);
+		props.setProperty(SIZE,      String.valueOf(size));
+		props.setProperty(STEP,      String.valueOf(step));
+
+		final Path path = getCheckpointPath(filePath);
+		final Path tmp  = path.resolveSibling(path.getFileName()+".tmp");
+		try (OutputStream out = Files.newOutputStream(tmp)) {
+			props.store(out, "Scan progress of "+filePath);
+		}
+		try {
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ne) {
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Delete the checkpoint, for instance because the scan completed.
+	 * @throws IOException
+	 */
+	public void delete() throws IOException {
+		Files.deleteIfExists(getCheckpointPath(filePath));
+	}
+
+	/**
+	 *
+	 * @param filePath of the NeXus file
+	 * @return the path of the checkpoint saved with the NeXus file
+	 */
+	public static Path getCheckpointPath(String filePath) {
+		return Paths.get(filePath+EXTENSION);
+	}
+
+	public String getFilePath() {
+		return filePath;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 *
+	 * @return the last step which was fully written or -1 if none was.
+	 */
+	public int getStep() {
+		return step;
+	}
+
+	public void setStep(int step) {
+		this.step = step;
+	}
+
+	/**
+	 *
+	 * @return the step to resume the scan from.
+	 */
+	public int getResumeStep() {
+		return step+1;
+	}
+
+	/**
+	 *
+	 * @return true if every step of the scan was written.
+	 */
+	public boolean isComplete() {
+		return step>=size-1;
+	}
+
+	@Override
+	public String toString() {
+		return "ScanCheckpoint [filePath=" + filePath + ", size=" + size + ", step=" + step + "]";
+	}
+}
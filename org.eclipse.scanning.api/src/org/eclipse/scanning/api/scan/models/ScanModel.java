@@ -4,8 +4,10 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.scan.IPositionValidator;
 import org.eclipse.scanning.api.scan.IRunnableDevice;
 
 public class ScanModel {
@@ -50,6 +52,32 @@ public class ScanModel {
 	 */
 	private List<IScannable<?>> monitors;
 	
+	/**
+	 * Checks, for instance exclusion zones, which every position
+	 * must pass before the scan starts. The limits of the scannables
+	 * are always checked, these are in addition. May be null.
+	 */
+	private List<IPositionValidator> validators;
+	
+	/**
+	 * The step to start the scan from when resuming a scan which did not
+	 * complete. The positions before it are not moved to. Default is 0.
+	 */
+	private int resumeStep;
+	
+	/**
+	 * The number of positions of the scan, set when they have all been validated
+	 * by IDeviceService.validate(ScanModel).
+	 * If it is 0 the scan validates its positions before it runs.
+	 */
+	private int size;
+	
+	/**
+	 * If set, the timings of the scan are published periodically 
+	 * with this publisher while it runs. May be null.
+	 */
+	private IPublisher<ScanBean> metricsPublisher;
+	
 	public ScanModel() {
 		this(null);
 	}
@@ -68,11 +96,16 @@ public class ScanModel {
 				+ ((detectors == null) ? 0 : detectors.hashCode());
 		result = prime * result
 				+ ((filePath == null) ? 0 : filePath.hashCode());
+		result = prime * result
+				+ ((metricsPublisher == null) ? 0 : metricsPublisher.hashCode());
 		result = prime * result
 				+ ((monitors == null) ? 0 : monitors.hashCode());
 		result = prime
 				* result
 				+ ((positionIterable == null) ? 0 : positionIterable.hashCode());
+		result = prime * result + resumeStep;
+		result = prime * result
+				+ ((validators == null) ? 0 : validators.hashCode());
 		return result;
 	}
 	@Override
@@ -99,16 +132,28 @@ public class ScanModel {
 				return false;
 		} else if (!filePath.equals(other.filePath))
 			return false;
+		if (metricsPublisher == null) {
+			if (other.metricsPublisher != null)
+				return false;
+		} else if (!metricsPublisher.equals(other.metricsPublisher))
+			return false;
 		if (monitors == null) {
 			if (other.monitors != null)
 				return false;
 		} else if (!monitors.equals(other.monitors))
 			return false;
+		if (validators == null) {
+			if (other.validators != null)
+				return false;
+		} else if (!validators.equals(other.validators))
+			return false;
 		if (positionIterable == null) {
 			if (other.positionIterable != null)
 				return false;
 		} else if (!positionIterable.equals(other.positionIterable))
 			return false;
+		if (resumeStep != other.resumeStep)
+			return false;
 		return true;
 	}
 	public ScanBean getBean() {
@@ -151,6 +196,42 @@ public class ScanModel {
 		this.monitors = Arrays.asList(monitors);
 	}
 	
+	public List<IPositionValidator> getValidators() {
+		return validators;
+	}
+
+	public void setValidators(List<IPositionValidator> validators) {
+		this.validators = validators;
+	}
+
+	public void setValidators(IPositionValidator... validators) {
+		this.validators = Arrays.asList(validators);
+	}
+
+	public int getResumeStep() {
+		return resumeStep;
+	}
+
+	public void setResumeStep(int resumeStep) {
+		this.resumeStep = resumeStep;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public IPublisher<ScanBean> getMetricsPublisher() {
+		return metricsPublisher;
+	}
+
+	public void setMetricsPublisher(IPublisher<ScanBean> metricsPublisher) {
+		this.metricsPublisher = metricsPublisher;
+	}
+
 	public String getFilePath() {
 		return filePath;
 	}
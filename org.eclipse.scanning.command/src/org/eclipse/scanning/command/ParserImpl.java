@@ -1,6 +1,7 @@
 package org.eclipse.scanning.command;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,7 +17,14 @@ class ParserImpl implements IParser<StepModel> {
 
 	private final String command;
 
-	private Map<String, StepModel> scannables;
+	/**
+	 * The start, stop and step of each scannable. The models are made when they
+	 * are first asked for because each one makes a random unique key, which costs
+	 * more than parsing the command.
+	 */
+	private Map<String, double[]> scannables;
+
+	private Map<String, StepModel> models; // Guarded by this
 
 	private Map<String, Number> detectorExposures;
 
@@ -24,7 +32,7 @@ class ParserImpl implements IParser<StepModel> {
 		this.command = command;
 	}
 
-	protected void setScannables(LinkedHashMap<String, StepModel> scannables) {
+	protected void setScannables(LinkedHashMap<String, double[]> scannables) {
 		this.scannables = scannables;
 	}
 
@@ -53,8 +61,16 @@ class ParserImpl implements IParser<StepModel> {
 	}
 
 	@Override
-	public StepModel getModel(String scannableName) {
-		return scannables.get(scannableName);
+	public synchronized StepModel getModel(String scannableName) {
+		if (models==null) models = new HashMap<String, StepModel>(scannables.size());
+		StepModel model = models.get(scannableName);
+		if (model==null) {
+			final double[] args = scannables.get(scannableName);
+			if (args==null) return null;
+			model = new StepModel(scannableName, args[0], args[1], args[2]);
+			models.put(scannableName, model);
+		}
+		return model;
 	}
 
 }
@@ -0,0 +1,227 @@
+package org.eclipse.scanning.command;
+
+import java.util.LinkedHashMap;
+
+import org.eclipse.scanning.api.scan.ParsingException;
+
+/**
+ * Reads a scan command one character at a time, for instance:
+ * <pre>
+ * scan x 0 10 0.5 y 0 5 1 detector 0.1
+ * </pre>
+ * which is the name of the scan command, then one or more scannables each
+ * with a start, stop and step, then one or more detectors each with an exposure.
+ *
+ * No regular expressions or string splits are used and numbers are read in
+ * place, so that the many commands generated by a script are parsed quickly,
+ * and an invalid command is reported with the character where it goes wrong.
+ * Devices and numbers may be separated by any whitespace.
+ *
+ * Not thread safe, a parser reads one command at a time.
+ *
+ * @author Matthew Gerring
+ *
+ */
+final class ScanCommandParser {
+
+	/**
+	 * Powers of ten which are exact as doubles.
+	 */
+	private static final double[] POWERS = {
+		1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * The largest mantissa which is exact as a double, 2^53.
+	 */
+	private static final long MAX_EXACT = 1L<<53;
+
+	private static final int SCANNABLE_ARGS = 3;
+	private static final int DETECTOR_ARGS  = 1;
+
+	private final double[] args = new double[SCANNABLE_ARGS+1];
+
+	private String command;
+	private int    pos;
+	private int    length;
+
+	/**
+	 * Parse a scan command.
+	 *
+	 * @param scan
+	 * @return the parser for the command
+	 * @throws ParsingException with the offset of the error in the command
+	 */
+	ParserImpl parse(String scan) throws ParsingException {
+
+		if (scan==null) throw new ParsingException("Invalid scan command: null", 0);
+		this.command = scan;
+		this.pos     = 0;
+		this.length  = scan.length();
+
+		skipWhitespace();
+		if (pos==length) throw error("Expected a scan command", pos);
+		identifier("scan command");
+
+		final LinkedHashMap<String, double[]>  scannables = new LinkedHashMap<>();
+		final LinkedHashMap<String, Number>    detectors  = new LinkedHashMap<>();
+
+		while (true) {
+
+			skipWhitespace(); // Names and numbers always end at whitespace or the end of the command.
+			if (pos==length) break;
+
+			final int    start = pos;
+			final String name  = identifier(scannables.isEmpty() ? "scannable" : "scannable or detector");
+			final int    count = arguments(name);
+
+			if (count==SCANNABLE_ARGS) {
+				if (!detectors.isEmpty()) throw error("Scannable '"+name+"' must come before the detectors", start);
+				scannables.put(name, new double[]{args[0], args[1], args[2]});
+
+			} else if (count==DETECTOR_ARGS) {
+				if (scannables.isEmpty()) throw error("Scannable '"+name+"' must have exactly "+SCANNABLE_ARGS+" arguments", start);
+				detectors.put(name, args[0]);
+
+			} else {
+				final String message = detectors.isEmpty()
+						             ? "Scannable '"+name+"' must have exactly "+SCANNABLE_ARGS+" arguments"
+						             : "Detector '"+name+"' must have exactly "+DETECTOR_ARGS+" argument";
+				throw error(message, start);
+			}
+		}
+
+		if (scannables.isEmpty()) throw error("Expected a scannable", pos);
+		if (detectors.isEmpty())  throw error("Expected a detector", pos);
+
+		final ParserImpl parser = new ParserImpl(scan);
+		parser.setScannables(scannables);
+		parser.setDetectors(detectors);
+		return parser;
+	}
+
+	/**
+	 * Read the numbers after a device name into args.
+	 * @return the number of arguments read, more than will fit are counted but not read.
+	 */
+	private int arguments(String name) throws ParsingException {
+		int count = 0;
+		while (true) {
+			final int before = pos;
+			if (!skipWhitespace() || pos==length || !isNumberStart(command.charAt(pos))) {
+				pos = before;
+				return count;
+			}
+			final double value = number(name, count+1);
+			if (count<args.length) args[count] = value;
+			++count;
+		}
+	}
+
+	private static boolean isNumberStart(char c) {
+		return (c>='0' && c<='9') || c=='.' || c=='-' || c=='+';
+	}
+
+	/**
+	 * Reads [-+]?[0-9]*\.?[0-9]+([eE][-+]?[0-9]+)? which is what the scan command accepted
+	 * before it was read by hand. Numbers with a mantissa below 2^53 and a small
+	 * exponent are worked out exactly here, others are parsed by the JDK.
+	 */
+	private double number(String name, int arg) throws ParsingException {
+
+		final int start = pos;
+		boolean negative = false;
+		char c = command.charAt(pos);
+		if (c=='-' || c=='+') {
+			negative = c=='-';
+			++pos;
+		}
+
+		long    mantissa = 0;
+		int     scale    = 0; // Digits after the point
+		boolean exact    = true;
+		boolean point    = false;
+		int     read     = 0;
+		for (; pos<length; ++pos) {
+			c = command.charAt(pos);
+			if (c>='0' && c<='9') {
+				if (mantissa<MAX_EXACT/10) {
+					mantissa = mantissa*10 + (c-'0');
+				} else {
+					exact = false;
+				}
+				if (point) ++scale;
+				++read;
+			} else if (c=='.' && !point) {
+				point = true;
+				read  = 0; // There must be a digit after the point.
+			} else {
+				break;
+			}
+		}
+		if (read==0) throw error("Argument "+arg+" of '"+name+"' is not a number", start);
+
+		int exponent = 0;
+		if (pos<length && (command.charAt(pos)=='e' || command.charAt(pos)=='E')) {
+			++pos;
+			boolean negexp = false;
+			if (pos<length && (command.charAt(pos)=='-' || command.charAt(pos)=='+')) {
+				negexp = command.charAt(pos)=='-';
+				++pos;
+			}
+			final int expStart = pos;
+			for (; pos<length && command.charAt(pos)>='0' && command.charAt(pos)<='9'; ++pos) {
+				if (exponent<10000) exponent = exponent*10 + (command.charAt(pos)-'0');
+			}
+			if (pos==expStart) throw error("Argument "+arg+" of '"+name+"' has no exponent", pos);
+			if (negexp) exponent = -exponent;
+		}
+		if (pos<length && !Character.isWhitespace(command.charAt(pos))) {
+			throw error("Argument "+arg+" of '"+name+"' is not a number", start);
+		}
+
+		final int power = exponent-scale;
+		if (exact && power>=-POWERS.length+1 && power<POWERS.length) {
+			// Both the mantissa and the power of ten are exact so one multiply or divide rounds correctly.
+			final double value = power<0 ? mantissa/POWERS[-power] : mantissa*POWERS[power];
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(command.substring(start, pos));
+	}
+
+	/**
+	 * Reads [a-zA-Z][a-zA-Z0-9_]*
+	 */
+	private String identifier(String what) throws ParsingException {
+		final int start = pos;
+		if (pos==length || !isLetter(command.charAt(pos))) {
+			throw error("Expected the name of a "+what, pos);
+		}
+		for (++pos; pos<length; ++pos) {
+			final char c = command.charAt(pos);
+			if (!isLetter(c) && !(c>='0' && c<='9') && c!='_') break;
+		}
+		if (pos<length && !Character.isWhitespace(command.charAt(pos))) {
+			throw error("Invalid character '"+command.charAt(pos)+"' in the name of a "+what, pos);
+		}
+		return command.substring(start, pos);
+	}
+
+	private static boolean isLetter(char c) {
+		return (c>='a' && c<='z') || (c>='A' && c<='Z');
+	}
+
+	/**
+	 * @return true if there was whitespace to skip.
+	 */
+	private boolean skipWhitespace() {
+		final int start = pos;
+		while (pos<length && Character.isWhitespace(command.charAt(pos))) ++pos;
+		return pos>start;
+	}
+
+	private ParsingException error(String message, int offset) {
+		return new ParsingException(message+" at character "+(offset+1)+" of '"+command+"'", offset);
+	}
+}
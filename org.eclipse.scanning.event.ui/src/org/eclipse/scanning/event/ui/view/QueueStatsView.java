@@ -0,0 +1,323 @@
+package org.eclipse.scanning.event.ui.view;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IContributionManager;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.IContentProvider;
+import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.alive.QueueStatsBean;
+import org.eclipse.scanning.api.event.bean.BeanEvent;
+import org.eclipse.scanning.api.event.bean.IBeanListener;
+import org.eclipse.scanning.api.event.core.ISubscriber;
+import org.eclipse.scanning.event.ui.Activator;
+import org.eclipse.scanning.event.ui.ServiceHolder;
+import org.eclipse.scanning.event.ui.preference.CommandConstants;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.ui.part.ViewPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A view which shows the load on each queue and its consumers from the
+ * statistics which the consumers publish. Each queue has a row, merged
+ * from its consumers, followed by a row for each consumer. The queues
+ * are not browsed.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class QueueStatsView extends ViewPart {
+
+	public static final String ID = "org.eclipse.scanning.event.ui.queueStatsView";
+
+	private static final Logger logger = LoggerFactory.getLogger(QueueStatsView.class);
+
+	// UI
+	private TableViewer                       viewer;
+
+	// Data
+	private Map<String, QueueStatsBean>       stats; // By consumer id, the publish time is when it was received.
+
+	private ISubscriber<IBeanListener<QueueStatsBean>> monitor;
+
+	private IEventService service;
+
+	public QueueStatsView() {
+		this.service = ServiceHolder.getEventService();
+	}
+
+	@Override
+	public void createPartControl(Composite content) {
+
+		content.setLayout(new GridLayout(1, false));
+		Util.removeMargins(content);
+
+		this.viewer   = new TableViewer(content, SWT.FULL_SELECTION | SWT.SINGLE | SWT.V_SCROLL | SWT.H_SCROLL);
+		viewer.getTable().setHeaderVisible(true);
+		viewer.getControl().setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+
+		createColumns();
+		viewer.setContentProvider(createContentProvider());
+
+		stats = new ConcurrentHashMap<>();
+		viewer.setInput(stats);
+
+        createActions();
+        try {
+			createTopicListener(getUri());
+		} catch (Exception e) {
+			logger.error("Cannot listen to topic of command server!", e);
+		}
+	}
+
+	/**
+	 * Listens to a topic
+	 */
+	private void createTopicListener(final URI uri) throws Exception {
+
+		// Use job because connection might timeout.
+		final Job topicJob = new Job("Create statistics listener") {
+
+			@Override
+			protected IStatus run(IProgressMonitor pmonitor) {
+				try {
+					monitor = service.createSubscriber(uri, IEventService.QUEUE_STATS_TOPIC);
+					monitor.addListener(new IBeanListener<QueueStatsBean>() {
+						@Override
+						public void beanChangePerformed(BeanEvent<QueueStatsBean> evt) {
+							QueueStatsBean bean = evt.getBean();
+							if (bean.getConsumerId()==null) return;
+							bean.setPublishTime(System.currentTimeMillis());
+							stats.put(bean.getConsumerId().toString(), bean);
+							refresh();
+						}
+						@Override
+                        public Class<QueueStatsBean> getBeanClass() {
+                        	return QueueStatsBean.class;
+                        }
+					});
+					return Status.OK_STATUS;
+
+				} catch (Exception ne) {
+					logger.error("Cannot listen to topic changes because command server is not there", ne);
+			        return Status.CANCEL_STATUS;
+				}
+			}
+		};
+
+		topicJob.setPriority(Job.INTERACTIVE);
+		topicJob.setSystem(true);
+		topicJob.setUser(false);
+		topicJob.schedule();
+	}
+
+	private void refresh() {
+		if (viewer.getControl().isDisposed()) return;
+		viewer.getControl().getDisplay().asyncExec(new Runnable() {
+			public void run () {
+				if (!viewer.getControl().isDisposed()) viewer.refresh();
+			}
+		});
+	}
+
+	public void dispose() {
+		super.dispose();
+		try {
+			if (monitor!=null) monitor.disconnect();
+		} catch (Exception ne) {
+			logger.warn("Problem stopping topic listening for "+monitor.getTopicName(), ne);
+		}
+	}
+
+	private void createActions() {
+		final IContributionManager man = getViewSite().getActionBars().getToolBarManager();
+
+		final Action refresh = new Action("Refresh", Activator.getDefault().getImageDescriptor("icons/arrow-circle-double-135.png")) {
+			public void run() {
+				viewer.refresh();
+			}
+		};
+		man.add(refresh);
+	}
+
+	private IContentProvider createContentProvider() {
+		return new IStructuredContentProvider() {
+
+			@Override
+			public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+			}
+
+			@Override
+			public void dispose() {
+				if (stats!=null) stats.clear();
+			}
+
+			@Override
+			public Object[] getElements(Object inputElement) {
+				if (stats==null) return new QueueStatsBean[0];
+
+				// Consumers which have stopped publishing are dropped.
+				final long now = System.currentTimeMillis();
+				for (Iterator<QueueStatsBean> it = stats.values().iterator(); it.hasNext();) {
+					final QueueStatsBean bean = it.next();
+					if (now-bean.getPublishTime() > 3*Math.max(bean.getPeriod(), UIConstants.NOTIFICATION_FREQUENCY)) it.remove();
+				}
+
+				final Map<String, List<QueueStatsBean>> queues = new TreeMap<>();
+				for (QueueStatsBean bean : stats.values()) {
+					final String name = bean.getQueueName()!=null ? bean.getQueueName() : "";
+					List<QueueStatsBean> consumers = queues.get(name);
+					if (consumers==null) {
+						consumers = new ArrayList<>(3);
+						queues.put(name, consumers);
+					}
+					consumers.add(bean);
+				}
+
+				final List<QueueStatsBean> rows = new ArrayList<>(stats.size()+queues.size());
+				for (List<QueueStatsBean> consumers : queues.values()) {
+					Collections.sort(consumers, new Comparator<QueueStatsBean>() {
+						public int compare(QueueStatsBean o1, QueueStatsBean o2) {
+							return String.valueOf(o1.getConsumerName()).compareTo(String.valueOf(o2.getConsumerName()));
+						}
+					});
+					rows.add(QueueStatsBean.merge(consumers));
+					rows.addAll(consumers);
+				}
+				return rows.toArray(new QueueStatsBean[rows.size()]);
+			}
+		};
+	}
+
+	protected void createColumns() {
+
+		createColumn("Queue / Consumer", 250, SWT.LEFT, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				final QueueStatsBean bean = (QueueStatsBean)element;
+				return isQueue(bean) ? bean.getQueueName() : "    "+bean.getConsumerName();
+			}
+		});
+		createColumn("Consumers", 80, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				final QueueStatsBean bean = (QueueStatsBean)element;
+				return isQueue(bean) ? String.valueOf(bean.getConsumers()) : "";
+			}
+		});
+		createColumn("Waiting", 70, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				final int depth = ((QueueStatsBean)element).getQueueDepth();
+				return depth>-1 ? String.valueOf(depth) : ""; // Only one consumer of a queue counts it.
+			}
+		});
+		createColumn("Oldest Waiting", 100, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				final QueueStatsBean bean = (QueueStatsBean)element;
+				return bean.getQueueDepth()>0 ? formatTime(bean.getOldestWaiting()) : "";
+			}
+		});
+		createColumn("Running", 70, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return String.valueOf(((QueueStatsBean)element).getRunning());
+			}
+		});
+		createColumn("Complete", 70, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return String.valueOf(((QueueStatsBean)element).getCompleted());
+			}
+		});
+		createColumn("Failed", 70, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return String.valueOf(((QueueStatsBean)element).getFailed());
+			}
+		});
+		createColumn("Terminated", 80, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return String.valueOf(((QueueStatsBean)element).getTerminated());
+			}
+		});
+		createColumn("Per Hour", 70, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return String.format("%.1f", ((QueueStatsBean)element).throughput());
+			}
+		});
+		createColumn("Wait (median / 90%)", 140, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				final QueueStatsBean bean = (QueueStatsBean)element;
+				return formatTime(bean.waitTime(0.5))+" / "+formatTime(bean.waitTime(0.9));
+			}
+		});
+		createColumn("Run (median / 90%)", 140, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				final QueueStatsBean bean = (QueueStatsBean)element;
+				return formatTime(bean.runTime(0.5))+" / "+formatTime(bean.runTime(0.9));
+			}
+		});
+		createColumn("Busy", 70, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return String.format("%.0f%%", 100*((QueueStatsBean)element).utilisation());
+			}
+		});
+		createColumn("Window", 80, SWT.CENTER, new ColumnLabelProvider() {
+			public String getText(Object element) {
+				return formatTime(((QueueStatsBean)element).getWindow());
+			}
+		});
+	}
+
+	private void createColumn(String text, int width, int style, ColumnLabelProvider prov) {
+		final TableViewerColumn col = new TableViewerColumn(viewer, style);
+		col.getColumn().setText(text);
+		col.getColumn().setWidth(width);
+		col.setLabelProvider(prov);
+	}
+
+	private static boolean isQueue(QueueStatsBean bean) {
+		return bean.getConsumerId()==null;
+	}
+
+	private static String formatTime(long ms) {
+		if (ms<0)            return "-";
+		if (ms<1000)         return ms+" ms";
+		if (ms<60*1000)      return String.format("%.1f s", ms/1000d);
+		if (ms<60*60*1000)   return String.format("%.1f min", ms/(60*1000d));
+		return String.format("%.1f h", ms/(60*60*1000d));
+	}
+
+	@Override
+	public void setFocus() {
+		if (!viewer.getTable().isDisposed()) {
+			viewer.getTable().setFocus();
+		}
+	}
+
+    protected URI getUri() throws Exception {
+		return new URI(getCommandPreference(CommandConstants.JMS_URI));
+	}
+
+    protected String getCommandPreference(String key) {
+		final IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+    	return store.getString(key);
+    }
+}
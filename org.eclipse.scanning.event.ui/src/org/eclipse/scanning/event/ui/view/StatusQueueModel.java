@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2012 Diamond Light Source Ltd.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.scanning.event.ui.view;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.scanning.api.event.status.StatusBean;
+
+/**
+ * The rows shown by the StatusQueueView, keyed by unique id and ordered
+ * newest submission first.
+ *
+ * Beans arriving on the status topic are applied to this model as inserts,
+ * updates and removes. The methods return the row index which changed so
+ * that a virtual table only has to redraw that row. This model is not thread
+ * safe, it is only changed and read in the UI thread.
+ *
+ * @author Matthew Gerring
+ *
+ */
+class StatusQueueModel {
+
+	private static final Comparator<StatusBean> NEWEST_FIRST = new Comparator<StatusBean>() {
+		@Override
+		public int compare(StatusBean o1, StatusBean o2) {
+			int ret = Long.compare(o2.getSubmissionTime(), o1.getSubmissionTime());
+			if (ret!=0) return ret;
+			String id1 = o1.getUniqueId();
+			String id2 = o2.getUniqueId();
+			if (id1==null || id2==null) return id1==id2 ? 0 : (id1==null ? 1 : -1);
+			return id1.compareTo(id2);
+		}
+	};
+
+	private final List<StatusBean>        rows;
+	private final Map<String, StatusBean> ids;
+
+	StatusQueueModel() {
+		this.rows = new ArrayList<StatusBean>(89);
+		this.ids  = new HashMap<String, StatusBean>(89);
+	}
+
+	/**
+	 * Replace the whole model, used for a full resync with the server.
+	 * If a bean is in both collections the one from the second wins,
+	 * this is usually the status set which is more up to date.
+	 * @param submitted
+	 * @param status
+	 */
+	void setBeans(Collection<StatusBean> submitted, Collection<StatusBean> status) {
+		rows.clear();
+		ids.clear();
+		for (StatusBean bean : submitted) ids.put(bean.getUniqueId(), bean);
+		for (StatusBean bean : status)    ids.put(bean.getUniqueId(), bean);
+		rows.addAll(ids.values());
+		Collections.sort(rows, NEWEST_FIRST);
+	}
+
+	/**
+	 * Add a bean which is not yet in the model.
+	 * @param bean
+	 * @return the index inserted at.
+	 */
+	int insert(StatusBean bean) {
+		int index = Collections.binarySearch(rows, bean, NEWEST_FIRST);
+		if (index<0) index = -index-1;
+		rows.add(index, bean);
+		ids.put(bean.getUniqueId(), bean);
+		return index;
+	}
+
+	/**
+	 * Merge the changed bean into the one we have.
+	 * @param bean
+	 * @return the index of the bean or -1 if the bean is not in the model.
+	 *         If the merge changed the position of the bean it is moved and
+	 *         its new index is returned.
+	 */
+	int update(StatusBean bean) {
+		final StatusBean held = ids.get(bean.getUniqueId());
+		if (held==null) return -1;
+		int index = indexOf(held);
+		if (held.getSubmissionTime()==bean.getSubmissionTime()) {
+			held.merge(bean);
+			return index;
+		}
+		rows.remove(index);
+		held.merge(bean);
+		return insert(held);
+	}
+
+	/**
+	 *
+	 * @param uniqueId
+	 * @return the index removed from or -1 if the bean is not in the model.
+	 */
+	int remove(String uniqueId) {
+		final StatusBean held = ids.remove(uniqueId);
+		if (held==null) return -1;
+		int index = indexOf(held);
+		rows.remove(index);
+		return index;
+	}
+
+	int indexOf(StatusBean held) {
+		int index = Collections.binarySearch(rows, held, NEWEST_FIRST);
+		return index>-1 ? index : rows.indexOf(held);
+	}
+
+	StatusBean get(int index) {
+		return rows.get(index);
+	}
+
+	StatusBean get(String uniqueId) {
+		return ids.get(uniqueId);
+	}
+
+	boolean contains(String uniqueId) {
+		return ids.containsKey(uniqueId);
+	}
+
+	int size() {
+		return rows.size();
+	}
+
+	void clear() {
+		rows.clear();
+		ids.clear();
+	}
+}
@@ -12,13 +12,8 @@ import java.io.File;
 import java.net.URI;
 import java.text.DateFormat;
 import java.text.NumberFormat;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -38,9 +33,9 @@ import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
 import org.eclipse.jface.viewers.IContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
-import org.eclipse.jface.viewers.IStructuredContentProvider;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.TableViewer;
@@ -56,6 +51,7 @@ import org.eclipse.scanning.api.event.core.ISubmitter;
 import org.eclipse.scanning.api.event.core.ISubscriber;
 import org.eclipse.scanning.api.event.status.AdministratorMessage;
 import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.api.event.status.StatusQuery;
 import org.eclipse.scanning.event.ui.Activator;
 import org.eclipse.scanning.event.ui.ServiceHolder;
 import org.eclipse.scanning.event.ui.dialog.PropertiesDialog;
@@ -115,7 +111,8 @@ public class StatusQueueView extends ViewPart {
 	
 	// Data
 	private Properties                        idProperties;
-	private Map<String, StatusBean>           queue;
+	private StatusQueueModel                  queue;
+	private Job                               queueJob;
 	private boolean                           showEntireQueue = false;
 
 	private ISubscriber<IBeanListener<StatusBean>>           topicMonitor;
@@ -135,14 +132,17 @@ public class StatusQueueView extends ViewPart {
 		content.setLayout(new GridLayout(1, false));
 		Util.removeMargins(content);
 
-		this.viewer   = new TableViewer(content, SWT.FULL_SELECTION | SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL);
+		// Virtual so that only the visible rows of a long history are created and labelled.
+		this.viewer   = new TableViewer(content, SWT.FULL_SELECTION | SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL | SWT.VIRTUAL);
 		viewer.setUseHashlookup(true);
 		viewer.getTable().setHeaderVisible(true);
 		viewer.getControl().setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
 		
 		
 		createColumns();
+		this.queue = new StatusQueueModel();
 		viewer.setContentProvider(createContentProvider());
+		viewer.setInput(queue);
 		
         try {
     		queueReader = service.createSubmitter(getUri(), getQueueName());
@@ -243,9 +243,9 @@ public class StatusQueueView extends ViewPart {
 	}
 
 	/**
-	 * Updates the bean if it is found in the list, otherwise
-	 * refreshes the whole list because a bean we are not reporting
-	 * has been(bean?) encountered.
+	 * Applies a bean from the status topic to the table as an insert, update
+	 * or remove of the single row which has changed. The whole queue is only
+	 * read again if the bean shows that we have missed events.
 	 * 
 	 * @param bean
 	 */
@@ -253,15 +253,55 @@ public class StatusQueueView extends ViewPart {
 		
 		getSite().getShell().getDisplay().asyncExec(new Runnable() {
 			public void run(){
-				if (queue.containsKey(bean.getUniqueId())) {
-					queue.get(bean.getUniqueId()).merge(bean);
-					viewer.refresh();
-				} else {
-					reconnect();
+				if (viewer.getTable().isDisposed()) return;
+				
+				final StatusBean held    = queue.get(bean.getUniqueId());
+				final boolean    matches = createQuery().isMatch(bean);
+				if (held!=null) {
+					if (isGap(held, bean)) {
+						reconnect();
+					} else if (!matches) {
+						queue.remove(bean.getUniqueId());
+						refreshRows();
+					} else {
+						int index  = queue.indexOf(held);
+						int nindex = queue.update(bean);
+						if (index==nindex) {
+							viewer.replace(held, nindex);
+						} else {
+							refreshRows();
+						}
+					}
+				} else if (matches) {
+					queue.insert(bean);
+					refreshRows();
 				}
 			}
 		});
 	}
+	
+	/**
+	 * A gap is detected if a bean which we have in a final state comes back
+	 * not final, for instance because the events arrived out of order. When
+	 * this happens we cannot trust the table and must read the queues again.
+	 * 
+	 * @param held
+	 * @param bean
+	 * @return
+	 */
+	protected boolean isGap(StatusBean held, StatusBean bean) {
+		if (held.getStatus()==null || bean.getStatus()==null) return false;
+		return held.getStatus().isFinal() && !bean.getStatus().isFinal();
+	}
+	
+	/**
+	 * Called when rows are added, removed or moved. For a virtual table
+	 * this only clears the items, the visible ones are then labelled lazily.
+	 */
+	private void refreshRows() {
+		viewer.setItemCount(queue.size());
+		viewer.refresh();
+	}
 
 	private void createActions() {
 		
@@ -332,7 +372,7 @@ public class StatusQueueView extends ViewPart {
 		final Action showAll = new Action("Show all reruns", IAction.AS_CHECK_BOX) {
 			public void run() {
 				showEntireQueue = isChecked();
-				viewer.refresh();
+				reconnect(); // The runs of other users are only read when they are shown
 			}
 		};
 		showAll.setImageDescriptor(Activator.getDefault().getImageDescriptor("icons/spectacle-lorgnette.png"));
@@ -472,11 +512,11 @@ public class StatusQueueView extends ViewPart {
 	}
 	
 	private IContentProvider createContentProvider() {
-		return new IStructuredContentProvider() {
+		return new ILazyContentProvider() {
 			
 			@Override
 			public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
-				queue = (Map<String, StatusBean>)newInput;
+				
 			}
 			
 			@Override
@@ -485,25 +525,10 @@ public class StatusQueueView extends ViewPart {
 			}
 			
 			@Override
-			public Object[] getElements(Object inputElement) {
-				if (queue==null) return new StatusBean[]{StatusBean.EMPTY};
-				final List<StatusBean> retained = new ArrayList<StatusBean>(queue.values());
-				
-				// This preference is not secure people could hack DAWN to do this.
-				if (!Boolean.getBoolean("org.dawnsci.commandserver.ui.view.showWholeQueue")) {
-					// Old fashioned loop. In Java8 we will use a predicate...
-					final String userName = getUserName();
-					for (Iterator it = retained.iterator(); it.hasNext();) {
-						StatusBean statusBean = (StatusBean) it.next();
-						if (statusBean.getUserName()==null) continue;
-						if (!showEntireQueue) {
-							if (!userName.equals(statusBean.getUserName())) it.remove();
-						}
-					}
-					// This form of filtering is not at all secure because we
-					// give the full list of the queue to the clients.
-				}
-				return retained.toArray(new StatusBean[retained.size()]);
+			public void updateElement(int index) {
+				// The model only contains the beans of the query, they are filtered in this
+				// client as the queues are browsed and as the status events arrive.
+				if (index<queue.size()) viewer.replace(queue.get(index), index);
 			}
 		};
 	}
@@ -518,13 +543,19 @@ public class StatusQueueView extends ViewPart {
 	}
 
 	/**
-	 * Read Queue and return in submission order.
+	 * Read the queues and replace the model with them. This is a full resync
+	 * which is only done when the user asks for it or a gap in the events
+	 * is found. If a resync is already waiting to run, another is not added.
+	 * 
 	 * @param uri
-	 * @return
-	 * @throws Exception
 	 */
 	protected synchronized void updateQueue(final URI uri) {
 		
+		if (queueJob==null) queueJob = createQueueJob();
+		queueJob.schedule();
+	}
+	
+	private Job createQueueJob() {
 
 		final Job queueJob = new Job("Connect and read queue") {
 
@@ -535,28 +566,18 @@ public class StatusQueueView extends ViewPart {
 					monitor.worked(1);
 					
 					queueReader.setBeanClass(getBeanClass());
-					Collection<StatusBean> runningList = queueReader.getQueue(getQueueName(), "submissionTime");
-					monitor.worked(1);
-			        
-					Collection<StatusBean> submittedList = queueReader.getQueue(getSubmissionQueueName(), "submissionTime");
+					final StatusQuery query = createQuery();
+					final Collection<StatusBean> runningList = queueReader.queryQueue(getQueueName(), query);
 					monitor.worked(1);
 
-					// We reverse the queue because it comes out date ascending and we
-			        // want newest submissions first.
-					final Map<String,StatusBean> ret = new LinkedHashMap<String,StatusBean>();
-					for (StatusBean bean : submittedList) {
-			        	ret.put(bean.getUniqueId(), bean);
-					}
-					monitor.worked(1);
-			        for (StatusBean bean : runningList) {
-			        	ret.put(bean.getUniqueId(), bean);
-					}
+					final Collection<StatusBean> submittedList = queueReader.queryQueue(getSubmissionQueueName(), query);
 					monitor.worked(1);
 			        
 			        getSite().getShell().getDisplay().syncExec(new Runnable() {
 			        	public void run() {
-			        		viewer.setInput(ret);
-			        		viewer.refresh();
+			        		if (viewer.getTable().isDisposed()) return;
+			        		queue.setBeans(submittedList, runningList);
+			        		refreshRows();
 			        	}
 			        });
 			        monitor.done();
@@ -582,12 +603,23 @@ public class StatusQueueView extends ViewPart {
 		};
 		queueJob.setPriority(Job.INTERACTIVE);
 		queueJob.setUser(true);
-		queueJob.schedule();
+		return queueJob;
+	}
 
 
+	/**
+	 * The query used to read the queues. Unless the whole queue is being
+	 * shown only the runs of this user are read from the server.
+	 * @return
+	 */
+	protected StatusQuery createQuery() {
+		final StatusQuery query = new StatusQuery(); // The model orders the beans
+		if (!Boolean.getBoolean("org.dawnsci.commandserver.ui.view.showWholeQueue") && !showEntireQueue) {
+			query.setUserName(getUserName());
+		}
+		return query;
 	}
 
-
 	private Class<StatusBean> getBeanClass() {
 	    String beanBundleName = getSecondaryIdAttribute("beanBundleName");
 	    String beanClassName  = getSecondaryIdAttribute("beanClassName");
@@ -18,6 +18,8 @@ import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.util.LocalSelectionTransfer;
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.TreeSelection;
 import org.eclipse.richbeans.widgets.file.FileSelectionDialog;
 import org.eclipse.richbeans.widgets.table.ISeriesItemDescriptor;
@@ -64,11 +66,15 @@ public class GeneratorView  extends ViewPart {
 
 	private List<GeneratorDescriptor> saved;
 	
+	// The path is read off the UI thread, plots listen to it.
+	private PathPreview  preview;
+	
 	public GeneratorView() {
 		this.pservice     = ServiceHolder.getGeneratorService();
 		this.eservice     = ServiceHolder.getEventService();
 		this.seriesTable  = new SeriesTable();
 		this.pointsFilter = new GeneratorFilter(pservice);
+		this.preview      = new PathPreview(pservice);
 	}
 	
 	@Override
@@ -117,6 +123,8 @@ public class GeneratorView  extends ViewPart {
 		seriesTable.setMenuManager(rightClick);
 		seriesTable.setInput(saved, pointsFilter);
 		
+		createPreview(content);
+		
 		DropTarget dt = seriesTable.getDropTarget();
 		dt.setTransfer(new Transfer[] { TextTransfer.getInstance(),
 				FileTransfer.getInstance(), ResourceTransfer.getInstance(),
@@ -148,6 +156,37 @@ public class GeneratorView  extends ViewPart {
 
 	}
 	
+	private void createPreview(final Composite content) {
+		
+		preview.addPathPreviewListener(new IPathPreviewListener() {
+			@Override
+			public void pathChanged(final PathPreviewEvent evt) {
+				if (!evt.isComplete() || content.isDisposed()) return;
+				content.getDisplay().asyncExec(new Runnable() {
+					public void run() {
+						if (content.isDisposed()) return;
+						setContentDescription("Scan of "+evt.getSize()+" points, "+evt.getX().length+" shown");
+					}
+				});
+			}
+		});
+		seriesTable.getSelectionProvider().addSelectionChangedListener(new ISelectionChangedListener() {
+			@Override
+			public void selectionChanged(SelectionChangedEvent event) {
+				refreshPreview();
+			}
+		});
+		refreshPreview();
+	}
+	
+	/**
+	 * Preview the path again, for instance because a model has been edited.
+	 * The preview being made is cancelled.
+	 */
+	public void refreshPreview() {
+		preview.preview(getGenerators());
+	}
+
 	private void createColumns() {
 		
 		// Do we need extra columns for the scans?
@@ -159,6 +198,9 @@ public class GeneratorView  extends ViewPart {
 		if (clazz==IPointGenerator.class) {
 			return getGenerators();
 		}
+		if (clazz==PathPreview.class) {
+			return preview;
+		}
 		return null;
 	}
 
@@ -175,6 +217,7 @@ public class GeneratorView  extends ViewPart {
 		add = new Action("Insert operation", Activator.getImageDescriptor("icons/clipboard-list.png")) {
 			public void run() {
 				seriesTable.addNew();
+				refreshPreview();
 			}
 		};
 
@@ -182,6 +225,7 @@ public class GeneratorView  extends ViewPart {
 		delete = new Action("Delete selected operation", Activator.getImageDescriptor("icons/clipboard--minus.png")) {
 			public void run() {
 				seriesTable.delete();
+				refreshPreview();
 			}
 		};
 
@@ -190,6 +234,7 @@ public class GeneratorView  extends ViewPart {
 			    boolean ok = MessageDialog.openQuestion(site.getShell(), "Confirm Clear Scan", "Do you want to clear the scan?");
 			    if (!ok) return;
 				seriesTable.clear();
+				refreshPreview();
 			}
 		};
 		
@@ -344,6 +389,7 @@ public class GeneratorView  extends ViewPart {
 					try {
 						((GeneratorDescriptor)current).getSeriesObject().setEnabled(isChecked());
 						seriesTable.refreshTable();
+						refreshPreview();
 					} catch (Exception e) {
 						// TODO Auto-generated catch block
 						e.printStackTrace();
@@ -359,6 +405,7 @@ public class GeneratorView  extends ViewPart {
 
 	@Override
 	public void dispose() {
+		preview.dispose();
 		seriesTable.dispose();
     }
 	
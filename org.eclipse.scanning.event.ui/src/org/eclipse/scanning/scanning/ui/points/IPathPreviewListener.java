@@ -0,0 +1,20 @@
+package org.eclipse.scanning.scanning.ui.points;
+
+import java.util.EventListener;
+
+/**
+ * Notified as the path of a scan is read for its preview. Called
+ * on the thread of the preview, not the UI thread.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public interface IPathPreviewListener extends EventListener {
+
+	/**
+	 * More of the path has been read, the event has all the points to
+	 * show from its start.
+	 * @param evt
+	 */
+	void pathChanged(PathPreviewEvent evt);
+}
@@ -0,0 +1,314 @@
+package org.eclipse.scanning.scanning.ui.points;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.IScanPathModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the path of the scan being edited in a background job and sends
+ * listeners the points to show, so that a path of millions of points can be
+ * previewed without blocking the user interface or sending a plot more points
+ * than it can show.
+ *
+ * Every Kth point of the path is shown, where K is chosen from the size of the
+ * path so that no more than org.eclipse.scanning.event.ui.previewPoints (default
+ * 100000) points are shown, and the points where the path turns are shown as
+ * well so that its shape is kept. The points are sent as they are read, a few
+ * times a second, so the path grows on the plot until it is complete.
+ *
+ * Previewing again, for instance because a model was edited, cancels the
+ * preview being made. Edits close together make one preview. The models of
+ * the generators previewed are listened to, so editing one of their properties
+ * previews the path again.
+ *
+ * The size of the path is not known until it has been read, so the path is
+ * counted first and then read again for the preview. Both may be cancelled and
+ * the path is cached as it is counted, so reading it again is quick.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class PathPreview {
+
+	private static final Logger logger = LoggerFactory.getLogger(PathPreview.class);
+
+	private static final int  MAX_POINTS   = Integer.getInteger("org.eclipse.scanning.event.ui.previewPoints", 100000);
+	private static final long UPDATE_NANOS = 100L*1000*1000;
+	private static final long DELAY        = 200; // ms
+
+	private final IPointGeneratorService             pservice;
+	private final Collection<IPathPreviewListener>   listeners;
+	private final PropertyChangeListener             modelListener;
+	private final Collection<IScanPathModel>         models;   // Guarded by this
+	private IPointGenerator<?, ?>[]                  pipeline; // Guarded by this
+	private Job                                      job;      // Guarded by this
+
+	public PathPreview(IPointGeneratorService pservice) {
+		this.pservice  = pservice;
+		this.listeners = new CopyOnWriteArrayList<IPathPreviewListener>();
+		this.models    = new ArrayList<IScanPathModel>(7);
+		this.modelListener = new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				refresh();
+			}
+		};
+	}
+
+	public void addPathPreviewListener(IPathPreviewListener l) {
+		listeners.add(l);
+	}
+
+	public void removePathPreviewListener(IPathPreviewListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Preview the path of the enabled generators, each one a loop inside the one before it.
+	 * Cancels the preview being made, if any.
+	 *
+	 * @param pipeline
+	 */
+	public synchronized void preview(IPointGenerator<?, ?>... pipeline) {
+		this.pipeline = pipeline!=null ? pipeline.clone() : null;
+		listen(this.pipeline);
+		refresh();
+	}
+
+	/**
+	 * Preview the path again because a model of it was edited.
+	 */
+	private synchronized void refresh() {
+		if (job!=null) job.cancel();
+		job = createJob(pipeline);
+		job.schedule(DELAY);
+	}
+
+	/**
+	 * Stop the preview being made, no more events are sent for it.
+	 */
+	public synchronized void cancel() {
+		if (job!=null) job.cancel();
+		job = null;
+	}
+
+	public synchronized void dispose() {
+		cancel();
+		listen(null);
+		pipeline = null;
+		listeners.clear();
+	}
+
+	/**
+	 * Listen to the models of the pipeline instead of those listened to before.
+	 */
+	private void listen(IPointGenerator<?, ?>[] pipeline) {
+		for (IScanPathModel model : models) model.removePropertyChangeListener(modelListener);
+		models.clear();
+		if (pipeline==null) return;
+		for (IPointGenerator<?, ?> gen : pipeline) {
+			final IScanPathModel model = gen!=null ? gen.getModel() : null;
+			if (model==null || models.contains(model)) continue;
+			model.addPropertyChangeListener(modelListener);
+			models.add(model);
+		}
+	}
+
+	private synchronized boolean isCurrent(Job job, IProgressMonitor monitor) {
+		return this.job==job && !monitor.isCanceled();
+	}
+
+	private Job createJob(final IPointGenerator<?, ?>[] pipeline) {
+
+		final Job job = new Job("Preview scan path") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+
+				final IPointGenerator<?, ? extends IPosition> gen;
+				try {
+					gen  = createGenerator(pipeline);
+					if (gen==null) return Status.OK_STATUS;
+				} catch (Exception ne) {
+					logger.debug("Cannot preview the scan", ne); // Models are often invalid while they are edited.
+					return Status.OK_STATUS;
+				}
+
+				monitor.beginTask("Preview scan path", IProgressMonitor.UNKNOWN);
+				try {
+					final int size = count(this, gen, monitor);
+					if (size<0) return Status.CANCEL_STATUS;
+					return read(this, gen, size, monitor);
+				} catch (Exception ne) {
+					logger.debug("Cannot read the points of the scan", ne);
+					return Status.OK_STATUS;
+				} finally {
+					monitor.done();
+				}
+			}
+		};
+		job.setPriority(Job.INTERACTIVE);
+		job.setSystem(true);
+		job.setUser(false);
+		return job;
+	}
+
+	private IPointGenerator<?, ? extends IPosition> createGenerator(IPointGenerator<?, ?>[] pipeline) throws Exception {
+
+		if (pipeline==null) return null;
+		final List<IPointGenerator<?, ? extends IPosition>> enabled = new ArrayList<IPointGenerator<?, ? extends IPosition>>(pipeline.length);
+		for (IPointGenerator<?, ?> gen : pipeline) {
+			if (gen!=null && gen.isEnabled()) enabled.add((IPointGenerator<?, ? extends IPosition>)gen);
+		}
+		if (enabled.isEmpty()) return null;
+
+		IPointGenerator<?, ? extends IPosition> gen = enabled.size()==1
+				                                    ? enabled.get(0)
+				                                    : pservice.createCompoundGenerator(enabled.toArray(new IPointGenerator[enabled.size()]));
+		// The same path is often previewed again, for instance when an edit is undone.
+		return pservice.createCachedGenerator(gen);
+	}
+
+	/**
+	 * Count the points of the path. Unlike the size of the generator this may be
+	 * cancelled, and it records the path in the cache for it to be read again.
+	 * 
+	 * @return the number of points or -1 if the preview was cancelled.
+	 */
+	private int count(Job job, IPointGenerator<?, ? extends IPosition> gen, IProgressMonitor monitor) {
+		int size = 0;
+		for (Iterator<? extends IPosition> it = gen.iterator(); it.hasNext(); it.next()) {
+			if ((size & 0xFFF)==0 && !isCurrent(job, monitor)) return -1;
+			++size;
+		}
+		return size;
+	}
+
+	/**
+	 * Read the path, keeping every stride'th point and the points where it turns.
+	 */
+	private IStatus read(Job job, IPointGenerator<?, ? extends IPosition> gen, int size, IProgressMonitor monitor) {
+
+		final int     stride  = Math.max(1, (int)Math.ceil(size/(double)MAX_POINTS));
+		final Points  points  = new Points(Math.min(size, MAX_POINTS)+64);
+		final double[] xy     = new double[2];
+		double  px = Double.NaN, py = Double.NaN;
+		int     pdx = 0, pdy = 0, corners = 0;
+		boolean pkept = false;
+		long    last  = System.nanoTime();
+
+		int step = 0;
+		for (Iterator<? extends IPosition> it = gen.iterator(); it.hasNext(); step++) {
+
+			if ((step & 0xFFF)==0 && !isCurrent(job, monitor)) return Status.CANCEL_STATUS;
+
+			coordinates(it.next(), step, xy);
+			if (step>0) {
+				final int dx = (int)Math.signum(xy[0]-px);
+				final int dy = (int)Math.signum(xy[1]-py);
+				// The last point was a corner if the path changed direction there.
+				if (step>1 && (dx!=pdx || dy!=pdy) && !pkept && corners<MAX_POINTS) {
+					points.add(px, py);
+					++corners;
+				}
+				pdx = dx;
+				pdy = dy;
+			}
+			pkept = step%stride==0 || !it.hasNext();
+			if (pkept) points.add(xy[0], xy[1]);
+			px = xy[0];
+			py = xy[1];
+
+			if ((step & 0x3FF)==0 && System.nanoTime()-last>UPDATE_NANOS) {
+				if (!isCurrent(job, monitor)) return Status.CANCEL_STATUS;
+				fire(new PathPreviewEvent(this, points.getX(), points.getY(), step+1, size, stride, false));
+				last = System.nanoTime();
+			}
+		}
+
+		if (!isCurrent(job, monitor)) return Status.CANCEL_STATUS;
+		fire(new PathPreviewEvent(this, points.getX(), points.getY(), step, size, stride, true));
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * A position as x and y. The last two axes of a position, which are the
+	 * innermost, or the step and the value of a position with one axis.
+	 */
+	private static void coordinates(IPosition pos, int step, double[] xy) {
+		final List<String> names = pos.getNames();
+		final int n = names!=null ? names.size() : 0;
+		if (n<1) {
+			xy[0] = step;
+			xy[1] = 0;
+		} else if (n==1) {
+			xy[0] = step;
+			xy[1] = value(pos.get(names.get(0)));
+		} else {
+			xy[0] = value(pos.get(names.get(n-2)));
+			xy[1] = value(pos.get(names.get(n-1)));
+		}
+	}
+
+	private static double value(Object value) {
+		return value instanceof Number ? ((Number)value).doubleValue() : Double.NaN;
+	}
+
+	private void fire(PathPreviewEvent evt) {
+		for (IPathPreviewListener l : listeners) {
+			try {
+				l.pathChanged(evt);
+			} catch (Exception ne) {
+				logger.error("Cannot notify "+l+" of the scan path", ne);
+			}
+		}
+	}
+
+	/**
+	 * The points shown, as growable primitive arrays.
+	 */
+	private static final class Points {
+
+		private double[] x, y;
+		private int      count;
+
+		Points(int capacity) {
+			this.x = new double[Math.max(16, capacity)];
+			this.y = new double[x.length];
+		}
+
+		void add(double px, double py) {
+			if (count==x.length) {
+				x = Arrays.copyOf(x, 2*count);
+				y = Arrays.copyOf(y, 2*count);
+			}
+			x[count] = px;
+			y[count] = py;
+			++count;
+		}
+
+		double[] getX() {
+			return Arrays.copyOf(x, count);
+		}
+
+		double[] getY() {
+			return Arrays.copyOf(y, count);
+		}
+	}
+}
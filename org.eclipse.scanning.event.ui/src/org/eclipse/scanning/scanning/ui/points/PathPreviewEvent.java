@@ -0,0 +1,85 @@
+package org.eclipse.scanning.scanning.ui.points;
+
+import java.util.EventObject;
+
+/**
+ * The points of the path being previewed, from its start to the last
+ * point read so far. The arrays belong to the event and may be given to
+ * a plot directly.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class PathPreviewEvent extends EventObject {
+
+	private static final long serialVersionUID = 6051338925137745023L;
+
+	private final double[] x;
+	private final double[] y;
+	private final int      read;
+	private final int      size;
+	private final int      stride;
+	private final boolean  complete;
+
+	public PathPreviewEvent(PathPreview source, double[] x, double[] y, int read, int size, int stride, boolean complete) {
+		super(source);
+		this.x        = x;
+		this.y        = y;
+		this.read     = read;
+		this.size     = size;
+		this.stride   = stride;
+		this.complete = complete;
+	}
+
+	public PathPreview getPreview() {
+		return (PathPreview)getSource();
+	}
+
+	/**
+	 *
+	 * @return the x values of the points shown.
+	 */
+	public double[] getX() {
+		return x;
+	}
+
+	/**
+	 *
+	 * @return the y values of the points shown.
+	 */
+	public double[] getY() {
+		return y;
+	}
+
+	/**
+	 *
+	 * @return the number of points of the path read so far.
+	 */
+	public int getRead() {
+		return read;
+	}
+
+	/**
+	 *
+	 * @return the number of points in the whole path.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 *
+	 * @return every how many points one is shown, apart from the corners of the path.
+	 */
+	public int getStride() {
+		return stride;
+	}
+
+	/**
+	 *
+	 * @return true if the whole path has been read.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+}
@@ -27,6 +27,7 @@ import org.eclipse.scanning.api.event.IEventConnectorService;
 import org.eclipse.scanning.api.event.core.IQueueConnection;
 import org.eclipse.scanning.api.event.status.Status;
 import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.api.event.status.StatusQuery;
 
 public abstract class AbstractQueueConnection<U extends StatusBean> extends AbstractConnection implements IQueueConnection<U>{
 
@@ -56,7 +57,7 @@ public abstract class AbstractQueueConnection<U extends StatusBean> extends Abst
 		
 		Comparator<U> c = null;
 		
-		if (fieldName!=null) c = getComparator(fieldName);
+		if (fieldName!=null) c = BeanComparators.getComparator(beanClass, fieldName);
 			
 
 		QueueReader<U> reader = new QueueReader<U>(service, c);
@@ -66,61 +67,23 @@ public abstract class AbstractQueueConnection<U extends StatusBean> extends Abst
 			throw new EventException("Cannot get the beans for queue " + qName, e);
 		}
 	}
-	
 
-	private Comparator<U> getComparator(final String fieldName) {
+	@Override
+	public List<U> queryQueue(String qName, StatusQuery query) throws EventException {
 		
-		if ("submissionTime".equals(fieldName)) { // Short cu no reflection
-			
-			return new Comparator<U>() {		
-				@Override
-				public int compare(U o1, U o2) {
-					// Newest first!
-			        long t1 = o2.getSubmissionTime();
-			        long t2 = o1.getSubmissionTime();
-			        if (t1<t2) return -1;
-			        if (t1==t2) return o1.equals(o2) ? 0 : 1;
-			        return 1;
-				}
-			};
-			
-		} else {
-			
-			return new Comparator<U>() {		
-				@Override
-				public int compare(U o1, U o2) {	
-					try {
-						Object val1 = o1.getClass().getMethod(getGetterName(fieldName)).invoke(o1);
-						Object val2 = o2.getClass().getMethod(getGetterName(fieldName)).invoke(o2);
-						
-						if (val1 instanceof Number && val2 instanceof Number) {
-							Number n1 = (Number)val1;
-							Number n2 = (Number)val2;
-					        double t1 = n1.doubleValue();
-					        double t2 = n2.doubleValue();
-					        if (t1<t2) return -1;
-					        if (t1==t2) return o1.equals(o2) ? 0 : 1;
-					        return 1;
-						}
-						
-						return val1.toString().compareTo(val2.toString());
-						
-					} catch (Exception ne) {
-						return o1.toString().compareTo(o2.toString());
-					}
-				}
-			};
+		if (query==null) return getQueue(qName, null);
+		
+		Comparator<U> c = null;
+		if (query.getSortField()!=null) c = BeanComparators.getComparator(beanClass, query.getSortField());
 
+		QueueReader<U> reader = new QueueReader<U>(service, c);
+		try {
+			return reader.getBeans(uri, qName, beanClass, query);
+		} catch (Exception e) {
+			throw new EventException("Cannot query the beans for queue " + qName+" using "+query, e);
 		}
 	}
-	private static String getGetterName(final String fieldName) {
-		if (fieldName == null)
-			return null;
-		return getName("get", fieldName);
-	}
-	private static String getName(final String prefix, final String fieldName) {
-		return prefix + getFieldWithUpperCaseFirstLetter(fieldName);
-	}
+	
 	public static String getFieldWithUpperCaseFirstLetter(final String fieldName) {
 		return fieldName.substring(0, 1).toUpperCase(Locale.US) + fieldName.substring(1);
 	}
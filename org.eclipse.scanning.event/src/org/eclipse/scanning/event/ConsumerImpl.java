@@ -2,7 +2,9 @@ package org.eclipse.scanning.event;
 
 import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
@@ -15,20 +17,26 @@ import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.QueueBrowser;
 import javax.jms.QueueConnectionFactory;
+import javax.jms.QueueSession;
 import javax.jms.Session;
 import javax.jms.TextMessage;
 
+import org.eclipse.scanning.api.ExecutorProviders;
+import org.eclipse.scanning.api.IExecutorProvider;
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventConnectorService;
 import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.event.alive.HeartbeatBean;
 import org.eclipse.scanning.api.event.alive.KillBean;
+import org.eclipse.scanning.api.event.alive.QueueStatsBean;
 import org.eclipse.scanning.api.event.bean.BeanEvent;
 import org.eclipse.scanning.api.event.bean.IBeanListener;
 import org.eclipse.scanning.api.event.core.IConsumer;
 import org.eclipse.scanning.api.event.core.IConsumerProcess;
+import org.eclipse.scanning.api.event.core.IPreparingCreator;
 import org.eclipse.scanning.api.event.core.IProcessCreator;
 import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.IScheduler;
 import org.eclipse.scanning.api.event.core.ISubmitter;
 import org.eclipse.scanning.api.event.core.ISubscriber;
 import org.eclipse.scanning.api.event.status.Status;
@@ -48,10 +56,15 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 	private ISubscriber<IBeanListener<U>> terminator;
 	private ISubscriber<IBeanListener<KillBean>> killer;
 	private ISubmitter<U>                 mover;
+	private QueueStatsPublisher<U>        stats;
 
 	private IProcessCreator<U>            runner;
 	private boolean                       durable;
 	private MessageConsumer               consumer;
+
+	private volatile IScheduler<U>        scheduler;
+	private QueueSession                  scheduleSession; // Only used by the consumer thread
+	private U                             prepared;        // Only used by the consumer thread
 	
 	private volatile boolean              active;
 	private volatile Map<String, WeakReference<IConsumerProcess<U>>>  processes;
@@ -83,6 +96,10 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 			alive.setConsumerId(consumerId);
 			alive.setConsumerName(getName());
 		}
+		
+		final IPublisher<QueueStatsBean>                 statsPublisher  = eservice.createPublisher(uri, IEventService.QUEUE_STATS_TOPIC);
+		final ISubscriber<IBeanListener<QueueStatsBean>> statsSubscriber = eservice.createSubscriber(uri, IEventService.QUEUE_STATS_TOPIC);
+		stats = new QueueStatsPublisher<U>(uri, statsPublisher, statsSubscriber, service);
 				
 		if (killTName!=null) {
 			killer = eservice.createSubscriber(uri, killTName);
@@ -175,6 +192,7 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 		mover.disconnect();
 		status.disconnect();
 		alive.disconnect();
+		stats.disconnect();
 		killer.disconnect();
 		if (overrideMap!=null) overrideMap.clear();
 		try {
@@ -204,7 +222,8 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 	@Override
 	public void start() throws EventException {
 				
-		final Thread consumerThread = new Thread("Consumer Thread "+getName()) {
+		final IExecutorProvider provider = ExecutorProviders.getProvider();
+		final Thread consumerThread = provider.newThread("Consumer Thread "+getName(), true, new Runnable() {
 			public void run() {
 				try {
 					ConsumerImpl.this.run();
@@ -218,9 +237,8 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 					}
 				}
 			}
-		};
-		consumerThread.setDaemon(true);
-		consumerThread.setPriority(Thread.NORM_PRIORITY-1);
+		});
+		if (!provider.isVirtual()) consumerThread.setPriority(Thread.NORM_PRIORITY-1); // Virtual threads cannot have their priority changed.
 		consumerThread.start();
 	}
 	
@@ -232,6 +250,9 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 			@Override
 			public void beanChangePerformed(BeanEvent<U> evt) {
 				U bean = evt.getBean();
+				final IScheduler<U> scheduler = getScheduler();
+				if (scheduler!=null && bean.getStatus()!=null && bean.getStatus().isFinal()) scheduler.finished(bean);
+				stats.finished(bean);
 				if (bean.getStatus()!=Status.REQUEST_TERMINATE) return;
 				
 				WeakReference<IConsumerProcess<U>> ref = processes.remove(bean.getUniqueId());
@@ -255,6 +276,7 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 	@Override
 	public void stop() throws EventException {
         alive.setAlive(false); // Broadcasts that we are being killed
+        stats.stop();
         setActive(false);
         @SuppressWarnings("unchecked")
 		final WeakReference<IConsumerProcess<U>>[] wra = processes.values().toArray(new WeakReference[processes.size()]);
@@ -271,6 +293,7 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 
 		if (runner!=null) {
 			alive.setAlive(true);
+			stats.start(this);
 		} else {
 			throw new EventException("Cannot start a consumer without a runner to run things!");
 		}
@@ -280,6 +303,18 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 		while(isActive()){
         	try {
         		
+        		final IScheduler<U> scheduler = getScheduler();
+        		if (scheduler!=null) {
+        			// The scheduler chooses which of the waiting beans to run.
+        			final U bean = takeScheduled(scheduler, uri, getSubmitQueueName());
+        			if (bean!=null) {
+        				waitTime = 0;
+        				executeBean(bean);
+        			}
+        			continue;
+        		}
+        		stopScheduling();
+
         		// Consumes messages from the queue.
 	        	Message m = getMessage(uri, getSubmitQueueName());
 	            if (m!=null) {
@@ -373,9 +408,164 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 		
 		if (bean.getStatus().isFinal()) return; // This is not the bean you are looking for.
 
+		final IScheduler<U> scheduler = getScheduler();
 		IConsumerProcess<U> process = runner.createProcess(bean, status);
 		processes.put(bean.getUniqueId(), new WeakReference<IConsumerProcess<U>>(process));
+		if (scheduler!=null) scheduler.started(bean);
+		stats.started(bean);
 		process.execute(); // Depending on the process this may or may not run in a separate thread.
+		if (scheduler!=null && bean.getStatus().isFinal()) scheduler.finished(bean);
+		stats.finished(bean);
+	}
+
+	/**
+	 * Browse the submission queue, ask the scheduler which bean to run and take it
+	 * from the queue. The beans stay in the queue until they run so that they can
+	 * still be seen, reordered and terminated. Starts preparing the bean which
+	 * will run after the one taken.
+	 *
+	 * @return the bean to run or null if there is none.
+	 */
+	private U takeScheduled(IScheduler<U> scheduler, URI uri, String submitQName) throws Exception {
+
+		try {
+			if (consumer!=null) { // We were consuming in queue order, the consumer may hold messages.
+				consumer.close();
+				consumer = null;
+			}
+			if (scheduleSession==null) scheduleSession = createScheduleSession(uri);
+
+			final Queue                queue   = scheduleSession.createQueue(submitQName);
+			final List<U>              waiting = new ArrayList<>();
+			final Map<String, String>  ids     = new HashMap<>();
+			final QueueBrowser         qb      = scheduleSession.createBrowser(queue);
+			try {
+				@SuppressWarnings("rawtypes")
+				Enumeration  e  = qb.getEnumeration();
+				while(e.hasMoreElements()) {
+					Message m = (Message)e.nextElement();
+					if (!(m instanceof TextMessage)) continue;
+					try {
+						@SuppressWarnings("unchecked")
+						final U bean = (U) service.unmarshal(((TextMessage)m).getText(), StatusBean.class);
+						if (bean==null || bean.getUniqueId()==null) continue;
+						waiting.add(bean);
+						ids.put(bean.getUniqueId(), m.getJMSMessageID());
+					} catch (Exception ne) {
+						logger.error("Cannot read bean in "+submitQName+" to schedule it", ne);
+					}
+				}
+			} finally {
+				qb.close();
+			}
+
+			if (waiting.isEmpty()) {
+				releasePrepared();
+				Thread.sleep(500); // The same as waiting for a message.
+				return null;
+			}
+
+			final List<U> order = scheduler.schedule(waiting);
+			for (int i = 0; i < order.size(); i++) {
+				final String jMSMessageID = ids.get(order.get(i).getUniqueId());
+				if (jMSMessageID==null) continue;
+
+				MessageConsumer taker = scheduleSession.createConsumer(queue, "JMSMessageID = '"+jMSMessageID+"'");
+				Message m = taker.receive(500);
+				taker.close();
+				if (!(m instanceof TextMessage)) continue; // Taken by another consumer
+
+				@SuppressWarnings("unchecked")
+				final U bean = (U) service.unmarshal(((TextMessage)m).getText(), StatusBean.class);
+				prepare(bean, i+1<order.size() ? order.get(i+1) : null);
+				return bean;
+			}
+			return null;
+
+		} catch (Exception ne) {
+			scheduleSession = null;
+			try {
+				connection.close();
+			} catch (Exception expected) {
+				logger.info("Cannot close old connection", ne);
+			}
+			throw ne;
+		}
+	}
+
+	private QueueSession createScheduleSession(URI uri) throws JMSException {
+
+		QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
+		this.connection = connectionFactory.createQueueConnection();
+		QueueSession session = connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
+		connection.start();
+
+		logger.warn(getName()+" Scheduled submission ActiveMQ connection to "+uri+" made.");
+
+		return session;
+	}
+
+	/**
+	 * Start preparing the bean which will run after the one about to run, if the runner can.
+	 *
+	 * @param running the bean about to run
+	 * @param next the bean to run after it or null
+	 */
+	private void prepare(U running, final U next) {
+
+		if (!(runner instanceof IPreparingCreator)) return;
+		if (prepared!=null && isSame(prepared, running)) {
+			prepared = null; // The creator uses what it prepared when the process is created.
+		}
+		if (next!=null && prepared!=null && isSame(prepared, next)) return; // Already being prepared.
+
+		releasePrepared();
+		if (next==null || next.getStatus()==null || next.getStatus().isFinal()) return;
+
+		prepared = next;
+		@SuppressWarnings("unchecked")
+		final IPreparingCreator<U> creator = (IPreparingCreator<U>)runner;
+		final Thread thread = ExecutorProviders.getProvider().newThread("Prepare "+next.getName(), true, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					creator.prepare(next);
+				} catch (Exception ne) {
+					logger.warn("Cannot prepare "+next.getName()+", it will be set up when it runs", ne);
+				}
+			}
+		});
+		thread.start();
+	}
+
+	/**
+	 * The scheduler has been removed, consume the queue in order again.
+	 */
+	private void stopScheduling() {
+		releasePrepared();
+		if (scheduleSession==null) return;
+		scheduleSession = null;
+		consumer        = null;
+		try {
+			connection.close();
+		} catch (Exception ne) {
+			logger.info("Cannot close scheduled connection", ne);
+		}
+	}
+
+	private void releasePrepared() {
+		if (prepared==null) return;
+		final U bean = prepared;
+		prepared = null;
+		if (runner instanceof IPreparingCreator) {
+			try {
+				@SuppressWarnings("unchecked")
+				final IPreparingCreator<U> creator = (IPreparingCreator<U>)runner;
+				creator.release(bean);
+			} catch (Exception ne) {
+				logger.error("Cannot release "+bean.getName(), ne);
+			}
+		}
 	}
 
 	protected void checkTime(long waitTime) {
@@ -443,6 +633,16 @@ public class ConsumerImpl<U extends StatusBean> extends AbstractQueueConnection<
 		if (alive!=null) alive.setConsumerName(getName());
 	}
 
+	@Override
+	public void setScheduler(IScheduler<U> scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public IScheduler<U> getScheduler() {
+		return scheduler;
+	}
+
 	public boolean isActive() {
 		return active;
 	}
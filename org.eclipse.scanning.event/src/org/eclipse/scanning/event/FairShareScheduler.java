@@ -0,0 +1,210 @@
+package org.eclipse.scanning.event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import org.eclipse.scanning.api.event.core.IScheduler;
+import org.eclipse.scanning.api.event.status.StatusBean;
+
+/**
+ * Schedules beans by priority class and then shares the consumer fairly
+ * between the users who submitted them.
+ *
+ * Beans with a higher priority always run before those with a lower one.
+ * Within a priority class, the next bean is taken from the user who has
+ * used the consumer least recently, counting the time each bean ran for.
+ * Use decays with a half life of org.eclipse.scanning.event.scheduler.halfLife
+ * ms (default an hour), so that what a user ran yesterday does not count today.
+ * The beans of one user run in the order they were submitted.
+ *
+ * For instance if one user queues twenty scans and then a second user queues
+ * two, the second user's scans take turns with the first user's rather than
+ * waiting for all twenty.
+ *
+ * Spring config, for instance:
+ * <pre>
+ * {@literal <bean id="scheduler" class="org.eclipse.scanning.event.FairShareScheduler"/>}
+ * </pre>
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class FairShareScheduler<U extends StatusBean> implements IScheduler<U> {
+
+	private static final long HALF_LIFE = Long.getLong("org.eclipse.scanning.event.scheduler.halfLife", 60*60*1000); // ms
+
+	private final long                 halfLife;
+	private final Map<String, Usage>   usage;   // By user name, guarded by this
+	private final Map<String, Running> running; // By unique id, guarded by this
+	private long                       runs;    // Guarded by this
+	private long                       runTime; // Guarded by this
+
+	public FairShareScheduler() {
+		this(HALF_LIFE);
+	}
+
+	/**
+	 *
+	 * @param halfLife in ms of the time each user has used the consumer.
+	 */
+	public FairShareScheduler(long halfLife) {
+		if (halfLife<1) throw new IllegalArgumentException("The half life must be at least 1ms");
+		this.halfLife = halfLife;
+		this.usage    = new HashMap<>(7);
+		this.running  = new HashMap<>(7);
+	}
+
+	@Override
+	public synchronized List<U> schedule(List<U> waiting) {
+
+		if (waiting==null || waiting.isEmpty()) return new ArrayList<U>(0);
+
+		// Each priority class, highest first, is a map of user to their beans in submission order.
+		final Map<Integer, Map<String, Deque<U>>> classes = new TreeMap<>(Collections.<Integer>reverseOrder());
+		for (U bean : sortBySubmission(waiting)) {
+			Map<String, Deque<U>> users = classes.get(bean.getPriority());
+			if (users==null) {
+				users = new LinkedHashMap<>(7);
+				classes.put(bean.getPriority(), users);
+			}
+			final String user = getUser(bean);
+			Deque<U> beans = users.get(user);
+			if (beans==null) {
+				beans = new ArrayDeque<>();
+				users.put(user, beans);
+			}
+			beans.add(bean);
+		}
+
+		final long now  = now();
+		final double mean = runs>0 ? runTime/(double)runs : 1d;
+		final List<U> ret = new ArrayList<>(waiting.size());
+		for (Map<String, Deque<U>> users : classes.values()) {
+
+			// The user with the least use goes next, and is charged the mean run time
+			// for the bean so that the users take turns in proportion to their use.
+			final PriorityQueue<Share> shares = new PriorityQueue<>(users.size());
+			int order = 0;
+			for (Map.Entry<String, Deque<U>> entry : users.entrySet()) {
+				shares.add(new Share(entry.getKey(), getUsage(entry.getKey(), now), order++));
+			}
+			while (!shares.isEmpty()) {
+				final Share    share = shares.poll();
+				final Deque<U> beans = users.get(share.user);
+				ret.add(beans.poll());
+				if (!beans.isEmpty()) {
+					share.usage += mean;
+					shares.add(share);
+				}
+			}
+		}
+		return ret;
+	}
+
+	@Override
+	public synchronized void started(U bean) {
+		running.put(bean.getUniqueId(), new Running(getUser(bean), now()));
+	}
+
+	@Override
+	public synchronized void finished(U bean) {
+		final Running run = running.remove(bean.getUniqueId());
+		if (run==null) return; // Not started by this consumer or already finished.
+
+		final long now  = now();
+		final long time = Math.max(0, now-run.start);
+		Usage use = usage.get(run.user);
+		if (use==null) {
+			use = new Usage();
+			usage.put(run.user, use);
+		}
+		use.value = use.decay(now, halfLife)+time;
+		use.time  = now;
+		runs++;
+		runTime += time;
+	}
+
+	/**
+	 *
+	 * @param user
+	 * @return the time in ms which the user has used the consumer, decayed to now.
+	 */
+	public synchronized double getUsage(String user) {
+		return getUsage(user, now());
+	}
+
+	private double getUsage(String user, long now) {
+		final Usage use = usage.get(user);
+		return use!=null ? use.decay(now, halfLife) : 0d;
+	}
+
+	/**
+	 * The current time in ms, may be overridden in tests.
+	 * @return
+	 */
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+
+	private static String getUser(StatusBean bean) {
+		return bean.getUserName()!=null ? bean.getUserName() : "";
+	}
+
+	private static <U extends StatusBean> List<U> sortBySubmission(List<U> waiting) {
+		final List<U> sorted = new ArrayList<>(waiting);
+		// Stable, beans submitted at the same time keep the order of the queue.
+		Collections.sort(sorted, new Comparator<U>() {
+			@Override
+			public int compare(U o1, U o2) {
+				return Long.compare(o1.getSubmissionTime(), o2.getSubmissionTime());
+			}
+		});
+		return sorted;
+	}
+
+	private static final class Usage {
+		double value; // ms
+		long   time;  // When value was last updated
+
+		double decay(long now, long halfLife) {
+			return value*Math.pow(0.5, Math.max(0, now-time)/(double)halfLife);
+		}
+	}
+
+	private static final class Running {
+		final String user;
+		final long   start;
+
+		Running(String user, long start) {
+			this.user  = user;
+			this.start = start;
+		}
+	}
+
+	private static final class Share implements Comparable<Share> {
+		final String user;
+		final int    order; // The user with the oldest bean goes first if the use is the same.
+		double       usage;
+
+		Share(String user, double usage, int order) {
+			this.user  = user;
+			this.usage = usage;
+			this.order = order;
+		}
+
+		@Override
+		public int compareTo(Share o) {
+			final int ret = Double.compare(usage, o.usage);
+			return ret!=0 ? ret : Integer.compare(order, o.order);
+		}
+	}
+}
@@ -16,6 +16,8 @@ import javax.jms.QueueBrowser;
 import javax.jms.TextMessage;
 import javax.jms.Topic;
 
+import org.eclipse.scanning.api.ExecutorProviders;
+import org.eclipse.scanning.api.IExecutorProvider;
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventConnectorService;
 import org.eclipse.scanning.api.event.alive.ConsumerStatus;
@@ -91,7 +93,8 @@ class PublisherImpl<T> extends AbstractConnection implements IPublisher<T> {
 				throw new EventException("Unable to start the heartbeat producer using uri "+uri+" and topic "+getTopicName());
 			}
 			
-			Thread aliveThread = new Thread(new Runnable() {
+			final IExecutorProvider provider = ExecutorProviders.getProvider();
+			Thread aliveThread = provider.newThread("Alive Notification "+getTopicName()+" ", true, new Runnable() {
 				public void run() {
 
 					long waitTime = 0;
@@ -141,9 +144,7 @@ class PublisherImpl<T> extends AbstractConnection implements IPublisher<T> {
 					}
 				}
 			});
-			aliveThread.setName("Alive Notification "+getTopicName()+" ");
-			aliveThread.setDaemon(true);
-			aliveThread.setPriority(Thread.MIN_PRIORITY);
+			if (!provider.isVirtual()) aliveThread.setPriority(Thread.MIN_PRIORITY); // Virtual threads cannot have their priority changed.
 			aliveThread.start();
 			
 		} else {
@@ -4,11 +4,13 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.TreeSet;
 
 import javax.jms.Connection;
@@ -27,6 +29,7 @@ import javax.jms.Topic;
 
 import org.eclipse.scanning.api.event.IEventConnectorService;
 import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.api.event.status.StatusQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -108,6 +111,77 @@ class QueueReader<T extends StatusBean> {
 
 	}
 
+	/**
+	 * Read the status beans matching a query from any queue.
+	 * 
+	 * The beans are filtered as the queue is browsed rather than after the whole
+	 * queue has been read. If the query is not sorted, browsing stops as soon as 
+	 * enough beans have been found to fill the page. If it is sorted only the best
+	 * offset+limit beans are retained while browsing.
+	 * 
+	 * @param uri
+	 * @param queueName
+	 * @param beanClass
+	 * @param query
+	 * @return
+	 * @throws Exception
+	 */
+	public List<T> getBeans(final URI uri, final String queueName, final Class<T> beanClass, final StatusQuery query) throws Exception {
+		
+		final int     offset  = query.getOffset();
+		final int     size    = query.isLimited() ? offset+query.getLimit() : Integer.MAX_VALUE;
+
+		QueueConnection qCon = null;
+		try {	        
+			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
+			qCon  = connectionFactory.createQueueConnection(); // This times out when the server is not there.
+			QueueSession    qSes  = qCon.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
+			Queue queue   = qSes.createQueue(queueName);
+			qCon.start();
+
+			QueueBrowser qb = qSes.createBrowser(queue);
+			@SuppressWarnings("rawtypes")
+			Enumeration  e  = qb.getEnumeration();
+
+			// If sorted and limited, the head of this queue is the worst bean we have retained.
+			final PriorityQueue<T> best = comparator!=null && query.isLimited()
+					                    ? new PriorityQueue<T>(Math.min(size+1, 1024), Collections.reverseOrder(comparator))
+					                    : null;
+			final List<T> list = new ArrayList<T>(17);
+
+			while(e.hasMoreElements()) {
+				Message m = (Message)e.nextElement();
+				if (m==null) continue;
+				if (m instanceof TextMessage) {
+					TextMessage t = (TextMessage)m;
+					String json   = t.getText();
+					@SuppressWarnings("unchecked")
+					final T bean = (T)service.unmarshal(json, beanClass != null ? beanClass : StatusBean.class);
+					if (!query.isMatch(bean)) continue;
+					
+					if (best!=null) {
+						best.add(bean);
+						if (best.size()>size) best.poll();
+						
+					} else {
+						list.add(bean);
+						if (comparator==null && list.size()>=size) break; // We have our page
+					}
+				}
+			}
+			qb.close();
+			
+			if (best!=null) list.addAll(best);
+			if (comparator!=null) Collections.sort(list, comparator);
+			
+			if (offset>=list.size()) return new ArrayList<T>(0);
+			return new ArrayList<T>(list.subList(offset, Math.min(size, list.size())));
+
+		} finally {
+			if (qCon!=null) qCon.close();
+		}
+	}
+
 	/**
 	 * 
 	 * @param uri
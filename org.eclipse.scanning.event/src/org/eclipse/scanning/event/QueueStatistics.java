@@ -0,0 +1,207 @@
+package org.eclipse.scanning.event;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.scanning.api.event.alive.QueueStatsBean;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.event.status.StatusBean;
+
+/**
+ * Rolling counters and histograms of the beans which a consumer runs.
+ *
+ * The window, org.eclipse.scanning.event.stats.window ms (default ten minutes),
+ * is split into slots. Each slot counts the beans started and finished in it,
+ * the time they waited in the queue, the time they ran for and the time the
+ * consumer was busy. A snapshot adds up the slots in the window, so old work
+ * drops out of the statistics a slot at a time.
+ *
+ * A bean which has been running for longer than org.eclipse.scanning.event.stats.maxRunning
+ * ms (default a day) is taken to have died without reporting a final status and is
+ * no longer counted as running.
+ *
+ * The counts are updated once per bean, so this class is synchronized rather
+ * than lock free.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class QueueStatistics<U extends StatusBean> {
+
+	private static final long WINDOW      = Long.getLong("org.eclipse.scanning.event.stats.window", 10*60*1000); // ms
+	private static final long MAX_RUNNING = Long.getLong("org.eclipse.scanning.event.stats.maxRunning", 24*60*60*1000); // ms
+
+	private final long              slotLength;
+	private final Slot[]            slots;
+	private final Map<String, Long> running; // Start times by unique id, guarded by this
+	private final long              created;
+	private long                    total;   // Guarded by this
+
+	public QueueStatistics() {
+		this(WINDOW, 10);
+	}
+
+	/**
+	 *
+	 * @param window in ms which the statistics cover
+	 * @param slots the number of slots the window is split into
+	 */
+	public QueueStatistics(long window, int slots) {
+		if (slots<1) throw new IllegalArgumentException("There must be at least one slot");
+		if (window<slots) throw new IllegalArgumentException("The window must be at least 1ms per slot");
+		this.slotLength = window/slots;
+		this.slots      = new Slot[slots];
+		for (int i = 0; i < slots; i++) this.slots[i] = new Slot();
+		this.running    = new HashMap<>(7);
+		this.created    = now();
+	}
+
+	/**
+	 * Call when a bean starts to run.
+	 * @param bean
+	 */
+	public synchronized void started(U bean) {
+		final long now = now();
+		if (running.containsKey(bean.getUniqueId())) return;
+		running.put(bean.getUniqueId(), now);
+
+		final Slot slot = getSlot(now);
+		slot.started++;
+		if (bean.getSubmissionTime()>0) slot.waitTimes[QueueStatsBean.bucket(now-bean.getSubmissionTime())]++;
+	}
+
+	/**
+	 * Call when a bean has a final status. Beans which were not
+	 * started or have already finished are ignored.
+	 * @param bean
+	 */
+	public synchronized void finished(U bean) {
+		final Long start = running.remove(bean.getUniqueId());
+		if (start==null) return;
+
+		final long now  = now();
+		final Slot slot = getSlot(now);
+		if (bean.getStatus()==Status.COMPLETE) {
+			slot.completed++;
+		} else if (bean.getStatus()==Status.TERMINATED || bean.getStatus()==Status.REQUEST_TERMINATE) {
+			slot.terminated++;
+		} else {
+			slot.failed++;
+		}
+		slot.runTimes[QueueStatsBean.bucket(now-start)]++;
+		addBusy(start, now);
+		total++;
+	}
+
+	/**
+	 * Call when the beans being run will no longer report their status,
+	 * for instance because the consumer has stopped. They are not counted.
+	 */
+	public synchronized void clearRunning() {
+		running.clear();
+	}
+
+	/**
+	 *
+	 * @return the statistics of the window up to now. The consumer and queue
+	 * are left for the caller to fill in.
+	 */
+	public synchronized QueueStatsBean snapshot() {
+
+		final long now   = now();
+		final long first = getFirstSlotStart(now);
+		expire(now);
+
+		final QueueStatsBean bean = new QueueStatsBean();
+		bean.setPublishTime(now);
+		bean.setWindow(Math.max(1, now-Math.max(first, created)));
+
+		final long[] waitTimes = new long[QueueStatsBean.BUCKETS];
+		final long[] runTimes  = new long[QueueStatsBean.BUCKETS];
+		long busy = 0;
+		for (Slot slot : slots) {
+			if (slot.start<first) continue; // Out of the window
+			bean.setStarted(bean.getStarted()+slot.started);
+			bean.setCompleted(bean.getCompleted()+slot.completed);
+			bean.setFailed(bean.getFailed()+slot.failed);
+			bean.setTerminated(bean.getTerminated()+slot.terminated);
+			busy+=slot.busy;
+			for (int i = 0; i < QueueStatsBean.BUCKETS; i++) {
+				waitTimes[i]+=slot.waitTimes[i];
+				runTimes[i] +=slot.runTimes[i];
+			}
+		}
+		for (long start : running.values()) busy+=Math.max(0, now-Math.max(start, first));
+
+		bean.setBusyTime(busy);
+		bean.setRunning(running.size());
+		bean.setTotal(total);
+		bean.setWaitTimes(trim(waitTimes));
+		bean.setRunTimes(trim(runTimes));
+		return bean;
+	}
+
+	/**
+	 * The current time in ms, may be overridden in tests.
+	 * @return
+	 */
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * Forget the beans which have run for so long that they must have died without a final status.
+	 */
+	private void expire(long now) {
+		for (Iterator<Long> it = running.values().iterator(); it.hasNext();) {
+			if (now-it.next() > MAX_RUNNING) it.remove();
+		}
+	}
+
+	/**
+	 * Adds the time a bean ran to the slots it ran in, as far back as the window goes.
+	 */
+	private void addBusy(long from, long to) {
+		final long first = getFirstSlotStart(to);
+		for (long time = Math.max(from, first); time<to; ) {
+			final long start = time-time%slotLength;
+			final long end   = Math.min(to, start+slotLength);
+			getSlot(start).busy+=end-time;
+			time = end;
+		}
+	}
+
+	private long getFirstSlotStart(long now) {
+		return now-now%slotLength-(slots.length-1)*slotLength;
+	}
+
+	private Slot getSlot(long time) {
+		final long start = time-time%slotLength;
+		final Slot slot  = slots[(int)((start/slotLength)%slots.length)];
+		if (slot.start<start) slot.reset(start);
+		return slot;
+	}
+
+	private static long[] trim(long[] buckets) {
+		int length = buckets.length;
+		while (length>0 && buckets[length-1]==0) --length;
+		return length>0 ? Arrays.copyOf(buckets, length) : null;
+	}
+
+	private static final class Slot {
+		long         start = Long.MIN_VALUE;
+		long         started, completed, failed, terminated;
+		long         busy; // ms
+		final long[] waitTimes = new long[QueueStatsBean.BUCKETS];
+		final long[] runTimes  = new long[QueueStatsBean.BUCKETS];
+
+		void reset(long start) {
+			this.start = start;
+			started = completed = failed = terminated = busy = 0;
+			Arrays.fill(waitTimes, 0);
+			Arrays.fill(runTimes, 0);
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package org.eclipse.scanning.event;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.QueueConnection;
+import javax.jms.QueueConnectionFactory;
+import javax.jms.QueueSession;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+
+import org.eclipse.scanning.api.ExecutorProviders;
+import org.eclipse.scanning.api.IExecutorProvider;
+import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.IEventConnectorService;
+import org.eclipse.scanning.api.event.alive.QueueStatsBean;
+import org.eclipse.scanning.api.event.bean.BeanEvent;
+import org.eclipse.scanning.api.event.bean.IBeanListener;
+import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.ISubscriber;
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the statistics of a consumer and the depth of its submission queue
+ * every org.eclipse.scanning.event.stats.period ms (default 5000, 0 to switch off).
+ *
+ * Only one consumer of each queue finds its depth, the one with the lowest id of
+ * those publishing statistics for the queue, the others publish a depth of -1.
+ * It asks the broker for the statistics of the queue, which ActiveMQ answers if
+ * its statistics plugin is installed. If the broker does not answer, the queue
+ * is browsed, which also gives the time the oldest bean has waited. Clients 
+ * listen to the topic instead of browsing.
+ *
+ * @author Matthew Gerring
+ *
+ */
+final class QueueStatsPublisher<U extends StatusBean> {
+
+	private static final Logger logger = LoggerFactory.getLogger(QueueStatsPublisher.class);
+
+	private static final long PERIOD = Long.getLong("org.eclipse.scanning.event.stats.period", 5000); // ms
+
+	/**
+	 * The destination which the ActiveMQ statistics plugin answers for a queue.
+	 */
+	private static final String STATISTICS_PREFIX = "ActiveMQ.Statistics.Destination.";
+
+	private final QueueStatistics<U>                           statistics;
+	private final IPublisher<QueueStatsBean>                   publisher;
+	private final ISubscriber<IBeanListener<QueueStatsBean>>   subscriber;
+	private final IEventConnectorService                       service;
+	private final URI                                          uri;
+	private final Map<UUID, Long>                              peers; // The consumers of the queue by when they last published
+
+	private volatile boolean                 alive;
+	private QueueConnection                  connection; // Only used by the publishing thread
+	private boolean                          brokerStatistics = true; // False once the broker has not answered
+
+	QueueStatsPublisher(URI uri, IPublisher<QueueStatsBean> publisher, ISubscriber<IBeanListener<QueueStatsBean>> subscriber, IEventConnectorService service) {
+		this.uri        = uri;
+		this.publisher  = publisher;
+		this.subscriber = subscriber;
+		this.service    = service;
+		this.statistics = new QueueStatistics<U>();
+		this.peers      = new ConcurrentHashMap<UUID, Long>(7);
+	}
+
+	void started(U bean) {
+		statistics.started(bean);
+	}
+
+	void finished(U bean) {
+		if (bean.getStatus()!=null && bean.getStatus().isFinal()) statistics.finished(bean);
+	}
+
+	/**
+	 * Start publishing.
+	 * @param consumer which is being published
+	 */
+	void start(final ConsumerImpl<U> consumer) {
+
+		if (PERIOD<1 || alive) return;
+		alive = true;
+		
+		try {
+			subscriber.addListener(new IBeanListener<QueueStatsBean>() {
+				@Override
+				public void beanChangePerformed(BeanEvent<QueueStatsBean> evt) {
+					final QueueStatsBean bean = evt.getBean();
+					if (bean.getConsumerId()==null || !consumer.getSubmitQueueName().equals(bean.getQueueName())) return;
+					peers.put(bean.getConsumerId(), System.currentTimeMillis());
+				}
+				@Override
+				public Class<QueueStatsBean> getBeanClass() {
+					return QueueStatsBean.class;
+				}
+			});
+		} catch (EventException ne) {
+			logger.warn("Cannot listen to the statistics of the other consumers of "+consumer.getSubmitQueueName(), ne);
+		}
+
+		final IExecutorProvider provider = ExecutorProviders.getProvider();
+		final Thread statsThread = provider.newThread("Queue Statistics "+consumer.getName(), true, new Runnable() {
+			public void run() {
+				while(alive) {
+					try {
+						Thread.sleep(PERIOD);
+						if (!alive) return;
+						publisher.broadcast(createSnapshot(consumer.getConsumerId(), consumer.getName(), consumer.getSubmitQueueName()));
+
+					} catch (InterruptedException ne) {
+						return;
+					} catch (Exception ne) {
+						closeConnection();
+						logger.warn("Cannot publish the statistics of "+consumer.getName(), ne);
+					}
+				}
+				closeConnection();
+			}
+		});
+		if (!provider.isVirtual()) statsThread.setPriority(Thread.MIN_PRIORITY); // Virtual threads cannot have their priority changed.
+		statsThread.start();
+	}
+
+	/**
+	 * Stop publishing. The beans being run will not report
+	 * to the consumer now so they are no longer counted as running.
+	 */
+	void stop() {
+		alive = false;
+		statistics.clearRunning();
+	}
+
+	void disconnect() throws EventException {
+		stop();
+		publisher.disconnect();
+		subscriber.disconnect();
+	}
+
+	private QueueStatsBean createSnapshot(UUID consumerId, String consumerName, String queueName) throws Exception {
+
+		final QueueStatsBean bean = statistics.snapshot();
+		bean.setConsumerId(consumerId);
+		bean.setConsumerName(consumerName);
+		bean.setQueueName(queueName);
+		bean.setHostName(InetAddress.getLocalHost().getHostName());
+		bean.setPeriod(PERIOD);
+		bean.setQueueDepth(-1);
+		bean.setOldestWaiting(-1);
+		if (!isCounting(consumerId, bean.getPublishTime())) return bean;
+
+		if (connection==null) {
+			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
+			connection = connectionFactory.createQueueConnection();
+			connection.start();
+		}
+		final QueueSession session = connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
+		try {
+			if (brokerStatistics) {
+				final int depth = readDepth(session, queueName);
+				if (depth>-1) {
+					bean.setQueueDepth(depth);
+					return bean;
+				}
+				brokerStatistics = false;
+				logger.info("The broker does not publish the statistics of "+queueName+", it will be browsed by "+consumerName);
+			}
+			browse(session, queueName, bean);
+		} finally {
+			session.close();
+		}
+		return bean;
+	}
+
+	/**
+	 * 
+	 * @return true if this consumer has the lowest id of those which have
+	 * published statistics for the queue recently, it then finds the depth.
+	 */
+	private boolean isCounting(UUID consumerId, long now) {
+		for (Iterator<Map.Entry<UUID, Long>> it = peers.entrySet().iterator(); it.hasNext();) {
+			final Map.Entry<UUID, Long> peer = it.next();
+			if (now-peer.getValue() > 3*PERIOD) {
+				it.remove(); // Consumers which have stopped publishing are dropped.
+			} else if (peer.getKey().compareTo(consumerId)<0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Asks the ActiveMQ statistics plugin for the size of the queue. The request
+	 * expires if nothing answers it so requests do not build up on a broker without
+	 * the plugin.
+	 * 
+	 * @return the number of messages in the queue or -1 if the broker did not answer.
+	 */
+	private int readDepth(QueueSession session, String queueName) throws JMSException {
+		final TemporaryQueue  replies  = session.createTemporaryQueue();
+		final MessageConsumer consumer = session.createConsumer(replies);
+		final MessageProducer producer = session.createProducer(session.createQueue(STATISTICS_PREFIX+queueName));
+		try {
+			producer.setTimeToLive(PERIOD);
+			final Message request = session.createMessage();
+			request.setJMSReplyTo(replies);
+			producer.send(request);
+			
+			final Message reply = consumer.receive(Math.min(1000, PERIOD));
+			if (!(reply instanceof MapMessage) || !((MapMessage)reply).itemExists("size")) return -1;
+			return (int)((MapMessage)reply).getLong("size");
+		} finally {
+			producer.close();
+			consumer.close();
+			replies.delete();
+		}
+	}
+
+	/**
+	 * Browse the message headers of the queue for its depth and the time the
+	 * oldest bean has waited, the beans are not read.
+	 */
+	private void browse(QueueSession session, String queueName, QueueStatsBean bean) throws JMSException {
+		final Queue        queue = session.createQueue(queueName);
+		final QueueBrowser qb    = session.createBrowser(queue);
+		try {
+			@SuppressWarnings("rawtypes")
+			final Enumeration  e     = qb.getEnumeration();
+			int  depth  = 0;
+			long oldest = bean.getPublishTime();
+			while(e.hasMoreElements()) {
+				final Message m = (Message)e.nextElement();
+				if (m==null) continue;
+				++depth;
+				if (m.getJMSTimestamp()>0) oldest = Math.min(oldest, m.getJMSTimestamp());
+			}
+			bean.setQueueDepth(depth);
+			bean.setOldestWaiting(depth>0 ? bean.getPublishTime()-oldest : 0);
+		} finally {
+			qb.close();
+		}
+	}
+
+	private void closeConnection() {
+		if (connection==null) return;
+		try {
+			connection.close();
+		} catch (JMSException ne) {
+			logger.info("Cannot close statistics connection", ne);
+		} finally {
+			connection = null;
+		}
+	}
+}
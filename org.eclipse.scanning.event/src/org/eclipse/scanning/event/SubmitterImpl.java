@@ -1,11 +1,15 @@
 package org.eclipse.scanning.event;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.UUID;
 
 import javax.jms.Connection;
 import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageProducer;
@@ -29,6 +33,7 @@ class SubmitterImpl<T extends StatusBean> extends AbstractQueueConnection<T> imp
 	private int    priority;
 	private long   lifeTime;
 	private long   timestamp;
+	private boolean asynchronous;
 
 	SubmitterImpl(URI uri, String submitQueue, IEventConnectorService service) {
 		super(uri, null, service);
@@ -49,9 +54,7 @@ class SubmitterImpl<T extends StatusBean> extends AbstractQueueConnection<T> imp
 
 		try {
 
-			QueueConnectionFactory connectionFactory = (QueueConnectionFactory)service.createConnectionFactory(uri);
-			send              = connectionFactory.createConnection();
-
+			send    = createConnection();
 			session = send.createSession(false, Session.AUTO_ACKNOWLEDGE);
 			Queue queue = session.createQueue(getSubmitQueueName());
 
@@ -59,48 +62,148 @@ class SubmitterImpl<T extends StatusBean> extends AbstractQueueConnection<T> imp
 			producer.setDeliveryMode(DeliveryMode.PERSISTENT);
 
 			if (bean.getSubmissionTime()<1) bean.setSubmissionTime(System.currentTimeMillis());
-			if (getPriority()<1)  setPriority(1);
-			if (getLifeTime()<1)  setLifeTime(7*24*60*60*1000); // 7 days in ms
-
 			if (uniqueId==null) {
 				uniqueId = bean.getUniqueId()!=null ? bean.getUniqueId() : UUID.randomUUID().toString();
 			}
 			if (prepareBean) {
-				if (bean.getUserName()==null) bean.setUserName(System.getProperty("user.name"));
 				if (bean.getUniqueId()==null) bean.setUniqueId(uniqueId);
 				if (getTimestamp()>0) bean.setSubmissionTime(getTimestamp());
 			}
 
-			String json = null;
+			producer.send(createMessage(session, bean, prepareBean));
+
+
+		} catch (Exception e) {
+			throw new EventException("Problem opening connection to queue! ", e);
+
+		} finally {
 			try {
-				json = service.marshal(bean);
+				if (send!=null)     send.close();
+				if (session!=null)  session.close();
+				if (producer!=null) producer.close();
 			} catch (Exception e) {
-				throw new EventException("Unable to marshall bean "+bean, e);
+				throw new EventException("Cannot close connection as expected!", e);
 			}
+		}
 
-			TextMessage message = session.createTextMessage(json);
+	}
 
-			message.setJMSMessageID(bean.getUniqueId());
-			message.setJMSExpiration(getLifeTime());
-			message.setJMSTimestamp(getTimestamp());
-			message.setJMSPriority(getPriority());
+	@Override
+	public void submitAll(Collection<T> beans) throws EventException {
+		
+		if (beans==null || beans.isEmpty()) return;
+		
+		Connection send    = null;
+		Session    session = null;
+		final List<Original> originals = new ArrayList<>(beans.size()); // The beans are left as they were if none are submitted
+		try {
+			
+			send    = createConnection();
+			session = send.createSession(true, Session.SESSION_TRANSACTED);
+			Queue queue = session.createQueue(getSubmitQueueName());
 
-			producer.send(message);
+			final MessageProducer producer = session.createProducer(queue);
+			producer.setDeliveryMode(DeliveryMode.PERSISTENT);
 
+			// Each bean has its own id and submission time, so that they are queued and shown in order.
+			final long time = getTimestamp()>0 ? getTimestamp() : System.currentTimeMillis();
+			int index = 0;
+			for (T bean : beans) {
+				originals.add(new Original(bean));
+				if (bean.getUniqueId()==null) bean.setUniqueId(UUID.randomUUID().toString());
+				if (getTimestamp()>0 || bean.getSubmissionTime()<1) bean.setSubmissionTime(time+index);
+				++index;
+				producer.send(createMessage(session, bean, true));
+			}
+			session.commit(); // Nothing is on the queue until this returns.
 
 		} catch (Exception e) {
-			throw new EventException("Problem opening connection to queue! ", e);
+			try {
+				if (session!=null) session.rollback();
+			} catch (JMSException ne) {
+				logger.error("Cannot roll back the submission of "+beans.size()+" beans", ne);
+			}
+			for (Original original : originals) original.restore();
+			throw new EventException("Cannot submit "+beans.size()+" beans to "+getSubmitQueueName()+", none were submitted!", e);
 
 		} finally {
 			try {
-				if (send!=null)     send.close();
-				if (session!=null)  session.close();
-				if (producer!=null) producer.close();
+				if (send!=null) send.close();
 			} catch (Exception e) {
 				throw new EventException("Cannot close connection as expected!", e);
 			}
 		}
+	}
+
+	/**
+	 * The fields of a bean which submitting it sets.
+	 */
+	private static final class Original {
+		
+		private final StatusBean bean;
+		private final String     uniqueId;
+		private final String     userName;
+		private final long       submissionTime;
+		private final int        priority;
+		
+		Original(StatusBean bean) {
+			this.bean           = bean;
+			this.uniqueId       = bean.getUniqueId();
+			this.userName       = bean.getUserName();
+			this.submissionTime = bean.getSubmissionTime();
+			this.priority       = bean.getPriority();
+		}
+		
+		void restore() {
+			bean.setUniqueId(uniqueId);
+			bean.setUserName(userName);
+			bean.setSubmissionTime(submissionTime);
+			bean.setPriority(priority);
+		}
+	}
+
+	/**
+	 * Creates the message for a bean, preparing the bean if required.
+	 */
+	private TextMessage createMessage(Session session, T bean, boolean prepareBean) throws Exception {
+
+		if (getPriority()<1)  setPriority(1);
+		if (getLifeTime()<1)  setLifeTime(7*24*60*60*1000); // 7 days in ms
+
+		if (prepareBean) {
+			if (bean.getUserName()==null) bean.setUserName(System.getProperty("user.name"));
+			if (bean.getPriority()<1) bean.setPriority(getPriority());
+		}
+
+		String json = null;
+		try {
+			json = service.marshal(bean);
+		} catch (Exception e) {
+			throw new EventException("Unable to marshall bean "+bean, e);
+		}
+
+		TextMessage message = session.createTextMessage(json);
+
+		message.setJMSMessageID(bean.getUniqueId());
+		message.setJMSExpiration(getLifeTime());
+		message.setJMSTimestamp(getTimestamp());
+		message.setJMSPriority(getPriority());
+		return message;
+	}
 
+	private Connection createConnection() throws JMSException {
+		
+		final Object factory = service.createConnectionFactory(uri);
+		if (isAsynchronous()) {
+			// The connector service hides the provider, ActiveMQ can send without waiting for the broker.
+			try {
+				factory.getClass().getMethod("setUseAsyncSend", boolean.class).invoke(factory, true);
+			} catch (Exception ne) {
+				logger.debug("The connection factory "+factory.getClass().getSimpleName()+" cannot send asynchronously", ne);
+			}
+		}
+		QueueConnectionFactory connectionFactory = (QueueConnectionFactory)factory;
+		return connectionFactory.createConnection();
 	}
 	
 	@Override
@@ -202,4 +305,14 @@ class SubmitterImpl<T extends StatusBean> extends AbstractQueueConnection<T> imp
 		this.timestamp = timestamp;
 	}
 
+
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
+
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+
 }
@@ -1,10 +1,12 @@
 package org.eclipse.scanning.example.detector;
 
+import java.util.Random;
+
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
 import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
-import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.analysis.dataset.impl.DoubleDataset;
 import org.eclipse.dawnsci.nexus.INexusDevice;
 import org.eclipse.dawnsci.nexus.NXdetector;
 import org.eclipse.dawnsci.nexus.NexusBaseClass;
@@ -14,6 +16,7 @@ import org.eclipse.dawnsci.nexus.builder.DelegateNexusProvider;
 import org.eclipse.dawnsci.nexus.builder.NexusObjectProvider;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
+import org.eclipse.scanning.api.scan.FramePool;
 import org.eclipse.scanning.api.scan.IWritableDetector;
 import org.eclipse.scanning.api.scan.ScanningException;
 
@@ -32,6 +35,8 @@ public class ConstantVelocityDevice extends AbstractRunnableDevice<ConstantVeloc
 
 	private ILazyWriteableDataset context;
 	private IDataset              data;
+	private double[]              frame; // Borrowed from the frame pool until written
+	private final Random          random = new Random();
 
 	@Override
 	public NexusObjectProvider<NXdetector> getNexusProvider(NexusScanInfo info) {
@@ -60,7 +65,11 @@ public class ConstantVelocityDevice extends AbstractRunnableDevice<ConstantVeloc
 		// To simulate this, we create a line using the definition in the model
 		// EPICS might write an HDF5 file with this data rather than the data 
 		// being in memory.
-		data = Random.rand(new int[]{model.getLineSize(), model.getChannelCount(), model.getSpectraSize()});
+		final int[] shape = new int[]{model.getLineSize(), model.getChannelCount(), model.getSpectraSize()};
+		if (frame!=null && frame.length!=shape[0]*shape[1]*shape[2]) release();
+		if (frame==null) frame = FramePool.getDefault().borrowDoubles(shape);
+		for (int i = 0; i < frame.length; i++) frame[i] = random.nextDouble();
+		data = new DoubleDataset(frame, shape);
 	}
 
 	@Override
@@ -73,11 +82,19 @@ public class ConstantVelocityDevice extends AbstractRunnableDevice<ConstantVeloc
 
 		} catch (Exception e) {
 			throw new ScanningException(e.getMessage(), e); 
+		} finally {
+			release();
 		}
 
 		return true;
 	}
 
+	private void release() {
+		FramePool.getDefault().release(frame);
+		frame = null;
+		data  = null;
+	}
+
 	@Override
 	public void configure(ConstantVelocityModel model) throws ScanningException {	
 		super.configure(model);
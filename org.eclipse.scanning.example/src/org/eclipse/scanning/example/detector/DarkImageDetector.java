@@ -19,12 +19,14 @@
 package org.eclipse.scanning.example.detector;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
 
-import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.SliceND;
 import org.eclipse.dawnsci.analysis.dataset.impl.Dataset;
-import org.eclipse.dawnsci.analysis.dataset.impl.Random;
+import org.eclipse.dawnsci.analysis.dataset.impl.DoubleDataset;
+import org.eclipse.dawnsci.analysis.dataset.impl.IntegerDataset;
 import org.eclipse.dawnsci.nexus.INexusDevice;
 import org.eclipse.dawnsci.nexus.NXdetector;
 import org.eclipse.dawnsci.nexus.NexusBaseClass;
@@ -34,26 +36,53 @@ import org.eclipse.dawnsci.nexus.builder.DelegateNexusProvider;
 import org.eclipse.dawnsci.nexus.builder.NexusObjectProvider;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
+import org.eclipse.scanning.api.scan.FramePool;
 import org.eclipse.scanning.api.scan.IWritableDetector;
 import org.eclipse.scanning.api.scan.ScanningException;
 
 
 /**
- * A dummy detector which must be set up with references to two Scannables representing X and Y positions. When used in a step scan, this detector generates a
- * value of 0 if the point (x, y) is in the Mandelbrot set, and greater than zero otherwise.
- * <p>
- * Note: values will always be high if used at (x, y) positions more than 2 units away from the origin.
+ * A dummy detector which takes a dark image every so many points of a scan.
+ * The darks are appended to a 3D stack, whatever the rank of the scan, and
+ * are written a chunk of the stack at a time. The {@value DarkIndex#DATASET_NAME}
+ * dataset records which dark applies to each step of the scan.
  */
 public class DarkImageDetector extends AbstractRunnableDevice<DarkImageModel> implements IWritableDetector<DarkImageModel>, INexusDevice<NXdetector> {
 
+	/**
+	 * The steps of the index which are written together.
+	 */
+	private static final int INDEX_CHUNK = 1024;
 
-	private IDataset              image;
 	private ILazyWriteableDataset data;
-	private int darkCount = 0;
+	private ILazyWriteableDataset index;
+	private final DarkIndex       darkIndex;
+	private final Random          random;
+
+	// The darks taken but not written, a chunk of the stack
+	private double[] batch;
+	private int      batched;
+	private boolean  taken;
+	private int      darkCount = 0;
+	private int      written   = 0;
+	private int      misaligned;
+
+	// The last steps whose dark and whose index entry are in the file
+	private volatile int darkStep;
+	private volatile int indexStep;
+	private int          lastStep;
+
+	// The steps of the index not written
+	private int[]    steps;
+	private int      stepStart;
+	private int      stepCount;
 	
 	public DarkImageDetector() throws IOException {
 		super();
-		this.model = new DarkImageModel();
+		this.model     = new DarkImageModel();
+		this.darkIndex = new DarkIndex();
+		this.random    = new Random();
+		this.steps     = new int[INDEX_CHUNK];
 	}
 	
 	public NexusObjectProvider<NXdetector> getNexusProvider(NexusScanInfo info) {
@@ -68,8 +97,13 @@ public class DarkImageDetector extends AbstractRunnableDevice<DarkImageModel> im
 		data = detector.initializeLazyDataset(NXdetector.NX_DATA, 3, Dataset.FLOAT64);
 		
 		// Setting chunking is a very good idea if speed is required.
-		data.setChunking(new int[]{1, model.getRows(), model.getColumns()});
+		// The darks are written a chunk at a time.
+		data.setChunking(new int[]{getBatchSize(), model.getRows(), model.getColumns()});
 		
+		index = detector.initializeLazyDataset(DarkIndex.DATASET_NAME, 1, Dataset.INT32);
+		index.setChunking(new int[]{INDEX_CHUNK});
+		
+		resetDarks();
 		return detector;
 	}
 
@@ -77,40 +111,137 @@ public class DarkImageDetector extends AbstractRunnableDevice<DarkImageModel> im
 	public void configure(DarkImageModel model) throws ScanningException {	
 		super.configure(model);
 		setName(model.getName());
+		resetDarks();
+	}
+	
+	private void resetDarks() {
+		FramePool.getDefault().release(batch);
+		batch     = null;
+		batched   = 0;
+		taken     = false;
 		darkCount = 0;
+		written   = 0;
+		misaligned= 0;
+		stepCount = 0;
+		darkStep  = -1;
+		indexStep = -1;
+		lastStep  = -1;
+		darkIndex.clear();
 	}
 
 	@Override
 	public void run(IPosition pos) throws ScanningException, InterruptedException {
 		
 		// Other logic may be done here as when to get the dark image.
-		if (pos.getStepIndex()%model.getFrequency() == 0) {
-			image = Random.rand(new int[]{model.getRows(), model.getColumns()});
-		} else {
-			image = null;
+		taken = pos.getStepIndex()%model.getFrequency() == 0;
+		if (taken) {
+			final int size = model.getRows()*model.getColumns();
+			if (batch==null) batch = FramePool.getDefault().borrowDoubles(getBatchSize(), model.getRows(), model.getColumns());
+			for (int i = batched*size; i < (batched+1)*size; i++) batch[i] = random.nextDouble();
 		}
   	}
 	
 	@Override
     public boolean write(IPosition pos) throws ScanningException {
 		
-		if (image==null) return false;
+		final boolean wrote = taken;
+		if (taken) {
+			++batched;
+			++darkCount;
+			taken = false;
+		}
+		darkIndex.set(pos.getStepIndex(), darkCount-1);
 		
 		try {
-			// Append the dark to the stack, without writing
-			// NaNs.
-			// This means an nD scan always gives a 3D dark stack.
-			final int[] start = {darkCount,   0, 0};
-			final int[] stop  = {darkCount+1, model.getRows(), model.getColumns()};			
-			SliceND slice = new SliceND(data.getShape(), data.getMaxShape(), start, stop, null);			
-			data.setSlice(null, image, slice);
-			darkCount+=1;
+			if (batched==getBatchSize()) writeDarks();
+			if (darkCount-1<written) darkStep = pos.getStepIndex(); // This step's dark is in the file
+			addStep(pos.getStepIndex(), darkCount-1);
+			lastStep = pos.getStepIndex();
 			
 		} catch (Exception e) {
 			throw new ScanningException(e.getMessage(), e); 
 		}
 
-		return true;
+		return wrote;
+	}
+
+	@Override
+	public void writeComplete() throws ScanningException {
+		try {
+			if (batched>0) writeDarks();
+			writeSteps();
+			darkStep = lastStep;
+		} catch (Exception e) {
+			throw new ScanningException(e.getMessage(), e); 
+		} finally {
+			FramePool.getDefault().release(batch);
+			batch = null;
+		}
+	}
+
+	/**
+	 * Append the darks in the batch to the stack, without writing NaNs.
+	 * This means an nD scan always gives a 3D dark stack.
+	 */
+	private void writeDarks() throws Exception {
+		if (written%getBatchSize()!=0) ++misaligned;
+		if (data!=null) {
+			final int[]    shape  = new int[]{batched, model.getRows(), model.getColumns()};
+			final double[] darks  = batched==getBatchSize() ? batch : Arrays.copyOf(batch, batched*model.getRows()*model.getColumns());
+			final int[]    start  = {written,   0, 0};
+			final int[]    stop   = {written+batched, model.getRows(), model.getColumns()};			
+			SliceND slice = new SliceND(data.getShape(), data.getMaxShape(), start, stop, null);			
+			data.setSlice(null, new DoubleDataset(darks, shape), slice);
+		}
+		written+=batched;
+		batched = 0;
+	}
+
+	private void addStep(int step, int dark) throws Exception {
+		if (stepCount>0 && (step!=stepStart+stepCount || stepCount==steps.length)) writeSteps();
+		if (stepCount==0) stepStart = step;
+		steps[stepCount++] = dark;
+	}
+
+	private void writeSteps() throws Exception {
+		if (stepCount<1) return;
+		if (index!=null) {
+			final int[] start = {stepStart};
+			final int[] stop  = {stepStart+stepCount};
+			SliceND slice = new SliceND(index.getShape(), index.getMaxShape(), start, stop, null);
+			index.setSlice(null, new IntegerDataset(Arrays.copyOf(steps, stepCount), stepCount), slice);
+		}
+		indexStep = stepStart+stepCount-1;
+		stepCount = 0;
+	}
+
+	/**
+	 * The darks are written a whole chunk of the stack at a time and the index
+	 * a chunk of steps at a time, so the step written lags the step run. 
+	 */
+	@Override
+	public int getWrittenStep() {
+		return Math.min(darkStep, indexStep);
+	}
+
+	private int getBatchSize() {
+		return Math.max(1, model.getBatchSize());
+	}
+
+	/**
+	 * 
+	 * @return which dark applies to each step of the scan written so far.
+	 */
+	public DarkIndex getDarkIndex() {
+		return darkIndex;
+	}
+
+	/**
+	 * 
+	 * @return the number of writes of darks in the last scan which did not start at a chunk of the stack.
+	 */
+	public int getMisalignedWrites() {
+		return misaligned;
 	}
 
 
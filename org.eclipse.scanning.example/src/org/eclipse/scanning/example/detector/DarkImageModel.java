@@ -6,12 +6,14 @@ public class DarkImageModel {
 	private int    columns;
 	private int    rows;
 	private int    frequency;
+	private int    batchSize; // The darks written together, the chunk size of the stack
 	
 	public DarkImageModel() {
 		name          = "dark";
 		columns       = 301;
 		rows          = 241;
 		frequency     = 10;
+		batchSize     = 4;
 	}
 	
 	public String getName() {
@@ -26,6 +28,7 @@ public class DarkImageModel {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = prime * result + batchSize;
 		result = prime * result + columns;
 		result = prime * result + frequency;
 		result = prime * result + rows;
@@ -40,6 +43,8 @@ public class DarkImageModel {
 		if (getClass() != obj.getClass())
 			return false;
 		DarkImageModel other = (DarkImageModel) obj;
+		if (batchSize != other.batchSize)
+			return false;
 		if (columns != other.columns)
 			return false;
 		if (frequency != other.frequency)
@@ -66,4 +71,10 @@ public class DarkImageModel {
 	public void setFrequency(int frequency) {
 		this.frequency = frequency;
 	}
+	public int getBatchSize() {
+		return batchSize;
+	}
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
 }
@@ -0,0 +1,93 @@
+package org.eclipse.scanning.example.detector;
+
+import java.util.Arrays;
+
+import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
+
+/**
+ * Which dark image applies to each point of a scan. The dark detector
+ * writes this as the {@value #DATASET_NAME} dataset alongside its stack of
+ * darks, one value per step of the scan, so that processing can find the dark
+ * for a point without reading through the scan.
+ *
+ * The dark of a step is the last one taken at or before it, or {@value #NONE}
+ * if none had been taken.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class DarkIndex {
+
+	public static final String DATASET_NAME = "dark_index";
+	public static final int    NONE         = -1;
+
+	private int[] darks;
+	private int   size;
+
+	public DarkIndex() {
+		this(64);
+	}
+
+	public DarkIndex(int capacity) {
+		this.darks = new int[Math.max(1, capacity)];
+		this.size  = 0;
+	}
+
+	/**
+	 * Read the index which the dark detector wrote.
+	 * @param index the {@value #DATASET_NAME} dataset, one value per step.
+	 */
+	public DarkIndex(IDataset index) {
+		this(index.getSize());
+		final int[] pos = new int[index.getRank()];
+		final int[] shape = index.getShape();
+		for (int step = 0; step < index.getSize(); step++) {
+			set(step, index.getInt(toPosition(step, shape, pos)));
+		}
+	}
+
+	private static int[] toPosition(int step, int[] shape, int[] pos) {
+		for (int i = shape.length-1; i > -1; i--) {
+			pos[i] = step%shape[i];
+			step   = step/shape[i];
+		}
+		return pos;
+	}
+
+	/**
+	 * Record the dark of a step. Steps not set before it have no dark.
+	 * @param step of the scan
+	 * @param dark index in the stack of darks
+	 */
+	public void set(int step, int dark) {
+		if (step<0) throw new IllegalArgumentException("The step cannot be negative");
+		if (step>=darks.length) darks = Arrays.copyOf(darks, Math.max(step+1, darks.length*2));
+		if (step>=size) {
+			Arrays.fill(darks, size, step, NONE);
+			size = step+1;
+		}
+		darks[step] = dark;
+	}
+
+	/**
+	 *
+	 * @param step of the scan
+	 * @return the index of the dark in the stack or {@value #NONE}
+	 */
+	public int getDark(int step) {
+		if (step<0 || step>=size) return NONE;
+		return darks[step];
+	}
+
+	/**
+	 *
+	 * @return the number of steps in the index.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,151 @@
+package org.eclipse.scanning.example.detector;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates Julia sets for the Mandelbrot detector into primitive frames.
+ *
+ * An image is split into tiles of rows which are calculated in parallel on
+ * a fork join pool, so that the simulated detector can produce frames fast
+ * enough to test the writing of the scan. The parameters of the model are
+ * read once when the renderer is created and the inner loop uses only local
+ * primitives.
+ *
+ * The pool uses the number of processors, set
+ * org.eclipse.scanning.example.juliaThreads to change this.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class JuliaSetRenderer {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(Integer.getInteger("org.eclipse.scanning.example.juliaThreads", Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * The rows calculated by one task.
+	 */
+	private static final int TILE_ROWS = 8;
+
+	private final int    maxIterations;
+	private final double escapeRadius;
+	private final double escapeRadiusSquared;
+	private final double log2;
+
+	public JuliaSetRenderer(int maxIterations, double escapeRadius) {
+		this.maxIterations       = maxIterations;
+		this.escapeRadius        = escapeRadius;
+		this.escapeRadiusSquared = escapeRadius*escapeRadius;
+		this.log2                = Math.log(2.0);
+	}
+
+	/**
+	 *
+	 * @param maxIterations
+	 * @param escapeRadius
+	 * @return true if this renderer was created with these parameters.
+	 */
+	public boolean isFor(int maxIterations, double escapeRadius) {
+		return this.maxIterations==maxIterations && Double.compare(this.escapeRadius, escapeRadius)==0;
+	}
+
+	/**
+	 * Fill a Julia set around the origin for the value C = a + bi into a frame
+	 * of rows by columns, in parallel.
+	 *
+	 * @param a
+	 * @param b
+	 * @param maxX the frame goes from -maxX to maxX
+	 * @param maxY the frame goes from -maxY to maxY
+	 * @param columns
+	 * @param rows
+	 * @param frame of at least rows*columns, written row by row.
+	 */
+	public void render(final double a, final double b, double maxX, double maxY, int columns, int rows, double[] frame) {
+		final double yStep = (2*maxY) / (rows - 1);
+		final Tile   tile  = new Tile(a, b, -maxY, yStep, -maxX, maxX, columns, 0, rows, frame);
+		if (rows<=TILE_ROWS) {
+			tile.compute();
+		} else {
+			POOL.invoke(tile);
+		}
+	}
+
+	/**
+	 * Fill a Julia set line between xStart and xStop at the given y value, for the value C = a + bi,
+	 * into the frame from offset.
+	 */
+	public void renderLine(final double a, final double b, final double y, final double xStart, final double xStop, final int numPoints, double[] frame, int offset) {
+		final double xStep = (xStop - xStart) / (numPoints - 1);
+		for (int xIndex = 0; xIndex < numPoints; xIndex++) {
+			frame[offset+xIndex] = julia(xStart + xIndex * xStep, y, a, b);
+		}
+	}
+
+	/**
+	 * Iterations of f(z) = z^2 + C, where z = x + yi and C = a + bi
+	 */
+	public double julia(double x, double y, final double a, final double b) {
+		final int    max    = maxIterations;
+		final double radius = escapeRadiusSquared;
+		int iteration = 0;
+		double xSquared, ySquared, tempX;
+		do {
+			xSquared = x * x;
+			ySquared = y * y;
+			tempX = xSquared - ySquared + a;
+			y = 2 * x * y + b;
+			x = tempX;
+			iteration++;
+		} while (iteration < max && xSquared + ySquared < radius);
+
+		final double modulusSquared = x * x + y * y;
+
+		// If modulus > 1.0, normalise the result
+		// (Theoretically, I think this should make the value roughly independent of MAX_ITERATIONS and ESCAPE_RADIUS)
+		if (modulusSquared > 1.0) {
+			return iteration - (Math.log(0.5 * Math.log(modulusSquared)) / log2);
+		}
+		// Otherwise just return the iteration count
+		return iteration;
+	}
+
+	/**
+	 * The rows from start to end of a frame, split in half until it has
+	 * TILE_ROWS or fewer.
+	 */
+	private final class Tile extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double   a, b, yStart, yStep, xStart, xStop;
+		private final int      columns, start, end;
+		private final double[] frame;
+
+		Tile(double a, double b, double yStart, double yStep, double xStart, double xStop, int columns, int start, int end, double[] frame) {
+			this.a       = a;
+			this.b       = b;
+			this.yStart  = yStart;
+			this.yStep   = yStep;
+			this.xStart  = xStart;
+			this.xStop   = xStop;
+			this.columns = columns;
+			this.start   = start;
+			this.end     = end;
+			this.frame   = frame;
+		}
+
+		@Override
+		protected void compute() {
+			if (end-start<=TILE_ROWS) {
+				for (int yIndex = start; yIndex < end; yIndex++) {
+					renderLine(a, b, yStart + yIndex * yStep, xStart, xStop, columns, frame, yIndex*columns);
+				}
+			} else {
+				final int middle = (start+end)>>>1;
+				invokeAll(new Tile(a, b, yStart, yStep, xStart, xStop, columns, start, middle, frame),
+						  new Tile(a, b, yStart, yStep, xStart, xStop, columns, middle, end,   frame));
+			}
+		}
+	}
+}
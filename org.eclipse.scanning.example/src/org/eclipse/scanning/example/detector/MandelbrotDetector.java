@@ -23,6 +23,7 @@ import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.dawnsci.analysis.api.dataset.IDataset;
 import org.eclipse.dawnsci.analysis.api.dataset.ILazyWriteableDataset;
@@ -39,6 +40,7 @@ import org.eclipse.dawnsci.nexus.builder.DelegateNexusProvider;
 import org.eclipse.dawnsci.nexus.builder.NexusObjectProvider;
 import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
+import org.eclipse.scanning.api.scan.FramePool;
 import org.eclipse.scanning.api.scan.IWritableDetector;
 import org.eclipse.scanning.api.scan.ScanningException;
 
@@ -54,9 +56,12 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 	public static final String VALUE_NAME = "mandelbrot_value";
 
 	private IDataset              image;
+	private double[]              frame; // Borrowed from the frame pool until written
 	private ILazyWriteableDataset data;
 	private ILazyWriteableDataset mvalue;
 	private double                value;
+	private JuliaSetRenderer      renderer;
+	private long                  nextFrame; // ns, when the frame rate is set
 	
 	public MandelbrotDetector() throws IOException {
 		super();
@@ -107,12 +112,19 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 		final double a = (Double)pos.get(model.getxName());
 		final double b = (Double)pos.get(model.getyName());
 
-		value = mandelbrot(a, b);
+		if (renderer==null || !renderer.isFor(model.getMaxIterations(), model.getEscapeRadius())) {
+			renderer = new JuliaSetRenderer(model.getMaxIterations(), model.getEscapeRadius());
+		}
+		value = renderer.julia(0.0, 0.0, a, b); // The Mandelbrot set, initial z = 0
 		
 		if (model.getOutputDimensions() == OutputDimensions.ONE_D) {
-			image = calculateJuliaSetLine(a, b, 0.0, 0.0, model.getMaxX(), model.getPoints());
+			final double[] line = borrowFrame(model.getPoints());
+			renderer.renderLine(a, b, 0.0, 0.0, model.getMaxX(), model.getPoints(), line, 0);
+			image = new DoubleDataset(line, model.getPoints());
 		} else if (model.getOutputDimensions() == OutputDimensions.TWO_D) {
-			image = calculateJuliaSet(a, b, model.getColumns(), model.getRows());
+			final double[] set = borrowFrame(model.getRows(), model.getColumns());
+			renderer.render(a, b, model.getMaxX(), model.getMaxY(), model.getColumns(), model.getRows(), set);
+			image = new DoubleDataset(set, model.getRows(), model.getColumns());
 		}
 		final Map<String, Serializable> mp = new HashMap<>(1);
 		mp.put("value", value);
@@ -120,11 +132,30 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 		image.addMetadata(meta);	
 		
 		if (model.getExposure()>0) Thread.sleep(Math.round(1000*model.getExposure()));
+		if (model.getFrameRate()>0) waitForFrame(1000000000d/model.getFrameRate());
   	}
+
+	/**
+	 * Wait until the next frame is due, so that frames come at the frame rate.
+	 * If we are more than a frame late we do not try to catch up.
+	 * @param period in ns
+	 * @throws InterruptedException
+	 */
+	private void waitForFrame(double period) throws InterruptedException {
+		final long wait = nextFrame-System.nanoTime();
+		if (nextFrame!=0 && wait>0) TimeUnit.NANOSECONDS.sleep(wait);
+		final long now = System.nanoTime();
+		nextFrame = nextFrame!=0 && now-nextFrame<period ? nextFrame+Math.round(period) : now+Math.round(period);
+	}
 	
 	@Override
     public boolean write(IPosition pos) throws ScanningException {
 		
+		if (data==null) { // Not writing to a NeXus file, the frame is done with.
+			releaseFrame();
+			return false;
+		}
+		
 		try {
 			SliceND sliceND = NexusScanInfo.createLocation(data, pos.getNames(), pos.getIndices(), model.getRows(), model.getColumns());
 			data.setSlice(null, image, sliceND);
@@ -135,78 +166,29 @@ public class MandelbrotDetector extends AbstractRunnableDevice<MandelbrotModel>
 			
 		} catch (Exception e) {
 			throw new ScanningException(e.getMessage(), e); 
+		} finally {
+			releaseFrame();
 		}
 
 		return true;
 	}
 
 	/**
-	 * Fill a Julia set around the origin for the value C = a + bi
-	 */
-	private IDataset calculateJuliaSet(final double a, final double b, int columns, int rows) {
-		final double xStart = -model.getMaxX();
-		final double xStop = model.getMaxX();
-		final double yStart = -model.getMaxY();
-		final double yStop = model.getMaxY();
-		final double yStep = (yStop - yStart) / (rows - 1);
-		double y;
-		IDataset juliaSet = new DoubleDataset(rows,columns);
-		for (int yIndex = 0; yIndex < rows; yIndex++) {
-			y = yStart + yIndex * yStep;
-			IDataset line = calculateJuliaSetLine(a, b, y, xStart, xStop, columns);
-			for (int x = 0; x < line.getSize(); x++) {
-				juliaSet.set(line.getObject(x), yIndex, x);	
-			}
-		}
-		return juliaSet;
-	}
-
-	/**
-	 * Fill a Julia set line between xStart and xStop at the given y value, for the value C = a + bi
-	 */
-	private IDataset calculateJuliaSetLine(final double a, final double b, final double y, final double xStart, final double xStop, final int numPoints) {
-		final double xStep = (xStop - xStart) / (numPoints - 1);
-		double x;
-		IDataset juliaSetLine = new DoubleDataset(numPoints);
-		for (int xIndex = 0; xIndex < numPoints; xIndex++) {
-			x = xStart + xIndex * xStep;
-			juliaSetLine.set(julia(x, y, a, b), xIndex);
-		}
-		return juliaSetLine;
-	}
-
-	/**
-	 * Iterations of f(z) = z^2 + C, where z = x + yi, C = a + bi, and initial z = 0
+	 * Borrow a frame from the pool, unless the last one was not written
+	 * in which case it is used again.
 	 */
-	private double mandelbrot(final double a, final double b) {
-		return julia(0.0, 0.0, a, b);
+	private double[] borrowFrame(int... shape) {
+		int size = 1;
+		for (int i : shape) size*=i;
+		if (frame!=null && frame.length!=size) releaseFrame();
+		if (frame==null) frame = FramePool.getDefault().borrowDoubles(shape);
+		return frame;
 	}
 
-	/**
-	 * Iterations of f(z) = z^2 + C, where z = x + yi and C = a + bi
-	 */
-	private double julia(double x, double y, final double a, final double b) {
-		int iteration = 0;
-		double xSquared, ySquared, tempX;
-		double escapeRadiusSquared = model.getEscapeRadius() * model.getEscapeRadius();
-		do {
-			xSquared = x * x;
-			ySquared = y * y;
-			tempX = xSquared - ySquared + a;
-			y = 2 * x * y + b;
-			x = tempX;
-			iteration++;
-		} while (iteration < model.getMaxIterations() && xSquared + ySquared < escapeRadiusSquared);
-
-		double modulus = Math.sqrt(x * x + y * y);
-
-		// If modulus > 1.0, normalise the result
-		// (Theoretically, I think this should make the value roughly independent of MAX_ITERATIONS and ESCAPE_RADIUS)
-		if (modulus > 1.0) {
-			return iteration - (Math.log(Math.log(modulus)) / Math.log(2.0));
-		}
-		// Otherwise just return the iteration count
-		return iteration;
+	private void releaseFrame() {
+		FramePool.getDefault().release(frame);
+		frame = null;
+		image = null;
 	}
 	
 }
@@ -16,6 +16,7 @@ public class MandelbrotModel {
 	private String xName;
 	private String yName;
 	private double exposure; // Seconds
+	private double frameRate; // Hz, zero for as fast as possible
 
 	public MandelbrotModel() {
 		
@@ -83,6 +84,8 @@ public class MandelbrotModel {
 		result = prime * result + (int) (temp ^ (temp >>> 32));
 		temp = Double.doubleToLongBits(exposure);
 		result = prime * result + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(frameRate);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
 		result = prime * result + maxIterations;
 		temp = Double.doubleToLongBits(maxX);
 		result = prime * result + (int) (temp ^ (temp >>> 32));
@@ -115,6 +118,9 @@ public class MandelbrotModel {
 		if (Double.doubleToLongBits(exposure) != Double
 				.doubleToLongBits(other.exposure))
 			return false;
+		if (Double.doubleToLongBits(frameRate) != Double
+				.doubleToLongBits(other.frameRate))
+			return false;
 		if (maxIterations != other.maxIterations)
 			return false;
 		if (Double.doubleToLongBits(maxX) != Double
@@ -179,4 +185,18 @@ public class MandelbrotModel {
 		this.exposure = exposure;
 	}
 
+	/**
+	 * The rate at which the detector produces frames when used as a source
+	 * of data for testing. Unlike the exposure, the time taken to calculate
+	 * the frame is part of the period. Zero means as fast as possible.
+	 * @return frames per second
+	 */
+	public double getFrameRate() {
+		return frameRate;
+	}
+
+	public void setFrameRate(double frameRate) {
+		this.frameRate = frameRate;
+	}
+
 }
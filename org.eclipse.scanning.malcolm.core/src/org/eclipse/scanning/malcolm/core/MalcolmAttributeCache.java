@@ -0,0 +1,107 @@
+package org.eclipse.scanning.malcolm.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.malcolm.event.MalcolmEvent;
+
+/**
+ * Holds the last known values of attributes of a Malcolm device, for
+ * instance those which the device subscribes to, so that reading them
+ * does not need a round trip to Malcolm.
+ *
+ * A value is only returned if it was confirmed within the staleness bound.
+ * Each value carries the time that it was true at, a value older than the
+ * one held does not replace it. This stops the reply to a slow get from
+ * overwriting a newer value which arrived from a subscription meanwhile.
+ * Values from events are stamped with the time that the event was received,
+ * not when it was despatched, see {@link MalcolmEvent#getTime()}.
+ *
+ * Invalidating a value keeps the time of the invalidation in place of the value,
+ * so a value which was true before then, for instance an event received before
+ * a call but despatched after it, cannot be put back.
+ *
+ * This class is thread safe.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class MalcolmAttributeCache {
+
+	private final ConcurrentMap<String, Entry> values;
+	private final long                         maxAge; // ns
+
+	/**
+	 *
+	 * @param maxAge in ms after which a value is stale and must be fetched again.
+	 */
+	public MalcolmAttributeCache(long maxAge) {
+		this.values = new ConcurrentHashMap<String, Entry>(7);
+		this.maxAge = TimeUnit.MILLISECONDS.toNanos(maxAge);
+	}
+
+	/**
+	 *
+	 * @param name
+	 * @return the value or null if it is not cached or is stale.
+	 */
+	public Object get(String name) {
+		final Entry entry = values.get(name);
+		if (entry==null || entry.value==null) return null;
+		if (System.nanoTime()-entry.time > maxAge) return null;
+		return entry.value;
+	}
+
+	/**
+	 * Put the value now.
+	 * @param name
+	 * @param value
+	 */
+	public void put(String name, Object value) {
+		put(name, value, System.nanoTime());
+	}
+
+	/**
+	 * Put the value if it is at least as new as the value held and as the
+	 * last invalidation of it.
+	 * @param name
+	 * @param value
+	 * @param time from System.nanoTime() at which the value was true, for instance when the get for it was sent.
+	 */
+	public void put(String name, Object value, long time) {
+		if (value==null) return;
+		final Entry entry = new Entry(value, time);
+		while(true) {
+			final Entry held = values.putIfAbsent(name, entry);
+			if (held==null) return;
+			if (held.time-time > 0) return; // Ours is older
+			if (values.replace(name, held, entry)) return;
+		}
+	}
+
+	/**
+	 * Forget the value so that the next read fetches it. Values older
+	 * than now are not put afterwards.
+	 * @param name
+	 */
+	public void invalidate(String name) {
+		values.put(name, new Entry(null, System.nanoTime()));
+	}
+
+	/**
+	 * Forget all values.
+	 */
+	public void clear() {
+		values.clear();
+	}
+
+	private static final class Entry {
+		private final Object value; // null if invalidated
+		private final long   time;
+		Entry(Object value, long time) {
+			this.value = value;
+			this.time  = time;
+		}
+	}
+}
@@ -23,6 +23,7 @@ import org.eclipse.scanning.api.malcolm.event.IMalcolmListener;
 import org.eclipse.scanning.api.malcolm.event.MalcolmEvent;
 import org.eclipse.scanning.api.malcolm.event.MalcolmEventBean;
 import org.eclipse.scanning.api.malcolm.message.JsonMessage;
+import org.eclipse.scanning.api.malcolm.message.MalcolmMethod;
 import org.eclipse.scanning.api.malcolm.message.MalcolmUtil;
 import org.eclipse.scanning.api.malcolm.message.Type;
 import org.eclipse.scanning.api.malcolm.models.MalcolmRequest;
@@ -45,6 +46,16 @@ import org.slf4j.LoggerFactory;
 public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 
 	private static Logger logger = LoggerFactory.getLogger(MalcolmDevice.class);
+
+	private static final String STATE        = "stateMachine.state";
+	private static final String CURRENT_STEP = "attributes.currentStep";
+
+	/**
+	 * The time in ms for which a cached attribute is used before it is fetched again, default 2000.
+	 * The subscriptions keep the cache up to date, this bounds how stale a value may be if an event is missed.
+	 * Set org.eclipse.scanning.malcolm.core.attributeTimeout to change this.
+	 */
+	private static final long ATTRIBUTE_TIMEOUT = Long.getLong("org.eclipse.scanning.malcolm.core.attributeTimeout", 2000);
 		
 	private IMalcolmConnectorService<JsonMessage>   service;
 	private boolean                          alive;
@@ -52,6 +63,8 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
     private JsonMessage                      scanSubscriber;
 
 	private IPublisher<ScanBean>             publisher;
+	
+	private final MalcolmAttributeCache      cache = new MalcolmAttributeCache(ATTRIBUTE_TIMEOUT);
 
 
 	public MalcolmDevice(String name, IMalcolmConnectorService<JsonMessage> service, IPublisher<ScanBean> publisher) throws MalcolmDeviceException {
@@ -65,7 +78,7 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 		logger.debug("Connecting '"+getName()+"'. Current state: "+currentState);
 		alive = true;
 		
-		stateSubscriber = connectionDelegate.createSubscribeMessage("stateMachine.state");
+		stateSubscriber = connectionDelegate.createSubscribeMessage(STATE);
 		service.subscribe(this, stateSubscriber, new IMalcolmListener<JsonMessage>() {
 			
 			@Override
@@ -78,7 +91,7 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 			}
 		});		
 		
-		scanSubscriber  = connectionDelegate.createSubscribeMessage("attributes.currentStep");
+		scanSubscriber  = connectionDelegate.createSubscribeMessage(CURRENT_STEP);
 		service.subscribe(this, scanSubscriber, new IMalcolmListener<JsonMessage>() {
 			
 			@Override
@@ -125,6 +138,7 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 		if (value instanceof Map) {
 			final Integer point = (Integer)((Map)value).get("value");
 			bean.setPoint(point);
+			cache.put(CURRENT_STEP, value, e.getTime());
 		}
 		if (publisher!=null) publisher.broadcast(bean);
 	}
@@ -135,6 +149,7 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 		JsonMessage msg = e.getBean();
 		
 		DeviceState newState = MalcolmUtil.getState(msg, false);
+		cache.put(STATE, newState, e.getTime());
 		
 		// Send scan state changed
 		ScanBean bean = getBean();
@@ -159,16 +174,22 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 		eventDelegate.sendEvent(meb);
 	}
 
+	/**
+	 * The state is cached from the state subscription, it is only fetched 
+	 * from Malcolm if the cached state is missing or stale.
+	 */
 	@Override
 	public DeviceState getDeviceState() throws MalcolmDeviceException {
+		
+		final DeviceState cached = (DeviceState)cache.get(STATE);
+		if (cached!=null) return cached;
+		
 		try {
-			final JsonMessage message = connectionDelegate.createGetMessage(getName()+".stateMachine.state");
-			final JsonMessage reply   = service.send(this, message);
-			if (reply.getType()==Type.ERROR) {
-				throw new MalcolmDeviceException(reply.getMessage());
-			}
-
-			return MalcolmUtil.getState(reply);
+			final long        time  = System.nanoTime();
+			final JsonMessage reply = fetch(STATE);
+			final DeviceState state = MalcolmUtil.getState(reply);
+			cache.put(STATE, state, time);
+			return state;
 			
 		} catch (MalcolmDeviceException mne) {
 			throw mne;
@@ -177,12 +198,41 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 			throw new MalcolmDeviceException(this, "Cannot connect to device "+getName(), ne);
 		}
 	}
+	
+	/**
+	 * Read an attribute of the device, for instance "attributes.currentStep". 
+	 * Attributes which the device subscribes to are cached, as is the last 
+	 * value fetched of any other attribute, for the attribute timeout.
+	 * 
+	 * @param attribute
+	 * @return the value of the attribute
+	 * @throws MalcolmDeviceException
+	 */
+	public Object getAttribute(String attribute) throws MalcolmDeviceException {
+		
+		final Object cached = cache.get(attribute);
+		if (cached!=null) return cached;
+		
+		final long   time  = System.nanoTime();
+		final Object value = fetch(attribute).getValue();
+		cache.put(attribute, value, time);
+		return value;
+	}
+	
+	private JsonMessage fetch(String attribute) throws MalcolmDeviceException {
+		final JsonMessage message = connectionDelegate.createGetMessage(getName()+"."+attribute);
+		final JsonMessage reply   = service.send(this, message);
+		if (reply.getType()==Type.ERROR) {
+			throw new MalcolmDeviceException(reply.getMessage());
+		}
+		return reply;
+	}
 
 
 	@Override
 	public T validate(T params) throws MalcolmDeviceException {
 		
-		final JsonMessage msg   = connectionDelegate.createCallMessage("validate", params);
+		final JsonMessage msg   = connectionDelegate.createCallMessage(MalcolmMethod.VALIDATE, params);
 		final JsonMessage reply = service.send(this, msg);
         return (T)reply.getValue();
 	}
@@ -190,40 +240,55 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 	@Override
 	public void configure(T model) throws MalcolmDeviceException {
 		if (model instanceof MalcolmRequest<?>) model = ((MalcolmRequest<T>)model).getDeviceModel(); 
-		final JsonMessage msg   = connectionDelegate.createCallMessage("configure", model);
-		service.send(this, msg);
+		final JsonMessage msg   = connectionDelegate.createCallMessage(MalcolmMethod.CONFIGURE, model);
+		try {
+			service.send(this, msg);
+		} finally {
+			// The state event may not have been despatched yet, the next read should ask.
+			cache.invalidate(STATE);
+		}
 		setModel(model);
 	}
 
 	@Override
 	public void run(IPosition pos) throws MalcolmDeviceException {
-		connectionDelegate.call(Thread.currentThread().getStackTrace(), DeviceState.RUNNING);
+		call(MalcolmMethod.RUN);
 	}
 
 	@Override
 	public void abort() throws MalcolmDeviceException {
-		connectionDelegate.call(Thread.currentThread().getStackTrace());
+		call(MalcolmMethod.ABORT);
 	}
 
 	@Override
 	public void reset() throws MalcolmDeviceException {
-		connectionDelegate.call(Thread.currentThread().getStackTrace());
+		call(MalcolmMethod.RESET);
 	}
 
 	@Override
 	public void pause() throws MalcolmDeviceException {
-		connectionDelegate.call(Thread.currentThread().getStackTrace());
+		call(MalcolmMethod.PAUSE);
 	}
 	
 	@Override
 	public void resume() throws MalcolmDeviceException {
-		connectionDelegate.call(Thread.currentThread().getStackTrace());
+		call(MalcolmMethod.RESUME);
+	}
+
+	private void call(MalcolmMethod method) throws MalcolmDeviceException {
+		try {
+			connectionDelegate.call(method);
+		} finally {
+			// The state event may not have been despatched yet, the next read should ask.
+			cache.invalidate(STATE);
+		}
 	}
 
 	@Override
 	public void dispose() throws MalcolmDeviceException {
 		unsubscribe(stateSubscriber);
 		unsubscribe(scanSubscriber);
+		cache.clear();
 
 		setAlive(false);
 	}
@@ -232,7 +297,7 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 		if (subscriber!=null) {
 			final JsonMessage unsubscribeStatus = connectionDelegate.createUnsubscribeMessage();
 			unsubscribeStatus.setId(subscriber.getId());
-			service.unsubscribe(this, subscriber);
+			service.unsubscribe(this, unsubscribeStatus); // No listeners, removes the whole subscription
 			logger.debug("Unsubscription "+getName()+" made "+unsubscribeStatus);
 		}
 	}
@@ -285,13 +350,16 @@ public class MalcolmDevice<T> extends AbstractMalcolmDevice<T> {
 			service.subscribe(this, stateSubscriber, stateChanger);
 			
 			boolean countedDown = false;
-			if (time>0) {
-				countedDown = latch.await(time, unit);
-			} else {
-				latch.await();
+			try {
+				if (time>0) {
+					countedDown = latch.await(time, unit);
+				} else {
+					latch.await();
+				}
+			} finally {
+				// Always remove the listener, otherwise it stays subscribed for the life of the device.
+				service.unsubscribe(this, stateSubscriber, stateChanger);
 			}
-	
-			service.unsubscribe(this, stateSubscriber, stateChanger);
 			
 			if (exceptionContainer.size()>0) throw exceptionContainer.get(0);
 			
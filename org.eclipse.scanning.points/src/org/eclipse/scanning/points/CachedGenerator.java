@@ -0,0 +1,174 @@
+package org.eclipse.scanning.points;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.GeneratorException;
+import org.eclipse.scanning.api.points.IPointContainer;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.IScanPathModel;
+
+/**
+ * A generator which reads its points from the PointPathCache if a path
+ * of an equal model and regions has been iterated before. Otherwise the
+ * points of the generator it wraps are recorded as they are iterated and
+ * the path is kept once it has been iterated to the end.
+ *
+ * The key is made again for each iterator so that a model which is edited
+ * after the generator is made finds the right path.
+ *
+ * @author Matthew Gerring
+ *
+ */
+class CachedGenerator<T extends IScanPathModel, P extends IPosition> implements IPointGenerator<T, P> {
+
+	private final IPointGenerator<T, P> delegate;
+	private final PointPathCache        cache;
+
+	CachedGenerator(IPointGenerator<T, P> delegate, PointPathCache cache) {
+		this.delegate = delegate;
+		this.cache    = cache;
+	}
+
+	IPointGenerator<T, P> getDelegate() {
+		return delegate;
+	}
+
+	PointPathCache getCache() {
+		return cache;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Iterator<P> iterator() {
+		final Object key = PointPathCache.createKey(delegate);
+		if (key==null) return delegate.iterator();
+
+		final PointPathCache.Path path = cache.get(key);
+		if (path!=null) return (Iterator<P>)path.iterator();
+
+		final Iterator<P>              it       = delegate.iterator();
+		final PointPathCache.Recorder  recorder = cache.createRecorder();
+		return new Iterator<P>() {
+			@Override
+			public boolean hasNext() {
+				final boolean hasNext = it.hasNext();
+				if (!hasNext) recorder.complete(key);
+				return hasNext;
+			}
+
+			@Override
+			public P next() {
+				final P pos = it.next();
+				recorder.add(pos);
+				return pos;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("remove");
+			}
+		};
+	}
+
+	@Override
+	public int size() throws GeneratorException {
+		final Object key = PointPathCache.createKey(delegate);
+		final PointPathCache.Path path = key!=null ? cache.peek(key) : null;
+		return path!=null ? path.size() : delegate.size();
+	}
+
+	@Override
+	public List<P> createPoints() throws GeneratorException {
+		final List<P> points = new ArrayList<P>(89);
+		for (Iterator<P> it = iterator(); it.hasNext();) points.add(it.next());
+		return points;
+	}
+
+	@Override
+	public T getModel() {
+		return delegate.getModel();
+	}
+
+	@Override
+	public void setModel(T model) throws GeneratorException {
+		delegate.setModel(model);
+	}
+
+	@Override
+	public List<IPointContainer<?>> getContainers() {
+		return delegate.getContainers();
+	}
+
+	@Override
+	public void setContainers(List<IPointContainer<?>> containers) throws GeneratorException {
+		delegate.setContainers(containers);
+	}
+
+	@Override
+	public String getId() {
+		return delegate.getId();
+	}
+
+	@Override
+	public void setId(String id) {
+		delegate.setId(id);
+	}
+
+	@Override
+	public String getLabel() {
+		return delegate.getLabel();
+	}
+
+	@Override
+	public void setLabel(String label) {
+		delegate.setLabel(label);
+	}
+
+	@Override
+	public String getDescription() {
+		return delegate.getDescription();
+	}
+
+	@Override
+	public void setDescription(String description) {
+		delegate.setDescription(description);
+	}
+
+	@Override
+	public boolean isVisible() {
+		return delegate.isVisible();
+	}
+
+	@Override
+	public void setVisible(boolean vis) {
+		delegate.setVisible(vis);
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return delegate.isEnabled();
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		delegate.setEnabled(enabled);
+	}
+
+	@Override
+	public String getIconPath() {
+		return delegate.getIconPath();
+	}
+
+	@Override
+	public void setIconPath(String path) {
+		delegate.setIconPath(path);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
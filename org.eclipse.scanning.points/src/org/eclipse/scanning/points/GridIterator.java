@@ -21,8 +21,14 @@ class GridIterator implements Iterator<Point> {
 	private final double xStep;
 	private final double yStep;
 
+	private final RegionMask mask;
+
 	private int yIndex, xIndex;
 	private boolean forwards = true;
+	
+	// The next point, found by hasNext()
+	private int nextY, nextX;
+	private boolean nextForwards, peeked, finished;
 
 	public GridIterator(GridGenerator gen) {
 		this.gen = gen;
@@ -36,6 +42,7 @@ class GridIterator implements Iterator<Point> {
 		this.yStep = model.getBoundingBox().getHeight() / rows;
 		this.minX = model.getBoundingBox().getxStart() + xStep / 2;
 		this.minY = model.getBoundingBox().getyStart() + yStep / 2;
+		this.mask = gen.getMask(minX, minY, xStep, yStep, columns, rows);
 		yIndex = 0;
 		xIndex = -1;
 	}
@@ -52,83 +59,100 @@ class GridIterator implements Iterator<Point> {
 		this.minY = model.getBoundingBox().getyStart();
 		this.columns = (int) Math.floor(model.getBoundingBox().getWidth() / xStep + 1);
 		this.rows = (int) Math.floor(model.getBoundingBox().getHeight() / yStep + 1);
+		this.mask = gen.getMask(minX, minY, xStep, yStep, columns, rows);
 		yIndex = 0;
 		xIndex = -1;
 	}
 
 	@Override
 	public boolean hasNext() {
-		
-		int[] next = increment(snake, columns, yIndex, xIndex, forwards); 
-		int yIndex = next[0];
-		int xIndex = next[1];
-			
-		if (yIndex > (rows - 1) || yIndex < 0)    {
-			return false;  // Normal termination
-		}
-		if (xIndex > (columns - 1) || xIndex < 0) return false;
-		
-		double x = minX + xIndex * xStep;
-		double y = minY + yIndex * yStep;
-		if (!gen.containsPoint(x, y)) {
-			this.yIndex = yIndex;
-			this.xIndex = xIndex;
-			this.forwards = next[2]==1;
-			return hasNext();
-		}
-
-		return true;
+		if (!peeked) peek();
+		return !finished;
 	}
 
-
-	private static final int[] increment(boolean snake, int columns, int yIndex, int xIndex, boolean forwards) {
+	/**
+	 * Move on from the current point to the next one in the regions, if
+	 * any, without making it the current point.
+	 */
+	private void peek() {
 		
-		if (snake) {
-			if (forwards) {
-				xIndex++;
-				if (xIndex > (columns - 1)) {
-					xIndex = columns - 1;
-					yIndex++;
-					forwards = !forwards;
+		int     yIndex   = this.yIndex;
+		int     xIndex   = this.xIndex;
+		boolean forwards = this.forwards;
+		
+		while(true) {
+			if (snake) {
+				if (forwards) {
+					xIndex++;
+					if (xIndex > (columns - 1)) {
+						xIndex = columns - 1;
+						yIndex++;
+						forwards = !forwards;
+					}
+				} else {
+					xIndex--;
+					if (xIndex<0) {
+						xIndex=0;
+						yIndex++;
+						forwards = !forwards;
+					}
 				}
 			} else {
-				xIndex--;
-				if (xIndex<0) {
+				xIndex++;
+				if (xIndex>(columns-1)) {
 					xIndex=0;
 					yIndex++;
-					forwards = !forwards;
 				}
 			}
-
-		} else {
-			xIndex++;
-			if (xIndex>(columns-1)) {
-				xIndex=0;
-				yIndex++;
+			
+			if (yIndex > (rows - 1) || yIndex < 0 || xIndex > (columns - 1) || xIndex < 0) {
+				finished = true; // Normal termination
+				break;
 			}
+			if (contains(xIndex, yIndex)) break;
 		}
-		return new int[]{yIndex,xIndex, forwards?1:0}; // Bit slow because makes array object to return int values
+		
+		this.nextY        = yIndex;
+		this.nextX        = xIndex;
+		this.nextForwards = forwards;
+		this.peeked       = true;
 	}
 
+	private boolean contains(int xIndex, int yIndex) {
+		if (mask!=null) return mask.contains(xIndex, yIndex);
+		return gen.containsPoint(minX + xIndex * xStep, minY + yIndex * yStep);
+	}
 	
 	@Override
 	public Point next() {
 		
-		int[] next = increment(snake, columns, yIndex, xIndex, forwards);
-		this.yIndex = next[0];
-		this.xIndex = next[1];
-		this.forwards = next[2]==1;
+		if (!peeked) peek();
+		if (finished) return null;  // Normal termination
 		
-		if (yIndex > (rows - 1) || yIndex < 0)    return null;  // Normal termination
-		if (xIndex > (columns - 1) || xIndex < 0) throw new NullPointerException("Unexpected index. The j index was "+xIndex);
+		this.yIndex   = nextY;
+		this.xIndex   = nextX;
+		this.forwards = nextForwards;
+		this.peeked   = false;
 
 		double x = minX + xIndex * xStep;
 		double y = minY + yIndex * yStep;
-		if (gen.containsPoint(x, y)) {
-			return new Point(xName, xIndex, x, yName, yIndex, y);
-		} else {
-			return next();
+		return new Point(xName, xIndex, x, yName, yIndex, y);
+	}
+
+	/**
+	 * 
+	 * @return the number of points, without iterating over them if we can.
+	 */
+	int size() {
+		if (rows<1 || columns<1) return 0;
+		if (mask!=null) return mask.size();
+		if (gen.getContainers()==null || gen.getContainers().isEmpty()) return rows*columns;
+		int size = 0;
+		while(hasNext()) {
+			next();
+			++size;
 		}
+		return size;
 	}
 
 	public void remove() {
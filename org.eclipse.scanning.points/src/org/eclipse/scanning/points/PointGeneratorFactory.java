@@ -1,19 +1,32 @@
 package org.eclipse.scanning.points;
 
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.dawnsci.analysis.api.roi.IROI;
 import org.eclipse.dawnsci.analysis.api.roi.IRectangularROI;
 import org.eclipse.dawnsci.analysis.dataset.roi.LinearROI;
+import org.eclipse.scanning.api.ExecutorProviders;
+import org.eclipse.scanning.api.IWarmable;
 import org.eclipse.scanning.api.points.GeneratorException;
 import org.eclipse.scanning.api.points.IPointContainer;
 import org.eclipse.scanning.api.points.IPointGenerator;
@@ -31,43 +44,71 @@ import org.eclipse.scanning.api.points.models.OneDEqualSpacingModel;
 import org.eclipse.scanning.api.points.models.OneDStepModel;
 import org.eclipse.scanning.api.points.models.RasterModel;
 import org.eclipse.scanning.api.points.models.StepModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public class PointGeneratorFactory implements IPointGeneratorService {
-		
-	private static final Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> generators;
-	private static final Map<String,   GeneratorInfo>                                           info;
+/**
+ * Creates the generators of scans. The generators registered by this bundle and
+ * by extension are read once, in parallel, when the service is warmed up at start
+ * or otherwise the first time it is used. The constructor of the generator of each
+ * model is kept so that creating a generator for a scan does not look it up again.
+ * 
+ * @author Matthew Gerring
+ *
+ */
+public class PointGeneratorFactory implements IPointGeneratorService, IWarmable {
 	
-	// Use a factory pattern to register the types.
-	// This pattern can always be replaced by extension points
-	// to allow point generators to be dynamically registered. 
-	static {
-		System.out.println("Starting generator service");
-		Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> gens = new HashMap<>(7);
-		gens.put(StepModel.class,             StepGenerator.class);
-		gens.put(ArrayModel.class,            ArrayGenerator.class);
-		gens.put(GridModel.class,             GridGenerator.class);
-		gens.put(OneDEqualSpacingModel.class, OneDEqualSpacingGenerator.class);
-		gens.put(OneDStepModel.class,         OneDStepGenerator.class);
-		gens.put(RasterModel.class,           RasterGenerator.class);
-		gens.put(EmptyModel.class,            EmptyGenerator.class);
+	private static final Logger logger = LoggerFactory.getLogger(PointGeneratorFactory.class);
 		
-		Map<String,   GeneratorInfo> tinfo = new TreeMap<>();
-		fillStaticGeneratorInfo(gens, tinfo);
+	private static volatile Registry     registry;
+	private static final AtomicBoolean   started = new AtomicBoolean(false);
+	private static final CountDownLatch  ready   = new CountDownLatch(1);
+
+	/**
+	 * Called by OSGi when the service starts.
+	 */
+	public void start() {
+		warmUp();
+	}
+
+	@Override
+	public void warmUp() {
+		if (registry!=null || !started.compareAndSet(false, true)) return;
+		ExecutorProviders.getProvider().newThread("Generator service warm up", true, new Runnable() {
+			@Override
+			public void run() {
+				getRegistry();
+			}
+		}).start();
+	}
+
+	@Override
+	public boolean isReady() {
+		return registry!=null;
+	}
+
+	@Override
+	public boolean awaitReady(long time, TimeUnit unit) throws InterruptedException {
+		warmUp();
+		return ready.await(time, unit);
+	}
 
-		try { // Extensions must provide an id, it is a compulsory field.
-			readExtensions(gens, tinfo);
-		} catch (CoreException e) {
-			e.printStackTrace(); // Static block, intentionally do not use logging.
+	private static Registry getRegistry() {
+		Registry reg = registry;
+		if (reg!=null) return reg;
+		synchronized (PointGeneratorFactory.class) {
+			if (registry==null) {
+				registry = Registry.read();
+				ready.countDown();
+			}
+			return registry;
 		}
-		
-		generators = Collections.unmodifiableMap(gens);
-		info       = Collections.unmodifiableMap(tinfo);
 	}
 
 	@Override
 	public <T extends IScanPathModel, R, P extends IPosition> IPointGenerator<T,P> createGenerator(T model, R... regions) throws GeneratorException {
 		try {
-			IPointGenerator<T,P> gen = (IPointGenerator<T,P>)generators.get(model.getClass()).newInstance();			
+			IPointGenerator<T,P> gen = getRegistry().newGenerator(model.getClass());
 			if (regions != null && regions.length > 0) {
 				synchModel(model, (IROI) regions[0]);
 				gen.setContainers(wrap(regions));
@@ -82,39 +123,138 @@ public class PointGeneratorFactory implements IPointGeneratorService {
 		}
 	}
 
-	private static void fillStaticGeneratorInfo(Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> gens, Map<String,   GeneratorInfo> ids) {
+	/**
+	 * The generators of the models, read once.
+	 */
+	private static final class Registry {
+
+		private final Map<Class<? extends IScanPathModel>, Constructor<? extends IPointGenerator>> constructors;
+		private final Map<String, GeneratorInfo>                                                 info;
+
+		private Registry(Map<Class<? extends IScanPathModel>, Constructor<? extends IPointGenerator>> constructors, Map<String, GeneratorInfo> info) {
+			this.constructors = Collections.unmodifiableMap(constructors);
+			this.info         = Collections.unmodifiableMap(info);
+		}
+
+		<T extends IScanPathModel, P extends IPosition> IPointGenerator<T,P> newGenerator(Class<?> modelClass) throws GeneratorException, ReflectiveOperationException {
+			final Constructor<? extends IPointGenerator> constructor = constructors.get(modelClass);
+			if (constructor==null) throw new GeneratorException("There is no generator registered for "+modelClass.getName());
+			return constructor.newInstance();
+		}
+
+		<T extends IScanPathModel, P extends IPosition> IPointGenerator<T,P> newGenerator(GeneratorInfo ginfo) throws GeneratorException, ReflectiveOperationException {
+			final Constructor<? extends IPointGenerator> constructor = constructors.get(ginfo.getModelClass());
+			// Two ids may register a model, the last one is the generator of the model.
+			if (constructor==null || constructor.getDeclaringClass()!=ginfo.getGeneratorClass()) return ginfo.getGeneratorClass().newInstance();
+			return constructor.newInstance();
+		}
+
+		// Use a factory pattern to register the types.
+		// This pattern can always be replaced by extension points
+		// to allow point generators to be dynamically registered. 
+		static Registry read() {
+			
+			final long start = System.currentTimeMillis();
+			Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> gens = new HashMap<>(7);
+			gens.put(StepModel.class,             StepGenerator.class);
+			gens.put(ArrayModel.class,            ArrayGenerator.class);
+			gens.put(GridModel.class,             GridGenerator.class);
+			gens.put(OneDEqualSpacingModel.class, OneDEqualSpacingGenerator.class);
+			gens.put(OneDStepModel.class,         OneDStepGenerator.class);
+			gens.put(RasterModel.class,           RasterGenerator.class);
+			gens.put(EmptyModel.class,            EmptyGenerator.class);
+			
+			Map<String,   GeneratorInfo> tinfo = new TreeMap<>();
+			final ExecutorService executor = ExecutorProviders.getProvider().newExecutor("Generator service warm up", Runtime.getRuntime().availableProcessors());
+			try {
+				fillStaticGeneratorInfo(gens, tinfo, executor);
+				try { // Extensions must provide an id, it is a compulsory field.
+					readExtensions(gens, tinfo, executor);
+				} catch (CoreException | InterruptedException e) {
+					logger.error("Cannot read the generator extensions", e);
+				}
+			} finally {
+				executor.shutdown();
+			}
+			
+			final Map<Class<? extends IScanPathModel>, Constructor<? extends IPointGenerator>> constructors = new HashMap<>(gens.size());
+			for (Map.Entry<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> entry : gens.entrySet()) {
+				try {
+					final Constructor<? extends IPointGenerator> constructor = entry.getValue().getDeclaredConstructor();
+					constructor.setAccessible(true);
+					constructors.put(entry.getKey(), constructor);
+				} catch (NoSuchMethodException | SecurityException e) {
+					logger.error("The generator "+entry.getValue().getName()+" must have a constructor with no arguments", e);
+				}
+			}
+			logger.debug("Read {} generators in {}ms", constructors.size(), System.currentTimeMillis()-start);
+			return new Registry(constructors, tinfo);
+		}
+	}
+
+	/**
+	 * Make one of each generator, in parallel, to read its id.
+	 */
+	private static void fillStaticGeneratorInfo(Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> gens, Map<String,   GeneratorInfo> ids, ExecutorService executor) {
 
+		final Map<GeneratorInfo, Future<String>> found = new LinkedHashMap<>(gens.size());
 		for (Class<? extends IScanPathModel> modelClass : gens.keySet()) {
+			final GeneratorInfo info = new GeneratorInfo();
+			info.setModelClass(modelClass);
+			info.setGeneratorClass(gens.get(modelClass));
+			found.put(info, executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return info.getGeneratorClass().newInstance().getId();
+				}
+			}));
+		}
+		for (Map.Entry<GeneratorInfo, Future<String>> entry : found.entrySet()) {
 			try {
-				final GeneratorInfo info = new GeneratorInfo();
-				info.setModelClass(modelClass);
-				info.setGeneratorClass(gens.get(modelClass));
-				ids.put(info.getGeneratorClass().newInstance().getId(), info);
+				ids.put(entry.getValue().get(), entry.getKey());
 			} catch (Exception e) {
-				e.printStackTrace();
+				logger.error("Cannot read the id of "+entry.getKey().getGeneratorClass(), e);
 				continue;
 			} 
 		}
 	}
 
+	/**
+	 * Create the generators and models of the extensions in parallel, loading their classes.
+	 */
 	private static void readExtensions(Map<Class<? extends IScanPathModel>, Class<? extends IPointGenerator>> gens,
-			                           Map<String,   GeneratorInfo> tids) throws CoreException {
+			                           Map<String,   GeneratorInfo> tids, ExecutorService executor) throws CoreException, InterruptedException {
 		
 		if (Platform.getExtensionRegistry()!=null) {
 			final IConfigurationElement[] eles = Platform.getExtensionRegistry().getConfigurationElementsFor("org.eclipse.scanning.api.generator");
-			for (IConfigurationElement e : eles) {
-				final IPointGenerator    gen = (IPointGenerator)e.createExecutableExtension("class");
-				final IScanPathModel     mod = (IScanPathModel)e.createExecutableExtension("model");
-				
-				gens.put(mod.getClass(), gen.getClass());
-				
-				final GeneratorInfo info = new GeneratorInfo();
-				info.setModelClass(mod.getClass());
-				info.setGeneratorClass(gen.getClass());
-				info.setLabel(e.getAttribute("label"));
-				info.setDescription(e.getAttribute("description"));
+			final List<Future<GeneratorInfo>> found = new ArrayList<>(eles.length);
+			for (final IConfigurationElement e : eles) {
+				found.add(executor.submit(new Callable<GeneratorInfo>() {
+					@Override
+					public GeneratorInfo call() throws Exception {
+						final IPointGenerator    gen = (IPointGenerator)e.createExecutableExtension("class");
+						final IScanPathModel     mod = (IScanPathModel)e.createExecutableExtension("model");
+						
+						final GeneratorInfo info = new GeneratorInfo();
+						info.setModelClass(mod.getClass());
+						info.setGeneratorClass(gen.getClass());
+						info.setLabel(e.getAttribute("label"));
+						info.setDescription(e.getAttribute("description"));
+						return info;
+					}
+				}));
+			}
+			for (int i = 0; i < eles.length; i++) {
+				final GeneratorInfo info;
+				try {
+					info = found.get(i).get();
+				} catch (ExecutionException ne) {
+					if (ne.getCause() instanceof CoreException) throw (CoreException)ne.getCause();
+					throw new CoreException(new Status(IStatus.ERROR, "org.eclipse.scanning.points", "Cannot create generator "+eles[i].getAttribute("id"), ne.getCause()));
+				}
+				gens.put(info.getModelClass(), info.getGeneratorClass());
 				
-				String id = e.getAttribute("id");
+				String id = eles[i].getAttribute("id");
 				tids.put(id, info);
 			}
 		}
@@ -177,23 +317,30 @@ public class PointGeneratorFactory implements IPointGeneratorService {
 		return new CompoundGenerator(generators);
 	}
 
+	@Override
+	public <T extends IScanPathModel, P extends IPosition> IPointGenerator<T, P> createCachedGenerator(IPointGenerator<T, P> generator) throws GeneratorException {
+		if (generator==null) throw new GeneratorException("Cannot cache the points of a null generator!");
+		return PointPathCache.getDefault().createGenerator(generator);
+	}
+
 	@Override
 	public Collection<String> getRegisteredGenerators() {
-		return info.keySet();
+		return getRegistry().info.keySet();
 	}
 
 	@Override
 	public <T extends IScanPathModel, P extends IPosition> IPointGenerator<T, P> createGenerator(String id) throws GeneratorException {
 		try {
-			GeneratorInfo ginfo = info.get(id);
-			IPointGenerator<T, P> gen = ginfo.getGeneratorClass().newInstance();
+			GeneratorInfo ginfo = getRegistry().info.get(id);
+			if (ginfo==null) throw new GeneratorException("There is no generator with id "+id);
+			IPointGenerator<T, P> gen = getRegistry().newGenerator(ginfo);
 			T                     mod = (T)ginfo.getModelClass().newInstance();
 			gen.setModel(mod);
 			if (ginfo.getLabel()!=null) gen.setLabel(ginfo.getLabel());
 			if (ginfo.getDescription()!=null) gen.setDescription(ginfo.getDescription());
 			return gen;
 			
-		} catch (IllegalAccessException | InstantiationException ne) {
+		} catch (ReflectiveOperationException ne) {
 			throw new GeneratorException(ne);
 		}
 	}
@@ -0,0 +1,446 @@
+package org.eclipse.scanning.points;
+
+import java.beans.PropertyChangeSupport;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.dawnsci.analysis.api.roi.IROI;
+import org.eclipse.scanning.api.points.IPointContainer;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.points.Scalar;
+import org.eclipse.scanning.api.points.models.IScanPathModel;
+
+/**
+ * The points of the paths which have been iterated recently, so that the
+ * same scan submitted again, validated and then run, or previewed as it is
+ * edited does not make the same points again.
+ *
+ * A path is kept against the values of its models and copies of its regions,
+ * not against the model objects themselves, so that a model read from a new
+ * request finds the path of an equal model. The positions are kept as arrays
+ * of primitives, the names once for the whole path, and made again as the
+ * path is iterated. The least recently used paths are discarded when the
+ * cache holds more than its maximum number of bytes.
+ *
+ * The default cache holds 64MB, set org.eclipse.scanning.points.pathCacheSize
+ * to the number of bytes required to change this or to zero to keep no paths.
+ *
+ * This class is thread safe.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public final class PointPathCache {
+
+	private static final PointPathCache DEFAULT = new PointPathCache(Long.getLong("org.eclipse.scanning.points.pathCacheSize", 64L*1024*1024));
+
+	/**
+	 *
+	 * @return the cache shared by the generators of this VM.
+	 */
+	public static PointPathCache getDefault() {
+		return DEFAULT;
+	}
+
+	private final long                        maximum;
+	private final LinkedHashMap<Object, Path> paths; // In order of use, guarded by this
+	private long                              held;  // Guarded by this
+	private final AtomicLong                  hits;
+	private final AtomicLong                  misses;
+	private final AtomicLong                  evictions;
+
+	/**
+	 *
+	 * @param maximum the most bytes of points to keep, zero to keep none.
+	 */
+	public PointPathCache(long maximum) {
+		this.maximum   = maximum;
+		this.paths     = new LinkedHashMap<Object, Path>(16, 0.75f, true);
+		this.hits      = new AtomicLong();
+		this.misses    = new AtomicLong();
+		this.evictions = new AtomicLong();
+	}
+
+	/**
+	 * Wrap a generator so that its path is read from this cache when it has
+	 * been iterated before and kept in it when it has not.
+	 * @param generator
+	 * @return the wrapped generator
+	 */
+	public <T extends IScanPathModel, P extends IPosition> IPointGenerator<T, P> createGenerator(IPointGenerator<T, P> generator) {
+		if (generator instanceof CachedGenerator && ((CachedGenerator<?,?>)generator).getCache()==this) return generator;
+		return new CachedGenerator<T, P>(generator, this);
+	}
+
+	/**
+	 *
+	 * @param key from createKey(...)
+	 * @return the path or null if it is not in the cache, which is counted as a miss.
+	 */
+	Path get(Object key) {
+		final Path path;
+		synchronized (this) {
+			path = paths.get(key);
+		}
+		if (path!=null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+		return path;
+	}
+
+	/**
+	 *
+	 * @param key from createKey(...)
+	 * @return the path or null if it is not in the cache, not counted as a hit or miss.
+	 */
+	synchronized Path peek(Object key) {
+		return paths.get(key);
+	}
+
+	/**
+	 * Keep a path, discarding the least recently used until the cache is within its maximum.
+	 * @param key
+	 * @param path
+	 * @return true if the path was kept, false if it is larger than the cache.
+	 */
+	synchronized boolean put(Object key, Path path) {
+		if (path.getBytes()>maximum) return false;
+		final Path old = paths.put(key, path);
+		if (old!=null) held-=old.getBytes();
+		held+=path.getBytes();
+
+		for (Iterator<Path> it = paths.values().iterator(); held>maximum && it.hasNext();) {
+			final Path eldest = it.next();
+			if (eldest==path) continue;
+			it.remove();
+			held-=eldest.getBytes();
+			evictions.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * Discard the paths held, the metrics are kept.
+	 */
+	public synchronized void clear() {
+		paths.clear();
+		held = 0;
+	}
+
+	/**
+	 *
+	 * @return the number of paths held.
+	 */
+	public synchronized int size() {
+		return paths.size();
+	}
+
+	/**
+	 *
+	 * @return the most bytes of points which are kept.
+	 */
+	public long getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 *
+	 * @return the bytes of points held now.
+	 */
+	public synchronized long getHeld() {
+		return held;
+	}
+
+	/**
+	 *
+	 * @return the number of times a path was iterated from the cache.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 *
+	 * @return the number of times a path was not in the cache and was made by its generator.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 *
+	 * @return the number of paths discarded to make room for others.
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * The key of the path of a generator, made from the class of the generator,
+	 * the values of the fields of its model and copies of its regions. A compound
+	 * generator has the keys of its generators.
+	 *
+	 * @param gen
+	 * @return the key or null if the path cannot be cached, for instance because
+	 * its regions cannot be copied.
+	 */
+	static Object createKey(IPointGenerator<?,?> gen) {
+		if (gen instanceof CachedGenerator) gen = ((CachedGenerator<?,?>)gen).getDelegate();
+		try {
+			if (gen instanceof CompoundGenerator) {
+				final IPointGenerator<?,?>[] gens = ((CompoundGenerator)gen).getGenerators();
+				final List<Object> key = new ArrayList<Object>(gens.length+1);
+				key.add(gen.getClass());
+				for (IPointGenerator<?,?> child : gens) {
+					final Object ckey = createKey(child);
+					if (ckey==null) return null;
+					key.add(ckey);
+				}
+				return key;
+			}
+
+			final List<Object> rois = new ArrayList<Object>(7);
+			if (gen.getContainers()!=null) for (IPointContainer<?> container : gen.getContainers()) {
+				if (!(container.getROI() instanceof IROI)) return null;
+				rois.add(((IROI)container.getROI()).copy());
+			}
+			return Arrays.asList(gen.getClass(), snapshot(gen.getModel(), 0), rois);
+
+		} catch (UncacheableException | IllegalAccessException | RuntimeException ne) {
+			return null;
+		}
+	}
+
+	/**
+	 * The values of the fields of a model, arrays and collections as lists and
+	 * beans as maps of their fields. The unique key of a model is not a value.
+	 */
+	private static Object snapshot(Object value, int depth) throws IllegalAccessException, UncacheableException {
+
+		if (depth>8) throw new UncacheableException(); // Probably a cycle
+		if (value==null) return null;
+		final Class<?> clazz = value.getClass();
+		if (value instanceof Number || value instanceof String || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+			return value;
+		}
+		if (clazz.isArray()) {
+			final List<Object> ret = new ArrayList<Object>(Array.getLength(value));
+			for (int i = 0; i < Array.getLength(value); i++) ret.add(snapshot(Array.get(value, i), depth+1));
+			return ret;
+		}
+		if (value instanceof Collection) {
+			final List<Object> ret = new ArrayList<Object>(((Collection<?>)value).size());
+			for (Object item : (Collection<?>)value) ret.add(snapshot(item, depth+1));
+			return ret;
+		}
+		if (value instanceof Map) {
+			final Map<Object,Object> ret = new LinkedHashMap<Object,Object>(((Map<?,?>)value).size());
+			for (Map.Entry<?,?> entry : ((Map<?,?>)value).entrySet()) {
+				ret.put(snapshot(entry.getKey(), depth+1), snapshot(entry.getValue(), depth+1));
+			}
+			return ret;
+		}
+		if (clazz.getName().startsWith("java.")) throw new UncacheableException();
+
+		final Map<String,Object> fields = new TreeMap<String,Object>();
+		for (Class<?> c = clazz; c!=null && c!=Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+				if (field.getType()==PropertyChangeSupport.class || "uniqueKey".equals(field.getName())) continue;
+				field.setAccessible(true);
+				fields.put(c.getName()+"."+field.getName(), snapshot(field.get(value), depth+1));
+			}
+		}
+		return Arrays.asList(clazz, fields);
+	}
+
+	private static final class UncacheableException extends Exception {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * The positions of a path, all of one type and with the same names, as a
+	 * value and an index for each name at each step.
+	 */
+	static final class Path {
+
+		private static final int POINT  = 0;
+		private static final int SCALAR = 1;
+		private static final int MAP    = 2;
+
+		private final int      type;
+		private final String[] names;
+		private final double[] values;
+		private final int[]    indices;
+		private final int      size;
+
+		private Path(int type, String[] names, double[] values, int[] indices, int size) {
+			this.type    = type;
+			this.names   = names;
+			this.values  = values;
+			this.indices = indices;
+			this.size    = size;
+		}
+
+		int size() {
+			return size;
+		}
+
+		long getBytes() {
+			return 12L*values.length + 64;
+		}
+
+		Iterator<IPosition> iterator() {
+			return new Iterator<IPosition>() {
+				private int step = 0;
+				@Override
+				public boolean hasNext() {
+					return step<size;
+				}
+				@Override
+				public IPosition next() {
+					if (step>=size) throw new NoSuchElementException();
+					return create(step++);
+				}
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("remove");
+				}
+			};
+		}
+
+		private IPosition create(int step) {
+			final int offset = step*names.length;
+			switch (type) {
+			case POINT:
+				return new Point(names[0], indices[offset], values[offset], names[1], indices[offset+1], values[offset+1]);
+			case SCALAR:
+				return new Scalar(names[0], indices[offset], values[offset]);
+			default:
+				final MapPosition pos = new MapPosition();
+				for (int i = 0; i < names.length; i++) {
+					pos.put(names[i], values[offset+i]);
+					pos.putIndex(names[i], indices[offset+i]);
+				}
+				return pos;
+			}
+		}
+	}
+
+	/**
+	 * Records the positions of a path as it is iterated. Stops recording if
+	 * a position cannot be kept or the path becomes larger than the cache.
+	 */
+	final class Recorder {
+
+		private int      type = -1;
+		private String[] names;
+		private double[] values;
+		private int[]    indices;
+		private int      size;
+		private boolean  failed;
+
+		/**
+		 * Record the next position of the path.
+		 * @param pos
+		 */
+		void add(IPosition pos) {
+			if (failed) return;
+			if (type<0 && !start(pos)) {
+				stop();
+				return;
+			}
+			if (!isLike(pos)) {
+				stop();
+				return;
+			}
+			final int offset = size*names.length;
+			if (offset+names.length>values.length) {
+				final long limit = Math.min(maximum/12, Integer.MAX_VALUE); // The most values a path in the cache can have
+				if (offset+names.length>limit) {
+					stop();
+					return;
+				}
+				final long length = Math.min(Math.max(offset+names.length, 2L*values.length), limit);
+				values  = Arrays.copyOf(values,  (int)length);
+				indices = Arrays.copyOf(indices, (int)length);
+			}
+			for (int i = 0; i < names.length; i++) {
+				values[offset+i]  = ((Double)pos.get(names[i])).doubleValue();
+				indices[offset+i] = pos.getIndex(names[i]);
+			}
+			++size;
+		}
+
+		private boolean start(IPosition pos) {
+			if (pos.getClass()==Point.class) {
+				type = Path.POINT;
+			} else if (pos.getClass()==Scalar.class) {
+				type = Path.SCALAR;
+			} else if (pos.getClass()==MapPosition.class) {
+				type = Path.MAP;
+			} else {
+				return false;
+			}
+			names   = pos.getNames().toArray(new String[pos.size()]);
+			if (type==Path.POINT && names.length!=2) return false;
+			if (type==Path.SCALAR && names.length!=1) return false;
+			values  = new double[Math.max(names.length, 64)];
+			indices = new int[values.length];
+			return true;
+		}
+
+		private boolean isLike(IPosition pos) {
+			if (type==Path.POINT  && pos.getClass()!=Point.class)       return false;
+			if (type==Path.SCALAR && pos.getClass()!=Scalar.class)      return false;
+			if (type==Path.MAP    && pos.getClass()!=MapPosition.class) return false;
+			final List<String> pnames = pos.getNames();
+			if (pnames.size()!=names.length) return false;
+			for (int i = 0; i < names.length; i++) {
+				if (!names[i].equals(pnames.get(i))) return false;
+				if (!(pos.get(names[i]) instanceof Double)) return false;
+			}
+			return true;
+		}
+
+		private void stop() {
+			failed  = true;
+			values  = null;
+			indices = null;
+		}
+
+		/**
+		 * The path has been iterated to its end, keep it.
+		 * @param key
+		 */
+		void complete(Object key) {
+			if (failed || type<0) return;
+			put(key, new Path(type, names, Arrays.copyOf(values, size*names.length), Arrays.copyOf(indices, size*names.length), size));
+			stop(); // Only once
+		}
+	}
+
+	/**
+	 *
+	 * @return a recorder for a path which was not in the cache.
+	 */
+	Recorder createRecorder() {
+		return new Recorder();
+	}
+}
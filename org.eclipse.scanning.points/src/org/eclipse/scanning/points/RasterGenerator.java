@@ -3,11 +3,14 @@ package org.eclipse.scanning.points;
 import java.util.Iterator;
 
 import org.eclipse.scanning.api.points.AbstractGenerator;
+import org.eclipse.scanning.api.points.GeneratorException;
 import org.eclipse.scanning.api.points.Point;
 import org.eclipse.scanning.api.points.models.RasterModel;
 
 class RasterGenerator extends AbstractGenerator<RasterModel,Point> {
 	
+	private volatile RegionMask mask;
+
 	RasterGenerator() {
 		setLabel("Raster");
 		setDescription("Creates a raster scan (a scan of x and y).\nThe scan supports bidirectional or 'snake' mode.");
@@ -18,4 +21,17 @@ class RasterGenerator extends AbstractGenerator<RasterModel,Point> {
 		return new GridIterator(this);
 	}
 
+	@Override
+	public int size() throws GeneratorException {
+		return new GridIterator(this).size();
+	}
+
+	/**
+	 * The points of the grid in the regions, kept until the grid or regions change.
+	 */
+	RegionMask getMask(double minX, double minY, double xStep, double yStep, int columns, int rows) {
+		mask = RegionMask.get(mask, getContainers(), minX, minY, xStep, yStep, columns, rows);
+		return mask;
+	}
+
 }
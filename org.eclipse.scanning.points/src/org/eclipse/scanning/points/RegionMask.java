@@ -0,0 +1,201 @@
+package org.eclipse.scanning.points;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.roi.IROI;
+import org.eclipse.dawnsci.analysis.api.roi.IRectangularROI;
+import org.eclipse.scanning.api.points.IPointContainer;
+
+/**
+ * The points of a grid which are inside the regions of a generator, as
+ * one bit per point, so that iterating and sizing the grid do not test every
+ * point against every region.
+ *
+ * For each region only the rows and columns inside its bounding box are
+ * looked at. Along each of those rows the region is asked where its outline
+ * crosses the row. Between two crossings the points are all in or all out so
+ * only the two ends of each span need to be tested. Regions which cannot give
+ * their crossings, or spans whose ends do not agree, are tested point by point. The result is the same as calling
+ * containsPoint(...) on the generator for every point of the grid.
+ *
+ * @author Matthew Gerring
+ *
+ */
+final class RegionMask {
+
+	private final List<IPointContainer<?>> containers;
+	private final List<Object>             rois; // Copies, to know if the regions changed.
+	private final double                   minX, minY, xStep, yStep;
+	private final int                      columns, rows;
+	private final BitSet                   bits;
+
+	private RegionMask(List<IPointContainer<?>> containers, List<Object> rois, double minX, double minY, double xStep, double yStep, int columns, int rows) {
+		this.containers = containers;
+		this.rois       = rois;
+		this.minX       = minX;
+		this.minY       = minY;
+		this.xStep      = xStep;
+		this.yStep      = yStep;
+		this.columns    = columns;
+		this.rows       = rows;
+		this.bits       = new BitSet(columns*rows);
+	}
+
+	/**
+	 * Get the mask of the regions for a grid, reusing the last one if the grid and regions have not changed.
+	 *
+	 * @param last mask made for the generator, may be null
+	 * @param containers of the generator
+	 * @param minX x of the first column
+	 * @param minY y of the first row
+	 * @param xStep
+	 * @param yStep
+	 * @param columns
+	 * @param rows
+	 * @return the mask or null if there are no regions or the grid is too large to mask.
+	 */
+	static RegionMask get(RegionMask last, List<IPointContainer<?>> containers, double minX, double minY, double xStep, double yStep, int columns, int rows) {
+
+		if (containers==null || containers.isEmpty()) return null;
+		if (columns<1 || rows<1 || (long)columns*rows>Integer.MAX_VALUE) return null;
+
+		if (last!=null && last.isFor(containers, minX, minY, xStep, yStep, columns, rows)) return last;
+
+		final RegionMask mask = new RegionMask(containers, copyROIs(containers), minX, minY, xStep, yStep, columns, rows);
+		for (IPointContainer<?> container : containers) mask.add(container);
+		return mask;
+	}
+
+	/**
+	 *
+	 * @param containers
+	 * @return copies of the regions or null if they cannot be copied,
+	 * in which case the mask is never reused.
+	 */
+	private static List<Object> copyROIs(List<IPointContainer<?>> containers) {
+		final List<Object> ret = new ArrayList<Object>(containers.size());
+		for (IPointContainer<?> container : containers) {
+			if (!(container.getROI() instanceof IROI)) return null;
+			ret.add(((IROI)container.getROI()).copy());
+		}
+		return ret;
+	}
+
+	private boolean isFor(List<IPointContainer<?>> containers, double minX, double minY, double xStep, double yStep, int columns, int rows) {
+		if (rois==null || this.containers!=containers || rois.size()!=containers.size()) return false;
+		if (this.columns!=columns || this.rows!=rows) return false;
+		if (Double.compare(this.minX, minX)!=0 || Double.compare(this.minY, minY)!=0) return false;
+		if (Double.compare(this.xStep, xStep)!=0 || Double.compare(this.yStep, yStep)!=0) return false;
+		for (int i = 0; i < rois.size(); i++) {
+			if (!rois.get(i).equals(containers.get(i).getROI())) return false;
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @param xIndex
+	 * @param yIndex
+	 * @return true if the point is in one of the regions.
+	 */
+	boolean contains(int xIndex, int yIndex) {
+		return bits.get(yIndex*columns+xIndex);
+	}
+
+	/**
+	 *
+	 * @return the number of points in the regions.
+	 */
+	int size() {
+		return bits.cardinality();
+	}
+
+	private void add(IPointContainer<?> container) {
+
+		int r0 = 0, r1 = rows-1, c0 = 0, c1 = columns-1;
+		final IROI roi = container.getROI() instanceof IROI ? (IROI)container.getROI() : null;
+		final boolean spans = roi!=null && xStep>0 && yStep>0;
+		if (spans) {
+			final IRectangularROI bounds = roi.getBounds();
+			if (bounds!=null) {
+				// One more row and column each side, the points on the bounds are tested.
+				r0 = Math.max(r0, (int)Math.floor((bounds.getPoint()[1]-minY)/yStep)-1);
+				r1 = Math.min(r1, (int)Math.ceil((bounds.getPoint()[1]+bounds.getLength(1)-minY)/yStep)+1);
+				c0 = Math.max(c0, (int)Math.floor((bounds.getPoint()[0]-minX)/xStep)-1);
+				c1 = Math.min(c1, (int)Math.ceil((bounds.getPoint()[0]+bounds.getLength(0)-minX)/xStep)+1);
+			}
+		}
+
+		for (int yIndex = r0; yIndex <= r1; yIndex++) {
+			final double y = minY + yIndex * yStep;
+			double[] crossings = null;
+			if (spans) {
+				try {
+					crossings = roi.findHorizontalLineSegmentIntersections(y);
+				} catch (RuntimeException ne) {
+					crossings = null; // Not all regions can do this.
+				}
+			}
+			if (crossings==null) {
+				addPoints(container, yIndex, c0, c1);
+			} else {
+				addSpans(container, yIndex, c0, c1, crossings);
+			}
+		}
+	}
+
+	/**
+	 * Split the row into spans at the crossings and fill each span.
+	 * A point exactly on a crossing is tested on its own.
+	 */
+	private void addSpans(IPointContainer<?> container, int yIndex, int c0, int c1, double[] crossings) {
+
+		final double[] xs = new double[crossings.length]; // In columns
+		for (int i = 0; i < crossings.length; i++) xs[i] = (crossings[i]-minX)/xStep;
+		Arrays.sort(xs); // NaNs go to the end
+
+		int start = c0;
+		for (double column : xs) {
+			if (Double.isNaN(column) || column>c1) break;
+			if (column<start) continue; // No point between this and the last crossing
+			final int left = (int)Math.floor(column);
+			if (left==column) {
+				addSpan(container, yIndex, start, left-1);
+				addPoints(container, yIndex, left, left);
+			} else {
+				addSpan(container, yIndex, start, left);
+			}
+			start = left+1;
+		}
+		addSpan(container, yIndex, start, c1);
+	}
+
+	/**
+	 * A span with no crossing inside it, all in or all out if the ends agree.
+	 */
+	private void addSpan(IPointContainer<?> container, int yIndex, int from, int to) {
+		if (from>to) return;
+		final boolean first = containsPoint(container, from, yIndex);
+		final boolean last  = from==to ? first : containsPoint(container, to, yIndex);
+		if (first!=last) {
+			addPoints(container, yIndex, from, to); // Cannot trust the crossings
+		} else if (first) {
+			bits.set(yIndex*columns+from, yIndex*columns+to+1);
+		}
+	}
+
+	private void addPoints(IPointContainer<?> container, int yIndex, int from, int to) {
+		final int row = yIndex*columns;
+		for (int xIndex = from; xIndex <= to; xIndex++) {
+			if (bits.get(row+xIndex)) continue; // In another region
+			if (containsPoint(container, xIndex, yIndex)) bits.set(row+xIndex);
+		}
+	}
+
+	private boolean containsPoint(IPointContainer<?> container, int xIndex, int yIndex) {
+		return container.containsPoint(minX + xIndex * xStep, minY + yIndex * yStep);
+	}
+}
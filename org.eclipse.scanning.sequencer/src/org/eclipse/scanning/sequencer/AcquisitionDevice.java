@@ -1,5 +1,6 @@
 package org.eclipse.scanning.sequencer;
 
+import java.io.File;
 import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -7,6 +8,8 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.dawnsci.nexus.NexusException;
 import org.eclipse.dawnsci.nexus.builder.NexusScanFile;
+import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.scan.DeviceState;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.event.status.Status;
@@ -14,9 +17,13 @@ import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
 import org.eclipse.scanning.api.scan.IPauseableDevice;
 import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.api.scan.IWritableDetector;
+import org.eclipse.scanning.api.scan.ScanCheckpoint;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This device does a standard GDA scan at each point. If a given point is a 
@@ -32,12 +39,36 @@ import org.eclipse.scanning.api.scan.models.ScanModel;
  */
 final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> {
 
+	private static final Logger logger = LoggerFactory.getLogger(AcquisitionDevice.class);
+
+	/**
+	 * The time in ms between saves of the checkpoint while the scan runs. It is
+	 * always saved if the scan fails. Set org.eclipse.scanning.sequencer.checkpointPeriod
+	 * to change this.
+	 */
+	private static final long CHECKPOINT_PERIOD = Long.getLong("org.eclipse.scanning.sequencer.checkpointPeriod", 1000);
+
+	/**
+	 * The time in ms between publishing the timings of the scan, if the model has a 
+	 * metrics publisher. Set org.eclipse.scanning.sequencer.metricsPeriod to change this.
+	 */
+	private static final long METRICS_PERIOD = Long.getLong("org.eclipse.scanning.sequencer.metricsPeriod", 5000);
+
 	// Scanning stuff
 	private IPositioner                          positioner;
 	private LevelRunner<IRunnableDevice<?>>      runners;
 	private LevelRunner<IRunnableDevice<?>>      writers;
 	// the nexus file
 	private NexusScanFile nexusScanFile = null;
+	// the progress saved alongside the nexus file the scan was started in,
+	// a resumed scan carries on the checkpoint of the scan it resumes.
+	private ScanCheckpoint checkpoint;
+	private String         checkpointPath;
+	private long           lastCheckpoint;
+	private int            lastStep;
+	// where the time goes at each point, null if the scan is not timed
+	private ScanInstrumentation instrumentation;
+	private long                lastMetrics;
 	
 	/*
 	 * Concurrency design recommended by Keith Ralphs after investigating
@@ -108,12 +139,32 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> {
 	 */
 	private boolean createNexusFile(ScanModel model) throws NexusException, ScanningException {
 		if (model.getFilePath()==null || ServiceHolder.getFactory()==null) return false; // nothing wired 
+		checkpointPath = model.getFilePath();
+		if (model.getResumeStep()>0 && new File(model.getFilePath()).exists()) {
+			// Files can only be created by the builder, so the steps of a resumed
+			// scan are written to a file of their own next to the original.
+			model.setFilePath(getResumedPath(model.getFilePath(), model.getResumeStep()));
+			getBean().setFilePath(model.getFilePath());
+		}
 		NexusScanFileBuilder fileBuilder = new NexusScanFileBuilder(getDeviceService());
 		nexusScanFile = fileBuilder.createNexusFile(model);
     	if (nexusScanFile!=null) nexusScanFile.openToWrite();
 		return true; // successfully created file
 	}
 
+	/**
+	 * 
+	 * @param filePath
+	 * @param step
+	 * @return the path of the file written by a scan resumed at step, e.g. /dls/i05/data/ixx-1_from_800000.nxs
+	 */
+	static String getResumedPath(String filePath, int step) {
+		final int dot   = filePath.lastIndexOf('.');
+		final int slash = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf('\\'));
+		if (dot<=slash) return filePath+"_from_"+step;
+		return filePath.substring(0, dot)+"_from_"+step+filePath.substring(dot);
+	}
+
 	@Override
 	public void run(IPosition parent) throws ScanningException, InterruptedException {
 		
@@ -122,17 +173,24 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> {
 		ScanModel model = getModel();
 		if (model.getPositionIterable()==null) throw new ScanningException("The model must contain some points to scan!");
 		
+		checkpoint = null;
+		setInstrumentation(ScanInstrumentation.isEnabled() ? new ScanInstrumentation() : null);
 		try {
-	        // TODO Should we validate the position iterator that all
-	        // the positions are valid before running the scan?
-	        // It was called limit checking in GDA.
-	        // Sometimes logic is needed to implement collision avoidance
-
-			
-    		// Set the size and declare a count
-    		int size  = 0;
-    		int count = 0;
-    		for (IPosition unused : model.getPositionIterable()) size++; // Fast even for large stuff
+	        // Check that all the positions are valid before running the scan, unless
+	        // they were checked before the scan was created, this is called limit 
+	        // checking in GDA. It also counts the positions.
+			// Validators on the model may be used for collision avoidance.
+    		final int size  = model.getSize()>0 ? model.getSize() : scanningService.validate(model);
+    		
+    		// A resumed scan starts part way through the positions.
+    		final int start = model.getResumeStep();
+    		if (start<0 || (start>0 && start>=size)) throw new ScanningException("Cannot resume the scan at step "+start+", it has "+size+" steps");
+    		if (nexusScanFile!=null) {
+    			checkpoint = new ScanCheckpoint(checkpointPath, size);
+    			checkpoint.setStep(start-1);
+    			lastStep       = start-1;
+    			lastCheckpoint = System.currentTimeMillis();
+    		}
     		
     		fireStart(size);
  	
@@ -141,18 +199,26 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> {
     		if (model.getMonitors()!=null) positioner.setMonitors(model.getMonitors());
     		
 
+    		// Skip the positions which the scan being resumed wrote. The generators
+    		// are not indexed so we iterate to the step without moving anything.
+    		final Iterator<IPosition> it = model.getPositionIterable().iterator();
+    		int count = 0;
+    		for (; count<start && it.hasNext(); count++) it.next();
+    		
     		// Notify that we will do a run and provide the first position.
-        	fireRunWillPerform(model.getPositionIterable().iterator().next());
+    		final IPosition first = it.next();
+        	fireRunWillPerform(first);
 
         	// The scan loop
         	IPosition pos = null; // We want the last point when we are done so don't use foreach
-	        for (Iterator<IPosition> it = model.getPositionIterable().iterator(); it.hasNext();) {
+	        for (IPosition next = first; next!=null; next = it.hasNext() ? it.next() : null) {
 				
-	        	pos = it.next();
+	        	pos = next;
 	        	pos.setStepIndex(count);
 	        	
 	        	// Check if we are paused, blocks until we are not
 	        	checkPaused();
+	        	final long pointStart = now(); // The time paused is not part of the point
 	        	
 	        	// TODO Some validation on each point
 	        	// perhaps replacing atPointStart(..)
@@ -160,30 +226,46 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> {
 	        	
 	        	// Run to the position
 	        	positioner.setPosition(pos);   // moveTo in GDA8
+	        	long time = lap(ScanInstrumentation.MOVE, pointStart);
 	        	
 	        	writers.await();               // Wait for the previous read out to return, if any
+	        	time = lap(ScanInstrumentation.AWAIT, time);
 	        	if (nexusScanFile!=null) nexusScanFile.flush();         // flush the nexus file
+	        	time = lap(ScanInstrumentation.FLUSH, time);
+	        	checkpoint(count-1, false);    // The previous step is now in the file
 	        	runners.run(pos);              // GDA8: collectData() / GDA9: run() for Malcolm
+	        	time = lap(ScanInstrumentation.RUN, time);
 	        	writers.run(pos, false);       // Do not block on the readout, move to the next position immediately.
+	        	time = lap(ScanInstrumentation.WRITE, time);
 		        		        	
 	        	// Send an event about where we are in the scan
 	        	positionComplete(pos, count+1, size);
+	        	lap(ScanInstrumentation.PUBLISH, time);
+	        	lap(ScanInstrumentation.POINT, pointStart);
+	        	publishMetrics(false);
 	        	++count;
 	        }
 	        
 	        // On the last iteration we must wait for the final readout.
         	writers.await();                   // Wait for the previous read out to return, if any
+        	writeComplete();                   // Detectors may have data kept to write together
         	if (nexusScanFile!=null) nexusScanFile.close();             // close the NeXus file
+        	if (checkpoint!=null) checkpoint.delete();                  // nothing to resume
         	fireRunPerformed(pos);             // Say that we did the overall run using the position we stopped at.
+        	publishMetrics(true);
     		fireEnd();
         	
 		} catch (ScanningException | InterruptedException i) {
+			writeFailed();
+			publishMetrics(true);
 			if (!getBean().getStatus().isFinal()) getBean().setStatus(Status.FAILED);
 			getBean().setMessage(i.getMessage());
 			setDeviceState(DeviceState.FAULT);
 			throw i;
 			
 		} catch (Exception ne) {
+			writeFailed();
+			publishMetrics(true);
 			if (!getBean().getStatus().isFinal()) getBean().setStatus(Status.FAILED);
 			getBean().setMessage(ne.getMessage());
 			setDeviceState(DeviceState.FAULT);
@@ -191,6 +273,123 @@ final class AcquisitionDevice extends AbstractRunnableDevice<ScanModel> {
 		} 
 	}
 
+	/**
+	 * Called when the scan fails or is aborted. The detectors write the data they
+	 * have kept for the steps already run and the checkpoint is saved. If that
+	 * cannot be done the last checkpoint saved is left as the one to resume from.
+	 */
+	private void writeFailed() {
+		try {
+			writers.await();
+			writeComplete();
+			if (nexusScanFile!=null) nexusScanFile.flush();
+			checkpoint(-1, true);
+		} catch (InterruptedException ne) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted writing the data kept by the detectors of "+getName(), ne);
+		} catch (Exception ne) {
+			logger.warn("Cannot write the data kept by the detectors of "+getName(), ne);
+		}
+	}
+
+	private void writeComplete() throws ScanningException {
+		if (model.getDetectors()==null) return;
+		for (IRunnableDevice<?> device : model.getDetectors()) {
+			if (device instanceof IWritableDetector) ((IWritableDetector<?>)device).writeComplete();
+		}
+	}
+
+	private void setInstrumentation(ScanInstrumentation instrumentation) {
+		this.instrumentation = instrumentation;
+		this.lastMetrics     = System.currentTimeMillis();
+		if (positioner instanceof LevelRunner) ((LevelRunner<?>)positioner).setInstrumentation(instrumentation, ScanInstrumentation.MOVE);
+		runners.setInstrumentation(instrumentation, ScanInstrumentation.RUN);
+		writers.setInstrumentation(instrumentation, ScanInstrumentation.WRITE);
+	}
+
+	/**
+	 * 
+	 * @return the time now in ns if the scan is being timed
+	 */
+	private long now() {
+		return instrumentation!=null ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Record the time of a phase of the point if the scan is being timed.
+	 * @param phase
+	 * @param start
+	 * @return the time now in ns, which starts the next phase.
+	 */
+	private long lap(String phase, long start) {
+		return instrumentation!=null ? instrumentation.recordSince(phase, start) : 0;
+	}
+
+	/**
+	 * Set the timings of the scan on the bean and publish them on the 
+	 * metrics publisher, if there is one, if it is time to or if forced.
+	 * Forced is used at the end of the scan and the bean then has the timings 
+	 * when its final state is sent.
+	 * 
+	 * @param force
+	 */
+	private void publishMetrics(boolean force) {
+		if (instrumentation==null) return;
+		final IPublisher<ScanBean> metrics = getModel().getMetricsPublisher();
+		if (!force && (metrics==null || System.currentTimeMillis()-lastMetrics<METRICS_PERIOD)) return;
+		
+		lastMetrics = System.currentTimeMillis();
+		final ScanBean bean = new ScanBean();
+		bean.merge(getBean());
+		bean.setTimings(instrumentation.getTimings());
+		if (force) getBean().setTimings(bean.getTimings());
+		
+		if (metrics==null) return;
+		try {
+			metrics.broadcast(bean);
+		} catch (EventException ne) {
+			logger.warn("Cannot publish the timings of the scan "+getName(), ne);
+		}
+	}
+
+	/**
+	 * Record the last step which was fully written and save it alongside the nexus 
+	 * file if it is time to or if forced. A failure to save is logged, the scan 
+	 * should not fail because its checkpoint could not be written.
+	 * 
+	 * The file must have been flushed. Detectors which keep data to write together
+	 * are not made to write it, the step recorded is the last one which they have 
+	 * all written.
+	 * 
+	 * @param step or -1 to save the last one recorded
+	 * @param force
+	 */
+	private void checkpoint(int step, boolean force) {
+		if (checkpoint==null) return;
+		if (step>lastStep) lastStep = step;
+		final int written = Math.min(lastStep, getWrittenStep());
+		if (written>checkpoint.getStep()) checkpoint.setStep(written);
+		
+		final long time = System.currentTimeMillis();
+		if (!force && time-lastCheckpoint<CHECKPOINT_PERIOD) return;
+		
+		try {
+			checkpoint.save();
+			lastCheckpoint = time;
+		} catch (Exception ne) {
+			logger.warn("Cannot save the checkpoint of "+checkpoint.getFilePath(), ne);
+		}
+	}
+
+	private int getWrittenStep() {
+		int step = Integer.MAX_VALUE;
+		if (model.getDetectors()==null) return step;
+		for (IRunnableDevice<?> device : model.getDetectors()) {
+			if (device instanceof IWritableDetector) step = Math.min(step, ((IWritableDetector<?>)device).getWrittenStep());
+		}
+		return step;
+	}
+
 	
 	private void fireEnd() throws ScanningException {
 		
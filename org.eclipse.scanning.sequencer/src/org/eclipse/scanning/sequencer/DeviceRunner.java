@@ -52,11 +52,13 @@ class DeviceRunner extends LevelRunner<IRunnableDevice<?>> {
 			if (detector instanceof IRunnableEventDevice) {
 				((IRunnableEventDevice)detector).fireRunWillPerform(position);
 			}
+			final long start = System.nanoTime();
 			try {
 			    detector.run(position);
 			} catch (Exception ne) {
 				abort(detector, null, position, ne);
 			}
+			recordTask(detector, start);
 			if (detector instanceof IRunnableEventDevice) {
 				((IRunnableEventDevice)detector).fireRunPerformed(position);
 			}
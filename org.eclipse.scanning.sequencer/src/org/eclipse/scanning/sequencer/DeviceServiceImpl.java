@@ -1,18 +1,34 @@
 package org.eclipse.scanning.sequencer;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.scanning.api.ExecutorProviders;
+import org.eclipse.scanning.api.IWarmable;
 import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
@@ -28,9 +44,28 @@ import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.eclipse.scanning.api.scan.models.ScanModel;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Creates the devices of scans. Scans may be run by several consumers at
+ * once so the devices, the connections to Malcolm and the name accessors of
+ * the models are kept in concurrent maps. Only one connection to each Malcolm
+ * is made at a time, any other scans creating a device of the same Malcolm
+ * wait for that connection rather than making their own.
+ * 
+ * The devices registered by extension are read, in parallel, when the service
+ * is warmed up at start or otherwise when the first device is created. The
+ * constructor of the device of each model is kept so that creating a device for
+ * a scan does not look it up again.
+ * 
+ * @author Matthew Gerring
+ *
+ */
 @SuppressWarnings("rawtypes")
-public final class DeviceServiceImpl implements IDeviceService {
+public final class DeviceServiceImpl implements IDeviceService, IWarmable {
+	
+	private static final Logger logger = LoggerFactory.getLogger(DeviceServiceImpl.class);
 	
 	/**
 	 * The default Malcolm Hostname can be injected by spring. Otherwise
@@ -42,12 +77,12 @@ public final class DeviceServiceImpl implements IDeviceService {
 	 * This service can not be present for some tests which run in OSGi
 	 * but mock the test laster.
 	 */
-	private static IDeviceConnectorService deviceService;	
+	private static volatile IDeviceConnectorService deviceService;	
 	
 	/**
 	 * This service must be present.
 	 */
-	private static IMalcolmService         malcolmService;	
+	private static volatile IMalcolmService malcolmService;	
 		
 
 	/**
@@ -55,6 +90,11 @@ public final class DeviceServiceImpl implements IDeviceService {
 	 */
 	private static final Map<Class<?>, Class<? extends IRunnableDevice>> aquisitionDevices;
 	
+	/**
+	 * Map of device model class to the constructor of its device.
+	 */
+	private static final Map<Class<?>, Constructor<? extends IRunnableDevice>> constructors;
+	
 	/**
 	 * Map of device name to created device. Used to avoid
 	 * recreating non-virtual devices many times.
@@ -63,37 +103,83 @@ public final class DeviceServiceImpl implements IDeviceService {
 	 */
 	private static final Map<String, IRunnableDevice> namedDevices;
 	
+	/**
+	 * Map of model class to the method which gets the name of the device
+	 * from the model, so that it is looked up once for each class.
+	 */
+	private static final Map<Class<?>, NameAccessor> nameAccessors;
+	
+	private static volatile boolean     devicesRead;
+	private static final AtomicBoolean  started = new AtomicBoolean(false);
+	private static final CountDownLatch ready   = new CountDownLatch(1);
+	
+	static {
+		aquisitionDevices  = new ConcurrentHashMap<>(7);
+		constructors       = new ConcurrentHashMap<>(7);
+		namedDevices       = new ConcurrentHashMap<>(7);
+		nameAccessors      = new ConcurrentHashMap<>(7);
+	}
+	
 	// Use a factory pattern to register the types.
 	// This pattern can always be extended by extension points
 	// to allow point generators to be dynamically registered. 
-	static {
-		System.out.println("Starting device service");
-		Map<Class<?>, Class<? extends IRunnableDevice>> aqui = new HashMap<>(7);
-		aqui.put(ScanModel.class,         AcquisitionDevice.class);
+	private static void readDevices() {
 		
-		try {
-			readExtensions(aqui);
-		} catch (CoreException e) {
-			e.printStackTrace(); // Static block, intentionally do not use logging.
+		if (devicesRead) return;
+		synchronized (DeviceServiceImpl.class) {
+			if (devicesRead) return;
+			
+			final long start = System.currentTimeMillis();
+			Map<Class<?>, Class<? extends IRunnableDevice>> aqui = new HashMap<>(7);
+			aqui.put(ScanModel.class,         AcquisitionDevice.class);
+			
+			try {
+				readExtensions(aqui);
+			} catch (CoreException | InterruptedException e) {
+				logger.error("Cannot read the device extensions", e);
+			}
+			
+			// Devices registered for testing before the extensions were read are kept.
+			for (Map.Entry<Class<?>, Class<? extends IRunnableDevice>> entry : aqui.entrySet()) {
+				if (!aquisitionDevices.containsKey(entry.getKey())) aquisitionDevices.put(entry.getKey(), entry.getValue());
+			}
+			for (Class<?> modelClass : aquisitionDevices.keySet()) {
+				try {
+					getConstructor(modelClass);
+					getNameAccessor(modelClass);
+				} catch (ScanningException e) {
+					logger.error("Cannot get the constructor of the device of "+modelClass, e);
+				}
+			}
+			
+			devicesRead = true;
+			ready.countDown();
+			logger.debug("Read {} devices in {}ms", aquisitionDevices.size(), System.currentTimeMillis()-start);
 		}
-
-		
-		aquisitionDevices  = aqui;
-		namedDevices       = new HashMap<>(3);
-
 	}
 	
 	
 	/**
-	 * Map of malcolm connections made.
+	 * Map of malcolm connections made or being made. The first scan to need
+	 * a connection makes it, the others wait for the same future.
 	 */
-	private final Map<URI, IMalcolmConnection> connections;
+	private final ConcurrentMap<URI, Future<IMalcolmConnection>> connections;
+	
+	// Metrics of the registry
+	private final AtomicLong devicesCreated;
+	private final AtomicLong connectionsMade;
+	private final AtomicLong connectionsShared;
+	private final AtomicLong connectionsFailed;
 
 	/**
 	 * Main constructor used in the running server by OSGi (only)
 	 */
 	public DeviceServiceImpl() {
-		connections        = new HashMap<>(3);
+		connections        = new ConcurrentHashMap<>(7);
+		devicesCreated     = new AtomicLong();
+		connectionsMade    = new AtomicLong();
+		connectionsShared  = new AtomicLong();
+		connectionsFailed  = new AtomicLong();
 	}
 	
 	// Test
@@ -103,27 +189,86 @@ public final class DeviceServiceImpl implements IDeviceService {
 	}
 	
 	
-	private static void readExtensions(Map<Class<?>, Class<? extends IRunnableDevice>> devs) throws CoreException {
+	/**
+	 * Create the models and devices of the extensions in parallel, loading their classes.
+	 */
+	private static void readExtensions(Map<Class<?>, Class<? extends IRunnableDevice>> devs) throws CoreException, InterruptedException {
 		
 		if (Platform.getExtensionRegistry()!=null) {
 			final IConfigurationElement[] eles = Platform.getExtensionRegistry().getConfigurationElementsFor("org.eclipse.scanning.api.device");
-			for (IConfigurationElement e : eles) {
-				
-				final Object     mod = e.createExecutableExtension("model");
-				
-				if (e.getName().equals("device")) {
-					final IRunnableDevice gen = (IRunnableDevice)e.createExecutableExtension("class");
-					devs.put(mod.getClass(), gen.getClass());
-					
-				// TODO Might have other extension point driven devices
+			final ExecutorService executor = ExecutorProviders.getProvider().newExecutor("Device service warm up", Runtime.getRuntime().availableProcessors());
+			try {
+				final List<Future<Class<?>[]>> found = new ArrayList<>(eles.length);
+				for (final IConfigurationElement e : eles) {
+					found.add(executor.submit(new Callable<Class<?>[]>() {
+						@Override
+						public Class<?>[] call() throws Exception {
 							
-				} else {
-					throw new CoreException(new Status(IStatus.ERROR, "org.eclipse.scanning.sequencer", "Unrecognized device "+e.getName()));
+							final Object     mod = e.createExecutableExtension("model");
+							
+							if (e.getName().equals("device")) {
+								final IRunnableDevice gen = (IRunnableDevice)e.createExecutableExtension("class");
+								return new Class<?>[]{mod.getClass(), gen.getClass()};
+								
+							// TODO Might have other extension point driven devices
+										
+							} else {
+								throw new CoreException(new Status(IStatus.ERROR, "org.eclipse.scanning.sequencer", "Unrecognized device "+e.getName()));
+							}
+						}
+					}));
 				}
+				for (Future<Class<?>[]> future : found) {
+					try {
+						final Class<?>[] classes = future.get();
+						devs.put(classes[0], (Class<? extends IRunnableDevice>)classes[1]);
+					} catch (ExecutionException ne) {
+						if (ne.getCause() instanceof CoreException) throw (CoreException)ne.getCause();
+						throw new CoreException(new Status(IStatus.ERROR, "org.eclipse.scanning.sequencer", "Cannot create device", ne.getCause()));
+					}
+				}
+			} finally {
+				executor.shutdown();
 			}
 		}
 	}
 	
+	/**
+	 * Called by OSGi when the service starts.
+	 * @param context
+	 */
+	public void start(BundleContext context) {
+		this.context = context;
+		warmUp();
+	}
+
+	@Override
+	public void warmUp() {
+		if (devicesRead || !started.compareAndSet(false, true)) return;
+		ExecutorProviders.getProvider().newThread("Device service warm up", true, new Runnable() {
+			@Override
+			public void run() {
+				readDevices();
+				try {
+					if (deviceService==null && context!=null) deviceService = getDeviceConnector();
+				} catch (Exception ne) {
+					logger.debug("The device connector is not available yet", ne); // It is got again by the first scan.
+				}
+			}
+		}).start();
+	}
+
+	@Override
+	public boolean isReady() {
+		return devicesRead;
+	}
+
+	@Override
+	public boolean awaitReady(long time, TimeUnit unit) throws InterruptedException {
+		warmUp();
+		return ready.await(time, unit);
+	}
+	
 
 	@Override
 	public final IPositioner createPositioner() throws ScanningException {
@@ -152,22 +297,18 @@ public final class DeviceServiceImpl implements IDeviceService {
                 ascanner.setPublisher(publisher); // May be null
                 
                 // If the model has a name for the device, we use
-                // it automatically.
-                try {
-                    final Method getName = model.getClass().getMethod("getName");
-                    String name = (String)getName.invoke(model);
-                    ascanner.setName(name);
-                } catch (NoSuchMethodException ignored) {
-                	// getName() is not compulsory in the model
-                }
+                // it automatically. getName() is not compulsory in the model.
+                final NameAccessor accessor = getNameAccessor(model.getClass());
+                if (accessor.exists()) ascanner.setName(accessor.getName(model));
 			}
 			
 			if (model instanceof MalcolmRequest<?>) model = ((MalcolmRequest<T>)model).getDeviceModel(); 
 			scanner.configure(model);
 			
-			if (!scanner.isVirtual()) {
+			if (!scanner.isVirtual() && scanner.getName()!=null) {
 				namedDevices.put(scanner.getName(), scanner);
 			}
+			devicesCreated.incrementAndGet();
 			
 			return scanner;
 			
@@ -178,6 +319,17 @@ public final class DeviceServiceImpl implements IDeviceService {
 		}
 	}
 	
+	@Override
+	public int validate(ScanModel model) throws ScanningException, InterruptedException {
+		if (model.getPositionIterable()==null) throw new ScanningException("The model must contain some points to scan!");
+		if (deviceService==null) deviceService = getDeviceConnector();
+		
+		final PositionValidation validation = new PositionValidation(model.getValidators(), deviceService);
+		final int size = validation.validate(model.getPositionIterable());
+		model.setSize(size);
+		return size;
+	}
+
 	@Override
 	public <T> IRunnableDevice<T> getRunnableDevice(String name) throws ScanningException {
 		return getRunnableDevice(name, null);
@@ -194,24 +346,20 @@ public final class DeviceServiceImpl implements IDeviceService {
 		return device;
 	}
 	
-	private <T> IRunnableDevice createDevice(T model) throws ScanningException, InstantiationException, IllegalAccessException, URISyntaxException, UnknownHostException {
+	private <T> IRunnableDevice createDevice(T model) throws ScanningException, ReflectiveOperationException, URISyntaxException, UnknownHostException {
+		
+		readDevices(); // If the service was not warmed up
 		
 		final IRunnableDevice<T> scanner;
 		
 		if (model instanceof MalcolmRequest) {
 			MalcolmRequest req = (MalcolmRequest)model;
 			URI            uri = createMalcolmURI(req);
-			IMalcolmConnection conn = connections.get(uri);
-			if (conn==null || !conn.isConnected()) {
-				conn = malcolmService.createConnection(uri);
-				connections.put(uri, conn);
-			}
+			IMalcolmConnection conn = getConnection(uri);
 			return conn.getDevice(req.getDeviceName());
 			
 		} else if (aquisitionDevices.containsKey(model.getClass())) {
-			final Class<IRunnableDevice<T>> clazz = (Class<IRunnableDevice<T>>)aquisitionDevices.get(model.getClass());
-			if (clazz == null) throw new ScanningException("The model '"+model.getClass()+"' does not have a device registered for it!");
-			scanner = clazz.newInstance();
+			scanner = (IRunnableDevice<T>)getConstructor(model.getClass()).newInstance();
 			
 			// TODO Might have other extension point driven devices
 		} else {
@@ -220,6 +368,133 @@ public final class DeviceServiceImpl implements IDeviceService {
 		return scanner;
 	}
 
+	/**
+	 * Get the connection to a Malcolm, making it if there is none or it has been
+	 * disconnected. If another scan is making the connection we wait for it.
+	 * 
+	 * @param uri
+	 * @return the connection
+	 * @throws ScanningException if the connection cannot be made
+	 */
+	private IMalcolmConnection getConnection(final URI uri) throws ScanningException {
+		
+		while(true) {
+			Future<IMalcolmConnection> future = connections.get(uri);
+			
+			// An old connection which has been disconnected is replaced.
+			if (future!=null && future.isDone()) {
+				final IMalcolmConnection conn = getDone(future);
+				if (conn!=null && conn.isConnected()) {
+					connectionsShared.incrementAndGet();
+					return conn;
+				}
+				connections.remove(uri, future);
+				continue;
+			}
+			
+			if (future==null) {
+				final FutureTask<IMalcolmConnection> task = new FutureTask<>(new Callable<IMalcolmConnection>() {
+					@Override
+					public IMalcolmConnection call() throws Exception {
+						return malcolmService.createConnection(uri);
+					}
+				});
+				future = connections.putIfAbsent(uri, task);
+				if (future==null) { // We make it
+					future = task;
+					connectionsMade.incrementAndGet();
+					task.run();
+				} else {
+					connectionsShared.incrementAndGet();
+				}
+			} else {
+				connectionsShared.incrementAndGet();
+			}
+			
+			try {
+				return future.get();
+			} catch (ExecutionException ne) {
+				connections.remove(uri, future); // The next scan tries again
+				connectionsFailed.incrementAndGet();
+				throw new ScanningException("Cannot connect to malcolm at "+uri, ne.getCause());
+			} catch (InterruptedException ne) {
+				Thread.currentThread().interrupt();
+				throw new ScanningException("Interrupted waiting to connect to malcolm at "+uri, ne);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param future which is done
+	 * @return the connection or null if it could not be made.
+	 */
+	private static IMalcolmConnection getDone(Future<IMalcolmConnection> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException | InterruptedException ne) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param modelClass
+	 * @return the constructor of the device of the model, which is kept.
+	 * @throws ScanningException if there is no device for the model.
+	 */
+	private static Constructor<? extends IRunnableDevice> getConstructor(Class<?> modelClass) throws ScanningException {
+		Constructor<? extends IRunnableDevice> constructor = constructors.get(modelClass);
+		if (constructor!=null) return constructor;
+		
+		final Class<? extends IRunnableDevice> clazz = aquisitionDevices.get(modelClass);
+		if (clazz == null) throw new ScanningException("The model '"+modelClass+"' does not have a device registered for it!");
+		try {
+			constructor = clazz.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException ne) {
+			throw new ScanningException("The device '"+clazz+"' must have a constructor with no arguments", ne);
+		}
+		constructors.put(modelClass, constructor); // Two threads making the same constructor is harmless.
+		return constructor;
+	}
+	
+	private static NameAccessor getNameAccessor(Class<?> modelClass) {
+		NameAccessor accessor = nameAccessors.get(modelClass);
+		if (accessor==null) {
+			accessor = new NameAccessor(modelClass);
+			nameAccessors.put(modelClass, accessor); // Two threads making the same accessor is harmless.
+		}
+		return accessor;
+	}
+	
+	/**
+	 * The getName() method of a model class, if it has one.
+	 */
+	private static final class NameAccessor {
+		
+		private final Method getName;
+		
+		NameAccessor(Class<?> modelClass) {
+			Method method;
+			try {
+				method = modelClass.getMethod("getName");
+				if (method.getReturnType()!=String.class) method = null;
+			} catch (NoSuchMethodException ignored) {
+				method = null;
+			}
+			this.getName = method;
+		}
+		
+		boolean exists() {
+			return getName!=null;
+		}
+		
+		String getName(Object model) throws ReflectiveOperationException {
+			return (String)getName.invoke(model);
+		}
+	}
+
 	/**
 	 * 
 	 * @param req
@@ -251,15 +526,15 @@ public final class DeviceServiceImpl implements IDeviceService {
 	
 	private BundleContext context;
 
-	public void start(BundleContext context) {
-		this.context = context;
-	}
-	
 	public void stop() {
 		this.context = null;
 		for (URI uri : connections.keySet()) {
+			final Future<IMalcolmConnection> future = connections.remove(uri);
+			if (future==null || !future.isDone()) continue;
+			final IMalcolmConnection conn = getDone(future);
+			if (conn==null) continue;
 			try {
-				connections.get(uri).dispose();
+				conn.dispose();
 			} catch (MalcolmDeviceException e) {
 				System.out.println("Problem closing malcolm connection to "+uri);
 				e.printStackTrace();
@@ -299,14 +574,62 @@ public final class DeviceServiceImpl implements IDeviceService {
 	 */
 	public void _register(Class<?> model, Class<? extends IRunnableDevice> device) {
 		aquisitionDevices.put(model, device);
+		constructors.remove(model);
 	}
 	/**
 	 * Used for testing only
 	 * @param uri
 	 * @param connection
 	 */
-	public void _registerConnection(URI uri, IMalcolmConnection connection) {
-		connections.put(uri, connection);
+	public void _registerConnection(URI uri, final IMalcolmConnection connection) {
+		final FutureTask<IMalcolmConnection> task = new FutureTask<>(new Callable<IMalcolmConnection>() {
+			@Override
+			public IMalcolmConnection call() throws Exception {
+				return connection;
+			}
+		});
+		task.run();
+		connections.put(uri, task);
+	}
+	
+	/**
+	 * 
+	 * @return the number of devices created by this service.
+	 */
+	public long getDevicesCreated() {
+		return devicesCreated.get();
+	}
+
+	/**
+	 * 
+	 * @return the number of connections to Malcolm which were made.
+	 */
+	public long getConnectionsMade() {
+		return connectionsMade.get();
+	}
+
+	/**
+	 * 
+	 * @return the number of times a connection which was made or being made was used.
+	 */
+	public long getConnectionsShared() {
+		return connectionsShared.get();
+	}
+
+	/**
+	 * 
+	 * @return the number of connections to Malcolm which failed.
+	 */
+	public long getConnectionsFailed() {
+		return connectionsFailed.get();
+	}
+
+	/**
+	 * 
+	 * @return the number of devices which may be got by name.
+	 */
+	public int getNamedDeviceCount() {
+		return namedDevices.size();
 	}
 
 }
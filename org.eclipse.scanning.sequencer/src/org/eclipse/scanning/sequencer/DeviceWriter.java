@@ -48,8 +48,10 @@ final class DeviceWriter extends DeviceRunner {
 			if (detector instanceof IRunnableEventDevice) {
 				((IRunnableEventDevice)detector).fireWriteWillPerform(position);
 			}
+			final long start = System.nanoTime();
 			try {
 				boolean wrote = detector.write(position);
+				recordTask(detector, start);
 				if (wrote) {
 					if (detector instanceof IRunnableEventDevice) {
 						((IRunnableEventDevice)detector).fireWritePerformed(position);
@@ -7,14 +7,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.scanning.api.ExecutorProviders;
 import org.eclipse.scanning.api.ILevel;
 import org.eclipse.scanning.api.INameable;
 import org.eclipse.scanning.api.points.IPosition;
@@ -46,6 +47,13 @@ abstract class LevelRunner<L extends ILevel> {
 	private ScanningException  abortException;
 	private PositionDelegate   pDelegate;
 	
+	// Timing of the levels, may be null.
+	private ScanInstrumentation instrumentation;
+	private String              timingName;
+	// The timing names of each level and device, made once so that timing does not allocate.
+	private final ConcurrentMap<Integer, String> levelNames = new ConcurrentHashMap<Integer, String>(7);
+	private final ConcurrentMap<String, String>  taskNames  = new ConcurrentHashMap<String, String>(7);
+	
 	protected LevelRunner() {
 		pDelegate = new PositionDelegate();
 	}
@@ -124,7 +132,9 @@ abstract class LevelRunner<L extends ILevel> {
 					for (Callable<IPosition> callable : tasks) eservice.submit(callable);
 				} else {
 					// Normally we block until done.
+					final long start = instrumentation!=null ? System.nanoTime() : 0;
 				    List<Future<IPosition>> pos = eservice.invokeAll(tasks); // blocks until level has run
+				    if (instrumentation!=null) instrumentation.recordSince(getLevelName(level), start);
 					pDelegate.fireLevelPerformed(level, lobjects, getPosition(pos));
 				}
 			}
@@ -226,15 +236,48 @@ abstract class LevelRunner<L extends ILevel> {
 
 	protected ExecutorService createService() {
 		// TODO Need spring config for this.
+		// The number of motors to move at the same time, with virtual threads
+		// every device at a level is moved at the same time.
 		int processors = Runtime.getRuntime().availableProcessors();
-		return new ThreadPoolExecutor(processors,             /* number of motors to move at the same time. */
-						              processors*2,                                 /* max size current tasks. */
-						              5, TimeUnit.SECONDS,                          /* timeout after - does this need spring config? */
-						              new ArrayBlockingQueue<Runnable>(1000, true), /* max 1000+ncores motors to a level */
-						              new ThreadPoolExecutor.DiscardPolicy());
+		return ExecutorProviders.getProvider().newExecutor("Level Runner", processors);
+	}
 
+	/**
+	 * Time each level which is run and blocked on and each task.
+	 * @param instrumentation or null to stop timing
+	 * @param timingName the phase of the scan which this runner does, for instance "move"
+	 */
+	void setInstrumentation(ScanInstrumentation instrumentation, String timingName) {
+		this.instrumentation = instrumentation;
+		this.timingName      = timingName;
+		levelNames.clear();
+		taskNames.clear();
+	}
+	
+	/**
+	 * Record the time of a task, called by the tasks when they complete.
+	 * @param device
+	 * @param start from System.nanoTime()
+	 */
+	protected void recordTask(INameable device, long start) {
+		if (instrumentation==null) return;
+		String name = taskNames.get(device.getName());
+		if (name==null) {
+			taskNames.putIfAbsent(device.getName(), timingName+" "+device.getName());
+			name = taskNames.get(device.getName());
+		}
+		instrumentation.recordSince(name, start);
 	}
 
+	private String getLevelName(int level) {
+		String name = levelNames.get(level);
+		if (name==null) {
+			levelNames.putIfAbsent(level, timingName+" level "+level);
+			name = levelNames.get(level);
+		}
+		return name;
+	}
+	
 	public void addPositionListener(IPositionListener listener) {
 		pDelegate.addPositionListener(listener);
 	}
@@ -0,0 +1,222 @@
+package org.eclipse.scanning.sequencer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.scan.IDeviceConnectorService;
+import org.eclipse.scanning.api.scan.IPositionValidator;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks every position of a scan before anything is moved. It used to be
+ * called limit checking in GDA.
+ *
+ * The positions are read once from the iterable, which also counts them. Each
+ * position is checked against the limits of the scannables which it moves and
+ * against any validators in the model, for instance exclusion zones. The point
+ * generators cannot be split, so one thread reads the positions and hands them
+ * out in batches to be checked on the other processors. If nothing needs checking,
+ * the positions are only counted.
+ *
+ * @author Matthew Gerring
+ *
+ */
+final class PositionValidation {
+
+	private static final Logger logger = LoggerFactory.getLogger(PositionValidation.class);
+
+	private static final int BATCH_SIZE = 4096;
+
+	/**
+	 * The number of threads checking positions, default the number of processors.
+	 * Set org.eclipse.scanning.sequencer.validationThreads to change this.
+	 */
+	private static final int THREADS = Integer.getInteger("org.eclipse.scanning.sequencer.validationThreads", Runtime.getRuntime().availableProcessors());
+
+	private final List<IPositionValidator> validators;
+	private final IDeviceConnectorService  connector;
+
+	// The scannables whose limits we have looked for and those which have limits.
+	private final List<String>             resolved;
+	private final List<Limits>             limits;
+
+	PositionValidation(List<IPositionValidator> validators, IDeviceConnectorService connector) {
+		this.validators = validators!=null ? validators : Collections.<IPositionValidator>emptyList();
+		this.connector  = connector;
+		this.resolved   = new ArrayList<String>(7);
+		this.limits     = new ArrayList<Limits>(7);
+	}
+
+	/**
+	 * Check all the positions.
+	 *
+	 * @param positions
+	 * @return the number of positions
+	 * @throws ScanningException if a position is not valid, the message says which and why.
+	 * @throws InterruptedException
+	 */
+	int validate(Iterable<IPosition> positions) throws ScanningException, InterruptedException {
+
+		ExecutorService      executor = null;
+		final Semaphore      permits  = new Semaphore(THREADS*2);
+		final AtomicReference<ScanningException> failure = new AtomicReference<ScanningException>();
+
+		int          size      = 0;
+		List<String> lastNames = null;
+		List<IPositionValidator> checks = createChecks();
+		List<IPosition>          batch  = null;
+		try {
+			for (IPosition pos : positions) {
+
+				final List<String> names = pos.getNames();
+				if (names!=null && !names.equals(lastNames)) {
+					if (addLimits(names)) checks = createChecks();
+					lastNames = names;
+				}
+
+				if (!checks.isEmpty()) {
+					if (batch==null) batch = new ArrayList<IPosition>(BATCH_SIZE);
+					batch.add(pos);
+					if (batch.size()==BATCH_SIZE) {
+						if (executor==null) executor = createExecutor();
+						submit(executor, permits, checks, batch, size+1-BATCH_SIZE, failure);
+						batch = null;
+					}
+				}
+				++size;
+				if (failure.get()!=null) break;
+			}
+
+			if (batch!=null && failure.get()==null) { // The last few can be done here.
+				check(checks, batch, size-batch.size(), failure);
+			}
+
+		} finally {
+			if (executor!=null) {
+				executor.shutdown();
+				permits.acquire(THREADS*2); // Wait for the batches being checked.
+			}
+		}
+
+		if (failure.get()!=null) throw failure.get();
+		return size;
+	}
+
+	private List<IPositionValidator> createChecks() {
+		final List<IPositionValidator> checks = new ArrayList<IPositionValidator>(validators.size()+limits.size());
+		checks.addAll(limits);
+		checks.addAll(validators);
+		return checks;
+	}
+
+	/**
+	 * Look for the limits of scannables not seen before.
+	 * @param names
+	 * @return true if a scannable with limits was found.
+	 */
+	private boolean addLimits(List<String> names) {
+		if (connector==null) return false;
+		boolean found = false;
+		for (String name : names) {
+			if (resolved.contains(name)) continue;
+			resolved.add(name);
+			try {
+				final IScannable<?> scannable = connector.getScannable(name);
+				if (scannable==null) continue;
+				final Object min = scannable.getMinimum();
+				final Object max = scannable.getMaximum();
+				if (min instanceof Number || max instanceof Number) {
+					limits.add(new Limits(name, min, max));
+					found = true;
+				}
+			} catch (Exception ne) {
+				logger.debug("Cannot read the limits of "+name, ne); // The move will fail if it is not there.
+			}
+		}
+		return found;
+	}
+
+	private static ExecutorService createExecutor() {
+		return Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Scan Position Validation");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	private static void submit(ExecutorService executor,
+			                   final Semaphore permits,
+			                   final List<IPositionValidator> checks,
+			                   final List<IPosition> batch,
+			                   final int start,
+			                   final AtomicReference<ScanningException> failure) throws InterruptedException {
+
+		permits.acquire(); // Bounds the positions held in memory.
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					check(checks, batch, start, failure);
+				} finally {
+					permits.release();
+				}
+			}
+		});
+	}
+
+	private static void check(List<IPositionValidator> checks, List<IPosition> batch, int start, AtomicReference<ScanningException> failure) {
+		for (int i = 0; i < batch.size(); i++) {
+			if (failure.get()!=null) return;
+			final IPosition pos = batch.get(i);
+			for (IPositionValidator check : checks) {
+				try {
+					check.validate(pos);
+				} catch (ScanningException ne) {
+					failure.compareAndSet(null, new ScanningException("Position "+(start+i)+" of the scan, "+pos+", is not valid. "+ne.getMessage(), ne));
+					return;
+				} catch (Exception ne) {
+					failure.compareAndSet(null, new ScanningException("Cannot check position "+(start+i)+" of the scan, "+pos, ne));
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The numeric limits of a scannable.
+	 */
+	private static final class Limits implements IPositionValidator {
+
+		private final String name;
+		private final double min, max;
+
+		Limits(String name, Object min, Object max) {
+			this.name = name;
+			this.min  = min instanceof Number ? ((Number)min).doubleValue() : Double.NEGATIVE_INFINITY;
+			this.max  = max instanceof Number ? ((Number)max).doubleValue() : Double.POSITIVE_INFINITY;
+		}
+
+		@Override
+		public void validate(IPosition position) throws ScanningException {
+			final Object value = position.get(name);
+			if (!(value instanceof Number)) return;
+			final double dvalue = ((Number)value).doubleValue();
+			if (dvalue<min || dvalue>max) {
+				throw new ScanningException("The value "+value+" of '"+name+"' is outside its limits of "+min+" to "+max);
+			}
+		}
+	}
+}
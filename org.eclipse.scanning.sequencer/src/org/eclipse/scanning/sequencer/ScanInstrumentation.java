@@ -0,0 +1,198 @@
+package org.eclipse.scanning.sequencer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.scanning.api.event.scan.ScanTiming;
+
+/**
+ * Records where the time goes at each point of a scan, for instance
+ * moving the motors, waiting for the readout or running a detector.
+ * Each named phase or device has a histogram of its times so that
+ * the percentiles are known as well as the mean.
+ *
+ * Recording a time does not lock or allocate, it is a few atomic
+ * increments, so that the timing may be left on for fast scans.
+ * Set org.eclipse.scanning.sequencer.timing=false to switch it off.
+ *
+ * This class is thread safe, devices record their times from the
+ * threads which run them.
+ *
+ * @author Matthew Gerring
+ *
+ */
+final class ScanInstrumentation {
+
+	// Names of the phases of the scan loop
+	static final String POINT   = "point";
+	static final String MOVE    = "move";
+	static final String AWAIT   = "await";
+	static final String FLUSH   = "flush";
+	static final String RUN     = "run";
+	static final String WRITE   = "write";
+	static final String PUBLISH = "publish";
+
+	/**
+	 *
+	 * @return true if scans should be timed, read each time so that
+	 * it may be changed while the server is running.
+	 */
+	static boolean isEnabled() {
+		return Boolean.parseBoolean(System.getProperty("org.eclipse.scanning.sequencer.timing", "true"));
+	}
+
+	private final ConcurrentMap<String, Histogram> histograms;
+	private final long                             created;
+
+	ScanInstrumentation() {
+		this.histograms = new ConcurrentHashMap<String, Histogram>(31);
+		this.created    = System.nanoTime();
+	}
+
+	/**
+	 * Record a time.
+	 * @param name of the phase or device
+	 * @param nanos
+	 */
+	void record(String name, long nanos) {
+		Histogram histogram = histograms.get(name);
+		if (histogram==null) {
+			histograms.putIfAbsent(name, new Histogram());
+			histogram = histograms.get(name);
+		}
+		histogram.record(nanos);
+	}
+
+	/**
+	 * Record a time which started at start.
+	 * @param name
+	 * @param start from System.nanoTime()
+	 * @return the time now, which may be used to start the next phase.
+	 */
+	long recordSince(String name, long start) {
+		final long now = System.nanoTime();
+		record(name, now-start);
+		return now;
+	}
+
+	/**
+	 *
+	 * @return the time since the instrumentation was created in ns
+	 */
+	long getElapsed() {
+		return System.nanoTime()-created;
+	}
+
+	/**
+	 *
+	 * @return a summary of the times recorded so far, ordered by name.
+	 */
+	List<ScanTiming> getTimings() {
+
+		final List<ScanTiming> ret = new ArrayList<ScanTiming>(histograms.size());
+		for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+			ret.add(entry.getValue().summarise(entry.getKey()));
+		}
+		Collections.sort(ret, new Comparator<ScanTiming>() {
+			@Override
+			public int compare(ScanTiming o1, ScanTiming o2) {
+				return o1.getName().compareTo(o2.getName());
+			}
+		});
+		return ret;
+	}
+
+	/**
+	 * A histogram of times with buckets which are exact below 16ns and
+	 * then have 8 buckets per power of two, so the percentiles are within
+	 * about 6% of the real value.
+	 */
+	static final class Histogram {
+
+		private static final int SUB_BITS    = 3;
+		private static final int SUB_BUCKETS = 1<<SUB_BITS;
+		private static final int LINEAR      = 2*SUB_BUCKETS;
+		private static final int BUCKETS     = LINEAR + (63-SUB_BITS-1)*SUB_BUCKETS;
+
+		private final AtomicLongArray counts;
+		private final AtomicLong      count, total, min, max;
+
+		Histogram() {
+			this.counts = new AtomicLongArray(BUCKETS);
+			this.count  = new AtomicLong();
+			this.total  = new AtomicLong();
+			this.min    = new AtomicLong(Long.MAX_VALUE);
+			this.max    = new AtomicLong(Long.MIN_VALUE);
+		}
+
+		void record(long nanos) {
+			if (nanos<0) nanos = 0;
+			counts.incrementAndGet(bucket(nanos));
+			count.incrementAndGet();
+			total.addAndGet(nanos);
+
+			long current = min.get();
+			while (nanos<current && !min.compareAndSet(current, nanos)) current = min.get();
+			current = max.get();
+			while (nanos>current && !max.compareAndSet(current, nanos)) current = max.get();
+		}
+
+		static int bucket(long nanos) {
+			if (nanos<LINEAR) return (int)nanos;
+			final int exponent = 63-Long.numberOfLeadingZeros(nanos);
+			final int sub      = (int)(nanos>>>(exponent-SUB_BITS)) & (SUB_BUCKETS-1);
+			return LINEAR + (exponent-SUB_BITS-1)*SUB_BUCKETS + sub;
+		}
+
+		/**
+		 * @param bucket
+		 * @return the middle of the range of times counted in the bucket
+		 */
+		static long value(int bucket) {
+			if (bucket<LINEAR) return bucket;
+			final int exponent = (bucket-LINEAR)/SUB_BUCKETS + SUB_BITS + 1;
+			final int sub      = (bucket-LINEAR)%SUB_BUCKETS;
+			final long lower   = ((long)(SUB_BUCKETS+sub))<<(exponent-SUB_BITS);
+			return lower + (1L<<(exponent-SUB_BITS-1));
+		}
+
+		ScanTiming summarise(String name) {
+
+			final ScanTiming timing = new ScanTiming(name);
+			final long n = count.get();
+			timing.setCount(n);
+			if (n<1) return timing;
+
+			timing.setTotal(total.get());
+			timing.setMean(total.get()/n);
+			timing.setMin(min.get());
+			timing.setMax(max.get());
+
+			final long[] ranks = new long[]{(n+1)/2, (long)Math.ceil(n*0.9), (long)Math.ceil(n*0.99)};
+			final long[] found = new long[ranks.length];
+			long cumulative = 0;
+			int  rank       = 0;
+			for (int i = 0; i < BUCKETS && rank<ranks.length; i++) {
+				cumulative += counts.get(i);
+				while (rank<ranks.length && cumulative>=ranks[rank]) {
+					found[rank] = Math.max(timing.getMin(), Math.min(value(i), timing.getMax()));
+					++rank;
+				}
+			}
+			// Times recorded while we were summarising may leave some unfound.
+			for (; rank < ranks.length; rank++) found[rank] = timing.getMax();
+
+			timing.setMedian(found[0]);
+			timing.setP90(found[1]);
+			timing.setP99(found[2]);
+			return timing;
+		}
+	}
+}
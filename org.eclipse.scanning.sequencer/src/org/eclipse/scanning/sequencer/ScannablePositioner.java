@@ -83,8 +83,10 @@ final class ScannablePositioner extends LevelRunner<IScannable<?>> implements IP
 			
 			// Get the value in this position, may be null for monitors.
 			Object value = position.get(scannable.getName());
+			final long start = System.nanoTime();
 			try {
 			    scannable.setPosition(value, position);
+			    recordTask(scannable, start);
 			    
 			} catch (Exception ne) {
 				abort(scannable, value, position, ne);
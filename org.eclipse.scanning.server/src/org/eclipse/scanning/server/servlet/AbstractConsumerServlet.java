@@ -10,8 +10,9 @@ import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.event.core.IConsumer;
 import org.eclipse.scanning.api.event.core.IConsumerProcess;
-import org.eclipse.scanning.api.event.core.IProcessCreator;
+import org.eclipse.scanning.api.event.core.IPreparingCreator;
 import org.eclipse.scanning.api.event.core.IPublisher;
+import org.eclipse.scanning.api.event.core.IScheduler;
 import org.eclipse.scanning.api.event.servlet.IConsumerServlet;
 import org.eclipse.scanning.api.event.status.StatusBean;
 
@@ -32,6 +33,14 @@ import org.eclipse.scanning.api.event.status.StatusBean;
     {@literal </bean>}
     
     </pre>
+    
+    Set the scheduler property to choose which queued bean runs next, for instance
+    by priority and fair share between users, rather than in the order of the queue:
+    <pre>
+    {@literal    <property name="scheduler">}
+    {@literal        <bean class="org.eclipse.scanning.event.FairShareScheduler"/>}
+    {@literal    </property>}
+    </pre>
  * 
  * @author Matthew Gerring
  *
@@ -56,6 +65,7 @@ public abstract class AbstractConsumerServlet<B extends StatusBean> implements I
 	protected String        killTopic      = IEventService.KILL_TOPIC;
 
 	protected IConsumer<B> consumer;
+	private IScheduler<B>  scheduler;
 	private boolean        isConnected;
 	
 	protected AbstractConsumerServlet() {
@@ -74,16 +84,45 @@ public abstract class AbstractConsumerServlet<B extends StatusBean> implements I
     	
     	consumer = eventService.createConsumer(new URI(getBroker()), getSubmitQueue(), getStatusSet(), getStatusTopic(), getHeartbeatTopic(), getKillTopic());
     	consumer.setDurable(isDurable());
+    	consumer.setScheduler(getScheduler());
     	consumer.setRunner(new DoObjectCreator<B>());
      	consumer.start();
      	isConnected = true;
     }
     
-	class DoObjectCreator<T> implements IProcessCreator<B> {
+	class DoObjectCreator<T> implements IPreparingCreator<B> {
 		@Override
 		public IConsumerProcess<B> createProcess(B bean, IPublisher<B> response) throws EventException {
 			return AbstractConsumerServlet.this.createProcess(bean, response);
 		}
+		@Override
+		public void prepare(B bean) throws EventException {
+			AbstractConsumerServlet.this.prepare(bean);
+		}
+		@Override
+		public void release(B bean) {
+			AbstractConsumerServlet.this.release(bean);
+		}
+	}
+
+	/**
+	 * Prepare to run a bean while the bean before it runs, which the consumer
+	 * does if it has a scheduler. Called on a thread of its own, the bean is a
+	 * copy of the one which will run. Does nothing unless overridden.
+	 *
+	 * @param bean
+	 * @throws EventException
+	 */
+	protected void prepare(B bean) throws EventException {
+		// Nothing is prepared by default.
+	}
+
+	/**
+	 * The bean which was prepared will not run next, stop preparing it.
+	 * @param bean
+	 */
+	protected void release(B bean) {
+		// Nothing is prepared by default.
 	}
    
 	@PreDestroy
@@ -144,6 +183,14 @@ public abstract class AbstractConsumerServlet<B extends StatusBean> implements I
 		this.killTopic = killTopic;
 	}
 
+	public IScheduler<B> getScheduler() {
+		return scheduler;
+	}
+
+	public void setScheduler(IScheduler<B> scheduler) {
+		this.scheduler = scheduler;
+	}
+
 	public boolean isBlocking() {
 		return blocking;
 	}
@@ -1,11 +1,13 @@
 package org.eclipse.scanning.server.servlet;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.scanning.api.IScannable;
 import org.eclipse.scanning.api.event.EventException;
+import org.eclipse.scanning.api.event.IEventService;
 import org.eclipse.scanning.api.event.core.IConsumerProcess;
 import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.scan.ScanBean;
@@ -20,6 +22,7 @@ import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
 import org.eclipse.scanning.api.scan.IDeviceService;
 import org.eclipse.scanning.api.scan.IFilePathService;
 import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.api.scan.ScanCheckpoint;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IPositioner;
 import org.eclipse.scanning.api.scan.models.ScanModel;
@@ -43,6 +46,7 @@ class ScanProcess implements IConsumerProcess<ScanBean> {
 	
 	private ScanBean                   bean;
 	private IPublisher<ScanBean>       response;
+	private IPublisher<ScanBean>       metrics;
 	private IRunnableDevice<ScanModel> device;
 	private boolean                    blocking;
 
@@ -82,6 +86,9 @@ class ScanProcess implements IConsumerProcess<ScanBean> {
 		
 		try {
 			
+			// Every position is checked before anything is moved
+			final ScanModel smodel = createScanModel(bean);
+			
 			// Move to a position if they set one
 			if (bean.getScanRequest().getStart()!=null) {
 				positioner.setPosition(bean.getScanRequest().getStart());
@@ -91,10 +98,14 @@ class ScanProcess implements IConsumerProcess<ScanBean> {
 			ScriptResponse<?> res = runScript(bean.getScanRequest().getBefore());
 			bean.getScanRequest().setBeforeResponse(res);
 			
-			this.device = createRunnableDevice(bean);
+			this.device = createRunnableDevice(smodel);
 			
 			if (blocking) {
-			    device.run(null); // Runs until done
+				try {
+					device.run(null); // Runs until done
+				} finally {
+					if (metrics!=null) metrics.disconnect();
+				}
 			    
 				// Run a script, if any has been requested
 			    res = runScript(bean.getScanRequest().getAfter());
@@ -135,7 +146,11 @@ class ScanProcess implements IConsumerProcess<ScanBean> {
 		return scriptService.execute(req);		
 	}
 
-	private IRunnableDevice<ScanModel> createRunnableDevice(ScanBean bean) throws ScanningException, EventException {
+	/**
+	 * The model of the scan, with every position checked against the limits of
+	 * the scannables and counted.
+	 */
+	private ScanModel createScanModel(ScanBean bean) throws ScanningException, EventException {
 
 		ScanRequest<?> req = bean.getScanRequest();
 		if (req==null) throw new ScanningException("There must be a scan request to run a new scan!");
@@ -163,20 +178,61 @@ class ScanProcess implements IConsumerProcess<ScanBean> {
 			    smodel.setFilePath(req.getFilePath());
 			}
 			bean.setFilePath(smodel.getFilePath());
+			smodel.setResumeStep(getResumeStep(req));
+			
+			Services.getScanService().validate(smodel);
+			return smodel;
+			
+		} catch (Exception e) {
+			throw failed(e);
+		}
+	}
+
+	private IRunnableDevice<ScanModel> createRunnableDevice(ScanModel smodel) throws EventException {
+
+		try {
+			// The timings are published while the scan runs. An async scan would
+			// have to disconnect the publisher itself so only blocking ones do.
+			if (blocking && response!=null && Services.getEventService()!=null) {
+				metrics = Services.getEventService().createPublisher(response.getUri(), IEventService.SCAN_METRICS_TOPIC);
+				smodel.setMetricsPublisher(metrics);
+			}
 			
 			return Services.getScanService().createRunnableDevice(smodel, response);
 			
 		} catch (Exception e) {
-			bean.setStatus(Status.FAILED);
-			bean.setMessage(e.getMessage());
-			broadcast(bean);
-			if (e instanceof EventException) throw (EventException)e;
+			throw failed(e);
+		}
+	}
+	
+	private EventException failed(Exception e) throws EventException {
+		bean.setStatus(Status.FAILED);
+		bean.setMessage(e.getMessage());
+		broadcast(bean);
+		if (e instanceof EventException) return (EventException)e;
+		return new EventException(e);
+	}
+
+	private int getResumeStep(ScanRequest<?> req) throws EventException {
+		if (req.getResumeStep()!=ScanRequest.RESUME_FROM_CHECKPOINT) return req.getResumeStep();
+		
+		if (req.getFilePath()==null) throw new EventException("The scan request must have the file path of the scan to resume from its checkpoint!");
+		try {
+			ScanCheckpoint checkpoint = ScanCheckpoint.read(req.getFilePath());
+			if (checkpoint==null)        throw new EventException("There is no checkpoint to resume the scan writing "+req.getFilePath()+" from!");
+			if (checkpoint.isComplete()) throw new EventException("The scan writing "+req.getFilePath()+" was completed, there is nothing to resume!");
+			return checkpoint.getResumeStep();
+		} catch (IOException e) {
 			throw new EventException(e);
 		}
 	}
 
+	/**
+	 * The points of the scan. The path is cached so a scan which has been prepared
+	 * while the one before it ran, or is run again, replays its points.
+	 */
 	@SuppressWarnings("unchecked")
-	private Iterable<IPosition> getPositionIterable(ScanRequest<?> req) throws GeneratorException {
+	static Iterable<IPosition> getPositionIterable(ScanRequest<?> req) throws GeneratorException {
 		IPointGeneratorService service = Services.getGeneratorService();
 		
 		IPointGenerator<?,? extends IPosition> ret = null;
@@ -185,7 +241,8 @@ class ScanProcess implements IConsumerProcess<ScanBean> {
 			if (ret != null) ret = service.createCompoundGenerator(ret, gen);
 			if (ret==null) ret = gen;
 		}
-		return (Iterable<IPosition>)ret;
+		// Validating and running the scan each iterate the points, as does a scan submitted again.
+		return (Iterable<IPosition>)service.createCachedGenerator(ret);
 	}
 
 	@Override
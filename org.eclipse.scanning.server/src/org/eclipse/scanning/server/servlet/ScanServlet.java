@@ -1,9 +1,16 @@
 package org.eclipse.scanning.server.servlet;
 
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.scanning.api.event.EventException;
 import org.eclipse.scanning.api.event.core.IPublisher;
 import org.eclipse.scanning.api.event.scan.ScanBean;
 import org.eclipse.scanning.api.event.scan.ScanRequest;
+import org.eclipse.scanning.api.points.GeneratorException;
+import org.eclipse.scanning.api.points.IPosition;
 import org.eclipse.scanning.api.scan.process.IPreprocessingService;
 import org.eclipse.scanning.api.scan.process.IPreprocessor;
 import org.eclipse.scanning.api.scan.process.ProcessingException;
@@ -33,6 +40,11 @@ import org.eclipse.scanning.api.scan.process.ProcessingException;
  */
 public class ScanServlet extends AbstractConsumerServlet<ScanBean> {
 	
+	/**
+	 * The unique ids of the scans being prepared.
+	 */
+	private final Set<String> preparing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(7));
+
 
 	@Override
 	public ScanProcess createProcess(ScanBean scanBean, IPublisher<ScanBean> response) throws EventException {
@@ -42,6 +54,43 @@ public class ScanServlet extends AbstractConsumerServlet<ScanBean> {
         return new ScanProcess(scanBean, response, isBlocking());
 	}
 
+	/**
+	 * Prepares the points of the next scan while the one before it runs.
+	 * The request is preprocessed and its path generated and recorded, so that
+	 * when the scan runs, validating and moving through its points replays
+	 * the path rather than generating it.
+	 *
+	 * Nothing is prepared which moves or configures hardware, because the
+	 * scan before is still using it. The scan moves to its start, runs its
+	 * before script, configures its detectors and creates its NeXus file
+	 * when it runs, in that order, as it always has.
+	 */
+	@Override
+	protected void prepare(ScanBean bean) throws EventException {
+		
+		if (bean.getScanRequest()==null) return;
+		final String id = bean.getUniqueId();
+		if (id==null || !preparing.add(id)) return;
+		try {
+			preprocess(bean); // The bean is a copy, the one which runs is preprocessed again.
+			// The path is only recorded if it is read to the end.
+			final Iterator<IPosition> it = ScanProcess.getPositionIterable(bean.getScanRequest()).iterator();
+			for (int count = 1; it.hasNext(); count++) {
+				it.next();
+				if ((count & 0xFFF)==0 && !preparing.contains(id)) return;
+			}
+		} catch (GeneratorException ne) {
+			throw new EventException("Cannot prepare the points of "+bean.getName(), ne);
+		} finally {
+			preparing.remove(id);
+		}
+	}
+	
+	@Override
+	protected void release(ScanBean bean) {
+		if (bean.getUniqueId()!=null) preparing.remove(bean.getUniqueId());
+	}
+
 	private void preprocess(ScanBean scanBean) throws ProcessingException {
 		
 		IPreprocessingService service = Services.getPreprocessingService();
@@ -31,6 +31,7 @@ import org.eclipse.scanning.api.event.core.ISubmitter;
 import org.eclipse.scanning.api.event.core.ISubscriber;
 import org.eclipse.scanning.api.event.status.Status;
 import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.api.event.status.StatusQuery;
 import org.eclipse.scanning.event.dry.DryRunCreator;
 import org.junit.After;
 import org.junit.Test;
@@ -372,6 +373,94 @@ public class AbstractConsumerTest {
 		
     }
     
+    @Test
+    public void testQueryQueue() throws Exception {
+
+    	// No consumer running, the submissions stay in the submission queue
+		for (int i = 0; i < 10; i++) {
+			StatusBean bean = new StatusBean("Test "+i);
+			bean.setUserName(i%2==0 ? "fred" : "bill");
+			doSubmit(bean);
+			Thread.sleep(10); // Guarantee that submission time cannot be same.
+		}
+
+		StatusQuery query = new StatusQuery("submissionTime");
+		query.setUserName("fred");
+		List<StatusBean> fred = submitter.queryQueue(IEventService.SUBMISSION_QUEUE, query);
+		if (fred.size()!=5) throw new Exception("Unexpected number of beans for fred, should be 5 size is "+fred.size());
+		if (!fred.get(0).getName().equals("Test 8")) throw new Exception("The newest bean should be first! bean is named "+fred.get(0).getName());
+
+		query.setOffset(1);
+		query.setLimit(2);
+		List<StatusBean> page = submitter.queryQueue(IEventService.SUBMISSION_QUEUE, query);
+		if (page.size()!=2) throw new Exception("Unexpected page size, should be 2 size is "+page.size());
+		if (!page.get(0).getName().equals("Test 6") || !page.get(1).getName().equals("Test 4")) {
+			throw new Exception("Unexpected page "+page);
+		}
+
+		query = new StatusQuery();
+		query.setStatuses(Status.RUNNING, Status.COMPLETE);
+		List<StatusBean> none = submitter.queryQueue(IEventService.SUBMISSION_QUEUE, query);
+		if (!none.isEmpty()) throw new Exception("No beans should be running or complete! "+none);
+
+		query = new StatusQuery();
+		query.setLimit(3);
+		List<StatusBean> first = submitter.queryQueue(IEventService.SUBMISSION_QUEUE, query);
+		if (first.size()!=3) throw new Exception("Unexpected unsorted page size, should be 3 size is "+first.size());
+    }
+
+    @Test
+    public void testSubmitAll() throws Exception {
+
+    	// No consumer running, the submissions stay in the submission queue
+    	final List<StatusBean> beans = new ArrayList<StatusBean>(10);
+		for (int i = 0; i < 10; i++) {
+			StatusBean bean = new StatusBean("Test "+i);
+			bean.setStatus(Status.SUBMITTED);
+			beans.add(bean);
+		}
+		submitter.submitAll(beans);
+
+		List<StatusBean> queue = submitter.getQueue(IEventService.SUBMISSION_QUEUE, "submissionTime");
+		if (queue.size()!=10) throw new Exception("Unexpected number of beans submitted, should be 10 size is "+queue.size());
+		for (int i = 0; i < 10; i++) {
+			if (!queue.get(i).getName().equals("Test "+(9-i))) {
+				throw new Exception("Unexpected submission order detected! bean is named "+queue.get(i).getName()+" and should be 'Test "+(9-i)+"'");
+			}
+			if (queue.get(i).getUniqueId()==null) throw new Exception("The bean "+queue.get(i).getName()+" has no unique id!");
+		}
+    }
+
+    @Test
+    public void testSubmitAllIsAllOrNothing() throws Exception {
+
+    	final List<StatusBean> beans = new ArrayList<StatusBean>(10);
+		for (int i = 0; i < 10; i++) {
+			StatusBean bean = i==5 ? new BrokenBean() : new StatusBean();
+			bean.setName("Test "+i);
+			bean.setStatus(Status.SUBMITTED);
+			beans.add(bean);
+		}
+		try {
+			submitter.submitAll(beans);
+			throw new Exception("The beans should not have been submitted, 'Test 5' cannot be sent!");
+		} catch (EventException expected) {
+			// The transaction is rolled back
+		}
+
+		List<StatusBean> queue = submitter.getQueue(IEventService.SUBMISSION_QUEUE, null);
+		if (!queue.isEmpty()) throw new Exception("None of the beans should have been submitted! Queue is "+queue);
+    }
+
+    /**
+     * A bean which cannot be sent because it cannot be marshalled.
+     */
+    public static class BrokenBean extends StatusBean {
+    	public String getBroken() {
+    		throw new IllegalStateException("This bean cannot be marshalled");
+    	}
+    }
+
     private void checkStatus(List<StatusBean> submissions) throws Exception {
     	
     	List<StatusBean> stati = consumer.getStatusSet();
@@ -0,0 +1,129 @@
+package org.eclipse.scanning.test.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+
+import org.eclipse.scanning.api.event.bean.BeanCopier;
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.malcolm.event.MalcolmEventBean;
+import org.eclipse.scanning.malcolm.core.BeanMerge;
+import org.junit.Test;
+
+/**
+ * Checks the bean copier merges as BeanMerge used to and that it
+ * can template Malcolm events at well over 10k events per second.
+ */
+public class BeanCopierTestLarge {
+
+	private static final int EVENTS = 10000;
+
+	@Test
+	public void testCopyIfNull() throws Exception {
+
+		MalcolmEventBean template = createTemplate();
+		MalcolmEventBean event    = new MalcolmEventBean(DeviceState.RUNNING, "Running");
+
+		BeanMerge.merge(template, event);
+
+		assertEquals("zebra", event.getDeviceName());
+		assertEquals("i05", event.getBeamline());
+		assertEquals("/tmp/test.h5", event.getFilePath());
+		assertEquals("Running", event.getMessage()); // Not null, not copied.
+		assertEquals(DeviceState.RUNNING, event.getDeviceState());
+	}
+
+	@Test
+	public void testScanBeanCopyIfNull() throws Exception {
+
+		ScanBean template = new ScanBean();
+		template.setDeviceName("zebra");
+		template.setFilePath("/tmp/test.h5");
+		template.setPoint(10);
+
+		ScanBean bean = new ScanBean(DeviceState.RUNNING);
+		BeanCopier.get(ScanBean.class).copyIfNull(template, bean);
+
+		assertEquals("zebra", bean.getDeviceName());
+		assertEquals("/tmp/test.h5", bean.getFilePath());
+		assertEquals(0, bean.getPoint()); // Primitives are never null, not copied.
+		assertEquals(DeviceState.RUNNING, bean.getDeviceState());
+	}
+
+	@Test
+	public void testScanBeanMerge() throws Exception {
+
+		ScanBean bean = new ScanBean();
+		ScanBean with = new ScanBean(DeviceState.RUNNING);
+		with.setUniqueId(bean.getUniqueId());
+		with.setStatus(Status.RUNNING);
+		with.setDeviceName("zebra");
+		with.setPoint(5);
+
+		bean.merge(with);
+		assertEquals(with, bean);
+		assertEquals(5, bean.getPoint());
+		assertEquals("zebra", bean.getDeviceName());
+	}
+
+	@Test
+	public void testMergeTime() throws Exception {
+
+		final MalcolmEventBean template = createTemplate();
+
+		// Warm up both
+		for (int i = 0; i < EVENTS; i++) {
+			introspectionMerge(template, new MalcolmEventBean(DeviceState.RUNNING));
+			BeanMerge.merge(template, new MalcolmEventBean(DeviceState.RUNNING));
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			introspectionMerge(template, new MalcolmEventBean(DeviceState.RUNNING));
+		}
+		final long introspectionTime = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			BeanMerge.merge(template, new MalcolmEventBean(DeviceState.RUNNING));
+		}
+		final long copierTime = System.nanoTime()-start;
+
+		System.out.println("Introspection merge of "+EVENTS+" events took "+(introspectionTime/1000000)+"ms");
+		System.out.println("Cached copier merge of "+EVENTS+" events took "+(copierTime/1000000)+"ms");
+
+		assertTrue("10k events should be templated in well under a second", copierTime<100000000L);
+		assertTrue("The cached copier should be faster than introspecting each event", copierTime<introspectionTime);
+	}
+
+	/**
+	 * How BeanMerge used to work.
+	 */
+	private static <M> void introspectionMerge(M template, M destination) throws Exception {
+		BeanInfo beanInfo = Introspector.getBeanInfo(template.getClass());
+		for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+			if (descriptor.getWriteMethod() != null) {
+				Object originalValue = descriptor.getReadMethod().invoke(destination);
+				if (originalValue == null) {
+					Object defaultValue = descriptor.getReadMethod().invoke(template);
+					descriptor.getWriteMethod().invoke(destination, defaultValue);
+				}
+			}
+		}
+	}
+
+	private static MalcolmEventBean createTemplate() {
+		MalcolmEventBean template = new MalcolmEventBean();
+		template.setDeviceName("zebra");
+		template.setBeamline("i05");
+		template.setFilePath("/tmp/test.h5");
+		template.setDatasetPath("/entry/data");
+		template.setMessage("Template");
+		return template;
+	}
+}
@@ -0,0 +1,109 @@
+package org.eclipse.scanning.test.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.event.FairShareScheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the order the fair share scheduler runs beans in, with a clock
+ * which the test moves on.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class FairShareSchedulerTest {
+
+	private static final long HOUR = 60*60*1000;
+
+	private long                           time;
+	private FairShareScheduler<StatusBean> scheduler;
+
+	@Before
+	public void setup() {
+		time = 1000000;
+		scheduler = new FairShareScheduler<StatusBean>(HOUR) {
+			@Override
+			protected long now() {
+				return time;
+			}
+		};
+	}
+
+	@Test
+	public void testSameUserIsFifo() {
+		final List<StatusBean> waiting = Arrays.asList(bean("fred", 3, 0), bean("fred", 1, 0), bean("fred", 2, 0));
+		assertEquals(Arrays.asList("fred1", "fred2", "fred3"), names(scheduler.schedule(waiting)));
+	}
+
+	@Test
+	public void testPriorityClassesFirst() {
+		final List<StatusBean> waiting = Arrays.asList(bean("fred", 1, 1), bean("bill", 2, 5), bean("fred", 3, 1), bean("bill", 4, 0));
+		assertEquals(Arrays.asList("bill2", "fred1", "fred3", "bill4"), names(scheduler.schedule(waiting)));
+	}
+
+	@Test
+	public void testUsersTakeTurns() {
+		final List<StatusBean> waiting = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) waiting.add(bean("fred", i, 0));
+		waiting.add(bean("bill", 10, 0));
+		waiting.add(bean("bill", 11, 0));
+
+		assertEquals(Arrays.asList("fred1", "bill10", "fred2", "bill11", "fred3", "fred4"), names(scheduler.schedule(waiting)));
+	}
+
+	@Test
+	public void testUserWhoRanLeastGoesFirst() {
+		run(bean("fred", 1, 0), 10*60*1000); // fred used ten minutes
+
+		final List<StatusBean> waiting = Arrays.asList(bean("fred", 2, 0), bean("fred", 3, 0), bean("bill", 4, 0));
+		assertEquals("bill4", names(scheduler.schedule(waiting)).get(0));
+	}
+
+	@Test
+	public void testUseDecays() {
+		run(bean("fred", 1, 0), 10*60*1000);
+		final double used = scheduler.getUsage("fred");
+		assertEquals(10*60*1000, used, 1);
+
+		time += HOUR;
+		assertEquals(used/2, scheduler.getUsage("fred"), 1);
+	}
+
+	@Test
+	public void testFinishedOnlyCountedOnce() {
+		final StatusBean bean = bean("fred", 1, 0);
+		run(bean, 1000);
+		scheduler.finished(bean);
+		assertEquals(1000, scheduler.getUsage("fred"), 1e-6);
+		assertTrue(scheduler.schedule(new ArrayList<StatusBean>()).isEmpty());
+	}
+
+	private void run(StatusBean bean, long ms) {
+		scheduler.started(bean);
+		time += ms;
+		scheduler.finished(bean);
+	}
+
+	private static StatusBean bean(String user, int submitted, int priority) {
+		final StatusBean bean = new StatusBean(user+submitted);
+		bean.setUniqueId(bean.getName());
+		bean.setUserName(user);
+		bean.setSubmissionTime(submitted);
+		bean.setPriority(priority);
+		return bean;
+	}
+
+	private static List<String> names(List<StatusBean> beans) {
+		final List<String> names = new ArrayList<>(beans.size());
+		for (StatusBean bean : beans) names.add(bean.getName());
+		return names;
+	}
+}
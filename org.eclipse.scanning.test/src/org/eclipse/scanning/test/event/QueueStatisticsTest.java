@@ -0,0 +1,192 @@
+package org.eclipse.scanning.test.event;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.eclipse.scanning.api.event.alive.QueueStatsBean;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.event.QueueStatistics;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the rolling statistics of a consumer, with a clock which the
+ * test moves on.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class QueueStatisticsTest {
+
+	private static final long MINUTE = 60*1000;
+
+	private long                            time;
+	private QueueStatistics<StatusBean>     stats;
+
+	@Before
+	public void setup() {
+		time  = 100*MINUTE;
+		stats = new QueueStatistics<StatusBean>(10*MINUTE, 10) {
+			@Override
+			protected long now() {
+				return time;
+			}
+		};
+	}
+
+	@Test
+	public void testCounts() {
+		run(bean("a", 0), 1000, Status.COMPLETE);
+		run(bean("b", 0), 1000, Status.COMPLETE);
+		run(bean("c", 0), 1000, Status.FAILED);
+		run(bean("d", 0), 1000, Status.TERMINATED);
+
+		final QueueStatsBean snap = stats.snapshot();
+		assertEquals(4, snap.getStarted());
+		assertEquals(2, snap.getCompleted());
+		assertEquals(1, snap.getFailed());
+		assertEquals(1, snap.getTerminated());
+		assertEquals(4, snap.getTotal());
+		assertEquals(0, snap.getRunning());
+		assertEquals(4000, snap.getBusyTime());
+		assertEquals(1000, snap.runTime(0.5), 500);
+	}
+
+	@Test
+	public void testWaitTime() {
+		final StatusBean bean = bean("a", time-5000);
+		stats.started(bean);
+		final QueueStatsBean snap = stats.snapshot();
+		assertEquals(1, snap.getRunning());
+		assertEquals(5000, snap.waitTime(0.5), 2500);
+		assertEquals(-1, snap.runTime(0.5));
+		assertNull(snap.getRunTimes());
+	}
+
+	@Test
+	public void testRunningCountsAsBusy() {
+		stats.started(bean("a", 0));
+		time += 2*MINUTE;
+		final QueueStatsBean snap = stats.snapshot();
+		assertEquals(2*MINUTE, snap.getBusyTime());
+		assertEquals(2*MINUTE, snap.getWindow());
+		assertEquals(1d, snap.utilisation(), 1e-6);
+	}
+
+	@Test
+	public void testOldWorkDropsOut() {
+		run(bean("a", 0), 1000, Status.COMPLETE);
+		time += 5*MINUTE;
+		run(bean("b", 0), 1000, Status.COMPLETE);
+		assertEquals(2, stats.snapshot().getCompleted());
+
+		time += 6*MINUTE;
+		final QueueStatsBean snap = stats.snapshot();
+		assertEquals(1, snap.getCompleted());
+		assertEquals(2, snap.getTotal());
+		assertEquals(1000, snap.getBusyTime());
+		assertEquals(10*MINUTE, snap.getWindow(), MINUTE);
+	}
+
+	@Test
+	public void testLongRunOnlyBusyInWindow() {
+		final StatusBean bean = bean("a", 0);
+		stats.started(bean);
+		time += 60*MINUTE;
+		bean.setStatus(Status.COMPLETE);
+		stats.finished(bean);
+		final QueueStatsBean snap = stats.snapshot();
+		assertEquals(snap.getWindow(), snap.getBusyTime());
+		assertEquals(60*MINUTE, snap.runTime(0.5), 30*MINUTE);
+	}
+
+	@Test
+	public void testFinishedOnlyCountedOnce() {
+		final StatusBean bean = bean("a", 0);
+		run(bean, 1000, Status.COMPLETE);
+		stats.finished(bean);
+		stats.finished(bean("never started", 0));
+		assertEquals(1, stats.snapshot().getCompleted());
+	}
+
+	@Test
+	public void testDeadBeansExpire() {
+		stats.started(bean("a", 0));
+		time += 23*60*MINUTE;
+		assertEquals(1, stats.snapshot().getRunning());
+		time += 2*60*MINUTE;
+		assertEquals(0, stats.snapshot().getRunning());
+		assertEquals(0, stats.snapshot().getBusyTime());
+	}
+
+	@Test
+	public void testClearRunning() {
+		final StatusBean bean = bean("a", 0);
+		stats.started(bean);
+		stats.clearRunning();
+		assertEquals(0, stats.snapshot().getRunning());
+
+		bean.setStatus(Status.COMPLETE);
+		stats.finished(bean);
+		assertEquals(0, stats.snapshot().getCompleted());
+	}
+
+	@Test
+	public void testMerge() {
+		final QueueStatsBean one = new QueueStatsBean();
+		one.setQueueName("q");
+		one.setWindow(1000);
+		one.setQueueDepth(3);
+		one.setCompleted(2);
+		one.setBusyTime(1000);
+		one.setRunTimes(new long[]{0, 2});
+
+		final QueueStatsBean two = new QueueStatsBean();
+		two.setQueueName("q");
+		two.setWindow(1000);
+		two.setQueueDepth(3);
+		two.setCompleted(1);
+		two.setRunTimes(new long[]{0, 0, 0, 1});
+
+		final QueueStatsBean queue = QueueStatsBean.merge(Arrays.asList(one, two));
+		assertEquals(2, queue.getConsumers());
+		assertEquals(3, queue.getQueueDepth());
+		assertEquals(3, queue.getCompleted());
+		assertEquals(0.5, queue.utilisation(), 1e-6);
+		assertArrayEquals(new long[]{0, 2, 0, 1}, queue.getRunTimes());
+		assertEquals(1, queue.runTime(0.5));
+		assertEquals(6, queue.runTime(0.9));
+	}
+
+	@Test
+	public void testBuckets() {
+		assertEquals(0, QueueStatsBean.bucket(0));
+		assertEquals(1, QueueStatsBean.bucket(1));
+		assertEquals(2, QueueStatsBean.bucket(3));
+		assertEquals(11, QueueStatsBean.bucket(1024));
+		assertEquals(QueueStatsBean.BUCKETS-1, QueueStatsBean.bucket(Long.MAX_VALUE));
+		for (long ms = 1; ms < 1<<20; ms*=3) {
+			final long value = QueueStatsBean.value(QueueStatsBean.bucket(ms));
+			assertEquals(ms, value, ms/2d);
+		}
+	}
+
+	private void run(StatusBean bean, long ms, Status status) {
+		stats.started(bean);
+		time += ms;
+		bean.setStatus(status);
+		stats.finished(bean);
+	}
+
+	private static StatusBean bean(String name, long submitted) {
+		final StatusBean bean = new StatusBean(name);
+		bean.setUniqueId(name);
+		bean.setSubmissionTime(submitted);
+		bean.setStatus(Status.RUNNING);
+		return bean;
+	}
+}
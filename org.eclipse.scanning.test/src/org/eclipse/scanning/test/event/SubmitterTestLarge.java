@@ -0,0 +1,108 @@
+package org.eclipse.scanning.test.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.scanning.api.event.IEventService;
+import org.eclipse.scanning.api.event.core.IConsumer;
+import org.eclipse.scanning.api.event.core.ISubmitter;
+import org.eclipse.scanning.api.event.status.Status;
+import org.eclipse.scanning.api.event.status.StatusBean;
+import org.eclipse.scanning.event.EventServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.ac.diamond.daq.activemq.connector.ActivemqConnectorService;
+import uk.ac.diamond.json.JsonMarshaller;
+
+/**
+ * Times submitting 1000 beans one at a time and all together, to
+ * check that a batch of submissions is much faster than the same
+ * beans submitted one by one.
+ */
+public class SubmitterTestLarge {
+
+	private static final int BEANS = 1000;
+
+	private IEventService          eservice;
+	private ISubmitter<StatusBean> submitter;
+	private IConsumer<StatusBean>  consumer; // Only used to read and clear the queue
+
+	@Before
+	public void createServices() throws Exception {
+
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		ActivemqConnectorService.setJsonMarshaller(new JsonMarshaller());
+		eservice = new EventServiceImpl(new ActivemqConnectorService());
+
+		final URI uri = new URI("vm://localhost?broker.persistent=false");
+		submitter = eservice.createSubmitter(uri, IEventService.SUBMISSION_QUEUE);
+		consumer  = eservice.createConsumer(uri, IEventService.SUBMISSION_QUEUE, IEventService.STATUS_SET, IEventService.STATUS_TOPIC);
+		consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		submitter.disconnect();
+		consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+		consumer.disconnect();
+	}
+
+	@Test
+	public void testSubmissionRate() throws Exception {
+
+		// Warm up both
+		submitOneByOne(createBeans(100));
+		submitter.submitAll(createBeans(100));
+		consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+
+		long start = System.nanoTime();
+		submitOneByOne(createBeans(BEANS));
+		final long single = System.nanoTime()-start;
+		assertEquals(BEANS, submitter.getQueue(IEventService.SUBMISSION_QUEUE, null).size());
+		consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+
+		start = System.nanoTime();
+		submitter.submitAll(createBeans(BEANS));
+		final long batch = System.nanoTime()-start;
+		assertEquals(BEANS, submitter.getQueue(IEventService.SUBMISSION_QUEUE, null).size());
+		consumer.clearQueue(IEventService.SUBMISSION_QUEUE);
+
+		submitter.setAsynchronous(true);
+		start = System.nanoTime();
+		submitter.submitAll(createBeans(BEANS));
+		final long async = System.nanoTime()-start;
+		assertEquals(BEANS, submitter.getQueue(IEventService.SUBMISSION_QUEUE, null).size());
+
+		System.out.println("Submitted "+BEANS+" beans one at a time at "+rate(single)+" per second");
+		System.out.println("Submitted "+BEANS+" beans together at "+rate(batch)+" per second");
+		System.out.println("Submitted "+BEANS+" beans together asynchronously at "+rate(async)+" per second");
+
+		assertTrue("Submitting together should be at least 5x faster, it is "+(single/(double)batch)+"x", single>5*batch);
+	}
+
+	private void submitOneByOne(List<StatusBean> beans) throws Exception {
+		for (StatusBean bean : beans) submitter.submit(bean);
+	}
+
+	private static List<StatusBean> createBeans(int size) {
+		final List<StatusBean> beans = new ArrayList<StatusBean>(size);
+		for (int i = 0; i < size; i++) {
+			StatusBean bean = new StatusBean("Tile "+i);
+			bean.setStatus(Status.SUBMITTED);
+			bean.setUniqueId(UUID.randomUUID().toString());
+			beans.add(bean);
+		}
+		return beans;
+	}
+
+	private static long rate(long nanos) {
+		return Math.round(BEANS/(nanos/1e9));
+	}
+}
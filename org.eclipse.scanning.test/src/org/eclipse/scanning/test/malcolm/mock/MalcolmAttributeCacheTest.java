@@ -0,0 +1,139 @@
+package org.eclipse.scanning.test.malcolm.mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.scanning.malcolm.core.MalcolmAttributeCache;
+import org.junit.Test;
+
+/**
+ * Checks that the cache of Malcolm attributes only returns fresh values and
+ * never lets an older value replace a newer one or an invalidation.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class MalcolmAttributeCacheTest {
+
+	@Test
+	public void testTimeToLive() throws Exception {
+
+		MalcolmAttributeCache cache = new MalcolmAttributeCache(50);
+		cache.put("state", "READY");
+		assertEquals("READY", cache.get("state"));
+
+		Thread.sleep(200);
+		assertNull("The value should be stale", cache.get("state"));
+
+		cache.put("state", "RUNNING");
+		assertEquals("RUNNING", cache.get("state"));
+	}
+
+	@Test
+	public void testOlderValueDoesNotReplaceNewer() throws Exception {
+
+		MalcolmAttributeCache cache = new MalcolmAttributeCache(10000);
+		final long time = System.nanoTime();
+		cache.put("state", "RUNNING", time);
+		cache.put("state", "READY",   time-1); // A slow get which was sent earlier
+		assertEquals("RUNNING", cache.get("state"));
+	}
+
+	@Test
+	public void testLatePutAfterInvalidate() throws Exception {
+
+		MalcolmAttributeCache cache = new MalcolmAttributeCache(10000);
+		cache.put("state", "READY");
+
+		// An event received before a call is despatched after it has returned
+		final long received = System.nanoTime();
+		cache.invalidate("state");
+		assertNull(cache.get("state"));
+
+		cache.put("state", "READY", received);
+		assertNull("A value older than the invalidation was put", cache.get("state"));
+
+		// A value fetched after the invalidation is kept.
+		cache.put("state", "CONFIGURED", System.nanoTime());
+		assertEquals("CONFIGURED", cache.get("state"));
+	}
+
+	@Test
+	public void testClear() throws Exception {
+
+		MalcolmAttributeCache cache = new MalcolmAttributeCache(10000);
+		cache.put("state", "READY");
+		cache.put("attributes.currentStep", 10);
+		cache.clear();
+		assertNull(cache.get("state"));
+		assertNull(cache.get("attributes.currentStep"));
+	}
+
+	@Test
+	public void testConcurrentPutOrdering() throws Exception {
+
+		final MalcolmAttributeCache cache = new MalcolmAttributeCache(10000);
+		final int  threads = 8;
+		final int  puts    = 20000;
+		final long base    = System.nanoTime();
+
+		final CountDownLatch start   = new CountDownLatch(1);
+		final AtomicBoolean  putting = new AtomicBoolean(true);
+		final List<String>   errors  = Collections.synchronizedList(new ArrayList<String>());
+
+		final ExecutorService exec = Executors.newFixedThreadPool(threads+1);
+		try {
+			// Each thread puts an interleaved share of the values, half of them in reverse.
+			List<Future<?>> results = new ArrayList<>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				results.add(exec.submit(() -> {
+					start.await();
+					if (offset%2==0) {
+						for (int i = offset; i < puts; i+=threads) cache.put("step", i, base+i);
+					} else {
+						for (int i = puts-threads+offset; i >= 0; i-=threads) cache.put("step", i, base+i);
+					}
+					return null;
+				}));
+			}
+
+			// Whatever order they are put in, a reader never sees the value go backwards.
+			Future<?> reader = exec.submit(() -> {
+				start.await();
+				int last = -1;
+				while(putting.get()) {
+					Integer value = (Integer)cache.get("step");
+					if (value==null) continue;
+					if (value<last) errors.add("Read "+value+" after "+last);
+					last = value;
+				}
+				return null;
+			});
+
+			start.countDown();
+			for (Future<?> result : results) result.get(60, TimeUnit.SECONDS);
+			putting.set(false);
+			reader.get(10, TimeUnit.SECONDS);
+
+		} finally {
+			exec.shutdownNow();
+		}
+
+		assertTrue(errors.toString(), errors.isEmpty());
+		assertNotNull(cache.get("step"));
+		assertEquals(puts-1, cache.get("step"));
+	}
+}
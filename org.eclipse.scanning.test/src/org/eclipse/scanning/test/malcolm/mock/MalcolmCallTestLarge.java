@@ -0,0 +1,152 @@
+package org.eclipse.scanning.test.malcolm.mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
+import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
+import org.eclipse.scanning.api.malcolm.connector.MessageGenerator;
+import org.eclipse.scanning.api.malcolm.message.JsonMessage;
+import org.eclipse.scanning.api.malcolm.message.MalcolmMethod;
+import org.eclipse.scanning.api.malcolm.message.Type;
+import org.eclipse.scanning.test.malcolm.device.MockedMalcolmService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.ac.diamond.malcolm.jacksonzeromq.connector.ZeromqConnectorService;
+
+/**
+ * Times building and serializing Malcolm CALL messages from method
+ * descriptors against the old way of finding the method name from
+ * the stack trace.
+ */
+public class MalcolmCallTestLarge {
+
+	private static final int COUNT  = 100000;
+	private static final int WARMUP = 10000;
+
+	private MockedMalcolmService           service;
+	private IMalcolmConnection             connection;
+	private IMalcolmDevice                 device;
+	private ZeromqConnectorService         connectorService;
+	private MessageGenerator<JsonMessage>  generator;
+
+	@Before
+	public void create() throws Exception {
+		this.service          = new MockedMalcolmService();
+		this.connection       = service.createConnection(null);
+		this.device           = connection.getDevice("zebra");
+		this.connectorService = new ZeromqConnectorService();
+		this.generator        = connectorService.createDeviceConnection(device);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		if (device!=null)     device.dispose();
+		if (connection!=null) connection.dispose();
+		service.dispose();
+	}
+
+	@Test
+	public void testTemplateSameAsFullSerialization() throws Exception {
+
+		final ZeromqConnectorService full = new ZeromqConnectorService();
+		full.setTemplated(false);
+
+		for (MalcolmMethod method : MalcolmMethod.values()) {
+			for (int i = 0; i < 3; i++) { // First creates the template, then uses it.
+				JsonMessage msg  = generator.createCallMessage(method);
+				String      json = connectorService.marshal(msg);
+				assertEquals(full.marshal(msg), json);
+				JsonMessage read = connectorService.unmarshal(json, JsonMessage.class);
+				assertEquals(msg, read);
+				assertEquals(Type.CALL, read.getType());
+				assertEquals(method.getName(), read.getMethod());
+			}
+		}
+
+		// A message with arguments is not templated but must still be right.
+		JsonMessage msg  = generator.createCallMessage(MalcolmMethod.CONFIGURE, Collections.singletonMap("exposure", 0.1));
+		String      json = connectorService.marshal(msg);
+		assertEquals(full.marshal(msg), json);
+		JsonMessage read = connectorService.unmarshal(json, JsonMessage.class);
+		assertEquals(msg.getId(), read.getId());
+		assertEquals(msg.getArguments(), read.getArguments());
+	}
+
+	@Test
+	public void testUniqueIdsManyThreads() throws Exception {
+
+		final Set<Long> ids = Collections.synchronizedSet(new HashSet<Long>(COUNT));
+		final ExecutorService exec = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			exec.execute(() -> {
+				for (int i = 0; i < COUNT/8; i++) {
+					try {
+						ids.add(generator.createCallMessage(MalcolmMethod.RUN).getId());
+					} catch (Exception ne) {
+						throw new RuntimeException(ne);
+					}
+				}
+			});
+		}
+		exec.shutdown();
+		assertTrue(exec.awaitTermination(60, TimeUnit.SECONDS));
+		assertEquals("Ids of messages made at the same time must not collide", (COUNT/8)*8, ids.size());
+	}
+
+	@Test
+	public void testCallConstructionTime() throws Exception {
+
+		// Warm up both ways
+		for (int i = 0; i < WARMUP; i++) {
+			stackTraceCall();
+			descriptorCall();
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < COUNT; i++) stackTraceCall();
+		final long stackTraceTime = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < COUNT; i++) descriptorCall();
+		final long descriptorTime = System.nanoTime()-start;
+
+		System.out.println("Stack trace call construction took "+(stackTraceTime/COUNT)+"ns per call");
+		System.out.println("Descriptor call construction took  "+(descriptorTime/COUNT)+"ns per call");
+
+		assertTrue("Descriptor calls should be faster than walking the stack", descriptorTime<stackTraceTime);
+	}
+
+	/**
+	 * What MalcolmDevice used to do for run(), abort() etc.
+	 */
+	private String stackTraceCall() throws Exception {
+		final StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+		final JsonMessage msg = generator.createCallMessage(getMethodName(stackTrace), null);
+		msg.setArguments(null);
+		return connectorService.marshal(msg);
+	}
+
+	private String descriptorCall() throws Exception {
+		final JsonMessage msg = generator.createCallMessage(MalcolmMethod.RUN);
+		return connectorService.marshal(msg);
+	}
+
+	private static final String getMethodName(StackTraceElement ste[]) {
+		boolean flag = false;
+		for (StackTraceElement s : ste) {
+			if (flag) return s.getMethodName();
+			flag = s.getMethodName().equals("getStackTrace");
+		}
+		return "";
+	}
+}
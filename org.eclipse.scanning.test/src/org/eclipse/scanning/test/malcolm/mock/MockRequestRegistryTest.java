@@ -0,0 +1,233 @@
+package org.eclipse.scanning.test.malcolm.mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
+import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
+import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
+import org.eclipse.scanning.api.malcolm.event.IMalcolmListener;
+import org.eclipse.scanning.api.malcolm.event.MalcolmEvent;
+import org.eclipse.scanning.api.malcolm.message.JsonMessage;
+import org.eclipse.scanning.test.malcolm.device.MockedMalcolmService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.ac.diamond.malcolm.jacksonzeromq.connector.MalcolmRequestRegistry;
+
+/**
+ * Checks that the registry used to correlate Malcolm replies does not leak
+ * requests or subscriptions when many are made, answered, lost and removed
+ * from many threads at once.
+ */
+public class MockRequestRegistryTest {
+
+	private MockedMalcolmService               service;
+	private IMalcolmConnection                 connection;
+	private IMalcolmDevice                     device;
+	private MalcolmRequestRegistry<JsonMessage> registry;
+
+	@Before
+	public void create() throws Exception {
+		this.service    = new MockedMalcolmService();
+		this.connection = service.createConnection(null);
+		this.device     = connection.getDevice("zebra");
+		this.registry   = new MalcolmRequestRegistry<JsonMessage>(50, 100000);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		registry.close(new MalcolmDeviceException("Test finished"));
+		if (device!=null)     device.dispose();
+		if (connection!=null) connection.dispose();
+		service.dispose();
+	}
+
+	@Test
+	public void testReply() throws Exception {
+
+		CompletableFuture<JsonMessage> future = registry.register(device, 1);
+		assertEquals(1, registry.getOutstandingCount());
+
+		JsonMessage reply = new JsonMessage();
+		reply.setId(1);
+		assertTrue(registry.complete(1, reply));
+		assertEquals(reply, future.get(1, TimeUnit.SECONDS));
+		assertEquals(0, registry.getOutstandingCount());
+		assertEquals(1, registry.getCompletedCount());
+
+		// The same reply again is not waited for by anyone.
+		assertFalse(registry.complete(1, reply));
+		assertEquals(1, registry.getUnmatchedCount());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+
+		CompletableFuture<JsonMessage> future = registry.register(device, 1, 10, TimeUnit.MILLISECONDS);
+		registry.startSweeping(10, TimeUnit.MILLISECONDS);
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("The request should have timed out!");
+		} catch (ExecutionException expected) {
+			assertTrue(expected.getCause() instanceof MalcolmDeviceException);
+			assertTrue(expected.getCause().getCause() instanceof TimeoutException);
+		}
+		assertEquals(0, registry.getOutstandingCount());
+		assertEquals(1, registry.getTimedOutCount());
+
+		// A reply which arrives late is not an error, it is counted.
+		assertFalse(registry.complete(1, new JsonMessage()));
+		assertEquals(1, registry.getUnmatchedCount());
+	}
+
+	@Test
+	public void testBounded() throws Exception {
+
+		MalcolmRequestRegistry<JsonMessage> small = new MalcolmRequestRegistry<JsonMessage>(1000, 10);
+		try {
+			for (int i = 0; i < 10; i++) small.register(device, i);
+			try {
+				small.register(device, 10);
+				fail("Only 10 requests should be allowed to wait!");
+			} catch (MalcolmDeviceException expected) {
+				// Good
+			}
+			small.complete(0, new JsonMessage());
+			small.register(device, 10); // Now there is room
+		} finally {
+			small.close(new MalcolmDeviceException("Test finished"));
+		}
+		assertEquals(0, small.getOutstandingCount());
+	}
+
+	@Test
+	public void testCancelledByCaller() throws Exception {
+
+		CompletableFuture<JsonMessage> future = registry.register(device, 1);
+		future.cancel(true);
+		assertEquals(0, registry.getOutstandingCount());
+	}
+
+	@Test
+	public void testUnsubscribe() throws Exception {
+
+		IMalcolmListener<JsonMessage> l1 = new NullListener();
+		IMalcolmListener<JsonMessage> l2 = new NullListener();
+
+		assertTrue(registry.addListener(1, l1));
+		assertFalse(registry.addListener(1, l2));
+		assertEquals(1, registry.getSubscriptionCount());
+
+		assertFalse(registry.removeListeners(1, l1));
+		assertEquals(1, registry.getSubscriptionCount());
+		assertTrue(registry.removeListeners(1, l2));
+		assertEquals(0, registry.getSubscriptionCount());
+
+		registry.addListener(2, l1);
+		registry.addListener(2, l2);
+		assertTrue(registry.removeListeners(2)); // All of them
+		assertEquals(0, registry.getSubscriptionCount());
+		assertFalse(registry.removeListeners(2));
+	}
+
+	@Test
+	public void stressTest() throws Exception {
+
+		registry.startSweeping(5, TimeUnit.MILLISECONDS);
+
+		final int threads    = 8;
+		final int iterations = 5000;
+
+		final AtomicLong    ids       = new AtomicLong();
+		final AtomicInteger lost      = new AtomicInteger();
+
+		final List<CompletableFuture<JsonMessage>> futures = Collections.synchronizedList(new ArrayList<CompletableFuture<JsonMessage>>(threads*iterations));
+		final ExecutorService exec = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> results = new ArrayList<>(threads);
+			for (int t = 0; t < threads; t++) {
+				final long seed = t;
+				results.add(exec.submit(() -> {
+					final Random random = new Random(seed);
+					for (int i = 0; i < iterations; i++) {
+
+						final long id = ids.incrementAndGet();
+						final CompletableFuture<JsonMessage> future = registry.register(device, id);
+						futures.add(future);
+
+						final int action = random.nextInt(10);
+						if (action<6) {
+							JsonMessage reply = new JsonMessage();
+							reply.setId(id);
+							registry.complete(id, reply); // May be late if this thread was descheduled
+						} else if (action<8) {
+							lost.incrementAndGet(); // Malcolm never replies
+						} else {
+							registry.cancel(id);
+						}
+
+						// A short lived subscription, as made by latching a device
+						final long subId = -id;
+						final IMalcolmListener<JsonMessage> listener = new NullListener();
+						registry.addListener(subId, listener);
+						registry.addListener(subId, new NullListener());
+						registry.removeListeners(subId, listener);
+						registry.removeListeners(subId);
+					}
+					return null;
+				}));
+			}
+			for (Future<Void> result : results) result.get(60, TimeUnit.SECONDS);
+		} finally {
+			exec.shutdownNow();
+		}
+
+		// Every future must complete, lost replies by their deadline.
+		int replied = 0, timedOut = 0, cancelled = 0;
+		for (CompletableFuture<JsonMessage> future : futures) {
+			try {
+				future.get(5, TimeUnit.SECONDS);
+				++replied;
+			} catch (CancellationException ce) {
+				++cancelled;
+			} catch (ExecutionException ee) {
+				++timedOut;
+			}
+		}
+
+		final int total = threads*iterations;
+		assertEquals(total, futures.size());
+		assertEquals(total, replied+timedOut+cancelled);
+		assertEquals(0, registry.getOutstandingCount());
+		assertEquals(0, registry.getSubscriptionCount());
+		assertEquals(replied, registry.getCompletedCount());
+		assertEquals(timedOut, registry.getTimedOutCount());
+		assertTrue(timedOut>=lost.get());
+	}
+
+	private static class NullListener implements IMalcolmListener<JsonMessage> {
+		@Override
+		public void eventPerformed(MalcolmEvent<JsonMessage> e) {
+			// Nothing
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package org.eclipse.scanning.test.malcolm.mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
+import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
+import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
+import org.eclipse.scanning.api.malcolm.connector.MessageGenerator;
+import org.eclipse.scanning.api.malcolm.event.IMalcolmListener;
+import org.eclipse.scanning.api.malcolm.message.JsonMessage;
+import org.eclipse.scanning.api.malcolm.message.MalcolmMethod;
+import org.eclipse.scanning.api.malcolm.message.Type;
+import org.eclipse.scanning.test.malcolm.device.MockedMalcolmService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMQ.Context;
+import org.zeromq.ZMQ.Socket;
+
+import uk.ac.diamond.malcolm.jacksonzeromq.connector.ZeromqConnectorService;
+
+/**
+ * Runs the ZeroMQ connector against a fake Malcolm on a local socket to check
+ * that many requests may be in flight through the pool of inproc sockets, that
+ * no request or subscription is leaked and that disconnecting does not leave 
+ * requests waiting.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class ZeromqConnectorTest {
+
+	private static final int THREADS = 32; // Many more than the sockets in the pool
+
+	private MockedMalcolmService           service;
+	private IMalcolmConnection             connection;
+	private IMalcolmDevice                 device;
+	private ZeromqConnectorService         connectorService;
+	private MessageGenerator<JsonMessage>  generator;
+	private FakeMalcolm                    malcolm;
+	private boolean                        connected;
+
+	@Before
+	public void create() throws Exception {
+		this.service          = new MockedMalcolmService();
+		this.connection       = service.createConnection(null);
+		this.device           = connection.getDevice("zebra");
+
+		this.malcolm          = new FakeMalcolm();
+		this.connectorService = new ZeromqConnectorService();
+		connectorService.connect(malcolm.getUri());
+		this.connected        = true;
+		this.generator        = connectorService.createDeviceConnection(device);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		if (connected) connectorService.disconnect();
+		malcolm.close();
+		if (device!=null)     device.dispose();
+		if (connection!=null) connection.dispose();
+		service.dispose();
+	}
+
+	@Test
+	public void testConcurrentSendAsync() throws Exception {
+
+		final int count = 200;
+		runConcurrently(8, () -> {
+			final List<JsonMessage>                    sent    = new ArrayList<>(count);
+			final List<CompletableFuture<JsonMessage>> replies = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				JsonMessage msg = generator.createGetMessage("zebra.state");
+				sent.add(msg);
+				replies.add(connectorService.sendAsync(device, msg)); // Does not wait for the reply
+			}
+			for (int i = 0; i < count; i++) {
+				JsonMessage reply = replies.get(i).get(10, TimeUnit.SECONDS);
+				assertEquals(sent.get(i).getId(), reply.getId());
+			}
+			return null;
+		});
+		assertEquals(0, connectorService.getRegistry().getOutstandingCount());
+	}
+
+	@Test
+	public void testPoolExhausted() throws Exception {
+
+		// Each thread blocks on its reply, so every socket of the pool is wanted at once.
+		runConcurrently(THREADS, () -> {
+			for (int i = 0; i < 50; i++) {
+				JsonMessage msg   = generator.createGetMessage("zebra.state");
+				JsonMessage reply = connectorService.send(device, msg);
+				assertEquals(msg.getId(), reply.getId());
+			}
+			return null;
+		});
+		assertEquals(0, connectorService.getRegistry().getOutstandingCount());
+	}
+
+	@Test
+	public void testDisconnectWithRequestsInFlight() throws Exception {
+
+		malcolm.setSilent(true); // No request is ever answered
+
+		final List<CompletableFuture<JsonMessage>> replies = Collections.synchronizedList(new ArrayList<CompletableFuture<JsonMessage>>());
+		final CountDownLatch                       sending = new CountDownLatch(THREADS);
+
+		final ExecutorService exec = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Void>> results = new ArrayList<>(THREADS);
+			for (int t = 0; t < THREADS; t++) {
+				results.add(exec.submit(() -> {
+					sending.countDown();
+					try {
+						while(true) replies.add(connectorService.sendAsync(device, generator.createGetMessage("zebra.state")));
+					} catch (MalcolmDeviceException expected) {
+						// Disconnected, or as many requests as allowed are waiting
+					}
+					return null;
+				}));
+			}
+
+			sending.await(10, TimeUnit.SECONDS);
+			Thread.sleep(100);
+			connectorService.disconnect();
+			connected = false;
+
+			for (Future<Void> result : results) result.get(10, TimeUnit.SECONDS);
+
+		} finally {
+			exec.shutdownNow();
+		}
+
+		assertTrue("No request was in flight", replies.size()>0);
+		for (CompletableFuture<JsonMessage> reply : replies) {
+			try {
+				reply.get(10, TimeUnit.SECONDS);
+				fail("No reply was sent, the request should have failed on disconnect!");
+			} catch (ExecutionException expected) {
+				assertTrue(expected.getCause() instanceof MalcolmDeviceException);
+			}
+		}
+		assertEquals(0, connectorService.getRegistry().getOutstandingCount());
+
+		try {
+			connectorService.sendAsync(device, generator.createGetMessage("zebra.state"));
+			fail("Cannot send once disconnected!");
+		} catch (MalcolmDeviceException expected) {
+			// Good
+		}
+	}
+
+	@Test
+	public void testManyCallsAndLatches() throws Exception {
+
+		// Each thread calls the device and latches it as the device does, by a short subscription.
+		runConcurrently(8, () -> {
+			for (int i = 0; i < 200; i++) {
+				JsonMessage call  = generator.createCallMessage(MalcolmMethod.RUN);
+				JsonMessage reply = connectorService.send(device, call);
+				assertEquals(call.getId(), reply.getId());
+
+				JsonMessage subscribe = generator.createSubscribeMessage("zebra.stateMachine.state");
+				IMalcolmListener<JsonMessage> listener = e -> {};
+				connectorService.subscribe(device, subscribe, listener);
+
+				JsonMessage unsubscribe = generator.createUnsubscribeMessage();
+				unsubscribe.setId(subscribe.getId());
+				connectorService.unsubscribe(device, unsubscribe, listener);
+			}
+			return null;
+		});
+		assertEquals(0, connectorService.getRegistry().getOutstandingCount());
+		assertEquals(0, connectorService.getRegistry().getSubscriptionCount());
+	}
+
+	@Test
+	public void testMaxOutstanding() throws Exception {
+
+		malcolm.setSilent(true); // Every request waits
+
+		final int max = connectorService.getRegistry().getMaxOutstanding();
+		final List<JsonMessage> sent = new ArrayList<>(max);
+		for (int i = 0; i < max; i++) {
+			JsonMessage msg = generator.createGetMessage("zebra.state");
+			connectorService.sendAsync(device, msg);
+			sent.add(msg);
+		}
+		assertEquals(max, connectorService.getRegistry().getOutstandingCount());
+
+		try {
+			connectorService.sendAsync(device, generator.createGetMessage("zebra.state"));
+			fail("Only "+max+" requests may wait for a reply!");
+		} catch (MalcolmDeviceException expected) {
+			// Good
+		}
+		assertEquals(max, connectorService.getRegistry().getOutstandingCount());
+
+		// A request which is given up on makes room for another.
+		assertTrue(connectorService.getRegistry().expire(sent.get(0).getId()));
+		connectorService.sendAsync(device, generator.createGetMessage("zebra.state"));
+		assertEquals(max, connectorService.getRegistry().getOutstandingCount());
+	}
+
+	@Test(expected=MalcolmDeviceException.class)
+	public void testUnsubscribeError() throws Exception {
+
+		JsonMessage subscribe = generator.createSubscribeMessage("zebra.stateMachine.state");
+		connectorService.subscribe(device, subscribe, e -> {});
+
+		malcolm.setUnsubscribeError(true);
+		JsonMessage unsubscribe = generator.createUnsubscribeMessage();
+		unsubscribe.setId(subscribe.getId());
+		connectorService.unsubscribe(device, unsubscribe);
+	}
+
+	private void runConcurrently(int threads, Callable<Void> task) throws Exception {
+		final ExecutorService exec = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> results = new ArrayList<>(threads);
+			for (int t = 0; t < threads; t++) results.add(exec.submit(task));
+			for (Future<Void> result : results) result.get(60, TimeUnit.SECONDS);
+		} finally {
+			exec.shutdownNow();
+		}
+	}
+
+	/**
+	 * A Malcolm which replies to every request with a RETURN of the same id.
+	 */
+	private class FakeMalcolm implements Runnable {
+
+		private final Context context;
+		private final Socket  router;
+		private final URI     uri;
+		private final Thread  thread;
+
+		private volatile boolean running = true;
+		private volatile boolean silent;
+		private volatile boolean unsubscribeError;
+
+		FakeMalcolm() throws Exception {
+			int port;
+			try (ServerSocket free = new ServerSocket(0)) {
+				port = free.getLocalPort();
+			}
+			this.uri     = new URI("tcp://127.0.0.1:"+port);
+			this.context = ZMQ.context(1);
+			this.router  = context.socket(ZMQ.ROUTER);
+			router.setReceiveTimeOut(100);
+			router.bind(uri.toString());
+
+			this.thread = new Thread(this, "Fake Malcolm "+uri);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		@Override
+		public void run() {
+			while(running) {
+				byte[] identity = router.recv(0);
+				if (identity==null) continue;
+				String received = router.recvStr();
+				if (silent) continue;
+				try {
+					JsonMessage msg   = connectorService.unmarshal(received, JsonMessage.class);
+					JsonMessage reply = new JsonMessage();
+					reply.setId(msg.getId());
+					if (unsubscribeError && msg.getType()==Type.UNSUBSCRIBE) {
+						reply.setType(Type.ERROR);
+						reply.setMessage("Cannot unsubscribe "+msg.getId());
+					} else {
+						reply.setType(Type.RETURN);
+					}
+					router.sendMore(identity);
+					router.send(connectorService.marshal(reply));
+				} catch (Exception ne) {
+					ne.printStackTrace();
+				}
+			}
+			router.close();
+			context.term();
+		}
+
+		URI getUri() {
+			return uri;
+		}
+
+		void setSilent(boolean silent) {
+			this.silent = silent;
+		}
+
+		void setUnsubscribeError(boolean unsubscribeError) {
+			this.unsubscribeError = unsubscribeError;
+		}
+
+		void close() throws InterruptedException {
+			running = false;
+			thread.join(1000);
+		}
+	}
+}
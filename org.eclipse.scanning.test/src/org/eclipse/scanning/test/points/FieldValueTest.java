@@ -0,0 +1,80 @@
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.scanning.api.points.annot.FieldUtils;
+import org.eclipse.scanning.api.points.annot.FieldValue;
+import org.eclipse.scanning.api.points.annot.ModelDescriptor;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.junit.Test;
+
+public class FieldValueTest {
+
+	@Test
+	public void testGetAndSet() throws Exception {
+
+		GridModel model = new GridModel("x", "y");
+		FieldValue rows  = new FieldValue(model, "rows");
+		FieldValue snake = new FieldValue(model, "snake");
+		FieldValue xName = new FieldValue(model, "xName"); // From the superclass
+
+		rows.set(5);
+		snake.set(true);
+		xName.set("stage_x");
+
+		assertEquals(5, model.getRows());
+		assertTrue(model.isSnake());
+		assertEquals("stage_x", model.getxName());
+
+		assertEquals(5, rows.get());
+		assertEquals(true, snake.get());
+		assertEquals("stage_x", xName.get());
+		assertEquals(int.class, rows.getType());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testSetWrongType() throws Exception {
+		new FieldValue(new GridModel(), "rows").set("fred");
+	}
+
+	@Test
+	public void testNoProperty() throws Exception {
+		GridModel model = new GridModel();
+		assertNull(new FieldValue(model, "fred").get());
+		assertNull(FieldUtils.getAnnotation(model, "fred"));
+		assertFalse(ModelDescriptor.get(GridModel.class).getProperty("fred").isModelField());
+	}
+
+	@Test
+	public void testModelFields() throws Exception {
+
+		GridModel model = new GridModel();
+		Collection<FieldValue> fields = FieldUtils.getModelFields(model);
+
+		List<String> names = new ArrayList<>();
+		for (FieldValue field : fields) names.add(field.getName());
+		assertTrue(names.contains("rows"));
+		assertTrue(names.contains("columns"));
+		assertTrue(names.contains("snake"));
+		assertFalse(names.contains("pcs"));
+
+		// Same order for another model of the class
+		List<String> again = new ArrayList<>();
+		for (FieldValue field : FieldUtils.getModelFields(new GridModel())) again.add(field.getName());
+		assertEquals(names, again);
+	}
+
+	@Test
+	public void testDescriptorCached() throws Exception {
+		assertSame(ModelDescriptor.get(GridModel.class), ModelDescriptor.get(GridModel.class));
+		assertSame(ModelDescriptor.get(GridModel.class).getProperty("rows"), ModelDescriptor.get(GridModel.class).getProperty("rows"));
+	}
+}
@@ -0,0 +1,156 @@
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.points.PointGeneratorFactory;
+import org.eclipse.scanning.points.PointPathCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PointPathCacheTest {
+
+	private IPointGeneratorService service;
+	private PointPathCache         cache;
+
+	@Before
+	public void before() throws Exception {
+		service = new PointGeneratorFactory();
+		cache   = new PointPathCache(1024*1024);
+	}
+
+	@Test
+	public void testSamePoints() throws Exception {
+
+		IPointGenerator<GridModel, Point> gen = service.createGenerator(createGridModel(20, 20));
+		IPointGenerator<GridModel, Point> cached = cache.createGenerator(gen);
+
+		List<Point> expected = gen.createPoints();
+		assertEquals(expected, cached.createPoints()); // Recorded
+		assertEquals(1, cache.size());
+		assertEquals(expected, cached.createPoints()); // From the cache
+		assertEquals(expected.size(), cached.size());
+
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testSamePointsCompound() throws Exception {
+
+		IPointGenerator<StepModel, IPosition> temp = service.createGenerator(new StepModel("Temperature", 290,295,1));
+		IPointGenerator<GridModel, Point>     grid = service.createGenerator(createGridModel(5, 5));
+		IPointGenerator<?,IPosition>        scan = service.createCompoundGenerator(temp, grid);
+
+		List<IPosition> expected = scan.createPoints();
+		IPointGenerator<?,IPosition> cached = cache.createGenerator(scan);
+		assertEquals(expected, cached.createPoints());
+		assertEquals(expected, cached.createPoints());
+		assertEquals(1, cache.getHits());
+
+		IPosition first = cached.iterator().next();
+		assertEquals(expected.get(0).getIndices(), first.getIndices());
+	}
+
+	@Test
+	public void testEqualModelSharesPath() throws Exception {
+
+		// A model from a new request is not the same object and has a different unique key.
+		cache.createGenerator(service.createGenerator(createGridModel(10, 10))).createPoints();
+		IPointGenerator<GridModel, Point> other = cache.createGenerator(service.createGenerator(createGridModel(10, 10)));
+		other.createPoints();
+
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testChangedModelMisses() throws Exception {
+
+		IPointGenerator<GridModel, Point> cached = cache.createGenerator(service.createGenerator(createGridModel(10, 10)));
+		cached.createPoints();
+		cached.getModel().setRows(11);
+		assertEquals(110, cached.createPoints().size());
+
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testChangedRegionMisses() throws Exception {
+
+		CircularROI roi = new CircularROI(1, 1.5, 1.5);
+		IPointGenerator<GridModel, Point> gen = service.createGenerator(createGridModel(20, 20), roi);
+		IPointGenerator<GridModel, Point> cached = cache.createGenerator(gen);
+		int inside = cached.createPoints().size();
+		assertEquals(inside, cached.createPoints().size());
+		assertEquals(1, cache.getHits());
+
+		roi.setRadius(0.5);
+		assertTrue(cached.createPoints().size()<inside);
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void testPartialIterationNotCached() throws Exception {
+
+		IPointGenerator<GridModel, Point> cached = cache.createGenerator(service.createGenerator(createGridModel(10, 10)));
+		Iterator<Point> it = cached.iterator();
+		it.next();
+		it.next();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+
+		// Each path of 10x10 points with two names is 2400 bytes of primitives.
+		PointPathCache small = new PointPathCache(6000);
+		for (int rows = 10; rows < 15; rows++) {
+			small.createGenerator(service.createGenerator(createGridModel(10, rows))).createPoints();
+		}
+		assertTrue(small.getHeld()<=small.getMaximum());
+		assertTrue(small.getEvictions()>0);
+		assertEquals(5-small.getEvictions(), small.size());
+
+		// The most recent path is still there
+		small.createGenerator(service.createGenerator(createGridModel(10, 14))).createPoints();
+		assertEquals(1, small.getHits());
+	}
+
+	@Test
+	public void testTooLargeNotCached() throws Exception {
+
+		PointPathCache small = new PointPathCache(1000);
+		IPointGenerator<GridModel, Point> cached = small.createGenerator(service.createGenerator(createGridModel(100, 100)));
+		assertEquals(10000, cached.createPoints().size());
+		assertEquals(0, small.size());
+		assertEquals(0, small.getHeld());
+	}
+
+	private GridModel createGridModel(int columns, int rows) {
+		BoundingBox box = new BoundingBox();
+		box.setxStart(0);
+		box.setyStart(0);
+		box.setWidth(3);
+		box.setHeight(3);
+
+		GridModel model = new GridModel();
+		model.setColumns(columns);
+		model.setRows(rows);
+		model.setBoundingBox(box);
+		return model;
+	}
+}
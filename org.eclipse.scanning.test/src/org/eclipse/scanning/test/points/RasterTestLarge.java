@@ -56,6 +56,31 @@ public class RasterTestLarge {
 		testIteratorTime(model, roi, 10011001, 5000, false); // TODO Is 10011001 correct?
 	}
 
+	@Test
+	public void test16millStarPolygon() throws Exception {
+		
+		// A polygon of 400 vertices which is not convex
+		IROI roi = RegionMaskTest.createStar(200, 2000, 1200, 2000, 2000);
+
+		// Create a 4000x4000 raster scan path
+		RasterModel model = new RasterModel();
+		model.setxStep(1);
+		model.setyStep(1);
+
+		long start = System.currentTimeMillis();
+		IPointGenerator<RasterModel,Point> gen = service.createGenerator(model, roi);
+		int size = gen.size();
+		long after1 = System.currentTimeMillis();
+		System.out.println("It took "+(after1-start)+"ms to size "+size+" points of a 4000x4000 raster in a star of 400 vertices");
+		assertTrue(after1-start<5000);
+
+		int count = 0;
+		for (Iterator<Point> it = gen.iterator(); it.hasNext(); it.next()) count++;
+		long after2 = System.currentTimeMillis();
+		System.out.println("It took "+(after2-after1)+"ms to iterate them");
+		assertEquals(size, count);
+		assertTrue(after2-after1<5000);
+	}
 	
 	private void testIteratorTime(RasterModel model, IROI roi, int size, long tenMilTime, boolean testAllPoints) throws Exception {
 		
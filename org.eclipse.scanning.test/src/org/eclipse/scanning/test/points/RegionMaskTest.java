@@ -0,0 +1,180 @@
+package org.eclipse.scanning.test.points;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.dawnsci.analysis.api.roi.IROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.CircularROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.EllipticalROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.PolygonalROI;
+import org.eclipse.dawnsci.analysis.dataset.roi.RectangularROI;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.points.models.RasterModel;
+import org.eclipse.scanning.points.PointGeneratorFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the grid and raster generators give the same points
+ * with regions as testing every point of the grid against the regions.
+ */
+public class RegionMaskTest {
+
+	private IPointGeneratorService service;
+
+	@Before
+	public void before() throws Exception {
+		service = new PointGeneratorFactory();
+	}
+
+	@Test
+	public void testCircle() throws Exception {
+		checkRaster(new CircularROI(10, 0, 0), 0.5, false); // Points on the outline
+		checkRaster(new CircularROI(10.3, 1.1, -2.7), 0.37, true);
+	}
+
+	@Test
+	public void testEllipse() throws Exception {
+		checkRaster(new EllipticalROI(12, 4, Math.PI/6, 3, 3), 0.25, true);
+	}
+
+	@Test
+	public void testRotatedRectangle() throws Exception {
+		checkRaster(new RectangularROI(0, 0, 10, 4, Math.PI/5), 0.2, false);
+	}
+
+	@Test
+	public void testDiamond() throws Exception {
+		checkRaster(createStar(4, 5, 5, 0, 0), 0.5, true); // Vertices on the grid
+	}
+
+	@Test
+	public void testStar() throws Exception {
+		checkRaster(createStar(37, 20, 6, 1.3, 0.2), 0.3, false);
+		checkRaster(createStar(37, 20, 6, 1.3, 0.2), 0.3, true);
+	}
+
+	@Test
+	public void testGridStar() throws Exception {
+
+		GridModel model = new GridModel();
+		model.setRows(97);
+		model.setColumns(113);
+		model.setSnake(true);
+		IROI roi = createStar(11, 10, 3, 0, 0);
+
+		IPointGenerator<GridModel,Point> gen = service.createGenerator(model, roi);
+		BoundingBox box = model.getBoundingBox();
+		double xStep = box.getWidth()/model.getColumns();
+		double yStep = box.getHeight()/model.getRows();
+		List<Point> expected = bruteForce(roi, box.getxStart()+xStep/2, box.getyStart()+yStep/2, xStep, yStep, model.getColumns(), model.getRows(), true);
+		check(expected, gen);
+	}
+
+	@Test
+	public void testTwoRegions() throws Exception {
+
+		RasterModel model = new RasterModel();
+		model.setxStep(0.5);
+		model.setyStep(0.5);
+		IROI outer = new RectangularROI(-10, -10, 20, 20, 0);
+		IROI one   = new CircularROI(4, -3, -3);
+		IROI two   = createStar(5, 6, 2, 3, 3);
+
+		// The outer region sets the bounding box
+		IPointGenerator<RasterModel,Point> gen = service.createGenerator(model, outer);
+		gen.setContainers(service.createGenerator(new RasterModel(), one, two).getContainers());
+
+		BoundingBox box = model.getBoundingBox();
+		int columns = (int)Math.floor(box.getWidth()/0.5+1);
+		int rows    = (int)Math.floor(box.getHeight()/0.5+1);
+		List<Point> expected = bruteForce(new IROI[]{one, two}, box.getxStart(), box.getyStart(), 0.5, 0.5, columns, rows, false);
+		check(expected, gen);
+	}
+
+	@Test
+	public void testRegionChanged() throws Exception {
+
+		RasterModel model = new RasterModel();
+		model.setxStep(1);
+		model.setyStep(1);
+		CircularROI roi = new CircularROI(10, 0, 0);
+		IPointGenerator<RasterModel,Point> gen = service.createGenerator(model, roi);
+		assertEquals(bruteForce(roi, -10, -10, 1, 1, 21, 21, false).size(), gen.size());
+
+		roi.setRadius(5); // The bounding box of the model does not change
+		check(bruteForce(roi, -10, -10, 1, 1, 21, 21, false), gen);
+	}
+
+	private void checkRaster(IROI roi, double step, boolean snake) throws Exception {
+
+		RasterModel model = new RasterModel();
+		model.setxStep(step);
+		model.setyStep(step);
+		model.setSnake(snake);
+
+		IPointGenerator<RasterModel,Point> gen = service.createGenerator(model, roi);
+		BoundingBox box = model.getBoundingBox();
+		int columns = (int)Math.floor(box.getWidth()/step+1);
+		int rows    = (int)Math.floor(box.getHeight()/step+1);
+		List<Point> expected = bruteForce(roi, box.getxStart(), box.getyStart(), step, step, columns, rows, snake);
+		check(expected, gen);
+	}
+
+	private static void check(List<Point> expected, IPointGenerator<?,Point> gen) throws Exception {
+		assertEquals(expected.size(), gen.size());
+		List<Point> actual = new ArrayList<>(expected.size());
+		Iterator<Point> it = gen.iterator();
+		while(it.hasNext()) actual.add(it.next());
+		assertEquals(expected, actual);
+		GeneratorUtil.testGeneratorPoints(gen);
+	}
+
+	private static List<Point> bruteForce(IROI roi, double minX, double minY, double xStep, double yStep, int columns, int rows, boolean snake) {
+		return bruteForce(new IROI[]{roi}, minX, minY, xStep, yStep, columns, rows, snake);
+	}
+
+	private static List<Point> bruteForce(IROI[] rois, double minX, double minY, double xStep, double yStep, int columns, int rows, boolean snake) {
+		final List<Point> ret = new ArrayList<>();
+		for (int yIndex = 0; yIndex < rows; yIndex++) {
+			boolean forwards = !snake || yIndex%2==0;
+			for (int i = 0; i < columns; i++) {
+				int xIndex = forwards ? i : columns-1-i;
+				double x = minX + xIndex * xStep;
+				double y = minY + yIndex * yStep;
+				for (IROI roi : rois) {
+					if (roi.containsPoint(x, y)) {
+						ret.add(new Point("x", xIndex, x, "y", yIndex, y));
+						break;
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * A star shaped polygon, which is not convex.
+	 */
+	static PolygonalROI createStar(int arms, double outer, double inner, double xCentre, double yCentre) {
+		PolygonalROI star = null;
+		for (int i = 0; i < arms*2; i++) {
+			double radius = i%2==0 ? outer : inner;
+			double angle  = Math.PI*i/arms;
+			double[] pt   = new double[]{xCentre+radius*Math.cos(angle), yCentre+radius*Math.sin(angle)};
+			if (star==null) {
+				star = new PolygonalROI(pt);
+			} else {
+				star.insertPoint(pt);
+			}
+		}
+		return star;
+	}
+}
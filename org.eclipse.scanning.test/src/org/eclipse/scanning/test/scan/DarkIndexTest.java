@@ -0,0 +1,51 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.dawnsci.analysis.dataset.impl.IntegerDataset;
+import org.eclipse.scanning.example.detector.DarkIndex;
+import org.junit.Test;
+
+public class DarkIndexTest {
+
+	@Test
+	public void testSetAndGet() throws Exception {
+
+		DarkIndex index = new DarkIndex(2);
+		for (int step = 0; step < 100; step++) index.set(step, step/10);
+
+		assertEquals(100, index.size());
+		assertEquals(0, index.getDark(0));
+		assertEquals(0, index.getDark(9));
+		assertEquals(1, index.getDark(10));
+		assertEquals(9, index.getDark(99));
+		assertEquals(DarkIndex.NONE, index.getDark(100));
+		assertEquals(DarkIndex.NONE, index.getDark(-1));
+	}
+
+	@Test
+	public void testGap() throws Exception {
+
+		DarkIndex index = new DarkIndex();
+		index.set(5, 3); // For instance a resumed scan
+		assertEquals(6, index.size());
+		assertEquals(DarkIndex.NONE, index.getDark(0));
+		assertEquals(DarkIndex.NONE, index.getDark(4));
+		assertEquals(3, index.getDark(5));
+
+		index.clear();
+		assertEquals(0, index.size());
+		assertEquals(DarkIndex.NONE, index.getDark(5));
+	}
+
+	@Test
+	public void testReadDataset() throws Exception {
+
+		IntegerDataset data = new IntegerDataset(new int[]{-1, 0, 0, 1, 1, 2}, 6);
+		DarkIndex index = new DarkIndex(data);
+		assertEquals(6, index.size());
+		assertEquals(DarkIndex.NONE, index.getDark(0));
+		assertEquals(1, index.getDark(4));
+		assertEquals(2, index.getDark(5));
+	}
+}
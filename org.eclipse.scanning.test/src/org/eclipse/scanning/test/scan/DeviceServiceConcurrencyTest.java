@@ -0,0 +1,161 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
+import org.eclipse.scanning.api.malcolm.IMalcolmService;
+import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
+import org.eclipse.scanning.api.malcolm.models.MalcolmRequest;
+import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.sequencer.DeviceServiceImpl;
+import org.eclipse.scanning.test.malcolm.device.MockedMalcolmService;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockScannableConnector;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Devices created by several consumers at once.
+ *
+ * @author Matthew Gerring
+ *
+ */
+public class DeviceServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+
+	private DeviceServiceImpl sservice;
+	private IMalcolmService   original;
+	private ExecutorService   executor;
+
+	@Before
+	public void setup() throws Exception {
+		sservice = new DeviceServiceImpl(new MockScannableConnector());
+		sservice._register(MockDetectorModel.class, MockWritableDetector.class);
+		original = DeviceServiceImpl.getMalcolmService();
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void dispose() throws Exception {
+		executor.shutdownNow();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+		DeviceServiceImpl.setMalcolmService(original);
+	}
+
+	@Test
+	public void testCreateDevicesConcurrently() throws Exception {
+
+		final List<Future<IRunnableDevice<MockDetectorModel>>> devices = submit(new Callable<IRunnableDevice<MockDetectorModel>>() {
+			@Override
+			public IRunnableDevice<MockDetectorModel> call() throws Exception {
+				return sservice.createRunnableDevice(new MockDetectorModel(0.1));
+			}
+		});
+		for (Future<IRunnableDevice<MockDetectorModel>> device : devices) assertNotNull(device.get(10, TimeUnit.SECONDS));
+		assertEquals(THREADS, sservice.getDevicesCreated());
+	}
+
+	@Test
+	public void testOneConnectionPerMalcolm() throws Exception {
+
+		final AtomicInteger connects = new AtomicInteger();
+		DeviceServiceImpl.setMalcolmService(new MockedMalcolmService() {
+			@Override
+			public synchronized IMalcolmConnection createConnection(URI uri) throws URISyntaxException, MalcolmDeviceException {
+				connects.incrementAndGet();
+				try {
+					Thread.sleep(200); // A slow connection, the others must wait for it.
+				} catch (InterruptedException e) {
+					throw new MalcolmDeviceException("Interrupted connecting");
+				}
+				return super.createConnection(uri);
+			}
+		});
+
+		final List<Future<Object>> created = submit(new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				final MalcolmRequest<Map<String, Object>> req = new MalcolmRequest<Map<String, Object>>();
+				req.setDeviceName("zebra");
+				req.setHostName("singleflight");
+				req.setPort(-1);
+				req.setDeviceModel(new HashMap<String, Object>(1));
+				try {
+					return sservice.createRunnableDevice(req);
+				} catch (Exception ne) {
+					return ne; // The mock device may not configure with an empty model, we only count connections.
+				}
+			}
+		});
+		for (Future<Object> result : created) result.get(10, TimeUnit.SECONDS);
+
+		assertEquals(1, connects.get());
+		assertEquals(1, sservice.getConnectionsMade());
+		assertEquals(THREADS-1, sservice.getConnectionsShared());
+		assertEquals(0, sservice.getConnectionsFailed());
+	}
+
+	@Test
+	public void testFailedConnectionIsRetried() throws Exception {
+
+		final AtomicInteger connects = new AtomicInteger();
+		DeviceServiceImpl.setMalcolmService(new MockedMalcolmService() {
+			@Override
+			public IMalcolmConnection createConnection(URI uri) throws URISyntaxException, MalcolmDeviceException {
+				if (connects.incrementAndGet()==1) throw new MalcolmDeviceException("Malcolm is not there yet");
+				return super.createConnection(uri);
+			}
+		});
+
+		final MalcolmRequest<Map<String, Object>> req = new MalcolmRequest<Map<String, Object>>();
+		req.setDeviceName("zebra");
+		req.setHostName("retry");
+		req.setPort(-1);
+		req.setDeviceModel(new HashMap<String, Object>(1));
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				sservice.createRunnableDevice(req);
+			} catch (Exception expected) {
+				// First the connection fails, then the mock device may not configure.
+			}
+		}
+		assertEquals(2, connects.get());
+		assertEquals(1, sservice.getConnectionsFailed());
+		assertEquals(2, sservice.getConnectionsMade());
+	}
+
+	private <T> List<Future<T>> submit(final Callable<T> task) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Future<T>> ret = new ArrayList<Future<T>>(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			ret.add(executor.submit(new Callable<T>() {
+				@Override
+				public T call() throws Exception {
+					start.await();
+					return task.call();
+				}
+			}));
+		}
+		start.countDown();
+		return ret;
+	}
+}
@@ -0,0 +1,140 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.scanning.api.ExecutorProviders;
+import org.eclipse.scanning.api.IExecutorProvider;
+import org.eclipse.scanning.api.IScannable;
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.IDeviceConnectorService;
+import org.eclipse.scanning.api.scan.IDeviceService;
+import org.eclipse.scanning.api.scan.event.IPositioner;
+import org.eclipse.scanning.sequencer.DeviceServiceImpl;
+import org.eclipse.scanning.test.scan.mock.MockScannableConnector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Moves 1000 scannables which block, at one level, with platform
+ * threads and then with virtual threads if the JVM has them, and 
+ * reports the threads used and the moves per second.
+ */
+public class ExecutorProviderTestLarge {
+
+	private static final int SCANNABLES = 1000;
+	private static final int MOVES      = 5;
+
+	private IDeviceService          sservice;
+	private IDeviceConnectorService connector;
+
+	@Before
+	public void setup() throws Exception {
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		connector = new MockScannableConnector();
+		sservice  = new DeviceServiceImpl(connector);
+	}
+
+	@After
+	public void dispose() {
+		ExecutorProviders.setProvider(null);
+	}
+
+	@Test
+	public void testPlatformProvider() throws Exception {
+		IExecutorProvider provider = ExecutorProviders.createPlatformProvider();
+		assertFalse(provider.isVirtual());
+		checkProvider(provider);
+	}
+
+	@Test
+	public void testVirtualProvider() throws Exception {
+		IExecutorProvider provider = ExecutorProviders.createVirtualProvider();
+		assertEquals(ExecutorProviders.isVirtualAvailable(), provider.isVirtual());
+		if (!provider.isVirtual()) System.out.println("Virtual threads are not available in Java "+System.getProperty("java.version")+", using platform threads.");
+		checkProvider(provider);
+	}
+
+	@Test
+	public void testSelectedByProperty() throws Exception {
+		try {
+			System.setProperty("org.eclipse.scanning.executor", ExecutorProviders.VIRTUAL);
+			ExecutorProviders.setProvider(null);
+			assertEquals(ExecutorProviders.isVirtualAvailable(), ExecutorProviders.getProvider().isVirtual());
+		} finally {
+			System.clearProperty("org.eclipse.scanning.executor");
+			ExecutorProviders.setProvider(null);
+		}
+		assertFalse(ExecutorProviders.getProvider().isVirtual());
+	}
+
+	@Test
+	public void testNewThread() throws Exception {
+		for (IExecutorProvider provider : new IExecutorProvider[]{ExecutorProviders.createPlatformProvider(), ExecutorProviders.createVirtualProvider()}) {
+			final String[] name = new String[1];
+			Thread thread = provider.newThread("Test Thread", true, new Runnable() {
+				@Override
+				public void run() {
+					name[0] = Thread.currentThread().getName();
+				}
+			});
+			thread.start();
+			thread.join();
+			assertEquals("Test Thread", name[0]);
+
+			ExecutorService exec = provider.newExecutor("Test Executor", 2);
+			try {
+				assertTrue(exec.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return Thread.currentThread().getName();
+					}
+				}).get().startsWith("Test Executor"));
+			} finally {
+				exec.shutdown();
+			}
+		}
+	}
+
+	private void checkProvider(IExecutorProvider provider) throws Exception {
+
+		ExecutorProviders.setProvider(provider);
+
+		// The mock scannables sleep for 1ms when moved by less than 0.5
+		final MapPosition pos = new MapPosition();
+		for (int i = 0; i < SCANNABLES; i++) {
+			String name = "blocking"+i;
+			IScannable<?> motor = connector.getScannable(name);
+			motor.setLevel(1);
+			pos.put(name, 0d);
+		}
+
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		final int before = threads.getThreadCount();
+		threads.resetPeakThreadCount();
+
+		IPositioner positioner = sservice.createPositioner();
+		long start = System.nanoTime();
+		for (int i = 0; i < MOVES; i++) {
+			for (String name : pos.getNames()) pos.put(name, (i+1)*0.1);
+			positioner.setPosition(pos);
+		}
+		long time = System.nanoTime()-start;
+
+		for (int i = 0; i < SCANNABLES; i++) {
+			assertEquals(MOVES*0.1, ((Number)connector.getScannable("blocking"+i).getPosition()).doubleValue(), 0.0001);
+		}
+
+		final double rate = (double)SCANNABLES*MOVES/(time/1000000000d);
+		System.out.println((provider.isVirtual() ? "Virtual" : "Platform")+" threads: "+MOVES+" moves of "+SCANNABLES+" blocking scannables took "+(time/1000000)+"ms, "+Math.round(rate)+" scannable moves per second");
+		System.out.println("Platform threads before "+before+", peak "+threads.getPeakThreadCount());
+	}
+}
@@ -0,0 +1,76 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.scanning.api.scan.FramePool;
+import org.junit.Test;
+
+public class FramePoolTest {
+
+	@Test
+	public void testBorrowAndRelease() throws Exception {
+
+		FramePool pool = new FramePool(1024*1024);
+		double[] frame = pool.borrowDoubles(16, 8);
+		assertEquals(128, frame.length);
+		assertEquals(1, pool.getAllocated());
+
+		assertTrue(pool.release(frame));
+		assertEquals(128*8, pool.getHeld());
+
+		assertSame(frame, pool.borrowDoubles(8, 16)); // Same number of elements
+		assertEquals(1, pool.getReused());
+		assertEquals(0, pool.getHeld());
+	}
+
+	@Test
+	public void testDifferentSizes() throws Exception {
+
+		FramePool pool = new FramePool(1024*1024);
+		double[] small = pool.borrowDoubles(10);
+		pool.release(small);
+
+		double[] large = pool.borrowDoubles(100);
+		assertNotSame(small, large);
+		assertEquals(100, large.length);
+		assertEquals(2, pool.getAllocated());
+	}
+
+	@Test
+	public void testMaximum() throws Exception {
+
+		FramePool pool = new FramePool(8*100);
+		double[] one = pool.borrowDoubles(100);
+		double[] two = pool.borrowDoubles(100);
+
+		assertTrue(pool.release(one));
+		assertFalse(pool.release(two)); // Full
+		assertEquals(8*100, pool.getHeld());
+
+		pool.clear();
+		assertEquals(0, pool.getHeld());
+		assertFalse(new FramePool(0).release(new double[1]));
+	}
+
+	@Test
+	public void testSteadyState() throws Exception {
+
+		FramePool pool = new FramePool(1024*1024);
+		for (int i = 0; i < 100; i++) {
+			double[] frame = pool.borrowDoubles(64, 64);
+			frame[0] = i;
+			pool.release(frame);
+		}
+		assertEquals(1,  pool.getAllocated());
+		assertEquals(99, pool.getReused());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeShape() throws Exception {
+		new FramePool(1024).borrowDoubles(10, -1);
+	}
+}
@@ -0,0 +1,58 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.scanning.example.detector.JuliaSetRenderer;
+import org.junit.Test;
+
+public class JuliaSetRendererTest {
+
+	@Test
+	public void testParallelSameAsLines() throws Exception {
+
+		final JuliaSetRenderer renderer = new JuliaSetRenderer(100, 10.0);
+		final int    columns = 301, rows = 241;
+		final double maxX = 1.5, maxY = 1.2;
+
+		double[] frame = new double[rows*columns];
+		renderer.render(-0.4, 0.6, maxX, maxY, columns, rows, frame);
+
+		double[] lines = new double[rows*columns];
+		final double yStep = 2*maxY/(rows-1);
+		for (int y = 0; y < rows; y++) {
+			renderer.renderLine(-0.4, 0.6, -maxY+y*yStep, -maxX, maxX, columns, lines, y*columns);
+		}
+		assertArrayEquals(lines, frame, 0);
+	}
+
+	@Test
+	public void testSmallFrame() throws Exception {
+		final JuliaSetRenderer renderer = new JuliaSetRenderer(100, 10.0);
+		double[] frame = new double[4*3];
+		renderer.render(0, 0, 1, 1, 3, 4, frame);
+		assertEquals(100, frame[4], 0); // 0-i/3 is in the set
+	}
+
+	@Test
+	public void testJulia() throws Exception {
+
+		final JuliaSetRenderer renderer = new JuliaSetRenderer(500, 10.0);
+		assertEquals(500, renderer.julia(0, 0, 0, 0), 0);   // In the set
+		assertEquals(500, renderer.julia(0, 0, -1, 0), 0);  // Period two
+
+		// Escapes after two iterations at z = 420, normalised with the modulus
+		double value = renderer.julia(0, 0, 20, 0);
+		assertEquals(2-Math.log(Math.log(420))/Math.log(2), value, 1e-12);
+	}
+
+	@Test
+	public void testIsFor() throws Exception {
+		final JuliaSetRenderer renderer = new JuliaSetRenderer(500, 10.0);
+		assertTrue(renderer.isFor(500, 10.0));
+		assertFalse(renderer.isFor(501, 10.0));
+		assertFalse(renderer.isFor(500, 2.0));
+	}
+}
@@ -0,0 +1,121 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import org.eclipse.scanning.api.points.MapPosition;
+import org.eclipse.scanning.api.scan.FramePool;
+import org.eclipse.scanning.example.detector.MandelbrotDetector;
+import org.eclipse.scanning.example.detector.MandelbrotModel;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs and writes the Mandelbrot detector at 512x512 and reports the time
+ * and memory allocated per frame. The frames come from the frame pool and 
+ * go back to it when written, so once it is running a frame should allocate 
+ * far less than its size.
+ */
+public class MandelbrotDetectorTestLarge {
+
+	private static final int SIZE   = 512;
+	private static final int FRAMES = 200;
+	private static final int ROUNDS = 5;
+
+	private MandelbrotDetector detector;
+
+	@Before
+	public void setup() throws Exception {
+
+		MandelbrotModel model = new MandelbrotModel();
+		model.setName("mandelbrot");
+		model.setColumns(SIZE);
+		model.setRows(SIZE);
+		model.setMaxIterations(20); // So that the time is not all calculation
+		model.setExposure(0);
+
+		detector = new MandelbrotDetector();
+		detector.configure(model);
+	}
+
+	@Test
+	public void testFrameAllocation() throws Exception {
+
+		run(20); // Warm up
+
+		final long reusedBefore = FramePool.getDefault().getReused();
+		final long gcBefore     = getCollections();
+		final long allocBefore  = getAllocatedBytes();
+		final long start        = System.nanoTime();
+		run(FRAMES);
+		final long time         = System.nanoTime()-start;
+		final long alloc        = getAllocatedBytes()-allocBefore;
+		final long gc           = getCollections()-gcBefore;
+		final long reused       = FramePool.getDefault().getReused()-reusedBefore;
+
+		final long frameBytes = 8L*SIZE*SIZE;
+		System.out.println("Mandelbrot detector "+SIZE+"x"+SIZE+" took "+(time/FRAMES/1000)+"us per frame");
+		System.out.println("Allocated "+(alloc/FRAMES)+" bytes per frame of "+frameBytes+" bytes, "+gc+" garbage collections");
+
+		// Each frame is written and given back, so every frame after the warm up is reused.
+		assertTrue("Only "+reused+" of "+FRAMES+" frames were reused from the pool", reused>=FRAMES);
+		if (allocBefore>=0) assertTrue("Each frame allocated "+(alloc/FRAMES)+" bytes", alloc/FRAMES < frameBytes/10);
+	}
+
+	@Test
+	public void testFrameRate() throws Exception {
+
+		run(5); // Warm up
+		detector.getModel().setFrameRate(50);
+		try {
+			run(1); // The first frame starts the clock
+			
+			// A busy machine may only slow a round down, so the fastest round is checked.
+			double rate = 0;
+			for (int i = 0; i < ROUNDS; i++) {
+				final long start = System.nanoTime();
+				run(25);
+				rate = Math.max(rate, 25/((System.nanoTime()-start)/1000000000d));
+			}
+			System.out.println("Mandelbrot detector "+SIZE+"x"+SIZE+" ran at up to "+Math.round(rate)+"Hz for a frame rate of 50Hz");
+			assertTrue("The rate was "+rate+"Hz, it should not be faster than the frame rate", rate<=52);
+			assertTrue("The rate was "+rate+"Hz, it should be close to the frame rate", rate>40);
+		} finally {
+			detector.getModel().setFrameRate(0);
+		}
+	}
+
+	private void run(int frames) throws Exception {
+		MapPosition pos = new MapPosition();
+		for (int i = 0; i < frames; i++) {
+			pos.put("x", -1.0+i*0.01);
+			pos.put("y", 0.25);
+			detector.run(pos);
+			detector.write(pos); // No NeXus file, the frame goes back to the pool
+		}
+	}
+
+	private static long getCollections() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) count+=Math.max(0, bean.getCollectionCount());
+		return count;
+	}
+
+	/**
+	 * The allocation counter is only on the HotSpot bean, if we cannot
+	 * read it return -1 and the check is not done.
+	 */
+	private static long getAllocatedBytes() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+			return (Long)method.invoke(bean, Thread.currentThread().getId());
+		} catch (Exception ne) {
+			return -1;
+		}
+	}
+}
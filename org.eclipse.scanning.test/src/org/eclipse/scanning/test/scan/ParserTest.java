@@ -5,11 +5,19 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.eclipse.scanning.api.points.models.StepModel;
 import org.eclipse.scanning.api.scan.IParser;
 import org.eclipse.scanning.api.scan.IParserService;
+import org.eclipse.scanning.api.scan.ParsingException;
 import org.eclipse.scanning.command.ParserServiceImpl;
 import org.junit.Before;
 import org.junit.Test;
@@ -53,4 +61,101 @@ public class ParserTest {
 		assertThat((Double) parser.getExposures().get("detector"), closeTo(0.1, PRECISION));
 	}
 
+	@Test
+	public void testMultipleScannablesAndDetectors() throws Exception {
+		final IParser<?> parser = parserService.createParser("scan x 0 10 0.5 y -1.5 +2e1 .25 det1 0.1 det_2 1E-3");
+		assertThat(parser.getScannableNames(), contains("x", "y"));
+		assertStepModel((StepModel) parser.getModel("y"), "y", -1.5, 20, 0.25);
+		assertThat(parser.getDetectorNames(), contains("det1", "det_2"));
+		assertThat((Double) parser.getExposures().get("det_2"), closeTo(0.001, PRECISION));
+	}
+
+	@Test
+	public void testWhitespace() throws Exception {
+		final IParser<?> parser = parserService.createParser("  scan\tx  0 10\t0.5   detector 0.1 ");
+		assertThat(parser.getScannableNames(), contains("x"));
+		assertStepModel((StepModel) parser.getModel("x"), "x", 0, 10, 0.5);
+		assertThat(parser.getDetectorNames(), contains("detector"));
+	}
+
+	@Test
+	public void testErrorPositions() {
+		assertError("scan x 0 10 detector 0.1", 5);   // x has two arguments
+		assertError("scan x 0 1O 0.5 detector 0.1", 9);  // letter O not zero
+		assertError("scan x 0 10 0.5", 15);           // no detector
+		assertError("scan detector 0.1", 5);          // no scannable
+		assertError("scan x 0 10 0.5 det 0.1 y 0 1 1", 24); // scannable after a detector
+		assertError("scan x 0 10 0.5 det 1.", 20);    // digits must follow the point
+		assertError("scan x 0 10 0.5 det 1e", 22);    // no exponent
+		assertError("scan x! 0 10 0.5 det 0.1", 6);
+		assertError("", 0);
+	}
+
+	private void assertError(String scan, int offset) {
+		try {
+			parserService.createParser(scan);
+			fail("'"+scan+"' should not parse");
+		} catch (ParsingException expected) {
+			assertEquals(expected.getMessage(), offset, expected.getOffset());
+			assertEquals(-1, expected.getIndex());
+		}
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		final List<String> scans = Arrays.asList("scan x 0 10 0.5 detector 0.1", "scan y 0 1 0.1 z 0 2 1 det 1");
+		final List<IParser<StepModel>> parsers = parserService.createParsers(scans);
+		assertEquals(2, parsers.size());
+		assertThat(parsers.get(0).getCommand(), is(equalTo(scans.get(0))));
+		assertThat(parsers.get(1).getScannableNames(), contains("y", "z"));
+		assertStepModel(parsers.get(1).getModel("z"), "z", 0, 2, 1);
+	}
+
+	@Test
+	public void testBatchError() throws Exception {
+		try {
+			parserService.createParsers(Arrays.asList("scan x 0 10 0.5 detector 0.1", "scan x 0 10 0.5 detector 0.1", "scan x 0 10 0.5 detector"));
+			fail("The third command should not parse");
+		} catch (ParsingException expected) {
+			assertEquals(2, expected.getIndex());
+			assertEquals(16, expected.getOffset());
+		}
+	}
+
+	/**
+	 * The numbers are worked out by hand, they must be the same as those parsed by the JDK.
+	 */
+	@Test
+	public void testSameAsRegex() throws Exception {
+
+		final IParserService regex = new RegexParserService();
+		final Random random = new Random(42);
+		final List<String> scans = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			scans.add("scan x "+number(random)+" "+number(random)+" "+number(random)+" det "+number(random));
+		}
+		scans.add("scan x 12345678901234567890 0.000000000000000000000000001 1e300 det 9007199254740993");
+
+		final List<IParser<StepModel>> expected = regex.createParsers(scans);
+		final List<IParser<StepModel>> actual   = parserService.createParsers(scans);
+		for (int i = 0; i < scans.size(); i++) {
+			final StepModel e = expected.get(i).getModel("x");
+			final StepModel a = actual.get(i).getModel("x");
+			final String    s = scans.get(i);
+			assertEquals(s, Double.doubleToLongBits(e.getStart()), Double.doubleToLongBits(a.getStart()));
+			assertEquals(s, Double.doubleToLongBits(e.getStop()),  Double.doubleToLongBits(a.getStop()));
+			assertEquals(s, Double.doubleToLongBits(e.getStep()),  Double.doubleToLongBits(a.getStep()));
+			assertEquals(s, expected.get(i).getExposures(), actual.get(i).getExposures());
+		}
+	}
+
+	private static String number(Random random) {
+		switch (random.nextInt(4)) {
+		case 0:  return String.valueOf(random.nextInt(2000)-1000);
+		case 1:  return String.valueOf((random.nextInt(2000000)-1000000)/1000d);
+		case 2:  return String.valueOf(random.nextDouble()*Math.pow(10, random.nextInt(40)-20)).toUpperCase();
+		default: return "."+random.nextInt(100000);
+		}
+	}
+
 }
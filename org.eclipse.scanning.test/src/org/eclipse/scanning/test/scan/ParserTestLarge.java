@@ -0,0 +1,84 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.scanning.api.scan.IParser;
+import org.eclipse.scanning.api.scan.IParserService;
+import org.eclipse.scanning.command.ParserServiceImpl;
+import org.junit.Test;
+
+/**
+ * Parses a batch of generated scan commands, as a script does, with the
+ * regular expression parser the service used to have and with the hand
+ * written parser, and reports the commands per second of each.
+ *
+ * The fastest of several rounds is taken for each so that the JIT has
+ * compiled both parsers. Both make the models of the scannables when
+ * they are asked for, so only the parsing is timed, and the models are
+ * checked to be the same afterwards.
+ */
+public class ParserTestLarge {
+
+	private static final int COMMANDS = 20000;
+	private static final int ROUNDS   = 20;
+
+	@Test
+	public void testBatchSpeed() throws Exception {
+
+		final List<String> scans = createCommands();
+		final IParserService regex = new RegexParserService();
+		final IParserService hand  = new ParserServiceImpl();
+
+		final long regexTime = time(regex, scans);
+		final long handTime  = time(hand, scans);
+
+		final List<IParser<Object>> expected = regex.createParsers(scans);
+		final List<IParser<Object>> actual   = hand.createParsers(scans);
+		for (int i = 0; i < scans.size(); i++) {
+			assertEquals(expected.get(i).getScannableNames(), actual.get(i).getScannableNames());
+			for (String name : expected.get(i).getScannableNames()) {
+				assertEquals(expected.get(i).getModel(name), actual.get(i).getModel(name));
+			}
+			assertEquals(expected.get(i).getExposures(), actual.get(i).getExposures());
+		}
+
+		final double speedup = regexTime/(double)handTime;
+		System.out.println("Regex parser "+perSecond(regexTime)+" commands/s, hand written parser "+perSecond(handTime)+" commands/s, "+speedup+" times faster");
+		assertTrue("The hand written parser is only "+speedup+" times faster", speedup>=10);
+	}
+
+	private static long time(IParserService service, List<String> scans) throws Exception {
+		long fastest = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			final long start = System.nanoTime();
+			final List<IParser<Object>> parsers = service.createParsers(scans);
+			fastest = Math.min(fastest, System.nanoTime()-start);
+			assertEquals(scans.size(), parsers.size());
+		}
+		return fastest;
+	}
+
+	private static long perSecond(long nanos) {
+		return Math.round(COMMANDS/(nanos/1e9));
+	}
+
+	private static List<String> createCommands() {
+		final Random random = new Random(42);
+		final List<String> scans = new ArrayList<>(COMMANDS);
+		for (int i = 0; i < COMMANDS; i++) {
+			scans.add("scan x "+number(random)+" "+number(random)+" "+number(random)
+					+ " y "+number(random)+" "+number(random)+" "+number(random)
+					+ " mandelbrot "+number(random)+" pe "+number(random));
+		}
+		return scans;
+	}
+
+	private static String number(Random random) {
+		return random.nextBoolean() ? String.valueOf(random.nextInt(200)-100) : String.valueOf(random.nextInt(100000)/1000d);
+	}
+}
@@ -0,0 +1,175 @@
+package org.eclipse.scanning.test.scan;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.scanning.api.points.models.StepModel;
+import org.eclipse.scanning.api.scan.IParser;
+import org.eclipse.scanning.api.scan.IParserService;
+import org.eclipse.scanning.api.scan.ParsingException;
+
+/**
+ * The parser service as it was when scan commands were matched with one regular
+ * expression. Kept to check that the hand written parser gives the same result
+ * and to time the two.
+ *
+ * DO NOT USE THIS IN NON-TEST CODE!
+ */
+class RegexParserService implements IParserService {
+
+	private static final String IDENTIFIER_REGEX = "[a-zA-Z][a-zA-Z0-9_]*";
+
+	private static final String DOUBLE_REGEX = "[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?";
+
+	private static final String GROUP_NAME_SCANNABLES = "scannables";
+
+	private static final String GROUP_NAME_DETECTORS = "detectors";
+
+	private final Pattern scanCommandPattern;
+
+	private final Pattern scannablePattern;
+
+	private final Pattern detectorsPattern;
+
+	RegexParserService() {
+		final String scannableRegex = IDENTIFIER_REGEX + "( " + DOUBLE_REGEX + "){3}";
+		scannablePattern = Pattern.compile(scannableRegex);
+		final String scannableGroups = "( " + scannableRegex + ")+";
+		final String allScannablesGroup = asNamedGroup(GROUP_NAME_SCANNABLES, scannableGroups);
+
+		final String detectorRegex = IDENTIFIER_REGEX + " " + DOUBLE_REGEX;
+		detectorsPattern = Pattern.compile(detectorRegex);
+		final String detectorGroups = "( " + detectorRegex + ")+";
+		final String allDetectorsGroup = asNamedGroup(GROUP_NAME_DETECTORS, detectorGroups);
+
+		final StringBuilder commandRegexBuilder = new StringBuilder();
+		commandRegexBuilder.append("\\A");
+		commandRegexBuilder.append(IDENTIFIER_REGEX);
+		commandRegexBuilder.append(allScannablesGroup);
+		commandRegexBuilder.append(allDetectorsGroup);
+		commandRegexBuilder.append("\\z");
+		scanCommandPattern = Pattern.compile(commandRegexBuilder.toString());
+	}
+
+	private static String asNamedGroup(String groupName, String groupRegex) {
+		return "(?<" + groupName + ">" + groupRegex + ")";
+	}
+
+	private LinkedHashMap<String, double[]> parseScannables(final String scannablesString) throws ParsingException {
+		final LinkedHashMap<String, double[]> scannables = new LinkedHashMap<>();
+
+		final Matcher scannableMatcher = scannablePattern.matcher(scannablesString);
+		while (scannableMatcher.find()) {
+			final String[] strs = scannableMatcher.group().split(" ");
+			final String scannableName = strs[0];
+			if (strs.length != 4) {
+				throw new ParsingException("Scannable must have exacty 3 arguments: " + scannableName);
+			}
+			scannables.put(scannableName, getNumericArgs(strs, "scannable"));
+		}
+		return scannables;
+	}
+
+	private LinkedHashMap<String, Number> parseDetectors(final String detectorsString) throws ParsingException {
+		final LinkedHashMap<String, Number> detectors = new LinkedHashMap<>();
+
+		final Matcher detectorMatcher = detectorsPattern.matcher(detectorsString);
+		while (detectorMatcher.find()) {
+			final String[] strs = detectorMatcher.group().split(" ");
+			final String detectorName = strs[0];
+			if (strs.length != 2) {
+				throw new ParsingException("Detector must have exacty 1 argument: " + detectorName);
+			}
+			detectors.put(detectorName, getNumericArgs(strs, "detector")[0]);
+		}
+		return detectors;
+	}
+
+	private double[] getNumericArgs(String[] command, String deviceType) throws ParsingException {
+		final double[] numericArgs = new double[command.length - 1];
+		for (int i = 1; i < command.length; i++) {
+			try {
+				numericArgs[i - 1] = Double.parseDouble(command[i]);
+			} catch (final NumberFormatException e) {
+				throw new ParsingException(MessageFormat.format("Error parsing argument {0} of {1} ''{2}''", i, deviceType, command[0]));
+			}
+		}
+		return numericArgs;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> IParser<T> createParser(String scan) throws ParsingException {
+
+		final Matcher scanCommandMatcher = scanCommandPattern.matcher(scan);
+		if (!scanCommandMatcher.find()) throw new ParsingException("Invalid scan command: " + scan);
+
+		final LinkedHashMap<String, double[]>  scannables = parseScannables(scanCommandMatcher.group(GROUP_NAME_SCANNABLES));
+		final LinkedHashMap<String, Number>    detectors  = parseDetectors(scanCommandMatcher.group(GROUP_NAME_DETECTORS));
+		return (IParser<T>) new RegexParser(scan, scannables, detectors);
+	}
+
+	@Override
+	public <T> List<IParser<T>> createParsers(List<String> scans) throws ParsingException {
+		final List<IParser<T>> ret = new ArrayList<>(scans.size());
+		for (String scan : scans) ret.add(this.<T>createParser(scan));
+		return ret;
+	}
+
+	/**
+	 * Makes the models when they are asked for, as the hand written parser does,
+	 * so that timing the two compares the parsing alone.
+	 */
+	private static class RegexParser implements IParser<StepModel> {
+
+		private final String                  command;
+		private final Map<String, double[]>   scannables;
+		private final Map<String, Number>     detectors;
+		private final Map<String, StepModel>  models;
+
+		RegexParser(String command, Map<String, double[]> scannables, Map<String, Number> detectors) {
+			this.command    = command;
+			this.scannables = scannables;
+			this.detectors  = detectors;
+			this.models     = new HashMap<>(scannables.size());
+		}
+
+		@Override
+		public String getCommand() {
+			return command;
+		}
+
+		@Override
+		public List<String> getScannableNames() {
+			return new ArrayList<String>(scannables.keySet());
+		}
+
+		@Override
+		public List<String> getDetectorNames() {
+			return new ArrayList<String>(detectors.keySet());
+		}
+
+		@Override
+		public Map<String, Number> getExposures() {
+			return detectors;
+		}
+
+		@Override
+		public synchronized StepModel getModel(String scannableName) {
+			StepModel model = models.get(scannableName);
+			if (model==null) {
+				final double[] args = scannables.get(scannableName);
+				if (args==null) return null;
+				model = new StepModel(scannableName, args[0], args[1], args[2]);
+				models.put(scannableName, model);
+			}
+			return model;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
+import org.eclipse.scanning.api.scan.IDeviceService;
+import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.api.scan.ScanCheckpoint;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.points.PointGeneratorFactory;
+import org.eclipse.scanning.sequencer.DeviceServiceImpl;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockScannableConnector;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScanResumeTest {
+
+	private IDeviceService          sservice;
+	private IPointGeneratorService  gservice;
+
+	@Before
+	public void setup() throws ScanningException {
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		sservice  = new DeviceServiceImpl(new MockScannableConnector());
+		DeviceServiceImpl impl = (DeviceServiceImpl)sservice;
+		impl._register(MockDetectorModel.class, MockWritableDetector.class);
+
+		gservice  = new PointGeneratorFactory();
+	}
+
+	@Test
+	public void testResume() throws Exception {
+
+		ScanModel smodel = createScanModel();
+		smodel.setResumeStep(10);
+		smodel.setBean(new ScanBean());
+
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+		scanner.run(null);
+
+		// Only the last 15 of the 25 positions are collected.
+		assertEquals(15, getDetectorModel(smodel).getRan());
+		assertEquals(15, getDetectorModel(smodel).getWritten());
+		assertEquals(DeviceState.READY, scanner.getDeviceState());
+		assertEquals(25, smodel.getBean().getSize());
+	}
+
+	@Test(expected=ScanningException.class)
+	public void testResumeAfterEnd() throws Exception {
+
+		ScanModel smodel = createScanModel();
+		smodel.setResumeStep(25);
+
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+		scanner.run(null);
+	}
+
+	@Test
+	public void testCheckpoint() throws Exception {
+
+		File nexus = File.createTempFile("test_checkpoint", ".nxs");
+		nexus.deleteOnExit();
+		try {
+			assertNull(ScanCheckpoint.read(nexus.getAbsolutePath()));
+
+			ScanCheckpoint checkpoint = new ScanCheckpoint(nexus.getAbsolutePath(), 1000000);
+			checkpoint.setStep(799999);
+			checkpoint.save();
+
+			ScanCheckpoint read = ScanCheckpoint.read(nexus.getAbsolutePath());
+			assertEquals(nexus.getAbsolutePath(), read.getFilePath());
+			assertEquals(1000000, read.getSize());
+			assertEquals(799999, read.getStep());
+			assertEquals(800000, read.getResumeStep());
+			assertFalse(read.isComplete());
+
+			checkpoint.setStep(999999);
+			checkpoint.save();
+			assertTrue(ScanCheckpoint.read(nexus.getAbsolutePath()).isComplete());
+
+		} finally {
+			ScanCheckpoint.read(nexus.getAbsolutePath()).delete();
+			assertFalse(Files.exists(ScanCheckpoint.getCheckpointPath(nexus.getAbsolutePath())));
+		}
+	}
+
+	private MockDetectorModel getDetectorModel(ScanModel smodel) {
+		return (MockDetectorModel)((AbstractRunnableDevice<?>)smodel.getDetectors().get(0)).getModel();
+	}
+
+	private ScanModel createScanModel() throws Exception {
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setCollectionTime(0.001);
+		dmodel.setName("detector");
+		IRunnableDevice<MockDetectorModel> detector = sservice.createRunnableDevice(dmodel);
+
+		GridModel gmodel = new GridModel();
+		gmodel.setRows(5);
+		gmodel.setColumns(5);
+		gmodel.setBoundingBox(new BoundingBox(0,0,3,3));
+		IPointGenerator<?,IPosition> gen = gservice.createGenerator(gmodel);
+
+		final ScanModel  smodel = new ScanModel();
+		smodel.setPositionIterable(gen);
+		smodel.setDetectors(detector);
+		return smodel;
+	}
+}
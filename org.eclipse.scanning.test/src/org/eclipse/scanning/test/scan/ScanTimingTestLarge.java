@@ -0,0 +1,175 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.scanning.api.event.scan.ScanBean;
+import org.eclipse.scanning.api.event.scan.ScanTiming;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
+import org.eclipse.scanning.api.scan.IDeviceConnectorService;
+import org.eclipse.scanning.api.scan.IDeviceService;
+import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.points.PointGeneratorFactory;
+import org.eclipse.scanning.sequencer.DeviceServiceImpl;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockScannable;
+import org.eclipse.scanning.test.scan.mock.MockScannableConnector;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the timings of the points of a scan are in the final bean
+ * and that timing a fast scan costs very little.
+ */
+public class ScanTimingTestLarge {
+
+	private static final String TIMING = "org.eclipse.scanning.sequencer.timing";
+	private static final int    ROUNDS = 20;
+
+	private IDeviceService          sservice;
+	private IDeviceConnectorService connector;
+	private IPointGeneratorService  gservice;
+
+	@Before
+	public void setup() throws ScanningException {
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		connector = new MockScannableConnector();
+		sservice  = new DeviceServiceImpl(connector);
+		DeviceServiceImpl impl = (DeviceServiceImpl)sservice;
+		impl._register(MockDetectorModel.class, MockWritableDetector.class);
+
+		gservice  = new PointGeneratorFactory();
+	}
+
+	@After
+	public void dispose() {
+		System.clearProperty(TIMING);
+	}
+
+	@Test
+	public void testTimingsInBean() throws Exception {
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setCollectionTime(0.001);
+		dmodel.setName("detector");
+		IRunnableDevice<MockDetectorModel> detector = sservice.createRunnableDevice(dmodel);
+
+		ScanModel smodel = createScanModel(5, 5);
+		smodel.setDetectors(detector);
+
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+		scanner.run(null);
+
+		ScanBean bean = ((AbstractRunnableDevice<?>)scanner).getBean();
+		assertNotNull(bean.getTimings());
+
+		Map<String, ScanTiming> timings = getTimings(bean.getTimings());
+		assertEquals(25, timings.get("point").getCount());
+		assertEquals(25, timings.get("move").getCount());
+		assertEquals(25, timings.get("await").getCount());
+		assertEquals(25, timings.get("run detector").getCount());
+		assertEquals(25, timings.get("write detector").getCount());
+		assertEquals(25, timings.get("move x").getCount());
+		assertEquals(25, timings.get("move y").getCount());
+
+		// The detector sleeps for its collection time
+		ScanTiming run = timings.get("run detector");
+		assertTrue(run.toString(), run.getMin()>=1000000);
+		assertTrue(run.toString(), run.getMin()<=run.getMedian());
+		assertTrue(run.toString(), run.getMedian()<=run.getP90());
+		assertTrue(run.toString(), run.getP90()<=run.getP99());
+		assertTrue(run.toString(), run.getP99()<=run.getMax());
+
+		for (ScanTiming timing : bean.getTimings()) System.out.println(timing);
+	}
+
+	@Test
+	public void testTimingOff() throws Exception {
+
+		System.setProperty(TIMING, "false");
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(createScanModel(5, 5));
+		scanner.run(null);
+		assertEquals(null, ((AbstractRunnableDevice<?>)scanner).getBean().getTimings());
+	}
+
+	/**
+	 * A 10k point scan of motors which do not sleep, alternately timed
+	 * and not timed, the fastest of several rounds of each is compared. 
+	 * The aim is for the timing to cost less than 1% at 10kHz. The bounds
+	 * checked are wider than that so that a busy machine does not fail 
+	 * the test, a regression in the cost of timing is still much larger.
+	 */
+	@Test
+	public void testTimingOverhead() throws Exception {
+
+		MockScannable x = (MockScannable)connector.<Number>getScannable("x");
+		MockScannable y = (MockScannable)connector.<Number>getScannable("y");
+		x.setRequireSleep(false);
+		y.setRequireSleep(false);
+		try {
+			runScan(100, 100); // Warm up
+
+			long timed = Long.MAX_VALUE, untimed = Long.MAX_VALUE;
+			for (int i = 0; i < ROUNDS; i++) {
+				System.setProperty(TIMING, "false");
+				untimed = Math.min(untimed, runScan(100, 100));
+				System.setProperty(TIMING, "true");
+				timed   = Math.min(timed, runScan(100, 100));
+			}
+
+			final double overhead = 100d*(timed-untimed)/untimed;
+			System.out.println("10k points without timing took "+(untimed/1000000)+"ms, "+(untimed/10000/1000d)+"us per point");
+			System.out.println("10k points with timing took "+(timed/1000000)+"ms, "+(timed/10000/1000d)+"us per point");
+			System.out.println("The timing overhead was "+overhead+"%");
+
+			// The fastest of the rounds removes most of the noise of the scan's thread pools.
+			assertTrue("The scan should run at 5kHz or more, a point took "+(untimed/10000/1000d)+"us", untimed<=10000*200000L);
+			assertTrue("The timing overhead was "+overhead+"%", overhead<5);
+
+		} finally {
+			x.setRequireSleep(true);
+			y.setRequireSleep(true);
+		}
+	}
+
+	private long runScan(int rows, int columns) throws Exception {
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(createScanModel(rows, columns));
+		long start = System.nanoTime();
+		scanner.run(null);
+		return System.nanoTime()-start;
+	}
+
+	private static Map<String, ScanTiming> getTimings(List<ScanTiming> timings) {
+		Map<String, ScanTiming> ret = new HashMap<>(timings.size());
+		for (ScanTiming timing : timings) ret.put(timing.getName(), timing);
+		return ret;
+	}
+
+	private ScanModel createScanModel(int rows, int columns) throws Exception {
+
+		GridModel gmodel = new GridModel();
+		gmodel.setRows(rows);
+		gmodel.setColumns(columns);
+		gmodel.setBoundingBox(new BoundingBox(0,0,3,3));
+		IPointGenerator<?,IPosition> gen = gservice.createGenerator(gmodel);
+
+		final ScanModel  smodel = new ScanModel();
+		smodel.setPositionIterable(gen);
+		return smodel;
+	}
+}
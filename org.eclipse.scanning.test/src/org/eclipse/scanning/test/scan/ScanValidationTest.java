@@ -0,0 +1,224 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.scanning.api.event.scan.DeviceState;
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
+import org.eclipse.scanning.api.points.IPosition;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.scan.AbstractRunnableDevice;
+import org.eclipse.scanning.api.scan.IDeviceConnectorService;
+import org.eclipse.scanning.api.scan.IDeviceService;
+import org.eclipse.scanning.api.scan.IPositionValidator;
+import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.api.scan.ScanningException;
+import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.points.PointGeneratorFactory;
+import org.eclipse.scanning.sequencer.DeviceServiceImpl;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockScannable;
+import org.eclipse.scanning.test.scan.mock.MockScannableConnector;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a scan with a position which is not valid fails
+ * before anything is moved or exposed.
+ */
+public class ScanValidationTest {
+
+	private IDeviceService          sservice;
+	private IDeviceConnectorService connector;
+	private IPointGeneratorService  gservice;
+
+	@Before
+	public void setup() throws ScanningException {
+		// We wire things together without OSGi here
+		// DO NOT COPY THIS IN NON-TEST CODE!
+		connector = new MockScannableConnector();
+		sservice  = new DeviceServiceImpl(connector);
+		DeviceServiceImpl impl = (DeviceServiceImpl)sservice;
+		impl._register(MockDetectorModel.class, MockWritableDetector.class);
+
+		gservice  = new PointGeneratorFactory();
+	}
+
+	@Test
+	public void testValidScan() throws Exception {
+
+		ScanModel smodel = createScanModel(5, 5);
+		smodel.setValidators(new IPositionValidator() {
+			@Override
+			public void validate(IPosition position) throws ScanningException {
+				if (value(position, "x")>3) throw new ScanningException("x is in the exclusion zone");
+			}
+		});
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+		scanner.run(null);
+
+		assertEquals(25, getDetectorModel(smodel).getRan());
+		assertEquals(DeviceState.READY, scanner.getDeviceState());
+	}
+
+	@Test
+	public void testExclusionZone() throws Exception {
+
+		ScanModel smodel = createScanModel(5, 5);
+		smodel.setValidators(new IPositionValidator() {
+			@Override
+			public void validate(IPosition position) throws ScanningException {
+				if (value(position, "x")>2 && value(position, "y")>2) throw new ScanningException("The stage would hit the detector");
+			}
+		});
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+		try {
+			scanner.run(null);
+			throw new Exception("The scan should not run when a position is in the exclusion zone!");
+		} catch (ScanningException expected) {
+			assertTrue(expected.getMessage(), expected.getMessage().contains("is not valid"));
+			assertTrue(expected.getMessage(), expected.getMessage().contains("The stage would hit the detector"));
+		}
+
+		assertEquals(0, getDetectorModel(smodel).getRan());
+		assertEquals(DeviceState.FAULT, scanner.getDeviceState());
+	}
+
+	@Test
+	public void testScannableLimits() throws Exception {
+
+		MockScannable x = (MockScannable)connector.<Number>getScannable("x");
+		x.setMaximum(2.0);
+		try {
+			ScanModel smodel = createScanModel(5, 5);
+			IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+			try {
+				scanner.run(null);
+				throw new Exception("The scan should not run when a position is outside the limits of x!");
+			} catch (ScanningException expected) {
+				assertTrue(expected.getMessage(), expected.getMessage().contains("outside its limits"));
+			}
+			assertEquals(0, getDetectorModel(smodel).getRan());
+
+		} finally {
+			x.setMaximum(null);
+		}
+	}
+
+	@Test
+	public void testLargeScanWithLimits() throws Exception {
+
+		MockScannable x = (MockScannable)connector.<Number>getScannable("x");
+		x.setMinimum(-1.0);
+		x.setMaximum(4.0);
+		try {
+			ScanModel smodel = createScanModel(1000, 1000);
+
+			// Only the last point fails so every position is checked
+			// against the limits and the validator but nothing is run.
+			IPointGenerator<?,IPosition> gen = (IPointGenerator<?,IPosition>)smodel.getPositionIterable();
+			smodel.setValidators(new IPositionValidator() {
+				@Override
+				public void validate(IPosition position) throws ScanningException {
+					if (value(position, "y")>2.99 && value(position, "x")>2.99) throw new ScanningException("Last point");
+				}
+			});
+
+			IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+			long start = System.currentTimeMillis();
+			try {
+				scanner.run(null);
+				throw new Exception("The last point should not be valid!");
+			} catch (ScanningException expected) {
+				assertTrue(expected.getMessage(), expected.getMessage().contains("Position "+(gen.size()-1)));
+			}
+			long time = System.currentTimeMillis()-start;
+			System.out.println("Validating "+gen.size()+" positions took "+time+" ms");
+			assertEquals(0, getDetectorModel(smodel).getRan());
+
+		} finally {
+			x.setMinimum(null);
+			x.setMaximum(null);
+		}
+	}
+
+	@Test
+	public void testValidateTenMillionPositions() throws Exception {
+
+		MockScannable x = (MockScannable)connector.<Number>getScannable("x");
+		x.setMinimum(-1.0);
+		x.setMaximum(4.0);
+		try {
+			sservice.validate(createScanModel(100, 100)); // Warm up
+
+			// The scan servlet validates before the start position is moved to,
+			// so a large scan must not keep the queue waiting.
+			ScanModel smodel = createScanModel(10000, 1000);
+			long start = System.currentTimeMillis();
+			int size = sservice.validate(smodel);
+			long time = System.currentTimeMillis()-start;
+			System.out.println("Validating "+size+" positions took "+time+" ms");
+
+			assertEquals(10000000, size);
+			assertEquals(size, smodel.getSize());
+			assertTrue("Validating 10^7 positions should take less than a second, it took "+time+" ms", time<1000);
+
+		} finally {
+			x.setMinimum(null);
+			x.setMaximum(null);
+		}
+	}
+
+	@Test
+	public void testValidatedScanIsNotValidatedAgain() throws Exception {
+
+		ScanModel smodel = createScanModel(5, 5);
+		assertEquals(25, sservice.validate(smodel));
+
+		final AtomicInteger checked = new AtomicInteger();
+		smodel.setValidators(new IPositionValidator() {
+			@Override
+			public void validate(IPosition position) throws ScanningException {
+				checked.incrementAndGet();
+			}
+		});
+		IRunnableDevice<ScanModel> scanner = sservice.createRunnableDevice(smodel);
+		scanner.run(null);
+
+		assertEquals(0, checked.get());
+		assertEquals(25, getDetectorModel(smodel).getRan());
+		assertEquals(25, ((AbstractRunnableDevice<?>)scanner).getBean().getSize());
+	}
+
+	private static double value(IPosition position, String name) {
+		return ((Number)position.get(name)).doubleValue();
+	}
+
+	private MockDetectorModel getDetectorModel(ScanModel smodel) {
+		return (MockDetectorModel)((AbstractRunnableDevice<?>)smodel.getDetectors().get(0)).getModel();
+	}
+
+	private ScanModel createScanModel(int rows, int columns) throws Exception {
+
+		MockDetectorModel dmodel = new MockDetectorModel();
+		dmodel.setCollectionTime(0.001);
+		dmodel.setName("detector");
+		IRunnableDevice<MockDetectorModel> detector = sservice.createRunnableDevice(dmodel);
+
+		GridModel gmodel = new GridModel();
+		gmodel.setRows(rows);
+		gmodel.setColumns(columns);
+		gmodel.setBoundingBox(new BoundingBox(0,0,3,3));
+		IPointGenerator<?,IPosition> gen = gservice.createGenerator(gmodel);
+
+		final ScanModel  smodel = new ScanModel();
+		smodel.setPositionIterable(gen);
+		smodel.setDetectors(detector);
+		return smodel;
+	}
+}
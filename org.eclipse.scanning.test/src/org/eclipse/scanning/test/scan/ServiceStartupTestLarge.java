@@ -0,0 +1,96 @@
+package org.eclipse.scanning.test.scan;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.scanning.api.points.IPointGenerator;
+import org.eclipse.scanning.api.points.Point;
+import org.eclipse.scanning.api.points.models.BoundingBox;
+import org.eclipse.scanning.api.points.models.GridModel;
+import org.eclipse.scanning.api.scan.IRunnableDevice;
+import org.eclipse.scanning.points.PointGeneratorFactory;
+import org.eclipse.scanning.sequencer.DeviceServiceImpl;
+import org.eclipse.scanning.test.scan.mock.MockDetectorModel;
+import org.eclipse.scanning.test.scan.mock.MockScannableConnector;
+import org.eclipse.scanning.test.scan.mock.MockWritableDetector;
+import org.junit.Test;
+
+/**
+ * Times warming up the generator and device services and then creating the
+ * first generator and device, as the first scan after the server starts
+ * does, and compares them with the generators and devices created after.
+ *
+ * The services are static so the warm up is only cold if this test runs
+ * in its own VM.
+ */
+public class ServiceStartupTestLarge {
+
+	private static final int REPEATS = 1000;
+
+	@Test
+	public void testGeneratorServiceStartup() throws Exception {
+
+		long start = System.nanoTime();
+		PointGeneratorFactory gservice = new PointGeneratorFactory();
+		gservice.warmUp();
+		assertTrue("The generator service did not warm up", gservice.awaitReady(10, TimeUnit.SECONDS));
+		assertTrue(gservice.isReady());
+		final long warm = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		IPointGenerator<GridModel, Point> gen = gservice.createGenerator(createGridModel());
+		assertNotNull(gen.iterator().next());
+		final long first = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < REPEATS; i++) gservice.createGenerator(createGridModel()).iterator().next();
+		final long later = (System.nanoTime()-start)/REPEATS;
+
+		System.out.println("Generator service warmed up in "+ms(warm)+"ms, first generator "+ms(first)+"ms, later generators "+ms(later)+"ms");
+		assertTrue("The first generator took "+ms(first)+"ms", first<TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	@Test
+	public void testDeviceServiceStartup() throws Exception {
+
+		long start = System.nanoTime();
+		DeviceServiceImpl sservice = new DeviceServiceImpl(new MockScannableConnector());
+		sservice._register(MockDetectorModel.class, MockWritableDetector.class);
+		sservice.warmUp();
+		assertTrue("The device service did not warm up", sservice.awaitReady(10, TimeUnit.SECONDS));
+		assertTrue(sservice.isReady());
+		final long warm = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		IRunnableDevice<MockDetectorModel> device = sservice.createRunnableDevice(new MockDetectorModel(0.1));
+		assertNotNull(device);
+		final long first = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < REPEATS; i++) sservice.createRunnableDevice(new MockDetectorModel(0.1));
+		final long later = (System.nanoTime()-start)/REPEATS;
+
+		System.out.println("Device service warmed up in "+ms(warm)+"ms, first device "+ms(first)+"ms, later devices "+ms(later)+"ms");
+		assertTrue("The first device took "+ms(first)+"ms", first<TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	private static GridModel createGridModel() {
+		BoundingBox box = new BoundingBox();
+		box.setxStart(0);
+		box.setyStart(0);
+		box.setWidth(3);
+		box.setHeight(3);
+
+		GridModel model = new GridModel();
+		model.setColumns(10);
+		model.setRows(10);
+		model.setBoundingBox(box);
+		return model;
+	}
+
+	private static double ms(long nanos) {
+		return nanos/1000000d;
+	}
+}
@@ -201,4 +201,23 @@ public class MockScannable implements IScannable<Number>, IPositionListenable {
     public void setUnit(String unit) {
     	this.unit = unit;
     }
+
+	private Number minimum, maximum;
+	@Override
+	public Number getMinimum() {
+		return minimum;
+	}
+
+	public void setMinimum(Number minimum) {
+		this.minimum = minimum;
+	}
+
+	@Override
+	public Number getMaximum() {
+		return maximum;
+	}
+
+	public void setMaximum(Number maximum) {
+		this.maximum = maximum;
+	}
 }
@@ -9,8 +9,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -43,11 +46,14 @@ import org.eclipse.scanning.api.scan.IDeviceService;
 import org.eclipse.scanning.api.scan.IRunnableDevice;
 import org.eclipse.scanning.api.scan.IRunnableEventDevice;
 import org.eclipse.scanning.api.scan.IWritableDetector;
+import org.eclipse.scanning.api.scan.ScanCheckpoint;
 import org.eclipse.scanning.api.scan.ScanningException;
 import org.eclipse.scanning.api.scan.event.IRunListener;
 import org.eclipse.scanning.api.scan.event.RunEvent;
 import org.eclipse.scanning.api.scan.models.ScanModel;
+import org.eclipse.scanning.example.detector.DarkImageDetector;
 import org.eclipse.scanning.example.detector.DarkImageModel;
+import org.eclipse.scanning.example.detector.DarkIndex;
 import org.eclipse.scanning.example.detector.MandelbrotModel;
 import org.eclipse.scanning.points.PointGeneratorFactory;
 import org.eclipse.scanning.sequencer.DeviceServiceImpl;
@@ -114,6 +120,54 @@ public class DarkPluginTest {
 		checkNexusFile(scanner, 8, 5);
 	}
 	
+	/**
+	 * The checkpoint is saved every second while the scan runs. This scan runs for
+	 * longer than that and each checkpoint must only record whole batches of darks, 
+	 * the darks are not written early to save it.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testDarksWrittenInChunksAcrossCheckpoints() throws Exception {	
+
+		DarkImageModel dmodel = new DarkImageModel();
+		dmodel.setName("chunkedDark");
+		dmodel.setFrequency(1);
+		dmodel.setBatchSize(4);
+		dmodel.setRows(8);
+		dmodel.setColumns(8);
+		final DarkImageDetector chunked = (DarkImageDetector)service.createRunnableDevice(dmodel);
+		
+		IRunnableDevice<ScanModel> scanner = createGridScan(chunked, 40, 30);
+		final String filePath = ((AbstractRunnableDevice<ScanModel>)scanner).getModel().getFilePath();
+		
+		final List<Integer> checkpoints = new ArrayList<>();
+		chunked.addRunListener(new IRunListener.Stub() {
+			@Override
+			public void runPerformed(RunEvent evt) throws ScanningException{
+				try {
+					Thread.sleep(2); // 1200 points is longer than a checkpoint period
+					ScanCheckpoint checkpoint = ScanCheckpoint.read(filePath);
+					if (checkpoint!=null) checkpoints.add(checkpoint.getStep());
+				} catch (InterruptedException | IOException e) {
+					throw new ScanningException(e);
+				}
+			}
+		});
+
+		long start = System.currentTimeMillis();
+		scanner.run(null);
+		long time  = System.currentTimeMillis()-start;
+		
+		assertTrue("The scan took "+time+"ms, it must run for longer than a checkpoint period", time>1000);
+		assertEquals(DeviceState.READY, scanner.getDeviceState());
+		assertEquals(0, chunked.getMisalignedWrites());
+		assertFalse("No checkpoint was saved during the scan", checkpoints.isEmpty());
+		for (int step : checkpoints) {
+			assertTrue("The checkpoint at step "+step+" is part way through a batch of darks", (step+1)%dmodel.getBatchSize()==0);
+		}
+	}
+	
 	private void checkNexusFile(IRunnableDevice<ScanModel> scanner, int... sizes) throws NexusException, ScanningException {
 		final ScanModel scanModel = ((AbstractRunnableDevice<ScanModel>) scanner).getModel();
 		assertEquals(DeviceState.READY, scanner.getDeviceState());
@@ -144,9 +198,20 @@ public class DarkPluginTest {
 
 		double size = 1; 
 		for (double i : sizes)size*=i;
-		size = size / (((AbstractRunnableDevice<DarkImageModel>)dark).getModel().getFrequency());
+		final int frequency = ((AbstractRunnableDevice<DarkImageModel>)dark).getModel().getFrequency();
+		int steps = (int)size;
+		size = size / frequency;
 		assertEquals(shape[0], (int)size);
 		
+		// Every step should say which dark applies to it.
+		IDataset index = detector.getDataNode(DarkIndex.DATASET_NAME).getDataset().getSlice();
+		assertEquals(steps, index.getSize());
+		DarkIndex darks = new DarkIndex(index);
+		for (int step = 0; step < steps; step++) {
+			assertEquals(step/frequency, darks.getDark(step));
+			assertEquals(step/frequency, ((DarkImageDetector)dark).getDarkIndex().getDark(step));
+		}
+		
 		checkNXdata(rootNode, detectorName, positionerNames);
 	}
 	
@@ -228,6 +293,10 @@ public class DarkPluginTest {
 	}
 
 	private IRunnableDevice<ScanModel> createGridScan(int... size) throws Exception {
+		return createGridScan(null, size);
+	}
+	
+	private IRunnableDevice<ScanModel> createGridScan(IRunnableDevice<?> onlyDetector, int... size) throws Exception {
 		
 		// Create scan points for a grid and make a generator
 		GridModel gmodel = new GridModel();
@@ -256,7 +325,11 @@ public class DarkPluginTest {
 		// Create the model for a scan.
 		final ScanModel  smodel = new ScanModel();
 		smodel.setPositionIterable(gen);
-		smodel.setDetectors(detector, dark);
+		if (onlyDetector!=null) {
+			smodel.setDetectors(onlyDetector);
+		} else {
+			smodel.setDetectors(detector, dark);
+		}
 		
 		// Create a file to scan into.
 		File output = File.createTempFile("test_dark_nexus", ".nxs");
@@ -9,8 +9,10 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -26,11 +28,13 @@ import org.eclipse.scanning.api.event.scan.ScanRequest;
 import org.eclipse.scanning.api.malcolm.IMalcolmConnection;
 import org.eclipse.scanning.api.malcolm.IMalcolmService;
 import org.eclipse.scanning.api.malcolm.models.MalcolmRequest;
+import org.eclipse.scanning.api.points.IPointGeneratorService;
 import org.eclipse.scanning.api.points.models.BoundingBox;
 import org.eclipse.scanning.api.points.models.GridModel;
 import org.eclipse.scanning.api.points.models.IScanPathModel;
 import org.eclipse.scanning.api.points.models.StepModel;
 import org.eclipse.scanning.example.detector.MandelbrotModel;
+import org.eclipse.scanning.points.PointPathCache;
 import org.eclipse.scanning.sequencer.DeviceServiceImpl;
 import org.eclipse.scanning.server.servlet.ScanServlet;
 import org.eclipse.scanning.server.servlet.Services;
@@ -153,6 +157,47 @@ public class ScanServletPluginTest {
 	}
 
 	
+	/**
+	 * Prepares a scan as the consumer would while another runs and checks
+	 * that its points are then read from the recorded path.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPreparedScanReplaysPath() throws Exception {
+		
+		ScanBean bean = createGridScan();
+		bean.setUniqueId(UUID.randomUUID().toString());
+		
+		final PreparingServlet preparer = new PreparingServlet();
+		preparer.prepare(bean);
+		
+		final long hits = PointPathCache.getDefault().getHits();
+		
+		final IPointGeneratorService gservice = Services.getGeneratorService();
+		final IScanPathModel         model    = bean.getScanRequest().getModels()[0];
+		Iterator<?> it = gservice.createCachedGenerator(gservice.createGenerator(model, bean.getScanRequest().getRegions(model.getUniqueKey()))).iterator();
+		int size = 0;
+		while(it.hasNext()) {
+			it.next();
+			++size;
+		}
+		assertEquals(25, size);
+		assertEquals(hits+1, PointPathCache.getDefault().getHits());
+		
+		runAndCheck(bean, 20); // The prepared scan runs as usual.
+	}
+	
+	/**
+	 * Makes prepare(...) visible to the test, the consumer calls it normally.
+	 */
+	private static class PreparingServlet extends ScanServlet {
+		@Override
+		public void prepare(ScanBean bean) throws EventException {
+			super.prepare(bean);
+		}
+	}
+
 	private ScanBean createStepScan() throws IOException {
 		// We write some pojos together to define the scan
 		final ScanBean bean = new ScanBean();
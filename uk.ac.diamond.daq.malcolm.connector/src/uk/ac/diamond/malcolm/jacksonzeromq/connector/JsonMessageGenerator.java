@@ -1,6 +1,6 @@
 package uk.ac.diamond.malcolm.jacksonzeromq.connector;
 
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.scanning.api.event.scan.DeviceState;
 import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
@@ -8,6 +8,7 @@ import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
 import org.eclipse.scanning.api.malcolm.connector.IMalcolmConnectorService;
 import org.eclipse.scanning.api.malcolm.connector.MessageGenerator;
 import org.eclipse.scanning.api.malcolm.message.JsonMessage;
+import org.eclipse.scanning.api.malcolm.message.MalcolmMethod;
 import org.eclipse.scanning.api.malcolm.message.Type;
 
 /**
@@ -30,11 +31,12 @@ class JsonMessageGenerator implements MessageGenerator<JsonMessage> {
 		this.service = service;
 	}
 
-	private static volatile long callCount = 0;
+	// Ids are unique across all generators so that replies cannot be mixed up between threads.
+	private static final AtomicLong callCount = new AtomicLong();
 	
 	private JsonMessage createMalcolmMessage() {
 		JsonMessage ret = new JsonMessage();
-		ret.setId(callCount++);
+		ret.setId(callCount.getAndIncrement());
 		return ret;
 	}
 
@@ -77,6 +79,22 @@ class JsonMessageGenerator implements MessageGenerator<JsonMessage> {
 		return msg;
 	}
 	
+	@Override
+	public JsonMessage createCallMessage(MalcolmMethod method) throws MalcolmDeviceException {
+		return createCallMessage(method.getName());
+	}
+
+	@Override
+	public JsonMessage createCallMessage(MalcolmMethod method, Object arg) throws MalcolmDeviceException {
+		return createCallMessage(method.getName(), arg);
+	}
+
+	@Override
+	public JsonMessage call(MalcolmMethod method) throws MalcolmDeviceException {
+		return service.send(device, createCallMessage(method));
+	}
+
+	@Deprecated
 	@Override
 	public JsonMessage call(StackTraceElement[] stackTrace, DeviceState... latches) throws MalcolmDeviceException {
 		final JsonMessage msg   = createCallMessage(getMethodName(stackTrace));
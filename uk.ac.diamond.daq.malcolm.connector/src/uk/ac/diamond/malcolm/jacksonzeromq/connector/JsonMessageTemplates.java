@@ -0,0 +1,97 @@
+package uk.ac.diamond.malcolm.jacksonzeromq.connector;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.scanning.api.malcolm.message.JsonMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serializes JSON messages to Malcolm, reusing the JSON of messages which
+ * differ only by id.
+ * 
+ * Most messages sent are calls, gets and subscribes without arguments, for instance 
+ * "run" on a given device. The first time such a message is seen it is serialized
+ * once with a marker id and cached, afterwards only the id is written into the 
+ * cached JSON. Messages with arguments, values or text are serialized in full.
+ * 
+ * This class is thread safe.
+ * 
+ * @author Matthew Gerring
+ *
+ */
+public class JsonMessageTemplates {
+
+	private static final long   MARKER_ID   = Long.MIN_VALUE;
+	private static final String MARKER      = String.valueOf(MARKER_ID);
+	
+	/**
+	 * The maximum number of templates kept, default 256. There is a template for each
+	 * distinct method and endpoint so this is only reached if many attributes are read.
+	 * Set uk.ac.diamond.malcolm.connector.maxTemplates to change this.
+	 */
+	private static final int    MAX_TEMPLATES = Integer.getInteger("uk.ac.diamond.malcolm.connector.maxTemplates", 256);
+
+	private final ObjectMapper                     mapper;
+	private final ConcurrentMap<String, String[]>  templates;
+
+	public JsonMessageTemplates(ObjectMapper mapper) {
+		this.mapper    = mapper;
+		this.templates = new ConcurrentHashMap<String, String[]>(31);
+	}
+
+	/**
+	 * 
+	 * @param msg
+	 * @return the JSON for the message
+	 * @throws Exception if the message cannot be serialized
+	 */
+	public String toJson(JsonMessage msg) throws Exception {
+		
+		if (!isTemplate(msg)) return mapper.writeValueAsString(msg);
+		
+		final String key = getKey(msg);
+		String[] template = templates.get(key);
+		if (template==null) {
+			template = createTemplate(msg);
+			if (template==null) return mapper.writeValueAsString(msg);
+			if (templates.size()<MAX_TEMPLATES) templates.putIfAbsent(key, template);
+		}
+		return new StringBuilder(template[0].length()+template[1].length()+20)
+				        .append(template[0])
+		                .append(msg.getId())
+		                .append(template[1]).toString();
+	}
+
+	private static boolean isTemplate(JsonMessage msg) {
+		return msg.getArguments()==null && msg.getValue()==null && msg.getMessage()==null;
+	}
+
+	private static String getKey(JsonMessage msg) {
+		return msg.getType()+"|"+msg.getEndpoint()+"|"+msg.getMethod()+"|"+msg.getParam();
+	}
+
+	private String[] createTemplate(JsonMessage msg) throws Exception {
+		
+		final JsonMessage marked = new JsonMessage();
+		marked.setType(msg.getType());
+		marked.setEndpoint(msg.getEndpoint());
+		marked.setMethod(msg.getMethod());
+		marked.setParam(msg.getParam());
+		marked.setId(MARKER_ID);
+		
+		final String json  = mapper.writeValueAsString(marked);
+		final int    index = json.indexOf(MARKER);
+		if (index<0 || index!=json.lastIndexOf(MARKER)) return null; // Cannot tell where the id is.
+		return new String[]{json.substring(0, index), json.substring(index+MARKER.length())};
+	}
+
+	/**
+	 * 
+	 * @return the number of templates held
+	 */
+	public int size() {
+		return templates.size();
+	}
+}
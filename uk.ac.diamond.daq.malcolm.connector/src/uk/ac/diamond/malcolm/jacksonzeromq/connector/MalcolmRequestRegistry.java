@@ -0,0 +1,332 @@
+package uk.ac.diamond.malcolm.jacksonzeromq.connector;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
+import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
+import org.eclipse.scanning.api.malcolm.event.IMalcolmListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Correlates the replies from Malcolm with the requests and subscriptions
+ * which are waiting for them, by message id.
+ *
+ * Every request has a deadline. Requests which are not answered by their deadline
+ * are completed exceptionally by a sweeper thread and removed, so a lost reply
+ * can neither block the caller forever nor stay in the registry. The number of
+ * outstanding requests is bounded, subscriptions are removed with their last
+ * listener and counts are kept so that a long running server can be checked
+ * for leaks.
+ *
+ * This class is thread safe.
+ *
+ * @author Matthew Gerring
+ *
+ * @param <T> the message type
+ */
+public class MalcolmRequestRegistry<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(MalcolmRequestRegistry.class);
+
+	private final long                                                  defaultTimeout;
+	private final int                                                   maxOutstanding;
+
+	private final ConcurrentMap<Long, Request<T>>                       requests;
+	private final ConcurrentMap<Long, Collection<IMalcolmListener<T>>>  listeners;
+
+	private final AtomicLong                                            completedCount;
+	private final AtomicLong                                            timedOutCount;
+	private final AtomicLong                                            unmatchedCount;
+
+	private ScheduledExecutorService                                    sweeper;
+
+	/**
+	 *
+	 * @param defaultTimeout in ms used when a request is registered without its own timeout.
+	 * @param maxOutstanding the maximum number of requests which may wait for a reply at once.
+	 */
+	public MalcolmRequestRegistry(long defaultTimeout, int maxOutstanding) {
+		if (defaultTimeout<=0) throw new IllegalArgumentException("The timeout must be greater than 0!");
+		if (maxOutstanding<=0) throw new IllegalArgumentException("The maximum number of outstanding requests must be greater than 0!");
+		this.defaultTimeout = defaultTimeout;
+		this.maxOutstanding = maxOutstanding;
+		this.requests       = new ConcurrentHashMap<Long, Request<T>>(7);
+		this.listeners      = new ConcurrentHashMap<Long, Collection<IMalcolmListener<T>>>(7);
+		this.completedCount = new AtomicLong();
+		this.timedOutCount  = new AtomicLong();
+		this.unmatchedCount = new AtomicLong();
+	}
+
+	/**
+	 * Start a daemon thread which expires requests past their deadline.
+	 * Calling this more than once has no effect.
+	 *
+	 * @param period between sweeps
+	 * @param unit
+	 */
+	public synchronized void startSweeping(long period, TimeUnit unit) {
+		if (sweeper!=null) return;
+		sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "Malcolm Request Sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sweeper.scheduleWithFixedDelay(() -> {
+			try {
+				sweep();
+			} catch (Exception ne) {
+				logger.error("Cannot sweep expired Malcolm requests!", ne);
+			}
+		}, period, period, unit);
+	}
+
+	/**
+	 * Register a request which is about to be sent using the default timeout.
+	 *
+	 * @param device
+	 * @param id
+	 * @return the future which the reply or failure completes.
+	 * @throws MalcolmDeviceException if too many requests are outstanding or the id is already waiting.
+	 */
+	public CompletableFuture<T> register(IMalcolmDevice device, long id) throws MalcolmDeviceException {
+		return register(device, id, defaultTimeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Register a request which is about to be sent.
+	 *
+	 * @param device
+	 * @param id
+	 * @param timeout
+	 * @param unit
+	 * @return the future which the reply or failure completes.
+	 * @throws MalcolmDeviceException if too many requests are outstanding or the id is already waiting.
+	 */
+	public CompletableFuture<T> register(IMalcolmDevice device, long id, long timeout, TimeUnit unit) throws MalcolmDeviceException {
+
+		if (requests.size()>=maxOutstanding) {
+			throw new MalcolmDeviceException(device, "There are already "+maxOutstanding+" requests waiting for Malcolm to reply!");
+		}
+
+		final Request<T> request = new Request<T>(device, System.nanoTime()+unit.toNanos(timeout));
+		if (requests.putIfAbsent(id, request)!=null) {
+			throw new MalcolmDeviceException(device, "A request with id "+id+" is already waiting for a reply!");
+		}
+		// However the future is completed, even cancelled by the caller, it leaves the registry.
+		request.future.whenComplete((reply, error) -> requests.remove(id, request));
+		return request.future;
+	}
+
+	/**
+	 * Complete the request waiting for this id.
+	 *
+	 * @param id
+	 * @param reply
+	 * @return true if a request was waiting, false if the reply is unmatched,
+	 *         for instance because it arrived after the deadline.
+	 */
+	public boolean complete(long id, T reply) {
+		final Request<T> request = requests.remove(id);
+		if (request==null) {
+			unmatchedCount.incrementAndGet();
+			return false;
+		}
+		request.future.complete(reply);
+		completedCount.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Remove the request without completing it, for instance because it could not be sent.
+	 * The future, if not done, is cancelled.
+	 * @param id
+	 */
+	public void cancel(long id) {
+		final Request<T> request = requests.remove(id);
+		if (request!=null) request.future.cancel(false);
+	}
+
+	/**
+	 * Expire the request waiting for this id now, for instance because the caller
+	 * has given up waiting for it.
+	 * @param id
+	 * @return true if the request was waiting.
+	 */
+	public boolean expire(long id) {
+		final Request<T> request = requests.remove(id);
+		if (request==null) return false;
+		expire(id, request);
+		return true;
+	}
+
+	/**
+	 * Expire all the requests which are past their deadline.
+	 * @return the number of requests expired.
+	 */
+	public int sweep() {
+		final long now = System.nanoTime();
+		int count = 0;
+		for (Iterator<Map.Entry<Long, Request<T>>> it = requests.entrySet().iterator(); it.hasNext();) {
+			final Map.Entry<Long, Request<T>> entry = it.next();
+			final Request<T> request = entry.getValue();
+			if (now-request.deadline<0) continue;
+			if (requests.remove(entry.getKey(), request)) {
+				expire(entry.getKey(), request);
+				++count;
+			}
+		}
+		if (count>0) logger.warn("Malcolm did not reply to "+count+" request(s) before their deadline.");
+		return count;
+	}
+
+	private void expire(long id, Request<T> request) {
+		if (request.future.completeExceptionally(new MalcolmDeviceException(request.device, "No reply for message of id "+id+" was received in time!", new TimeoutException()))) {
+			timedOutCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Add a listener to the subscription with this id.
+	 * @param id
+	 * @param listener
+	 * @return true if this is the first listener, meaning that the subscription should be sent.
+	 */
+	public boolean addListener(long id, IMalcolmListener<T> listener) {
+		boolean first = false;
+		Collection<IMalcolmListener<T>> ls = listeners.get(id);
+		if (ls == null) {
+			ls = new CopyOnWriteArrayList<IMalcolmListener<T>>();
+			Collection<IMalcolmListener<T>> existing = listeners.putIfAbsent(id, ls);
+			if (existing!=null) {
+				ls = existing;
+			} else {
+				first = true;
+			}
+		}
+		ls.add(listener);
+		return first;
+	}
+
+	/**
+	 * Remove listeners from the subscription with this id. If no listeners are
+	 * given or none are left, the subscription is removed.
+	 *
+	 * @param id
+	 * @param remove may be null or empty to remove all the listeners.
+	 * @return true if the subscription existed and was removed, meaning that the unsubscribe should be sent.
+	 */
+	@SafeVarargs
+	public final boolean removeListeners(long id, IMalcolmListener<T>... remove) {
+		if (remove==null || remove.length<1) return listeners.remove(id)!=null;
+
+		final Collection<IMalcolmListener<T>> ls = listeners.get(id);
+		if (ls==null) return false;
+		ls.removeAll(Arrays.asList(remove));
+		return ls.isEmpty() && listeners.remove(id, ls);
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return the listeners subscribed to this id or null if there are none.
+	 */
+	public Collection<IMalcolmListener<T>> getListeners(long id) {
+		return listeners.get(id);
+	}
+
+	/**
+	 * Fail all the outstanding requests, remove all the subscriptions and stop sweeping.
+	 * @param cause
+	 */
+	public synchronized void close(Exception cause) {
+		if (sweeper!=null) sweeper.shutdownNow();
+		sweeper = null;
+		for (Long id : requests.keySet()) {
+			final Request<T> request = requests.remove(id);
+			if (request!=null) request.future.completeExceptionally(cause);
+		}
+		listeners.clear();
+	}
+
+	/**
+	 * @return the maximum number of requests which may wait for a reply at once.
+	 */
+	public int getMaxOutstanding() {
+		return maxOutstanding;
+	}
+
+	/**
+	 * @return the number of requests waiting for a reply.
+	 */
+	public int getOutstandingCount() {
+		return requests.size();
+	}
+
+	/**
+	 * @return the number of subscriptions with at least one listener.
+	 */
+	public int getSubscriptionCount() {
+		return listeners.size();
+	}
+
+	/**
+	 * @return the total number of requests which were replied to.
+	 */
+	public long getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/**
+	 * @return the total number of requests which were not replied to by their deadline.
+	 */
+	public long getTimedOutCount() {
+		return timedOutCount.get();
+	}
+
+	/**
+	 * @return the total number of replies which no request was waiting for.
+	 */
+	public long getUnmatchedCount() {
+		return unmatchedCount.get();
+	}
+
+	/**
+	 * @return the ids of the requests waiting for a reply.
+	 */
+	public Collection<Long> getOutstandingIds() {
+		return Collections.unmodifiableSet(requests.keySet());
+	}
+
+	@Override
+	public String toString() {
+		return "MalcolmRequestRegistry [outstanding=" + getOutstandingCount() + ", subscriptions=" + getSubscriptionCount()
+				+ ", completed=" + getCompletedCount() + ", timedOut=" + getTimedOutCount() + ", unmatched=" + getUnmatchedCount() + "]";
+	}
+
+	private static final class Request<T> {
+
+		private final CompletableFuture<T> future;
+		private final IMalcolmDevice       device;
+		private final long                 deadline; // nanoTime
+
+		Request(IMalcolmDevice device, long deadline) {
+			this.future   = new CompletableFuture<T>();
+			this.device   = device;
+			this.deadline = deadline;
+		}
+	}
+}
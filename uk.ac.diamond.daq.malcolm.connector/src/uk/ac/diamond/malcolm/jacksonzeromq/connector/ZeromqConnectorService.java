@@ -1,13 +1,19 @@
 package uk.ac.diamond.malcolm.jacksonzeromq.connector;
 
 import java.net.URI;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Hashtable;
-import java.util.Map;
-import java.util.Vector;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.eclipse.scanning.api.ExecutorProviders;
 import org.eclipse.scanning.api.event.scan.DeviceState;
 import org.eclipse.scanning.api.malcolm.IMalcolmDevice;
 import org.eclipse.scanning.api.malcolm.MalcolmDeviceException;
@@ -28,6 +34,35 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
+/**
+ * Connects to Malcolm using a ZeroMQ DEALER socket and JSON messages.
+ * 
+ * The DEALER socket to Malcolm is only ever used by the broker thread. Other
+ * threads hand their messages to the broker using a fixed pool of inproc sockets
+ * so that no socket is created per message. A request does not hold its socket
+ * while waiting for the reply, so many requests may be in flight at once. 
+ * Replies are matched to the waiting request by message id and listener events
+ * are despatched on their own thread, not the broker thread.
+ * 
+ * Replies and events are not ordered with respect to each other. A reply completes
+ * its request on the broker thread as soon as it is read, an event read before it
+ * may still be waiting to be despatched. So the caller of a request may see its reply
+ * before the listeners see the events which Malcolm sent first. Listeners must not
+ * assume that a value from an event is newer than one the caller has fetched. Each 
+ * event carries the {@link MalcolmEvent#getSequence() sequence} in which its message 
+ * was read and the {@link MalcolmEvent#getTime() time} it was read at. Events for one
+ * subscription are despatched in the order they were read.
+ * 
+ * After disconnect() the pool of inproc sockets is closed. A socket which is in use
+ * then is closed when it is given back rather than returned to the pool.
+ * 
+ * Requests and subscriptions are held in a {@link MalcolmRequestRegistry} which
+ * gives each request a deadline, so a reply which is lost does not block the caller
+ * forever or leak the request.
+ * 
+ * @author Matthew Gerring
+ *
+ */
 public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMessage> {
 	
 	static {
@@ -36,6 +71,31 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 	
 	private static final Logger logger = LoggerFactory.getLogger(ZeromqConnectorService.class);
 
+	/**
+	 * The number of inproc sockets used to pass messages to the broker thread, 
+	 * default 4. Set uk.ac.diamond.malcolm.connector.socketPoolSize to change this.
+	 */
+	private static final int SOCKET_POOL_SIZE = Integer.getInteger("uk.ac.diamond.malcolm.connector.socketPoolSize", 4);
+
+	/**
+	 * The time in ms to wait for the reply to a get, subscribe or unsubscribe, default 30s.
+	 * Set uk.ac.diamond.malcolm.connector.replyTimeout to change this.
+	 */
+	private static final long REPLY_TIMEOUT = Long.getLong("uk.ac.diamond.malcolm.connector.replyTimeout", 30000);
+
+	/**
+	 * The time in ms to wait for the reply to a call. Malcolm replies to a call 
+	 * such as run when it has finished so the default is a day. 
+	 * Set uk.ac.diamond.malcolm.connector.callTimeout to change this.
+	 */
+	private static final long CALL_TIMEOUT = Long.getLong("uk.ac.diamond.malcolm.connector.callTimeout", TimeUnit.DAYS.toMillis(1));
+
+	/**
+	 * The maximum number of requests which may wait for a reply at once, default 1024.
+	 * Set uk.ac.diamond.malcolm.connector.maxOutstanding to change this.
+	 */
+	private static final int MAX_OUTSTANDING = Integer.getInteger("uk.ac.diamond.malcolm.connector.maxOutstanding", 1024);
+
 	private Context                                   context;
 
 	private URI                                       uri;
@@ -44,18 +104,21 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 	private static int socketCount = 0;
 	private String inprocUri;
 	private Socket                                    sender;
+	private BlockingQueue<Socket>                     senders;
 	
-	// Malc Id -> Zeromq Id
-	private Map<Long, byte[]>                         idMap; // TODO Subscribes memory leak into this map at the moment.
-	
-	private Map<Long, Collection<IMalcolmListener<JsonMessage>>>  listeners;
-	private boolean                                   alive;
+	// Malc Id -> reply or listeners waiting for it
+	private MalcolmRequestRegistry<JsonMessage>       registry;
+	private ExecutorService                           despatcher;
+	private volatile boolean                          alive;
 	private ObjectMapper                              mapper;
+	private JsonMessageTemplates                      templates;
+	private boolean                                   templated = true;
 	
 	private static final String FINISH = "finish";
 
 	
 	private Thread brokerThread;
+	private long   readCount; // Only used by the broker thread
 
 	public void connect(URI uri) throws MalcolmDeviceException {
 	    
@@ -68,26 +131,40 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 		socket.connect(uri.toString());
 
 		this.sender = context.socket(ZMQ.ROUTER);
-		this.sender.setRouterMandatory(true);
 		this.inprocUri   = "inproc://malcolm"+(socketCount++);
 		sender.bind(inprocUri);
+		
+		this.senders = new LinkedBlockingQueue<Socket>(SOCKET_POOL_SIZE);
+		for (int i = 0; i < SOCKET_POOL_SIZE; i++) {
+			Socket connection = context.socket(ZMQ.DEALER);
+			connection.connect(inprocUri);
+			senders.add(connection);
+		}
 
-		this.mapper = createJacksonMapper();
+		this.mapper    = createJacksonMapper();
+		this.templates = new JsonMessageTemplates(mapper);
 		
-		// Latches to deal with threading, not ideal, overly complex?
-		this.idMap        = new Hashtable<Long, byte[]>(7);
-		this.listeners    = new Hashtable<Long, Collection<IMalcolmListener<JsonMessage>>>(7);
+		this.registry     = new MalcolmRequestRegistry<JsonMessage>(REPLY_TIMEOUT, MAX_OUTSTANDING);
+		registry.startSweeping(1, TimeUnit.SECONDS);
+		
+		// One thread so that the listeners of a subscription get its events in order.
+		this.despatcher   = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "0MQ Event Despatcher "+uri);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 		
 		setAlive(true);
 		
-		brokerThread = createMonitorThread();
-		brokerThread.setName("0MQ Message Broker "+socket.toString());
-		brokerThread.setDaemon(true);		
+		brokerThread = createMonitorThread("0MQ Message Broker "+socket.toString());
 		brokerThread.start();
 	}
 
-	private Thread createMonitorThread() {
-		return new Thread(new Runnable() {
+	private Thread createMonitorThread(String name) {
+		return ExecutorProviders.getProvider().newThread(name, true, new Runnable() {
 			public void run() {
 				
 				if (mapper==null) mapper = createJacksonMapper();
@@ -105,16 +182,13 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 					}
 					
 					if (items.pollin(1)) {
-						byte[] zmqid    = sender.recv(0);
-						String malcid   = sender.recvStr();
+						sender.recv(0); // The id of the inproc socket, replies do not go back to it.
 						String received = sender.recvStr();
 						
 						if (FINISH.equals(received)) {
 							logger.debug("Exiting "+Thread.currentThread().getName());
 							break;
 						}
-						idMap.put(Long.parseLong(malcid), zmqid);
-
 		                socket.send(received);
 					}
 				}
@@ -123,30 +197,35 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 		});
 	}
 	
-	private void messageRead(ObjectMapper mapper, String received) {
+	private void messageRead(ObjectMapper mapper, final String received) {
+		final long time     = System.nanoTime(); // Events are despatched later, their values were true now
+		final long sequence = readCount++;
         try {
-        	JsonMessage msg = (JsonMessage)mapper.readValue(received, JsonMessage.class);
+        	final JsonMessage msg = (JsonMessage)mapper.readValue(received, JsonMessage.class);
         	
-        	if (listeners.containsKey(msg.getId())) {
-        		
-        		// TODO Do not use the 0MQ socket thread to despatch events?
-        		Collection<IMalcolmListener<JsonMessage>> ls = listeners.get(msg.getId());
-        		IMalcolmListener<JsonMessage>[] snapshot = ls.toArray(new IMalcolmListener[ls.size()]);
-        		for (IMalcolmListener<JsonMessage> l : snapshot) l.eventPerformed(new MalcolmEvent<JsonMessage>(received, msg));
-        		
-        	} else if (idMap.containsKey(msg.getId())) {
-        		
-            	byte[] zmqId = idMap.remove(msg.getId());
-        		sender.sendMore(zmqId);
-        		sender.send(received);
+        	final Collection<IMalcolmListener<JsonMessage>> ls = registry.getListeners(msg.getId());
+        	if (ls!=null) {
+        		despatcher.execute(new Runnable() {
+        			public void run() {
+        				for (IMalcolmListener<JsonMessage> l : ls) {
+        					try {
+        						l.eventPerformed(new MalcolmEvent<JsonMessage>(received, msg, sequence, time));
+        					} catch (Exception ne) {
+        						logger.error("Listener for message "+msg.getId()+" failed!", ne);
+        					}
+        				}
+        			}
+        		});
         		
         	} else {
-        		throw new RuntimeException("ZMQ Id not in idMap!");
+        		
+        		if (!registry.complete(msg.getId(), msg)) {
+        			logger.debug("No request is waiting for the reply "+msg);
+        		}
         	}
         							
 		} catch (Exception e) {
 			logger.error("Something went wrong talking to ZeroMQ Malcolm!", e);
-			e.printStackTrace();
 		}
 	}
 
@@ -173,23 +252,27 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 		
 		ZMQ.Socket connection = context.socket(ZMQ.DEALER);
 		connection.connect(inprocUri);       
-		connection.sendMore(String.valueOf(-1)); // A thread will send it for us.		
 		connection.send(FINISH); // A thread will send it for us.		
 		connection.close();
 		
+		try {
+			brokerThread.join(500);
+		} catch (InterruptedException e) {
+			logger.error("Cannot wait for the broker thread to finish.", e);
+		}
+		brokerThread.interrupt(); // Just in case.
+
+		// Sockets in use are closed when they are given back, see giveBack(...)
+		Socket pooled;
+		while((pooled = senders.poll())!=null) pooled.close();
+		
 		socket.disconnect(uri.toString());
 		socket = null;
 		sender.disconnect(inprocUri);
 		sender = null;
 		
-		idMap.clear();
-		
-		try {
-			Thread.sleep(100);
-			brokerThread.interrupt(); // Just in case.
-		} catch (InterruptedException e) {
-			logger.error("Cannot suspend calling thread then interrupt helper threads.", e);
-		}
+		registry.close(new MalcolmDeviceException("The connection to "+uri+" was closed before a reply was received."));
+		despatcher.shutdown();
 	}
 
 	@Override
@@ -210,13 +293,41 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 	public void setAlive(boolean alive) {
 		this.alive = alive;
 	}
+
+	/**
+	 * The registry of outstanding requests and subscriptions, which may be used
+	 * to monitor the connection. Null until connected.
+	 * @return
+	 */
+	public MalcolmRequestRegistry<JsonMessage> getRegistry() {
+		return registry;
+	}
 	
 
 	@Override
 	public String marshal(Object anyObject) throws Exception {
+		if (templated && anyObject instanceof JsonMessage) return getTemplates().toJson((JsonMessage)anyObject);
 		if (mapper==null) mapper = createJacksonMapper();
 		return mapper.writeValueAsString(anyObject);
 	}
+	
+	/**
+	 * 
+	 * @param templated false to serialize every message, including those sent
+	 * to Malcolm, in full rather than reusing the JSON of messages which differ 
+	 * only by id. Default true.
+	 */
+	public void setTemplated(boolean templated) {
+		this.templated = templated;
+	}
+
+	private JsonMessageTemplates getTemplates() {
+		if (templates==null) {
+			if (mapper==null) mapper = createJacksonMapper();
+			templates = new JsonMessageTemplates(mapper);
+		}
+		return templates;
+	}
 
 
 	@Override
@@ -227,87 +338,112 @@ public class ZeromqConnectorService implements IMalcolmConnectorService<JsonMess
 
 	@Override
 	public JsonMessage send(IMalcolmDevice device, JsonMessage msg) throws MalcolmDeviceException {
-        JsonMessage reply = this.communicate(device, msg, true);
+		
+		final CompletableFuture<JsonMessage> future = sendAsync(device, msg);
+		JsonMessage reply;
+		try {
+			// The sweeper expires the request at its deadline, this timeout is only in case it cannot.
+			reply = future.get(getTimeout(msg)+TimeUnit.SECONDS.toMillis(5), TimeUnit.MILLISECONDS);
+		} catch (ExecutionException ee) {
+			if (ee.getCause() instanceof MalcolmDeviceException) throw (MalcolmDeviceException)ee.getCause();
+			throw new MalcolmDeviceException(device, "Cannot latch waiting for message of id "+msg.getId(), ee.getCause());
+		} catch (TimeoutException te) {
+			registry.expire(msg.getId());
+			throw new MalcolmDeviceException(device, "No reply for message of id "+msg.getId()+" was received in time!", te);
+		} catch (InterruptedException ie) {
+			registry.cancel(msg.getId());
+			throw new MalcolmDeviceException(device, "Interrupted waiting for message of id "+msg.getId(), ie);
+		}
 		if (reply!=null && reply.getType().isError()) throw new MalcolmDeviceException(device, reply.getMessage());
         return reply;
 	}
 	
+	@Override
+	public CompletableFuture<JsonMessage> sendAsync(IMalcolmDevice device, JsonMessage msg) throws MalcolmDeviceException {
+		
+		if (!isAlive())	throw new MalcolmDeviceException(device, "Cannot send message to "+device.getName()+" we are not connected!");
+
+		// Registered before sending so that a fast reply cannot arrive before it is expected.
+		final CompletableFuture<JsonMessage> reply = registry.register(device, msg.getId(), getTimeout(msg), TimeUnit.MILLISECONDS);
+		try {
+			communicate(device, msg);
+		} catch (MalcolmDeviceException ne) {
+			registry.cancel(msg.getId());
+			throw ne;
+		}
+		return reply;
+	}
+	
+	private static long getTimeout(JsonMessage msg) {
+		return msg.getType()==Type.CALL ? CALL_TIMEOUT : REPLY_TIMEOUT;
+	}
+	
 	@Override
 	public void subscribe(IMalcolmDevice device, JsonMessage msg, IMalcolmListener<JsonMessage> listener) throws MalcolmDeviceException {
-		this.communicate(device, msg, false);
 		
-		Collection<IMalcolmListener<JsonMessage>> ls = listeners.get(msg.getId());
-		if (ls == null) {
-			ls = new Vector<IMalcolmListener<JsonMessage>>(3);
-			listeners.put(msg.getId(), ls);
+		// Only the first listener subscribes, the others share its events.
+		if (registry.addListener(msg.getId(), listener)) {
+			try {
+				this.communicate(device, msg);
+			} catch (MalcolmDeviceException ne) {
+				registry.removeListeners(msg.getId());
+				throw ne;
+			}
 		}
-		ls.add(listener);
 	}
 
 	@Override
 	public JsonMessage unsubscribe(IMalcolmDevice device, JsonMessage msg, IMalcolmListener<JsonMessage>... removeListeners) throws MalcolmDeviceException {
 		
-		if (removeListeners==null) { // Kill ever subscribe
-			JsonMessage reply = this.communicate(device, msg, false);
-			listeners.remove(msg.getId());
-			if (reply!=null && reply.getType().isError()) throw new MalcolmDeviceException(device, reply.getMessage());
-			return reply;
-			
-		} else {
-			Collection<IMalcolmListener<JsonMessage>> ls = listeners.get(msg.getId());
-			if (ls!=null) {
-				ls.removeAll(Arrays.asList(removeListeners));
-				
-				if (ls.isEmpty()) {
-					JsonMessage reply = this.communicate(device, msg, false);
-					listeners.remove(msg.getId());
-					if (reply!=null && reply.getType().isError()) throw new MalcolmDeviceException(device, reply.getMessage());
-					return reply;
-				}
-			}
-			return null;
+		// No listeners removes the whole subscription, otherwise it goes with its last listener.
+		if (registry.removeListeners(msg.getId(), removeListeners) && isAlive()) {
+			return send(device, msg); // Throws if the reply is an ERROR
 		}
+		return null;
  	}
 	
-	protected JsonMessage communicate(IMalcolmDevice device, JsonMessage msg, boolean block) throws MalcolmDeviceException {
+	/**
+	 * Passes the message to the broker thread to send using one of the pooled inproc
+	 * sockets. This does not wait for a reply.
+	 * 
+	 * @param device
+	 * @param msg
+	 * @throws MalcolmDeviceException
+	 */
+	protected void communicate(IMalcolmDevice device, JsonMessage msg) throws MalcolmDeviceException {
 		
 		if (!isAlive())	throw new MalcolmDeviceException(device, "Cannot send message to "+device.getName()+" we are not connected!");
 		
-
 		final String message = toString(device, msg);
 
-		ZMQ.Socket connection = context.socket(ZMQ.DEALER);
+		Socket connection = null;
 		try {
-			connection.connect(inprocUri);  
-			
-			connection.sendMore(String.valueOf(msg.getId())); // A thread will send it for us.		
-			connection.send(message); // A thread will send it for us.		
-			
-			if (block) {
-			    try {
-					if (!isAlive())	throw new MalcolmDeviceException(device, "Cannot send message to "+device.getName()+" we are not connected!");
-					String received = connection.recvStr(); // Blocks until message is returned.
-					return (JsonMessage)mapper.readValue(received, JsonMessage.class);
-	
-			    } catch (MalcolmDeviceException mde) {
-					throw mde;
-				} catch (Exception e) {
-					throw new MalcolmDeviceException(device, "Cannot latch waiting for message of id "+msg.getId());
-				}
-			} else {
-				return null;
+			// Every socket may be in use, wait for one unless we are disconnected meanwhile.
+			while((connection = senders.poll(100, TimeUnit.MILLISECONDS))==null) {
+				if (!isAlive()) throw new MalcolmDeviceException(device, "Cannot send message to "+device.getName()+" we are not connected!");
 			}
+			connection.send(message); // The broker thread will send it for us.	
 			
+		} catch (InterruptedException ie) {
+			throw new MalcolmDeviceException(device, "Interrupted waiting for a socket to send message of id "+msg.getId(), ie);
 		} finally {
-			connection.close();
+			if (connection!=null) giveBack(connection);
 		}
-		
+	}
+	
+	/**
+	 * Returns a socket to the pool. If we were disconnected while it was in use the 
+	 * pool is closed, whichever of this and disconnect() takes it out again closes it.
+	 * @param connection
+	 */
+	private void giveBack(Socket connection) {
+		senders.add(connection);
+		if (!isAlive() && senders.remove(connection)) connection.close();
 	}
 
 	private String toString(IMalcolmDevice device, JsonMessage msg) throws MalcolmDeviceException {
 		try {
-			if (mapper==null) mapper = createJacksonMapper();
-		    return mapper.writeValueAsString(msg);
+		    return marshal(msg);
 		} catch (Exception ne) {
 			throw new MalcolmDeviceException(device, "Cannot serialize object to JSON "+msg, ne);
 		}